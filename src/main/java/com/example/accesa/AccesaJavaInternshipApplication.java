@@ -2,8 +2,12 @@ package com.example.accesa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableAsync;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableAsync
 public class AccesaJavaInternshipApplication {
 
 	public static void main(String[] args) {
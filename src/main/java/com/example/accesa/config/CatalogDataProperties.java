@@ -0,0 +1,28 @@
+package com.example.accesa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Where catalog CSV files are picked up from, bound from {@code catalog.data.*}.
+ *
+ * @param dir           an external directory holding catalog files; when unset only the bundled files are loaded
+ * @param bundled       whether the files packaged under {@code classpath:/data} are loaded
+ * @param watch         whether the external directory is watched for new or changed files after startup
+ * @param watchDebounce how long the directory must stay quiet before a batch of changes is ingested
+ * @param snapshot      a file the loaded catalog is saved to after ingestion and restored from on startup;
+ *                      when unset every startup parses all files
+ * @param snapshotDelay how long after an upload the snapshot is written; uploads within that time share one write
+ */
+@ConfigurationProperties(prefix = "catalog.data")
+public record CatalogDataProperties(
+        Path dir,
+        @DefaultValue("true") boolean bundled,
+        @DefaultValue("true") boolean watch,
+        @DefaultValue("2s") Duration watchDebounce,
+        Path snapshot,
+        @DefaultValue("10s") Duration snapshotDelay
+) {}
@@ -0,0 +1,23 @@
+package com.example.accesa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Read-side options, bound from {@code catalog.engine.*}.
+ *
+ * @param columnar     when true, price history queries are answered from an in-memory columnar copy of the
+ *                     product table instead of JPA entities
+ * @param rebuildDelay how long the catalog must be quiet after a change before the columnar copy is rebuilt
+ * @param cacheSize    how many query results are cached; 0 disables the cache
+ * @param cacheTtl     how long a cached result is kept at most, even if the catalog does not change
+ */
+@ConfigurationProperties(prefix = "catalog.engine")
+public record CatalogEngineProperties(
+        @DefaultValue("false") boolean columnar,
+        @DefaultValue("1s") Duration rebuildDelay,
+        @DefaultValue("1000") int cacheSize,
+        @DefaultValue("10m") Duration cacheTtl
+) {}
@@ -0,0 +1,21 @@
+package com.example.accesa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * Retention of old prices outside the catalog database, bound from {@code catalog.history.*}.
+ *
+ * @param dir          a directory that prices older than the hot months are moved to, as memory-mapped segment
+ *                     files per store and month; when unset all prices stay in the database
+ * @param hotMonths    how many months, counting the current one, stay in the database
+ * @param openSegments how many segment files are kept mapped at once
+ */
+@ConfigurationProperties(prefix = "catalog.history")
+public record CatalogHistoryProperties(
+        Path dir,
+        @DefaultValue("3") int hotMonths,
+        @DefaultValue("512") int openSegments
+) {}
@@ -0,0 +1,26 @@
+package com.example.accesa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for the CSV ingestion path, bound from {@code catalog.ingest.*}.
+ *
+ * @param bulk          when true, rows are written with plain JDBC batch inserts instead of per-row JPA saves
+ * @param batchSize     the number of rows sent to the database in a single JDBC batch
+ * @param parserThreads the number of files parsed at once; 0 uses one thread per available core
+ * @param writerThreads the number of threads writing parsed batches to the database
+ * @param queueCapacity the number of parsed batches that may wait for a writer before parsers block
+ * @param uploadTimeout how long an upload may wait for a free slot in the queue before it is refused
+ */
+@ConfigurationProperties(prefix = "catalog.ingest")
+public record IngestProperties(
+        @DefaultValue("true") boolean bulk,
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("0") int parserThreads,
+        @DefaultValue("2") int writerThreads,
+        @DefaultValue("16") int queueCapacity,
+        @DefaultValue("30s") Duration uploadTimeout
+) {}
@@ -2,10 +2,14 @@ package com.example.accesa.controller;
 
 import com.example.accesa.domain.Discount;
 import com.example.accesa.dto.ApiResponse;
+import com.example.accesa.dto.DiscountView;
+import com.example.accesa.service.CatalogExporter;
 import com.example.accesa.service.DiscountService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -15,15 +19,27 @@ import java.util.List;
 public class DiscountController {
 
     private final DiscountService discountService;
+    private final CatalogExporter exporter;
 
     /**
      * Retrieves all available discounts.
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Discount>>> getAllDiscounts() {
+    public ResponseEntity<ApiResponse<List<DiscountView>>> getAllDiscounts() {
         return ResponseEntity.ok(new ApiResponse<>(true, discountService.getAllDiscounts(), "All discounts retrieved"));
     }
 
+    /**
+     * Streams every discount as newline-delimited JSON. Chosen over the list with
+     * {@code Accept: application/x-ndjson}.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportDiscounts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(exporter::writeDiscounts);
+    }
+
     /**
      * Retrieves the top N best discounts by percentage.
      */
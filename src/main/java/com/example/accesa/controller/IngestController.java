@@ -0,0 +1,59 @@
+package com.example.accesa.controller;
+
+import com.example.accesa.domain.RejectedRow;
+import com.example.accesa.dto.ApiResponse;
+import com.example.accesa.dto.IngestResult;
+import com.example.accesa.ingest.IngestQuarantine;
+import com.example.accesa.service.CatalogUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/ingest")
+@RequiredArgsConstructor
+public class IngestController {
+
+    private final CatalogUploadService uploadService;
+    private final IngestQuarantine quarantine;
+
+    /**
+     * Loads a product or discount CSV for a store and date from the request body, which may be sent chunked.
+     * Responds with 503 if the database falls behind the upload for too long.
+     */
+    @PostMapping(value = "/{store}/{date}", consumes = {"text/csv", "text/plain", "application/octet-stream"})
+    public ResponseEntity<ApiResponse<IngestResult>> upload(@PathVariable String store,
+                                                            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                            HttpServletRequest request) throws IOException {
+        IngestResult result = uploadService.upload(store, date, request.getInputStream());
+        return ResponseEntity.ok(new ApiResponse<>(true, result,
+                result.accepted() + " rows accepted, " + result.rejected() + " rejected"));
+    }
+
+    /**
+     * Lists the rows that were rejected while loading catalog files, oldest first.
+     *
+     * @param file the optional file name to filter by, e.g. {@code lidl_2025-05-08.csv}
+     * @param page the zero-based page
+     * @param size the page size, at most 1000
+     * @return the rejected rows with their line numbers and reasons
+     */
+    @GetMapping("/rejections")
+    public ResponseEntity<ApiResponse<List<RejectedRow>>> getRejections(
+            @RequestParam(required = false) String file,
+            @RequestParam(required = false, defaultValue = "0") int page,
+            @RequestParam(required = false, defaultValue = "100") int size
+    ) {
+        if (page < 0 || size < 1 || size > 1000) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, null, "page must be at least 0 and size between 1 and 1000"));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, quarantine.find(file, page, size), "Rejected rows"));
+    }
+}
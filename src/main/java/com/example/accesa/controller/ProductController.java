@@ -1,12 +1,28 @@
 package com.example.accesa.controller;
 
+import com.example.accesa.domain.BaseUnit;
 import com.example.accesa.domain.Product;
 import com.example.accesa.dto.ApiResponse;
+import com.example.accesa.dto.CursorPage;
+import com.example.accesa.dto.PageCursor;
+import com.example.accesa.dto.PriceAsOfRequest;
+import com.example.accesa.dto.PricePoint;
+import com.example.accesa.dto.ProductFilter;
+import com.example.accesa.dto.ProductView;
+import com.example.accesa.dto.Suggestion;
+import com.example.accesa.service.CatalogExporter;
 import com.example.accesa.service.ProductService;
+import com.example.accesa.service.SuggestionIndex;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -14,46 +30,86 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
 
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+    static final String DEFAULT_PAGE_SIZE = "500";
+    static final int MAX_PAGE_SIZE = 5000;
+
     private final ProductService productService;
+    private final CatalogExporter exporter;
 
     /**
-     * Retrieves all products, optionally filtered by a store name.
+     * Retrieves one page of products, optionally filtered by a store name, in (store, product id, date) order.
+     * When there are more rows, the token for the next page is returned in the {@value #NEXT_CURSOR} header.
      *
-     * @param store the optional store name to filter products
-     * @return a list of products wrapped in an API response
+     * @param store  the optional store name to filter products
+     * @param cursor the token of the page to fetch, or absent for the first page
+     * @param size   the page size, at most {@value #MAX_PAGE_SIZE}
+     * @return a page of products wrapped in an API response
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Product>>> getAllProducts(@RequestParam(required = false) String store) {
-        return ResponseEntity.ok(new ApiResponse<>(true, productService.getAllProducts(store), "Products retrieved"));
+    public ResponseEntity<ApiResponse<List<ProductView>>> getAllProducts(
+            @RequestParam(required = false) String store,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = DEFAULT_PAGE_SIZE) int size
+    ) {
+        if (size < 1 || size > MAX_PAGE_SIZE) return invalidSize();
+        return page(productService.getProducts(store, PageCursor.decode(cursor), size), "Products retrieved");
+    }
+
+    /**
+     * Streams every product, optionally filtered by a store name, as newline-delimited JSON in (store, product id,
+     * date) order. Chosen over the paged list with {@code Accept: application/x-ndjson}.
+     *
+     * @param store the optional store name to filter products
+     * @return one JSON product per line
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(required = false) String store) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> exporter.writeProducts(store, out));
     }
 
     /**
-     * Retrieves the price history of a product by its productId.
+     * Retrieves one page of the price history of a product by its productId, by date.
      *
      * @param productId the unique ID of the product
      * @param store     the optional store name to filter price history
+     * @param cursor    the token of the page to fetch, or absent for the first page
+     * @param size      the page size, at most {@value #MAX_PAGE_SIZE}
      * @return a list of product price history records wrapped in an API response
      */
     @GetMapping("/{productId}/price-history")
     public ResponseEntity<ApiResponse<List<Product>>> getPriceHistoryById(
             @PathVariable String productId,
-            @RequestParam(required = false) String store
+            @RequestParam(required = false) String store,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = DEFAULT_PAGE_SIZE) int size
     ) {
         if (productId == null || productId.isBlank()) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse<>(false, null, "productId path variable is required and cannot be blank"));
         }
+        if (size < 1 || size > MAX_PAGE_SIZE) return invalidSize();
 
-        return ResponseEntity.ok(new ApiResponse<>(true, productService.getPriceHistoryById(productId, store), "Price history by ID"));
+        return page(productService.getPriceHistoryById(productId, store, PageCursor.decode(cursor), size), "Price history by ID");
     }
 
     /**
-     * Retrieves the price history of a product by partial name match and optional filters.
+     * Retrieves one page of the price history of a product by partial name match and optional filters, by date.
+     * Text filters ignore case; ranges include their bounds.
      *
      * @param name     the partial or full name of the product
      * @param store    the optional store name
      * @param brand    the optional brand
      * @param category the optional category
+     * @param unit     the optional package unit, e.g. {@code kg}
+     * @param minPrice the optional lowest price
+     * @param maxPrice the optional highest price
+     * @param from     the optional first date, e.g. {@code 2025-05-01}
+     * @param to       the optional last date
+     * @param cursor   the token of the page to fetch, or absent for the first page
+     * @param size     the page size, at most {@value #MAX_PAGE_SIZE}
      * @return a filtered list of product price records wrapped in an API response
      */
     @GetMapping("/name/price-history")
@@ -61,16 +117,69 @@ public class ProductController {
             @RequestParam String name,
             @RequestParam(required = false) String store,
             @RequestParam(required = false) String brand,
-            @RequestParam(required = false) String category
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String unit,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = DEFAULT_PAGE_SIZE) int size
     ) {
-        return ResponseEntity.ok(new ApiResponse<>(true, productService.getPriceHistoryByName(name, store, brand, category), "Price history by name"));
+        if (size < 1 || size > MAX_PAGE_SIZE) return invalidSize();
+        ProductFilter filter = new ProductFilter(name, store, brand, category, unit, minPrice, maxPrice, from, to);
+        return page(productService.getPriceHistoryByName(filter, PageCursor.decode(cursor), size), "Price history by name");
+    }
+
+    /**
+     * Retrieves the current prices of the products sold by weight, volume or piece, cheapest per kg, l or piece
+     * first, across all stores. Grams and millilitres are counted as kg and l.
+     *
+     * @param unit     the unit to compare in, e.g. {@code kg}, {@code l} or {@code buc}
+     * @param category the optional category
+     * @param size     the most products to return, at most {@value #MAX_PAGE_SIZE}
+     * @return the cheapest products wrapped in an API response
+     */
+    @GetMapping("/cheapest")
+    public ResponseEntity<ApiResponse<List<ProductView>>> getCheapest(
+            @RequestParam(required = false, defaultValue = "kg") String unit,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false, defaultValue = "20") int size
+    ) {
+        if (size < 1 || size > MAX_PAGE_SIZE) return invalidSize();
+        return ResponseEntity.ok(new ApiResponse<>(true, productService.getCheapest(unit, category, size),
+                "Cheapest products per " + BaseUnit.of(unit)));
+    }
+
+    /**
+     * Suggests product names while the user types, ranked by how many stores carry them. The prefix is matched
+     * against the start of the name, ignoring case and diacritics.
+     *
+     * @param q     the typed prefix
+     * @param limit the most suggestions to return, at most {@value SuggestionIndex#MAX_SUGGESTIONS}
+     * @return the suggested names and brands wrapped in an API response
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<Suggestion>>> suggest(
+            @RequestParam String q,
+            @RequestParam(required = false, defaultValue = "10") int limit
+    ) {
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, "q is required and cannot be blank"));
+        }
+        if (limit < 1 || limit > SuggestionIndex.MAX_SUGGESTIONS) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, null, "limit must be between 1 and " + SuggestionIndex.MAX_SUGGESTIONS));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, productService.suggest(q, limit), "Suggestions retrieved"));
     }
 
     /**
-     * Retrieves substitute products within the same category but different brand,
-     * sorted by unit price and within 10% margin of the original.
+     * Retrieves substitute products within the same category but different brand, whose price per kg, l or piece
+     * is within a margin of the original's, sorted by that price.
      *
      * @param productId the ID of the product to find substitutes for
+     * @param margin    the largest difference in price per unit, in percent; 10 by default
      * @return a list of substitute products wrapped in an API response
      */
     @GetMapping("/{productId}/substitutes")
@@ -82,10 +191,60 @@ public class ProductController {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse<>(false, null, "productId path variable is required and cannot be blank"));
         }
+        if (margin < 0 || margin > 100) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, "margin must be between 0 and 100"));
+        }
 
         return ResponseEntity.ok(
                 new ApiResponse<>(true, productService.findSubstitutes(productId, margin), "Substitutes retrieved")
         );
     }
 
-}
\ No newline at end of file
+    /**
+     * Retrieves the price a product had on a day: in each store, that of the latest snapshot on or before it.
+     *
+     * @param productId the ID of the product
+     * @param asOf      the day to price, e.g. {@code 2025-05-01}
+     * @param store     the optional store name
+     * @return one price per store that had the product by then, wrapped in an API response
+     */
+    @GetMapping("/{productId}/price")
+    public ResponseEntity<ApiResponse<List<PricePoint>>> getPriceAsOf(
+            @PathVariable String productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(required = false) String store
+    ) {
+        if (productId == null || productId.isBlank()) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, null, "productId path variable is required and cannot be blank"));
+        }
+
+        return ResponseEntity.ok(
+                new ApiResponse<>(true, productService.getPriceAsOf(productId, store, asOf), "Price as of " + asOf)
+        );
+    }
+
+    /**
+     * Retrieves the prices of several products, each on its own day; see {@link #getPriceAsOf}.
+     *
+     * @param request the (product, optional store, day) lookups
+     * @return the prices found, in the order of the lookups, wrapped in an API response
+     */
+    @PostMapping("/prices")
+    public ResponseEntity<ApiResponse<List<PricePoint>>> getPricesAsOf(@Valid @RequestBody PriceAsOfRequest request) {
+        return ResponseEntity.ok(
+                new ApiResponse<>(true, productService.getPricesAsOf(request.queries()), "Prices retrieved")
+        );
+    }
+
+    private static <T> ResponseEntity<ApiResponse<List<T>>> page(CursorPage<T> page, String message) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) response.header(NEXT_CURSOR, page.nextCursor());
+        return response.body(new ApiResponse<>(true, page.items(), message));
+    }
+
+    private static <T> ResponseEntity<ApiResponse<T>> invalidSize() {
+        return ResponseEntity.badRequest()
+                .body(new ApiResponse<>(false, null, "size must be between 1 and " + MAX_PAGE_SIZE));
+    }
+}
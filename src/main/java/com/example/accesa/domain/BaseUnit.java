@@ -0,0 +1,47 @@
+package com.example.accesa.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The units package quantities are compared in: grams are counted in kilograms and millilitres in litres. Any
+ * other unit, such as {@code buc} or {@code role}, is its own base unit, so only packages of the same kind are
+ * compared.
+ */
+public final class BaseUnit {
+    private static final Map<String, String> BASE = Map.of("g", "kg", "ml", "l");
+    private static final BigDecimal THOUSANDTH = new BigDecimal("0.001");
+
+    private BaseUnit() {
+    }
+
+    /**
+     * @param unit a package unit, in any case
+     * @return the base unit it converts to, in lower case, or null for null
+     */
+    public static String of(String unit) {
+        if (unit == null) return null;
+        String lower = unit.strip().toLowerCase(Locale.ROOT);
+        return BASE.getOrDefault(lower, lower);
+    }
+
+    /**
+     * @return the quantity in the base unit, or null for null
+     */
+    public static BigDecimal quantity(BigDecimal quantity, String unit) {
+        if (quantity == null || unit == null) return quantity;
+        return BASE.containsKey(unit.strip().toLowerCase(Locale.ROOT)) ? quantity.multiply(THOUSANDTH) : quantity;
+    }
+
+    /**
+     * @return the price per base unit, e.g. per kg for a 500 g package, or null if there is no price or no
+     * positive quantity
+     */
+    public static BigDecimal unitPrice(BigDecimal price, BigDecimal quantity, String unit) {
+        BigDecimal base = quantity(quantity, unit);
+        if (price == null || base == null || base.signum() <= 0) return null;
+        return price.divide(base, 4, RoundingMode.HALF_UP);
+    }
+}
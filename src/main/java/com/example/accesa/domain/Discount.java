@@ -2,6 +2,9 @@ package com.example.accesa.domain;
 
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,7 +12,15 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+/**
+ * A percentage discount on a product in one store for a date range. Besides the primary key, the table is indexed
+ * by validity period, for new and active discounts, and by percentage, for the best discounts.
+ */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_discount_period", columnList = "from_date, to_date"),
+        @Index(name = "idx_discount_percentage", columnList = "percentage")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,4 +40,16 @@ public class Discount {
     public boolean isActive(LocalDate today) {
         return !today.isBefore(id.getFromDate()) && !today.isAfter(toDate);
     }
+
+    /**
+     * Replaces the low-cardinality values read from the database with their shared instances.
+     */
+    @PostLoad
+    void shareRepeatedValues() {
+        StringDictionary dictionary = StringDictionary.shared();
+        id.setStoreName(dictionary.intern(id.getStoreName()));
+        brand = dictionary.intern(brand);
+        unit = dictionary.intern(unit);
+        category = dictionary.intern(category);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.accesa.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Manifest entry for a catalog file that has been loaded. It lives next to the catalog rows, so the
+ * manifest and the data it describes are always kept or lost together.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestedFile {
+
+    @Id
+    private String fileName;
+
+    private String checksum;
+
+    private long rowsLoaded;
+
+    private LocalDateTime ingestedAt;
+}
@@ -1,33 +1,129 @@
 package com.example.accesa.domain;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.math.BigDecimal;
 
+/**
+ * The price of a product in one store on one day. Besides the primary key, the table is indexed for the lookups
+ * the repositories make: a product's history across stores and dates, and by date for its pages, a store's
+ * products by date, the products of a category by brand, the rows of the names a name search found, the pages of
+ * the product list in (store, product id, date) order, and the products of one base unit by price per base unit. The primary key,
+ * which starts with the date, serves date ranges; the store index also serves the lookups and deletions of one
+ * store and date. The text columns a query filters on compare ignoring case, so those filters can use the indexes.
+ *
+ * <p>The base unit and the price per base unit (see {@link BaseUnit}) are derived from the quantity, unit and price
+ * whenever those are set, and stored, so that prices of packages of different sizes compare without a division
+ * per comparison.
+ */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_product_history", columnList = "product_id, store_name, date"),
+        @Index(name = "idx_product_timeline", columnList = "product_id, date, store_name"),
+        @Index(name = "idx_product_store_date", columnList = "store_name, date"),
+        @Index(name = "idx_product_page", columnList = "store_name, product_id, date"),
+        @Index(name = "idx_product_category_brand", columnList = "category, brand"),
+        @Index(name = "idx_product_name", columnList = "name"),
+        @Index(name = "idx_product_unit_price", columnList = "base_unit, base_unit_price, store_name, product_id")
+})
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class Product {
+    static final String IGNORE_CASE = "VARCHAR_IGNORECASE(255)";
 
     @EmbeddedId
     private ProductId id;
 
+    @Column(columnDefinition = IGNORE_CASE)
     private String name;
+    @Column(columnDefinition = IGNORE_CASE)
     private String category;
+    @Column(columnDefinition = IGNORE_CASE)
     private String brand;
     private BigDecimal quantity;
+    @Column(columnDefinition = IGNORE_CASE)
     private String unit;
     private BigDecimal price;
     private String currency;
+    @Setter(AccessLevel.NONE)
+    private String baseUnit;
+    @Setter(AccessLevel.NONE)
+    @Column(precision = 19, scale = 4)
+    private BigDecimal baseUnitPrice;
+
+    public Product(ProductId id, String name, String category, String brand, BigDecimal quantity, String unit,
+                   BigDecimal price, String currency) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.brand = brand;
+        this.quantity = quantity;
+        this.unit = unit;
+        this.price = price;
+        this.currency = currency;
+        normalizeUnit();
+    }
+
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+        normalizeUnit();
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+        normalizeUnit();
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+        normalizeUnit();
+    }
 
     public BigDecimal getUnitPrice() {
+        return unitPrice(price, quantity);
+    }
+
+    /**
+     * The price per unit of package quantity, or zero if there is no positive quantity.
+     */
+    public static BigDecimal unitPrice(BigDecimal price, BigDecimal quantity) {
         return quantity != null && quantity.compareTo(BigDecimal.ZERO) > 0
                 ? price.divide(quantity, 4, BigDecimal.ROUND_HALF_UP)
                 : BigDecimal.ZERO;
     }
+
+    /**
+     * Derives the base unit and the price per base unit from the quantity, unit and price.
+     */
+    @PrePersist
+    @PreUpdate
+    void normalizeUnit() {
+        baseUnit = BaseUnit.of(unit);
+        baseUnitPrice = BaseUnit.unitPrice(price, quantity, unit);
+    }
+
+    /**
+     * Replaces the low-cardinality values read from the database with their shared instances.
+     */
+    @PostLoad
+    void shareRepeatedValues() {
+        StringDictionary dictionary = StringDictionary.shared();
+        id.setStoreName(dictionary.intern(id.getStoreName()));
+        category = dictionary.intern(category);
+        brand = dictionary.intern(brand);
+        unit = dictionary.intern(unit);
+        baseUnit = dictionary.intern(baseUnit);
+        currency = dictionary.intern(currency);
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.accesa.domain;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -14,6 +15,7 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class ProductId implements Serializable {
     private String productId;
+    @Column(columnDefinition = Product.IGNORE_CASE)
     private String storeName;
     private LocalDate date;
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.example.accesa.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A catalog row that could not be loaded, kept with the reason so bad input can be looked up and fixed at the source.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_rejected_row_file", columnList = "fileName"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RejectedRow {
+    public static final int MAX_TEXT_LENGTH = 1000;
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String fileName;
+
+    /**
+     * The line in the file, or null for rows that were parsed but refused by the database.
+     */
+    private Long lineNumber;
+
+    @Column(length = MAX_TEXT_LENGTH)
+    private String content;
+
+    @Column(length = MAX_TEXT_LENGTH)
+    private String reason;
+
+    private LocalDateTime rejectedAt;
+}
@@ -0,0 +1,60 @@
+package com.example.accesa.domain;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The form product names are searched in: lower case and without diacritics, so that "oua" finds "ouă" and
+ * "branza" finds "Brânză". Both the comma-below and the cedilla forms of ș and ț fold to s and t.
+ */
+public final class SearchText {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    /**
+     * The Latin letters below this are folded by table lookup, the rest by full decomposition.
+     */
+    private static final char TABLE_END = '\u0250';
+    private static final char[] FOLD = new char[TABLE_END];
+
+    static {
+        for (char c = 0; c < TABLE_END; c++) {
+            String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            FOLD[c] = decomposed.charAt(0);
+        }
+    }
+
+    private SearchText() {
+    }
+
+    /**
+     * @return the text in search form, or null for null
+     */
+    public static String normalize(String text) {
+        if (text == null) return null;
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (isAscii(lower)) return lower;
+        char[] folded = new char[lower.length()];
+        for (int i = 0; i < folded.length; i++) {
+            char c = lower.charAt(i);
+            if (c >= TABLE_END) return MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+            folded[i] = FOLD[c];
+        }
+        return new String(folded);
+    }
+
+    /**
+     * @param name   a product name, or null
+     * @param needle text already in search form
+     * @return whether the name contains the needle, ignoring case and diacritics
+     */
+    public static boolean contains(String name, String needle) {
+        return name != null && normalize(name).contains(needle);
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) return false;
+        }
+        return true;
+    }
+}
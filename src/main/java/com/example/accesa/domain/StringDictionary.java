@@ -0,0 +1,51 @@
+package com.example.accesa.domain;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances for low-cardinality text values such as store names, categories, brands, units and
+ * currencies, so that the millions of rows which repeat them share one String each instead of holding a copy.
+ * The dictionary is thread-safe. It stops taking new values once it is full, which keeps it bounded even if
+ * it is fed a high-cardinality field by mistake; values beyond that point are returned as given.
+ */
+public final class StringDictionary {
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final StringDictionary SHARED = new StringDictionary(DEFAULT_CAPACITY);
+
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+    private final int capacity;
+
+    public StringDictionary(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * The dictionary used by the ingestion path and the entities.
+     */
+    public static StringDictionary shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param value a value, or null
+     * @return the canonical instance equal to the value, or the value itself if it is the first of its kind
+     * or the dictionary is full
+     */
+    public String intern(String value) {
+        if (value == null) return null;
+
+        String canonical = values.get(value);
+        if (canonical != null) return canonical;
+        if (values.size() >= capacity) return value;
+
+        canonical = values.putIfAbsent(value, value);
+        return canonical != null ? canonical : value;
+    }
+
+    /**
+     * @return the number of distinct values held
+     */
+    public int size() {
+        return values.size();
+    }
+}
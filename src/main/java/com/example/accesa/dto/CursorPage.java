@@ -0,0 +1,52 @@
+package com.example.accesa.dto;
+
+import com.example.accesa.domain.ProductId;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated result.
+ *
+ * @param items      the rows of the page
+ * @param nextCursor the token for the next page, or null if this is the last one
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Makes a page from a query that asked for one row more than the page size, so the extra row tells whether
+     * there is a next page.
+     *
+     * @param rows at most {@code size + 1} rows, in key order
+     * @param key  the key of a row
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, ProductId> key) {
+        if (rows.size() <= size) return new CursorPage<>(List.copyOf(rows), null);
+        List<T> items = List.copyOf(rows.subList(0, size));
+        return new CursorPage<>(items, PageCursor.of(key.apply(items.getLast())).encode());
+    }
+
+    /**
+     * Cuts a page out of a complete result that is sorted by key. The start is found by binary search, so a
+     * deep page costs the same as the first.
+     *
+     * @param sorted the rows, sorted by {@code order} on their keys
+     * @param after  the key the page starts after, or null for the first page
+     */
+    public static <T> CursorPage<T> slice(List<T> sorted, Function<T, ProductId> key, Comparator<ProductId> order,
+                                          PageCursor after, int size) {
+        int from = 0;
+        if (after != null) {
+            ProductId start = after.toId();
+            int lo = 0, hi = sorted.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (order.compare(key.apply(sorted.get(mid)), start) <= 0) lo = mid + 1;
+                else hi = mid;
+            }
+            from = lo;
+        }
+        return of(sorted.subList(from, Math.min(sorted.size(), from + size + 1)), size, key);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.accesa.dto;
+
+import com.example.accesa.domain.Discount;
+import com.example.accesa.domain.DiscountId;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A discount row as the list endpoints return it, read by a projection query instead of as a managed entity.
+ * Serializes to the same JSON as {@link Discount}.
+ */
+public record DiscountView(DiscountId id, String name, String brand, BigDecimal quantity, String unit,
+                           String category, LocalDate toDate, BigDecimal percentage) {}
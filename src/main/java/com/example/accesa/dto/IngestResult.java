@@ -0,0 +1,20 @@
+package com.example.accesa.dto;
+
+import com.example.accesa.ingest.IngestFile;
+import com.example.accesa.ingest.IngestSummary;
+
+import java.time.LocalDate;
+
+/**
+ * Outcome of an upload: how many rows were stored and how many were skipped, and for a product upload
+ * what changed in the stored prices of its store and date.
+ */
+public record IngestResult(String store, LocalDate date, IngestFile.Kind kind, long accepted, long rejected,
+                           IngestSummary.Diff changes, long elapsedMs) {
+
+    public static IngestResult of(IngestFile source, IngestSummary summary) {
+        IngestSummary.Diff changes = summary.files().isEmpty() ? null : summary.files().get(0).diff();
+        return new IngestResult(source.store(), source.date(), source.kind(),
+                summary.persisted(), summary.rejected(), changes, summary.elapsed().toMillis());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.accesa.dto;
+
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.exception.InvalidCursorException;
+
+import java.io.*;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * The key of the last row of a page, which the next page starts after. Clients see it as an opaque URL-safe
+ * token and send it back unchanged.
+ */
+public record PageCursor(String storeName, String productId, LocalDate date) {
+    private static final int VERSION = 1;
+
+    public static PageCursor of(ProductId id) {
+        return new PageCursor(id.getStoreName(), id.getProductId(), id.getDate());
+    }
+
+    public ProductId toId() {
+        return new ProductId(productId, storeName, date);
+    }
+
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(storeName);
+            out.writeUTF(productId);
+            out.writeLong(date.toEpochDay());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * @param token a token made by {@link #encode()}, or null for the first page
+     * @return the cursor, or null for the first page
+     * @throws InvalidCursorException if the token was not made by {@link #encode()}
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isEmpty()) return null;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != VERSION) throw new InvalidCursorException(token);
+            PageCursor cursor = new PageCursor(in.readUTF(), in.readUTF(), LocalDate.ofEpochDay(in.readLong()));
+            if (in.available() > 0) throw new InvalidCursorException(token);
+            return cursor;
+        } catch (IllegalArgumentException | IOException | DateTimeException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
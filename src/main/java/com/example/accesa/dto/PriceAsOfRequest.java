@@ -0,0 +1,28 @@
+package com.example.accesa.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record PriceAsOfRequest(
+        @NotEmpty(message = "Query list cannot be empty")
+        @Size(max = 1000, message = "At most 1000 queries are allowed")
+        List<@Valid @NotNull Query> queries
+) {
+
+    /**
+     * @param productId the product
+     * @param storeName the store, or null for every store
+     * @param asOf      the day to price
+     */
+    public record Query(
+            @NotBlank(message = "productId is required") String productId,
+            String storeName,
+            @NotNull(message = "asOf is required") LocalDate asOf
+    ) {}
+}
@@ -0,0 +1,18 @@
+package com.example.accesa.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The price of a product in a store on a given day.
+ *
+ * @param productId the product
+ * @param storeName the store
+ * @param asOf      the day asked about
+ * @param date      the date of the snapshot in force on that day, on or before it
+ * @param price     the price of that snapshot
+ * @param currency  the currency of the price
+ */
+public record PricePoint(String productId, String storeName, LocalDate asOf, LocalDate date, BigDecimal price,
+                         String currency) {
+}
@@ -0,0 +1,44 @@
+package com.example.accesa.dto;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.SearchText;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Optional criteria of a price history query; a null field does not filter. Text is matched ignoring case, the
+ * name as a substring that also ignores diacritics (see {@link SearchText}) and the other fields exactly. Ranges
+ * include their bounds.
+ */
+public record ProductFilter(String name, String store, String brand, String category, String unit,
+                            BigDecimal minPrice, BigDecimal maxPrice, LocalDate from, LocalDate to) {
+
+    public static ProductFilter byName(String name, String store, String brand, String category) {
+        return new ProductFilter(name, store, brand, category, null, null, null, null, null);
+    }
+
+    /**
+     * @return the filter with its date range narrowed to the given one; a null bound narrows nothing
+     */
+    public ProductFilter within(LocalDate first, LocalDate last) {
+        LocalDate f = from == null || first != null && first.isAfter(from) ? first : from;
+        LocalDate t = to == null || last != null && last.isBefore(to) ? last : to;
+        return new ProductFilter(name, store, brand, category, unit, minPrice, maxPrice, f, t);
+    }
+
+    /**
+     * Applies the criteria to a row that was not read with them, e.g. from the history archive.
+     */
+    public boolean test(Product p) {
+        return (name == null || SearchText.contains(p.getName(), SearchText.normalize(name)))
+                && (store == null || store.equalsIgnoreCase(p.getId().getStoreName()))
+                && (brand == null || brand.equalsIgnoreCase(p.getBrand()))
+                && (category == null || category.equalsIgnoreCase(p.getCategory()))
+                && (unit == null || unit.equalsIgnoreCase(p.getUnit()))
+                && (minPrice == null || p.getPrice() != null && p.getPrice().compareTo(minPrice) >= 0)
+                && (maxPrice == null || p.getPrice() != null && p.getPrice().compareTo(maxPrice) <= 0)
+                && (from == null || !p.getId().getDate().isBefore(from))
+                && (to == null || !p.getId().getDate().isAfter(to));
+    }
+}
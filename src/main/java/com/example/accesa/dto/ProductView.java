@@ -0,0 +1,20 @@
+package com.example.accesa.dto;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+/**
+ * A product row as the list endpoints return it, read by a projection query instead of as a managed entity.
+ * Serializes to the same JSON as {@link Product}.
+ */
+public record ProductView(ProductId id, String name, String category, String brand, BigDecimal quantity,
+                          String unit, BigDecimal price, String currency, String baseUnit, BigDecimal baseUnitPrice) {
+
+    @JsonProperty
+    public BigDecimal unitPrice() {
+        return Product.unitPrice(price, quantity);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.accesa.dto;
+
+/**
+ * A product name offered while the user types.
+ *
+ * @param name   the product name, as first stored
+ * @param brand  the brand, or null
+ * @param stores how many stores carry the product
+ */
+public record Suggestion(String name, String brand, int stores) {
+}
@@ -1,8 +1,13 @@
 package com.example.accesa.exception;
 
 import com.example.accesa.dto.ApiResponse;
+import com.example.accesa.dto.IngestResult;
+import com.example.accesa.ingest.IngestBackpressureException;
+import com.example.accesa.ingest.IngestSummary;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -30,6 +35,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
     }
 
+    @ExceptionHandler(InvalidUploadException.class)
+    public ResponseEntity<ApiResponse<Object>> handleInvalidUpload(InvalidUploadException ex) {
+        return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiResponse<Object>> handleInvalidCursor(InvalidCursorException ex) {
+        return ResponseEntity.badRequest().body(new ApiResponse<>(false, null, ex.getMessage()));
+    }
+
+    @ExceptionHandler(IngestBackpressureException.class)
+    public ResponseEntity<ApiResponse<IngestResult>> handleBackpressure(IngestBackpressureException ex) {
+        IngestSummary partial = ex.getPartial();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(new ApiResponse<>(false, IngestResult.of(partial.files().get(0).file(), partial), ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Object>> handleGeneric(Exception ex) {
         return ResponseEntity.internalServerError().body(new ApiResponse<>(false, null, ex.getMessage()));
@@ -0,0 +1,11 @@
+package com.example.accesa.exception;
+
+/**
+ * Thrown when a page cursor sent by a client is not one the server issued.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String cursor) {
+        super("Invalid page cursor: " + cursor);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.accesa.exception;
+
+/**
+ * Thrown when an uploaded CSV body cannot be accepted, e.g. because its header matches no known layout.
+ */
+public class InvalidUploadException extends RuntimeException {
+
+    public InvalidUploadException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+
+import java.util.List;
+
+/**
+ * Published once product or discount rows have been stored or deleted, so read models derived from the catalog
+ * tables can follow along. Listeners run on the writing thread, after the rows are committed.
+ *
+ * @param written   the products that were inserted or updated
+ * @param deleted   the keys of the products that were deleted
+ * @param discounts the number of discounts that were inserted or updated
+ */
+public record CatalogChangedEvent(List<Product> written, List<ProductId> deleted, int discounts) {
+
+    public static CatalogChangedEvent written(List<Product> products) {
+        return new CatalogChangedEvent(products, List.of(), 0);
+    }
+
+    public static CatalogChangedEvent deleted(List<ProductId> ids) {
+        return new CatalogChangedEvent(List.of(), ids, 0);
+    }
+
+    public static CatalogChangedEvent discounts(int count) {
+        return new CatalogChangedEvent(List.of(), List.of(), count);
+    }
+
+    /**
+     * Whether any product row changed.
+     */
+    public boolean productsChanged() {
+        return !written.isEmpty() || !deleted.isEmpty();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.Discount;
+import com.example.accesa.domain.DiscountId;
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.domain.StringDictionary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Parses the product and discount CSV layouts into entities on top of {@link CsvTokenizer}.
+ * Lines that cannot be parsed are reported to the sink and skipped, the rest of the file is still read.
+ * Categories, brands, units and currencies are taken from a {@link StringDictionary}, so rows share them.
+ */
+@Component
+public class CatalogCsvReader {
+    private final StringDictionary dictionary;
+
+    public CatalogCsvReader() {
+        this(StringDictionary.shared());
+    }
+
+    /**
+     * @param dictionary the source of canonical instances for low-cardinality columns,
+     *                   or null to decode every value separately
+     */
+    public CatalogCsvReader(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Receives the rows of a file as they are parsed.
+     */
+    public interface RowSink {
+        void product(Product product);
+
+        void discount(Discount discount);
+
+        /**
+         * @param lineNumber the one-based line number in the file
+         * @param line       the line as read
+         * @param reason     why it could not be parsed
+         */
+        void rejected(long lineNumber, String line, String reason);
+    }
+
+    /**
+     * Reads every data line of the given file and passes the parsed rows to the sink.
+     *
+     * @param file the file to read, with its store and date already resolved
+     * @param sink the receiver of parsed and rejected rows
+     * @throws IOException if the file cannot be read
+     */
+    public void read(IngestFile file, RowSink sink) throws IOException {
+        try (CsvTokenizer tokens = file.open()) {
+            read(tokens, file, sink);
+        }
+    }
+
+    /**
+     * Reads every data line from an open tokenizer, skipping the header line first.
+     *
+     * @param tokens the input, positioned before the header
+     * @param file   the store, kind and date the rows belong to
+     * @param sink   the receiver of parsed and rejected rows
+     * @throws IOException if the input cannot be read
+     */
+    public void read(CsvTokenizer tokens, IngestFile file, RowSink sink) throws IOException {
+        if (!tokens.next()) return;
+        readRows(tokens, file, sink);
+    }
+
+    /**
+     * Reads the header line and tells which of the two layouts follows. Products have a {@code price}
+     * column and discounts a {@code from_date} column at the seventh position.
+     *
+     * @param tokens the input, positioned before the header
+     * @return the kind of rows that follow, or empty if the input is empty or the header matches neither layout
+     * @throws IOException if the input cannot be read
+     */
+    public Optional<IngestFile.Kind> readHeader(CsvTokenizer tokens) throws IOException {
+        if (!tokens.next() || tokens.fieldCount() < 8) return Optional.empty();
+
+        String column = tokens.string(6).trim();
+        if (column.equalsIgnoreCase("from_date") && tokens.fieldCount() >= 9) return Optional.of(IngestFile.Kind.DISCOUNTS);
+        if (column.equalsIgnoreCase("price")) return Optional.of(IngestFile.Kind.PRODUCTS);
+        return Optional.empty();
+    }
+
+    /**
+     * Reads every remaining line from an open tokenizer whose header has already been consumed.
+     *
+     * @param tokens the input, positioned after the header
+     * @param file   the store, kind and date the rows belong to
+     * @param sink   the receiver of parsed and rejected rows
+     * @throws IOException if the input cannot be read
+     */
+    public void readRows(CsvTokenizer tokens, IngestFile file, RowSink sink) throws IOException {
+        while (tokens.next()) {
+            if (file.kind() == IngestFile.Kind.DISCOUNTS) {
+                readDiscount(tokens, file, sink);
+            } else {
+                readProduct(tokens, file, sink);
+            }
+        }
+    }
+
+    private void readProduct(CsvTokenizer t, IngestFile file, RowSink sink) {
+        if (!hasFields(t, 8, sink)) return;
+
+        Product p = new Product();
+        try {
+            p.setId(new ProductId(t.string(0), file.store(), file.date()));
+            p.setName(t.string(1));
+            p.setCategory(shared(t, 2));
+            p.setBrand(shared(t, 3));
+            p.setQuantity(t.decimal(4));
+            p.setUnit(shared(t, 5));
+            p.setPrice(t.decimal(6));
+            p.setCurrency(shared(t, 7));
+        } catch (RuntimeException e) {
+            sink.rejected(t.lineNumber(), t.line(), e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            return;
+        }
+        sink.product(p);
+    }
+
+    /**
+     * Rejects a line with fewer fields than a row needs. Blank lines are skipped without a rejection.
+     */
+    private static boolean hasFields(CsvTokenizer t, int expected, RowSink sink) {
+        if (t.fieldCount() >= expected) return true;
+        String line = t.line();
+        if (!line.isBlank()) {
+            sink.rejected(t.lineNumber(), line, "Expected " + expected + " fields, found " + t.fieldCount());
+        }
+        return false;
+    }
+
+    private void readDiscount(CsvTokenizer t, IngestFile file, RowSink sink) {
+        if (!hasFields(t, 9, sink)) return;
+
+        Discount d = new Discount();
+        try {
+            d.setId(new DiscountId(t.string(0), file.store(), t.date(6)));
+            d.setName(t.string(1));
+            d.setBrand(shared(t, 2));
+            d.setQuantity(t.decimal(3));
+            d.setUnit(shared(t, 4));
+            d.setCategory(shared(t, 5));
+            d.setToDate(t.date(7));
+            d.setPercentage(t.decimal(8));
+        } catch (RuntimeException e) {
+            sink.rejected(t.lineNumber(), t.line(), e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            return;
+        }
+        sink.discount(d);
+    }
+
+    private String shared(CsvTokenizer t, int field) {
+        return dictionary != null ? t.string(field, dictionary) : t.string(field);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.accesa.ingest;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports DOWN until the initial catalog load has finished. It is part of the readiness group,
+ * so traffic is only routed to the instance once prices are available, while liveness stays UP.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogHealthIndicator implements HealthIndicator {
+    private final IngestProgress progress;
+
+    @Override
+    public Health health() {
+        IngestProgress.Snapshot snapshot = progress.snapshot();
+        Health.Builder health = progress.isReady() ? Health.up() : Health.down();
+        health.withDetail("state", snapshot.state())
+                .withDetail("filesDone", snapshot.filesDone())
+                .withDetail("filesTotal", snapshot.filesTotal())
+                .withDetail("rowsLoaded", snapshot.rowsLoaded());
+        if (snapshot.error() != null) {
+            health.withDetail("error", snapshot.error());
+        }
+        return health.build();
+    }
+}
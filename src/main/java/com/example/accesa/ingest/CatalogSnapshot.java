@@ -0,0 +1,370 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.config.CatalogDataProperties;
+import com.example.accesa.domain.*;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.IngestedFileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary copy of the catalog tables and the ingestion manifest, written after ingestion and restored on
+ * startup, so that only files added or changed since the snapshot are parsed again.
+ *
+ * <p>The file is columnar: every string is stored once in a dictionary and referenced by its index,
+ * dates are stored as epoch days and decimals as unscaled longs with one scale per column.
+ * All numbers are big-endian:
+ * <pre>
+ * header:     int magic, int version, long createdAt (epoch millis)
+ * dictionary: int count, then per entry int length and the UTF-8 bytes
+ * manifest:   int count, then per entry int fileName, int checksum, long rowsLoaded, long ingestedAt (epoch seconds)
+ * products:   int rows, then the columns productId, storeName, date, name, category, brand, unit, currency
+ *             as int[rows] each, and quantity, price as byte scale + long[rows] each
+ * discounts:  int rows, then the columns productId, storeName, fromDate, toDate, name, brand, category, unit
+ *             as int[rows] each, and quantity, percentage as byte scale + long[rows] each
+ * trailer:    int CRC-32C of everything before it
+ * </pre>
+ * Null strings are stored as code -1, null dates as {@link Integer#MIN_VALUE} and null decimals as
+ * {@link Long#MIN_VALUE}. A file with another magic or version, or a bad checksum, is ignored.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogSnapshot {
+    static final int MAGIC = 0x41435350;
+    static final int VERSION = 1;
+
+    private static final int NULL_CODE = -1;
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+    private static final long NULL_DECIMAL = Long.MIN_VALUE;
+    private static final int RESTORE_BATCH = 5_000;
+
+    private final CatalogBulkRepository bulkRepo;
+    private final IngestedFileRepository manifest;
+    private final CatalogDataProperties properties;
+    private final ApplicationEventPublisher events;
+
+    /**
+     * Whether a snapshot location is configured.
+     */
+    public boolean enabled() {
+        return properties.snapshot() != null;
+    }
+
+    /**
+     * Loads the snapshot into the catalog tables and the manifest. The whole file is validated before
+     * anything is written, and all rows are written in one transaction. The tables are expected to be empty.
+     *
+     * @return true if a snapshot was restored, false if there is none or it was written by another version
+     * @throws IOException if the snapshot cannot be read or is corrupt
+     */
+    @Transactional
+    public boolean restore() throws IOException {
+        Path path = properties.snapshot();
+        if (path == null || !Files.isRegularFile(path)) return false;
+
+        long start = System.nanoTime();
+        Contents contents;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("Snapshot too large: " + ch.size() + " bytes");
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.remaining() < 20 || buf.getInt(0) != MAGIC) throw new IOException("Not a catalog snapshot: " + path);
+            if (buf.getInt(4) != VERSION) {
+                log.info("Ignoring catalog snapshot {} written with format version {}", path, buf.getInt(4));
+                return false;
+            }
+
+            CRC32C crc = new CRC32C();
+            crc.update(buf.slice(0, buf.limit() - 4));
+            if ((int) crc.getValue() != buf.getInt(buf.limit() - 4)) throw new IOException("Snapshot checksum mismatch: " + path);
+
+            buf.position(16);
+            contents = decode(buf);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated catalog snapshot: " + path, e);
+        }
+
+        for (int i = 0; i < contents.products.size(); i += RESTORE_BATCH) {
+            bulkRepo.insertProducts(contents.products.subList(i, Math.min(i + RESTORE_BATCH, contents.products.size())));
+        }
+        for (int i = 0; i < contents.discounts.size(); i += RESTORE_BATCH) {
+            bulkRepo.insertDiscounts(contents.discounts.subList(i, Math.min(i + RESTORE_BATCH, contents.discounts.size())));
+        }
+        manifest.saveAll(contents.files);
+        events.publishEvent(new CatalogChangedEvent(contents.products, List.of(), contents.discounts.size()));
+
+        log.info("Restored {} products, {} discounts and {} files from snapshot {} in {} ms",
+                contents.products.size(), contents.discounts.size(), contents.files.size(), path,
+                (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    /**
+     * Writes the current catalog tables and manifest to the snapshot location. Rows are read through a cursor into
+     * primitive columns, with strings already replaced by their dictionary codes, so no entity is created and the
+     * memory taken is a few dozen bytes per row. The file is written next to the target and moved into place, so a
+     * reader never sees a partial snapshot.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    @Transactional(readOnly = true)
+    public void write() throws IOException {
+        Path path = properties.snapshot();
+        if (path == null) return;
+
+        long start = System.nanoTime();
+        Dictionary dictionary = new Dictionary();
+        List<IngestedFile> files = manifest.findAll();
+        int[][] fileStrings = new int[2][files.size()];
+        for (int i = 0; i < files.size(); i++) {
+            fileStrings[0][i] = dictionary.code(files.get(i).getFileName());
+            fileStrings[1][i] = dictionary.code(files.get(i).getChecksum());
+        }
+
+        Columns products = new Columns(8, 2);
+        bulkRepo.scanProducts(rs -> {
+            int row = products.add();
+            products.setInt(0, row, dictionary.code(rs.getString(1)));
+            products.setInt(1, row, dictionary.code(rs.getString(2)));
+            products.setInt(2, row, epochDay(rs.getObject(3, LocalDate.class)));
+            products.setInt(3, row, dictionary.code(rs.getString(4)));
+            products.setInt(4, row, dictionary.code(rs.getString(5)));
+            products.setInt(5, row, dictionary.code(rs.getString(6)));
+            products.setInt(6, row, dictionary.code(rs.getString(8)));
+            products.setInt(7, row, dictionary.code(rs.getString(10)));
+            products.setDecimal(0, row, rs.getBigDecimal(7));
+            products.setDecimal(1, row, rs.getBigDecimal(9));
+        });
+        Columns discounts = new Columns(8, 2);
+        bulkRepo.scanDiscounts(rs -> {
+            int row = discounts.add();
+            discounts.setInt(0, row, dictionary.code(rs.getString(1)));
+            discounts.setInt(1, row, dictionary.code(rs.getString(2)));
+            discounts.setInt(2, row, epochDay(rs.getObject(3, LocalDate.class)));
+            discounts.setInt(3, row, epochDay(rs.getObject(9, LocalDate.class)));
+            discounts.setInt(4, row, dictionary.code(rs.getString(4)));
+            discounts.setInt(5, row, dictionary.code(rs.getString(5)));
+            discounts.setInt(6, row, dictionary.code(rs.getString(8)));
+            discounts.setInt(7, row, dictionary.code(rs.getString(7)));
+            discounts.setDecimal(0, row, rs.getBigDecimal(6));
+            discounts.setDecimal(1, row, rs.getBigDecimal(10));
+        });
+
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Files.newOutputStream(tmp), crc), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+
+            out.writeInt(dictionary.values.size());
+            for (String value : dictionary.values) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                IngestedFile file = files.get(i);
+                out.writeInt(fileStrings[0][i]);
+                out.writeInt(fileStrings[1][i]);
+                out.writeLong(file.getRowsLoaded());
+                out.writeLong(file.getIngestedAt().toEpochSecond(ZoneOffset.UTC));
+            }
+
+            products.writeTo(out);
+            discounts.writeTo(out);
+
+            out.flush();
+            out.writeInt((int) crc.getValue());
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Wrote snapshot of {} products, {} discounts and {} files to {} ({} KB) in {} ms",
+                products.size, discounts.size, files.size(), path, Files.size(path) / 1024,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static Contents decode(ByteBuffer buf) {
+        String[] dictionary = new String[buf.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            byte[] bytes = new byte[buf.getInt()];
+            buf.get(bytes);
+            dictionary[i] = bytes.length == 0 ? "" : new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        List<IngestedFile> files = new ArrayList<>();
+        for (int i = buf.getInt(); i > 0; i--) {
+            files.add(new IngestedFile(string(dictionary, buf.getInt()), string(dictionary, buf.getInt()),
+                    buf.getLong(), LocalDateTime.ofEpochSecond(buf.getLong(), 0, ZoneOffset.UTC)));
+        }
+
+        int rows = buf.getInt();
+        int[] productId = ints(buf, rows), storeName = ints(buf, rows), date = ints(buf, rows);
+        int[] name = ints(buf, rows), category = ints(buf, rows), brand = ints(buf, rows);
+        int[] unit = ints(buf, rows), currency = ints(buf, rows);
+        BigDecimal[] quantity = decimals(buf, rows), price = decimals(buf, rows);
+        List<Product> products = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            products.add(new Product(
+                    new ProductId(string(dictionary, productId[i]), string(dictionary, storeName[i]), date(date[i])),
+                    string(dictionary, name[i]), string(dictionary, category[i]), string(dictionary, brand[i]),
+                    quantity[i], string(dictionary, unit[i]), price[i], string(dictionary, currency[i])));
+        }
+
+        rows = buf.getInt();
+        productId = ints(buf, rows);
+        storeName = ints(buf, rows);
+        int[] fromDate = ints(buf, rows), toDate = ints(buf, rows);
+        name = ints(buf, rows);
+        brand = ints(buf, rows);
+        category = ints(buf, rows);
+        unit = ints(buf, rows);
+        quantity = decimals(buf, rows);
+        BigDecimal[] percentage = decimals(buf, rows);
+        List<Discount> discounts = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            discounts.add(new Discount(
+                    new DiscountId(string(dictionary, productId[i]), string(dictionary, storeName[i]), date(fromDate[i])),
+                    string(dictionary, name[i]), string(dictionary, brand[i]), quantity[i],
+                    string(dictionary, unit[i]), string(dictionary, category[i]), date(toDate[i]), percentage[i]));
+        }
+
+        return new Contents(files, products, discounts);
+    }
+
+    private static String string(String[] dictionary, int code) {
+        return code == NULL_CODE ? null : dictionary[code];
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static int[] ints(ByteBuffer buf, int n) {
+        int[] values = new int[n];
+        buf.asIntBuffer().get(values);
+        buf.position(buf.position() + n * Integer.BYTES);
+        return values;
+    }
+
+    private static BigDecimal[] decimals(ByteBuffer buf, int n) {
+        int scale = buf.get();
+        long[] unscaled = new long[n];
+        buf.asLongBuffer().get(unscaled);
+        buf.position(buf.position() + n * Long.BYTES);
+
+        BigDecimal[] values = new BigDecimal[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = unscaled[i] == NULL_DECIMAL ? null : BigDecimal.valueOf(unscaled[i], scale);
+        }
+        return values;
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NULL_DATE : Math.toIntExact(date.toEpochDay());
+    }
+
+    private record Contents(List<IngestedFile> files, List<Product> products, List<Discount> discounts) {}
+
+    /**
+     * The rows of one table as growable primitive columns: int columns for dictionary codes and epoch days, and
+     * decimal columns as unscaled values with their scales. Written in the snapshot layout: the row count, the int
+     * columns in order, then each decimal column as one scale and the values at that scale.
+     */
+    private static final class Columns {
+        private int[][] ints;
+        private long[][] unscaled;
+        private byte[][] scales;
+        private int size;
+
+        Columns(int intColumns, int decimalColumns) {
+            ints = new int[intColumns][1024];
+            unscaled = new long[decimalColumns][1024];
+            scales = new byte[decimalColumns][1024];
+        }
+
+        /**
+         * @return the index of a new row
+         */
+        int add() {
+            if (size == ints[0].length) {
+                int capacity = size * 2;
+                for (int c = 0; c < ints.length; c++) ints[c] = Arrays.copyOf(ints[c], capacity);
+                for (int c = 0; c < unscaled.length; c++) {
+                    unscaled[c] = Arrays.copyOf(unscaled[c], capacity);
+                    scales[c] = Arrays.copyOf(scales[c], capacity);
+                }
+            }
+            return size++;
+        }
+
+        void setInt(int column, int row, int value) {
+            ints[column][row] = value;
+        }
+
+        void setDecimal(int column, int row, BigDecimal value) {
+            unscaled[column][row] = value == null ? NULL_DECIMAL : value.unscaledValue().longValueExact();
+            scales[column][row] = value == null ? 0 : (byte) value.scale();
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            for (int[] column : ints) {
+                for (int i = 0; i < size; i++) out.writeInt(column[i]);
+            }
+            for (int c = 0; c < unscaled.length; c++) {
+                int scale = 0;
+                for (int i = 0; i < size; i++) {
+                    if (unscaled[c][i] != NULL_DECIMAL) scale = Math.max(scale, scales[c][i]);
+                }
+                out.writeByte(scale);
+                for (int i = 0; i < size; i++) {
+                    long value = unscaled[c][i];
+                    out.writeLong(value == NULL_DECIMAL ? NULL_DECIMAL
+                            : BigDecimal.valueOf(value, scales[c][i]).setScale(scale).unscaledValue().longValueExact());
+                }
+            }
+        }
+    }
+
+    /**
+     * Assigns consecutive codes to distinct strings in first-seen order.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        private int code(String value) {
+            if (value == null) return NULL_CODE;
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+    }
+}
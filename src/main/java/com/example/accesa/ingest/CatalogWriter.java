@@ -0,0 +1,137 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.config.IngestProperties;
+import com.example.accesa.domain.Discount;
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.DiscountRepository;
+import com.example.accesa.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Persists parsed batches. Safe to call from several writer threads at once.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogWriter {
+    private final ProductRepository productRepo;
+    private final DiscountRepository discountRepo;
+    private final CatalogBulkRepository bulkRepo;
+    private final IngestProperties properties;
+    private final IngestQuarantine quarantine;
+    private final ApplicationEventPublisher events;
+
+    /**
+     * Writes a batch. In bulk mode the rows go out as one JDBC batch of inserts, or of merges when the
+     * batch may replace stored rows; if that batch is rejected, the rows are retried one by one so a single
+     * bad row only costs itself. Otherwise every row is saved through its JPA repository. Rows that are
+     * still refused are recorded in the {@link IngestQuarantine}. The stored rows are announced with a
+     * {@link CatalogChangedEvent}.
+     *
+     * @param batch the rows to write
+     * @return the number of rows that were persisted
+     */
+    public int write(IngestBatch batch) {
+        IngestFile source = batch.source();
+        boolean upsert = batch.mode() != IngestMode.INSERT;
+        List<Product> products = write(batch.products(), upsert ? bulkRepo::mergeProducts : bulkRepo::insertProducts, productRepo::save, source);
+        List<Discount> discounts = write(batch.discounts(), upsert ? bulkRepo::mergeDiscounts : bulkRepo::insertDiscounts, discountRepo::save, source);
+        announce(products);
+        if (!discounts.isEmpty()) events.publishEvent(CatalogChangedEvent.discounts(discounts.size()));
+        return products.size() + discounts.size();
+    }
+
+    /**
+     * Loads what is stored for the store and date of a product file that is about to be reloaded in
+     * {@link IngestMode#REPLACE} mode.
+     *
+     * @param file the product file
+     * @return the diff that the file's batches are compared against
+     */
+    public PartitionDiff startReplace(IngestFile file) {
+        return new PartitionDiff(bulkRepo.findProducts(file.store(), file.date()));
+    }
+
+    /**
+     * Writes a batch of a file that is reloaded against a diff: only rows that are new or changed are written.
+     * Without a diff this is the same as {@link #write(IngestBatch)}.
+     *
+     * @param batch the rows to write
+     * @param diff  the stored state of the file's partition, or null
+     * @return the number of rows that are now stored as given, written or not
+     */
+    public int write(IngestBatch batch, PartitionDiff diff) {
+        if (diff == null) return write(batch);
+
+        IngestFile source = batch.source();
+        PartitionDiff.Changes changes = diff.classify(batch.products());
+        List<Product> inserted = write(changes.inserts(), bulkRepo::insertProducts, productRepo::save, source);
+        List<Product> updated = write(changes.updates(), bulkRepo::updateProducts, productRepo::save, source);
+        diff.applied(inserted.size(), updated.size(), changes.unchanged());
+        announce(inserted);
+        announce(updated);
+        return inserted.size() + updated.size() + changes.unchanged();
+    }
+
+    /**
+     * Completes a reload by deleting the stored rows that the file no longer contains.
+     *
+     * @param diff the diff the file's batches were written against
+     * @return what the reload changed
+     */
+    public IngestSummary.Diff finishReplace(PartitionDiff diff) {
+        List<ProductId> missing = diff.missing();
+        if (missing.isEmpty()) return diff.report(0);
+
+        int deleted = bulkRepo.deleteProducts(missing);
+        events.publishEvent(CatalogChangedEvent.deleted(missing));
+        return diff.report(deleted);
+    }
+
+    private void announce(List<Product> products) {
+        if (!products.isEmpty()) events.publishEvent(CatalogChangedEvent.written(products));
+    }
+
+    /**
+     * @return the rows that were persisted
+     */
+    private <T> List<T> write(List<T> rows, Function<List<T>, Integer> bulkInsert, Function<T, ?> save, IngestFile source) {
+        if (rows.isEmpty()) return List.of();
+
+        List<T> written = new ArrayList<>();
+        if (!properties.bulk()) {
+            for (T row : rows) {
+                try {
+                    save.apply(row);
+                    written.add(row);
+                } catch (DataAccessException e) {
+                    quarantine.reject(source, null, row.toString(), e.getMostSpecificCause().getMessage());
+                }
+            }
+            return written;
+        }
+
+        try {
+            bulkInsert.apply(rows);
+            return rows;
+        } catch (DataAccessException batchFailure) {
+            for (T row : rows) {
+                try {
+                    bulkInsert.apply(List.of(row));
+                    written.add(row);
+                } catch (DataAccessException e) {
+                    quarantine.reject(source, null, row.toString(), e.getMostSpecificCause().getMessage());
+                }
+            }
+            return written;
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.StringDictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Streaming tokenizer for the semicolon-separated catalog files that works directly on bytes.
+ * <p>
+ * Lines are split into fields by recording byte offsets, eight bytes at a time, without building
+ * intermediate Strings. Numbers and ISO dates are parsed straight from those bytes, and only the
+ * fields a caller asks for as text are decoded (as UTF-8).
+ * <p>
+ * Files are read through memory-mapped windows; other inputs are read through a reusable buffer.
+ * A tokenizer is not thread-safe, and the accessors refer to the line returned by the last {@link #next()}.
+ */
+public final class CsvTokenizer implements Closeable {
+    private static final int MAX_FIELDS = 16;
+    private static final int MAP_WINDOW = 64 << 20;
+    private static final int MAX_WINDOW = Integer.MAX_VALUE - 8;
+    private static final long SMALL_FILE = 1 << 20;
+    private static final int RECENT_SLOTS = 256;
+    private static final int RECENT_MAX_LENGTH = 64;
+
+    private static final long SEMICOLONS = 0x3B3B3B3B3B3B3B3BL;
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    private final FileChannel file;
+    private final ReadableByteChannel channel;
+    private final long fileSize;
+    private final int maxBuffer;
+    private long windowOffset;
+    private int windowSize = MAP_WINDOW;
+    private boolean endOfInput;
+
+    private ByteBuffer buf;
+    private int cursor;
+    private int lineStart;
+    private int lineEnd;
+    private long lineNumber;
+    private int separators;
+    private final int[] starts = new int[MAX_FIELDS];
+    private final int[] ends = new int[MAX_FIELDS];
+
+    private byte[] scratch = new byte[128];
+    private final byte[][] recentBytes = new byte[RECENT_SLOTS][];
+    private final String[] recentStrings = new String[RECENT_SLOTS];
+    private int parsedScale;
+    private int cachedDateKey = -1;
+    private LocalDate cachedDate;
+
+    private CsvTokenizer(FileChannel file, ReadableByteChannel channel, long fileSize, ByteBuffer initial) {
+        this(file, channel, fileSize, initial, MAX_WINDOW);
+    }
+
+    private CsvTokenizer(FileChannel file, ReadableByteChannel channel, long fileSize, ByteBuffer initial, int maxBuffer) {
+        this.file = file;
+        this.channel = channel;
+        this.fileSize = fileSize;
+        this.maxBuffer = maxBuffer;
+        this.buf = initial.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Opens a file for tokenizing. Files larger than 1 MB are memory-mapped in 64 MB windows,
+     * smaller ones are read into the heap in one go.
+     *
+     * @param path the file to read
+     * @return a tokenizer positioned before the first line
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static CsvTokenizer open(Path path) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = ch.size();
+            if (size < SMALL_FILE) {
+                ByteBuffer bytes = ByteBuffer.allocate((int) size);
+                while (bytes.hasRemaining() && ch.read(bytes) >= 0) {
+                    // keep reading until the whole file is in memory
+                }
+                ch.close();
+                return of(bytes.flip());
+            }
+            ByteBuffer window = ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAP_WINDOW));
+            return new CsvTokenizer(ch, null, size, window);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Tokenizes a stream of bytes, reading it incrementally into a buffer of the given size.
+     * The buffer only grows if a single line does not fit into it.
+     *
+     * @param channel    the input
+     * @param bufferSize the initial buffer size in bytes
+     * @return a tokenizer positioned before the first line
+     */
+    public static CsvTokenizer of(ReadableByteChannel channel, int bufferSize) {
+        return of(channel, bufferSize, MAX_WINDOW);
+    }
+
+    /**
+     * Tokenizes a stream of unknown length with a bounded buffer, e.g. a request body from an untrusted client.
+     * The buffer grows up to {@code maxLineLength} bytes when a single line does not fit; a longer line fails
+     * the read with an {@link IOException}.
+     *
+     * @param channel       the input
+     * @param bufferSize    the initial buffer size in bytes
+     * @param maxLineLength the longest line accepted, in bytes
+     * @return a tokenizer positioned before the first line
+     */
+    public static CsvTokenizer of(ReadableByteChannel channel, int bufferSize, int maxLineLength) {
+        int size = Math.max(Math.min(bufferSize, maxLineLength), 64);
+        return new CsvTokenizer(null, channel, -1, ByteBuffer.allocate(size).limit(0), Math.max(maxLineLength, size));
+    }
+
+    /**
+     * Tokenizes bytes that are already in memory.
+     *
+     * @param bytes the complete input, from its position to its limit
+     * @return a tokenizer positioned before the first line
+     */
+    public static CsvTokenizer of(ByteBuffer bytes) {
+        return new CsvTokenizer(null, null, -1, bytes.slice());
+    }
+
+    /**
+     * Advances to the next line.
+     *
+     * @return false once the input is exhausted
+     * @throws IOException if reading more input fails
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (scanLine()) return true;
+            if (!refill()) {
+                if (cursor >= buf.limit()) return false;
+                // the input does not end with a newline: rescan the tail, the buffer may have moved
+                if (scanLine()) return true;
+                endLine(buf.limit(), buf.limit());
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return the 1-based number of the current line within the input
+     */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return the number of fields on the current line
+     */
+    public int fieldCount() {
+        return Math.min(separators + 1, MAX_FIELDS);
+    }
+
+    /**
+     * @return the current line as text, without its line terminator
+     */
+    public String line() {
+        return decode(lineStart, lineEnd);
+    }
+
+    /**
+     * @param field the zero-based field index
+     * @return the field decoded as UTF-8
+     */
+    public String string(int field) {
+        check(field);
+        return decode(starts[field], ends[field]);
+    }
+
+    /**
+     * Returns a field of a column with few distinct values as its canonical instance from the dictionary.
+     * Values are first looked up by their bytes in a small cache of this tokenizer, so a repeated value
+     * is returned without decoding or allocating anything.
+     *
+     * @param field      the zero-based field index
+     * @param dictionary the dictionary supplying canonical instances
+     * @return the field decoded as UTF-8
+     */
+    public String string(int field, StringDictionary dictionary) {
+        check(field);
+        int from = starts[field];
+        int length = ends[field] - from;
+        if (length > RECENT_MAX_LENGTH) return dictionary.intern(decode(from, ends[field]));
+
+        buf.get(from, scratch, 0, length);
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + scratch[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (RECENT_SLOTS - 1);
+
+        byte[] cached = recentBytes[slot];
+        if (cached != null && Arrays.equals(cached, 0, cached.length, scratch, 0, length)) {
+            return recentStrings[slot];
+        }
+        String value = dictionary.intern(new String(scratch, 0, length, StandardCharsets.UTF_8));
+        recentBytes[slot] = Arrays.copyOf(scratch, length);
+        recentStrings[slot] = value;
+        return value;
+    }
+
+    /**
+     * Parses a plain decimal number ({@code [-+]digits[.digits]}) without going through a String.
+     * The result has exactly the scale written in the input, like {@code new BigDecimal(String)}.
+     *
+     * @param field the zero-based field index
+     * @return the field as a BigDecimal
+     * @throws NumberFormatException if the field is not a plain decimal number
+     */
+    public BigDecimal decimal(int field) {
+        check(field);
+        if (ends[field] - starts[field] > 18) {
+            return new BigDecimal(string(field));
+        }
+        long unscaled = parseUnscaled(field);
+        return BigDecimal.valueOf(unscaled, parsedScale);
+    }
+
+    /**
+     * Parses a plain decimal number as a fixed-point long, e.g. {@code "9.8"} at scale 2 gives {@code 980}.
+     *
+     * @param field the zero-based field index
+     * @param scale the number of implied fraction digits of the result
+     * @return the field in units of 10^-scale
+     * @throws NumberFormatException if the field is not a plain decimal number or has more fraction digits than the scale
+     */
+    public long fixedPoint(int field, int scale) {
+        check(field);
+        if (ends[field] - starts[field] > 18) {
+            throw new NumberFormatException("Number too long: " + string(field));
+        }
+        long unscaled = parseUnscaled(field);
+        if (parsedScale > scale) {
+            throw new NumberFormatException("More than " + scale + " fraction digits: " + string(field));
+        }
+        for (int s = parsedScale; s < scale; s++) {
+            unscaled = Math.multiplyExact(unscaled, 10);
+        }
+        return unscaled;
+    }
+
+    /**
+     * Parses an ISO-8601 date ({@code yyyy-MM-dd}). Consecutive lines with the same date share one instance.
+     *
+     * @param field the zero-based field index
+     * @return the field as a LocalDate
+     * @throws DateTimeException if the field is not a valid ISO date
+     */
+    public LocalDate date(int field) {
+        check(field);
+        int s = starts[field];
+        if (ends[field] - s != 10 || buf.get(s + 4) != '-' || buf.get(s + 7) != '-') {
+            throw new DateTimeException("Invalid date: " + string(field));
+        }
+        int key = digits(s, 4) * 10_000 + digits(s + 5, 2) * 100 + digits(s + 8, 2);
+        if (key != cachedDateKey) {
+            cachedDate = LocalDate.of(key / 10_000, key / 100 % 100, key % 100);
+            cachedDateKey = key;
+        }
+        return cachedDate;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (file != null) file.close();
+        if (channel != null) channel.close();
+    }
+
+    /**
+     * Records field boundaries from the cursor up to the next newline, comparing eight bytes at a time.
+     *
+     * @return true if a complete line was found in the buffer
+     */
+    private boolean scanLine() {
+        int limit = buf.limit();
+        int i = cursor;
+        separators = 0;
+        starts[0] = i;
+
+        for (; i + 8 <= limit; i += 8) {
+            long word = buf.getLong(i);
+            long semicolons = zeroBytes(word ^ SEMICOLONS);
+            long newlines = zeroBytes(word ^ NEWLINES);
+            if (newlines != 0) {
+                // only separators before the first newline belong to this line
+                semicolons &= (newlines & -newlines) - 1;
+            }
+            while (semicolons != 0) {
+                separator(i + (Long.numberOfTrailingZeros(semicolons) >>> 3));
+                semicolons &= semicolons - 1;
+            }
+            if (newlines != 0) {
+                int at = i + (Long.numberOfTrailingZeros(newlines) >>> 3);
+                endLine(at, at + 1);
+                return true;
+            }
+        }
+        for (; i < limit; i++) {
+            byte b = buf.get(i);
+            if (b == '\n') {
+                endLine(i, i + 1);
+                return true;
+            }
+            if (b == ';') separator(i);
+        }
+        return false;
+    }
+
+    /**
+     * Sets the high bit of every byte of the word that is zero, and no other bit.
+     */
+    private static long zeroBytes(long word) {
+        long t = (word & LOW_SEVEN_BITS) + LOW_SEVEN_BITS;
+        return ~(t | word | LOW_SEVEN_BITS);
+    }
+
+    private void separator(int at) {
+        if (separators >= MAX_FIELDS - 1) return;
+        ends[separators] = at;
+        separators++;
+        starts[separators] = at + 1;
+    }
+
+    private void endLine(int end, int next) {
+        lineStart = cursor;
+        if (end > lineStart && buf.get(end - 1) == '\r') end--;
+        lineEnd = end;
+        ends[separators] = end;
+        cursor = next;
+        lineNumber++;
+    }
+
+    /**
+     * Makes more input available, keeping the unfinished line that starts at the cursor.
+     * Afterwards the cursor points at the start of that line in the new buffer.
+     *
+     * @return false if there is no more input
+     */
+    private boolean refill() throws IOException {
+        if (file != null) {
+            long consumed = windowOffset + cursor;
+            if (windowOffset + buf.limit() >= fileSize) return false;
+
+            int pending = buf.limit() - cursor;
+            if (pending >= windowSize) {
+                windowSize = (int) Math.min(MAX_WINDOW, windowSize * 2L);
+            }
+            int size = (int) Math.min(fileSize - consumed, windowSize);
+            buf = file.map(FileChannel.MapMode.READ_ONLY, consumed, size).order(ByteOrder.LITTLE_ENDIAN);
+            windowOffset = consumed;
+            cursor = 0;
+            return true;
+        }
+
+        if (channel == null || endOfInput) return false;
+
+        if (cursor == 0 && buf.limit() == buf.capacity()) {
+            if (buf.capacity() >= maxBuffer) {
+                throw new IOException("Line " + (lineNumber + 1) + " is longer than " + maxBuffer + " bytes");
+            }
+            ByteBuffer larger = ByteBuffer.allocate((int) Math.min(maxBuffer, buf.capacity() * 2L)).order(ByteOrder.LITTLE_ENDIAN);
+            larger.put(buf.position(0));
+            buf = larger;
+        } else {
+            buf.position(cursor).compact();
+        }
+        cursor = 0;
+
+        int read;
+        do {
+            read = channel.read(buf);
+        } while (read == 0 && buf.hasRemaining());
+        buf.flip();
+
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        return true;
+    }
+
+    private void check(int field) {
+        if (field < 0 || field >= fieldCount()) {
+            throw new IndexOutOfBoundsException("Line " + lineNumber + " has no field " + field);
+        }
+    }
+
+    private long parseUnscaled(int field) {
+        int p = starts[field];
+        int end = ends[field];
+        boolean negative = false;
+        if (p < end && (buf.get(p) == '-' || buf.get(p) == '+')) {
+            negative = buf.get(p) == '-';
+            p++;
+        }
+
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        for (; p < end; p++) {
+            int b = buf.get(p);
+            if (b == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            int d = b - '0';
+            if (d < 0 || d > 9) {
+                throw new NumberFormatException("Not a decimal number: " + string(field));
+            }
+            unscaled = unscaled * 10 + d;
+            digits++;
+            if (scale >= 0) scale++;
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not a decimal number: " + string(field));
+        }
+        parsedScale = Math.max(scale, 0);
+        return negative ? -unscaled : unscaled;
+    }
+
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int p = from; p < from + count; p++) {
+            int d = buf.get(p) - '0';
+            if (d < 0 || d > 9) {
+                throw new DateTimeException("Invalid date at line " + lineNumber);
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private String decode(int from, int to) {
+        int length = to - from;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buf.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.Product;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The archived price points of one store and month, in a file that is memory-mapped and read in place, so the
+ * rows take no Java heap until a query returns them.
+ *
+ * <p>Every string is stored once in a sorted dictionary. The rows of each product are stored as one
+ * {@link PriceSeries}, which holds the name, brand, category and unit once and the dates and prices as runs of
+ * steps. A product id is found by binary search on the dictionary and then on the series index, which is sorted
+ * by product id. All fixed-width numbers are big-endian:
+ * <pre>
+ * header:     int magic, int version, int store, int rows, int strings, byte quantity scale, byte price scale, int series
+ * dictionary: int[strings + 1] offsets into the string bytes, then the UTF-8 bytes, in string order
+ * index:      int[series] product id codes, then int[series + 1] offsets into the series bytes
+ * series:     the encoded series, in product id order
+ * trailer:    int CRC-32C of everything before it
+ * </pre>
+ */
+public final class HistorySegment {
+    static final int MAGIC = 0x41435348;
+    static final int VERSION = 2;
+
+    private static final int HEADER = 26;
+
+    private final ByteBuffer buf;
+    private final String store;
+    private final int rows;
+    private final int strings;
+    private final int series;
+    private final int stringBytes;
+    private final int productCodes;
+    private final int seriesOffsets;
+    private final int seriesBytes;
+    private final int quantityScale;
+    private final int priceScale;
+
+    private HistorySegment(ByteBuffer buf) {
+        this.buf = buf;
+        rows = buf.getInt(12);
+        strings = buf.getInt(16);
+        quantityScale = buf.get(20);
+        priceScale = buf.get(21);
+        series = buf.getInt(22);
+        stringBytes = HEADER + (strings + 1) * Integer.BYTES;
+        productCodes = stringBytes + buf.getInt(HEADER + strings * Integer.BYTES);
+        seriesOffsets = productCodes + series * Integer.BYTES;
+        seriesBytes = seriesOffsets + (series + 1) * Integer.BYTES;
+        store = string(buf.getInt(8));
+    }
+
+    /**
+     * Maps a segment file and validates it.
+     *
+     * @throws IOException if the file cannot be read, is not a segment of this version or is corrupt
+     */
+    public static HistorySegment open(Path path) throws IOException {
+        return open(path, true);
+    }
+
+    /**
+     * Maps a segment file and checks its header.
+     *
+     * @param verify whether to check the checksum of the whole file, which can be skipped for a file that has
+     *               been checked before and not changed since
+     * @throws IOException if the file cannot be read, is not a segment of this version or is corrupt
+     */
+    public static HistorySegment open(Path path, boolean verify) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("Segment too large: " + ch.size() + " bytes");
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.limit() < HEADER + 8 || buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+                throw new IOException("Not a history segment of version " + VERSION + ": " + path);
+            }
+            if (verify) {
+                CRC32C crc = new CRC32C();
+                crc.update(buf.slice(0, buf.limit() - 4));
+                if ((int) crc.getValue() != buf.getInt(buf.limit() - 4)) throw new IOException("Segment checksum mismatch: " + path);
+            }
+            return new HistorySegment(buf);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated history segment: " + path, e);
+        }
+    }
+
+    /**
+     * Writes the products of one store as a segment. The file is written next to the target and moved into place,
+     * so a reader never sees a partial segment.
+     *
+     * @param store    the store all products belong to
+     * @param products the rows, in any order
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, String store, List<Product> products) throws IOException {
+        List<Product> sorted = new ArrayList<>(products);
+        sorted.sort(Comparator.comparing((Product p) -> p.getId().getProductId()).thenComparing(p -> p.getId().getDate()));
+
+        TreeSet<String> distinct = new TreeSet<>();
+        distinct.add(store);
+        for (Product p : sorted) {
+            for (String value : new String[]{p.getId().getProductId(), p.getName(), p.getCategory(), p.getBrand(),
+                    p.getUnit(), p.getCurrency()}) {
+                if (value != null) distinct.add(value);
+            }
+        }
+        String[] dictionary = distinct.toArray(String[]::new);
+        byte[][] utf8 = new byte[dictionary.length][];
+        for (int i = 0; i < dictionary.length; i++) utf8[i] = dictionary[i].getBytes(StandardCharsets.UTF_8);
+        int quantityScale = scale(sorted, Product::getQuantity);
+        int priceScale = scale(sorted, Product::getPrice);
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        List<Integer> productCodes = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        for (int from = 0, to; from < sorted.size(); from = to) {
+            String productId = sorted.get(from).getId().getProductId();
+            to = from + 1;
+            while (to < sorted.size() && sorted.get(to).getId().getProductId().equals(productId)) to++;
+            productCodes.add(Arrays.binarySearch(dictionary, productId));
+            offsets.add(encoded.size());
+            PriceSeries.encode(sorted.subList(from, to), value -> Arrays.binarySearch(dictionary, value),
+                    quantityScale, priceScale, encoded);
+        }
+        offsets.add(encoded.size());
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Files.newOutputStream(tmp), crc), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(Arrays.binarySearch(dictionary, store));
+            out.writeInt(sorted.size());
+            out.writeInt(dictionary.length);
+            out.writeByte(quantityScale);
+            out.writeByte(priceScale);
+            out.writeInt(productCodes.size());
+
+            int offset = 0;
+            for (byte[] bytes : utf8) {
+                out.writeInt(offset);
+                offset += bytes.length;
+            }
+            out.writeInt(offset);
+            for (byte[] bytes : utf8) out.write(bytes);
+
+            for (int code : productCodes) out.writeInt(code);
+            for (int seriesOffset : offsets) out.writeInt(seriesOffset);
+            encoded.writeTo(out);
+
+            out.flush();
+            out.writeInt((int) crc.getValue());
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public String store() {
+        return store;
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * @return the rows of one product, by date
+     */
+    public List<Product> history(String productId) {
+        int code = find(productId);
+        if (code < 0) return List.of();
+
+        int lo = 0, hi = series - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = Integer.compare(buf.getInt(productCodes + mid * Integer.BYTES), code);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else {
+                List<Product> result = new ArrayList<>();
+                series(mid).forEachRemaining(result::add);
+                return result;
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * @return the rows whose name is accepted by the filter, by product id and date
+     */
+    public List<Product> withName(Predicate<String> filter) {
+        Set<String> names = new HashSet<>();
+        for (int code = 0; code < strings; code++) {
+            String value = string(code);
+            if (filter.test(value)) names.add(value);
+        }
+        if (names.isEmpty()) return List.of();
+
+        List<Product> result = new ArrayList<>();
+        for (int s = 0; s < series; s++) {
+            series(s).forEachRemaining(p -> {
+                if (p.getName() != null && names.contains(p.getName())) result.add(p);
+            });
+        }
+        return result;
+    }
+
+    /**
+     * @return every row, by product id and date
+     */
+    public List<Product> all() {
+        List<Product> result = new ArrayList<>(rows);
+        for (int s = 0; s < series; s++) series(s).forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * @return the bytes taken by the encoded series, without the dictionary and index
+     */
+    public int seriesBytes() {
+        return buf.getInt(seriesOffsets + series * Integer.BYTES);
+    }
+
+    private Iterator<Product> series(int index) {
+        return PriceSeries.decode(buf, seriesBytes + buf.getInt(seriesOffsets + index * Integer.BYTES), this::string,
+                string(buf.getInt(productCodes + index * Integer.BYTES)), store, quantityScale, priceScale);
+    }
+
+    private String string(int code) {
+        int start = buf.getInt(HEADER + code * Integer.BYTES);
+        byte[] bytes = new byte[buf.getInt(HEADER + (code + 1) * Integer.BYTES) - start];
+        buf.get(stringBytes + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the dictionary code of the value, or a negative number if the segment does not contain it
+     */
+    private int find(String value) {
+        int lo = 0, hi = strings - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = string(mid).compareTo(value);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private static int scale(List<Product> rows, Function<Product, BigDecimal> column) {
+        int scale = 0;
+        for (Product p : rows) {
+            BigDecimal value = column.apply(p);
+            if (value != null) scale = Math.max(scale, value.scale());
+        }
+        return scale;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.accesa.ingest;
+
+import lombok.Getter;
+
+/**
+ * Thrown when streamed rows arrive faster than the database can store them for longer than the configured
+ * timeout. Rows queued before that point have been written; {@link #getPartial()} tells how many.
+ */
+@Getter
+public class IngestBackpressureException extends RuntimeException {
+    private final transient IngestSummary partial;
+
+    public IngestBackpressureException(String message, IngestSummary partial) {
+        super(message);
+        this.partial = partial;
+    }
+}
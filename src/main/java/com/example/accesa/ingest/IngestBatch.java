@@ -0,0 +1,17 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.Discount;
+import com.example.accesa.domain.Product;
+
+import java.util.List;
+
+/**
+ * A group of parsed rows from one file, handed from a parser to a writer.
+ * Only the list matching {@code source.kind()} is populated.
+ */
+public record IngestBatch(IngestFile source, IngestMode mode, List<Product> products, List<Discount> discounts) {
+
+    public int size() {
+        return products.size() + discounts.size();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.accesa.ingest;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the catalog load progress at {@code /actuator/ingest}.
+ */
+@Component
+@Endpoint(id = "ingest")
+@RequiredArgsConstructor
+public class IngestEndpoint {
+    private final IngestProgress progress;
+
+    @ReadOperation
+    public IngestProgress.Snapshot progress() {
+        return progress.snapshot();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.StringDictionary;
+import org.springframework.core.io.DescriptiveResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+/**
+ * A CSV file recognized as catalog input, with the metadata encoded in its name
+ * ({@code <store>_<yyyy-MM-dd>.csv} or {@code <store>_discounts_<yyyy-MM-dd>.csv}) resolved once.
+ * The file may live on disk or inside the application jar.
+ *
+ * @param resource the location of the file
+ * @param store    the display name of the store (e.g. "Lidl" for {@code lidl_2025-05-01.csv})
+ * @param kind     whether the file holds prices or discounts
+ * @param date     the snapshot date from the file name
+ */
+public record IngestFile(Resource resource, String store, Kind kind, LocalDate date) {
+
+    private static final Pattern FILE_NAME = Pattern.compile("([a-z0-9]+)_(discounts_)?(\\d{4}-\\d{2}-\\d{2})\\.csv");
+    private static final long CHECKSUM_CHUNK = 64 << 20;
+
+    public enum Kind { PRODUCTS, DISCOUNTS }
+
+    /**
+     * Resolves the metadata of a catalog file on disk from its name.
+     *
+     * @param path the file to inspect
+     * @return the file metadata, or empty if the name does not follow the catalog naming scheme
+     */
+    public static Optional<IngestFile> of(Path path) {
+        return of(new FileSystemResource(path));
+    }
+
+    /**
+     * Resolves the metadata of a catalog file from its name.
+     *
+     * @param resource the file to inspect
+     * @return the file metadata, or empty if the name does not follow the catalog naming scheme
+     */
+    public static Optional<IngestFile> of(Resource resource) {
+        String name = resource.getFilename();
+        if (name == null) return Optional.empty();
+
+        Matcher m = FILE_NAME.matcher(name);
+        if (!m.matches()) return Optional.empty();
+
+        try {
+            String store = StringDictionary.shared().intern(Character.toUpperCase(m.group(1).charAt(0)) + m.group(1).substring(1));
+            Kind kind = m.group(2) != null ? Kind.DISCOUNTS : Kind.PRODUCTS;
+            return Optional.of(new IngestFile(resource, store, kind, LocalDate.parse(m.group(3))));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Describes rows pushed for a store and date rather than read from a file, e.g. an upload. The name
+     * follows the file naming scheme so logs and reports read the same for both.
+     *
+     * @param store the store as used in file names, e.g. "lidl"
+     * @param kind  whether the rows are prices or discounts
+     * @param date  the snapshot date
+     * @return the source description
+     * @throws IllegalArgumentException if the store name is not a lower-case alphanumeric word
+     */
+    public static IngestFile stream(String store, Kind kind, LocalDate date) {
+        String key = store.toLowerCase(Locale.ROOT);
+        String name = key + (kind == Kind.DISCOUNTS ? "_discounts_" : "_") + date + ".csv";
+        if (!FILE_NAME.matcher(name).matches()) throw new IllegalArgumentException("Invalid store name: " + store);
+
+        String display = StringDictionary.shared().intern(Character.toUpperCase(key.charAt(0)) + key.substring(1));
+        return new IngestFile(new DescriptiveResource(name), display, kind, date);
+    }
+
+    public String fileName() {
+        return resource.getFilename() != null ? resource.getFilename() : resource.getDescription();
+    }
+
+    /**
+     * Opens the file for parsing. Files on disk are memory-mapped, files inside a jar are read into memory.
+     *
+     * @return a tokenizer positioned before the header line
+     * @throws IOException if the file cannot be read
+     */
+    public CsvTokenizer open() throws IOException {
+        if (resource.isFile()) {
+            return CsvTokenizer.open(resource.getFile().toPath());
+        }
+        return CsvTokenizer.of(ByteBuffer.wrap(resource.getContentAsByteArray()));
+    }
+
+    /**
+     * Computes a CRC-32C checksum of the file content, used to tell whether a file changed since it was loaded.
+     *
+     * @return the checksum as a hex string
+     * @throws IOException if the file cannot be read
+     */
+    public String checksum() throws IOException {
+        CRC32C crc = new CRC32C();
+        if (resource.isFile()) {
+            try (FileChannel ch = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+                long size = ch.size();
+                for (long pos = 0; pos < size; pos += CHECKSUM_CHUNK) {
+                    crc.update(ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(CHECKSUM_CHUNK, size - pos)));
+                }
+            }
+        } else {
+            try (InputStream in = resource.getInputStream()) {
+                byte[] buffer = new byte[64 << 10];
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    crc.update(buffer, 0, n);
+                }
+            }
+        }
+        return HexFormat.of().toHexDigits((int) crc.getValue());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.accesa.ingest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes catalog ingestion to Micrometer, and through it to {@code /actuator/metrics}:
+ * <ul>
+ *     <li>{@code catalog.ingest.file}: a timer per loaded file, tagged with its store, kind and outcome</li>
+ *     <li>{@code catalog.ingest.rows}: counters of rows parsed, persisted and rejected</li>
+ *     <li>{@code catalog.ingest.files.pending}: files queued but not loaded yet</li>
+ *     <li>{@code catalog.ingest.batches.pending}: parsed batches waiting for a writer</li>
+ *     <li>{@code catalog.ingest.staleness}: seconds since a file was last loaded</li>
+ * </ul>
+ * The row counters and gauges read the totals kept by {@link IngestProgress}.
+ */
+@Component
+public class IngestMetrics {
+    private final MeterRegistry registry;
+
+    public IngestMetrics(MeterRegistry registry, IngestProgress progress) {
+        this.registry = registry;
+        rowCounter(progress, "parsed", IngestProgress::rowsParsed);
+        rowCounter(progress, "persisted", p -> p.snapshot().rowsLoaded());
+        rowCounter(progress, "rejected", p -> p.snapshot().rowsRejected());
+        Gauge.builder("catalog.ingest.files.pending", progress, p -> p.snapshot().filesTotal() - p.snapshot().filesDone())
+                .description("Catalog files queued but not loaded yet")
+                .register(registry);
+        Gauge.builder("catalog.ingest.batches.pending", progress, IngestProgress::batchesPending)
+                .description("Parsed batches waiting to be written")
+                .register(registry);
+        Gauge.builder("catalog.ingest.staleness", progress, p -> p.sinceLastFile().map(d -> d.toMillis() / 1000d).orElse(Double.NaN))
+                .description("Time since a catalog file was last loaded")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Records how long a file took to load.
+     *
+     * @param file    the file
+     * @param elapsed the time from the start of parsing until its last row was written
+     * @param failed  whether the file could not be loaded completely
+     */
+    public void fileLoaded(IngestFile file, Duration elapsed, boolean failed) {
+        Timer.builder("catalog.ingest.file")
+                .description("Time to load one catalog file")
+                .tag("store", file.store())
+                .tag("kind", file.kind().name().toLowerCase(Locale.ROOT))
+                .tag("outcome", failed ? "failure" : "success")
+                .register(registry)
+                .record(elapsed);
+    }
+
+    private void rowCounter(IngestProgress progress, String outcome, ToDoubleFunction<IngestProgress> count) {
+        FunctionCounter.builder("catalog.ingest.rows", progress, count)
+                .description("Catalog rows handled by ingestion")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
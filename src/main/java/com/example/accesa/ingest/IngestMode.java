@@ -0,0 +1,17 @@
+package com.example.accesa.ingest;
+
+/**
+ * How parsed rows are written to the database.
+ */
+public enum IngestMode {
+    /** Rows are new; they are inserted without checking for existing keys. */
+    INSERT,
+    /** Rows may already be stored, e.g. from an earlier version of the same file; existing keys are replaced. */
+    UPSERT,
+    /**
+     * Rows are the complete new content of their store and date: only new and changed rows are written, and
+     * stored rows the input no longer contains are deleted once it has been read completely. Discounts have
+     * no such partition, so for them this is the same as {@link #UPSERT}.
+     */
+    REPLACE
+}
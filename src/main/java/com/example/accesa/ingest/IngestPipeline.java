@@ -0,0 +1,359 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.config.IngestProperties;
+import com.example.accesa.domain.Discount;
+import com.example.accesa.domain.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads a set of catalog files concurrently. Files are fanned out to a bounded pool of parser threads,
+ * which hand fixed-size batches to a separate pool of writer threads through a bounded queue.
+ * A slow database write therefore only stalls parsing once the queue is full.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngestPipeline {
+    private static final IngestBatch END_OF_INPUT = new IngestBatch(null, IngestMode.INSERT, List.of(), List.of());
+
+    private final CatalogCsvReader reader;
+    private final CatalogWriter writer;
+    private final IngestProperties properties;
+    private final IngestProgress progress;
+    private final IngestMetrics metrics;
+    private final IngestQuarantine quarantine;
+
+    /**
+     * Parses and inserts the given files, blocking until every row has been written or rejected.
+     *
+     * @param files the files to load
+     * @return the totals of the run
+     */
+    public IngestSummary run(List<IngestFile> files) {
+        return run(files, IngestMode.INSERT);
+    }
+
+    /**
+     * Parses and persists the given files, blocking until every row has been written or rejected.
+     *
+     * @param files the files to load
+     * @param mode  whether rows are inserted as new or may replace stored rows
+     * @return the totals of the run
+     */
+    public IngestSummary run(List<IngestFile> files, IngestMode mode) {
+        long start = System.nanoTime();
+        if (files.isEmpty()) return IngestSummary.EMPTY;
+
+        int parserThreads = Math.min(files.size(), properties.parserThreads() > 0
+                ? properties.parserThreads()
+                : Runtime.getRuntime().availableProcessors());
+        int writerThreads = Math.max(1, properties.writerThreads());
+
+        BlockingQueue<IngestBatch> queue = new ArrayBlockingQueue<>(Math.max(1, properties.queueCapacity()));
+        Map<IngestFile, FileRun> runs = new ConcurrentHashMap<>();
+        files.forEach(f -> runs.put(f, new FileRun(f, mode, progress)));
+        progress.filesQueued(files.size());
+
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, Thread.ofPlatform().name("ingest-parser-", 0).factory());
+        ExecutorService writers = Executors.newFixedThreadPool(writerThreads, Thread.ofPlatform().name("ingest-writer-", 0).factory());
+        try {
+            for (int i = 0; i < writerThreads; i++) {
+                writers.submit(() -> drain(queue, runs));
+            }
+
+            List<Future<?>> parsing = new ArrayList<>();
+            for (IngestFile file : files) {
+                parsing.add(parsers.submit(() -> parse(runs.get(file), queue)));
+            }
+            for (Future<?> task : parsing) {
+                task.get();
+            }
+            for (int i = 0; i < writerThreads; i++) {
+                queue.put(END_OF_INPUT);
+            }
+            writers.shutdown();
+            writers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Catalog ingestion interrupted");
+        } catch (ExecutionException e) {
+            log.error("Catalog ingestion failed", e.getCause());
+        } finally {
+            parsers.shutdownNow();
+            writers.shutdownNow();
+        }
+
+        List<IngestSummary.FileResult> results = files.stream().map(f -> runs.get(f).result()).toList();
+        long persisted = results.stream().mapToLong(IngestSummary.FileResult::persisted).sum();
+        long rejected = results.stream().mapToLong(IngestSummary.FileResult::rejected).sum();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        log.info("Ingested {} files: {} rows persisted, {} rejected in {} ms ({} parser / {} writer threads)",
+                files.size(), persisted, rejected, elapsed.toMillis(), parserThreads, writerThreads);
+        return new IngestSummary(results, persisted, rejected, elapsed);
+    }
+
+    /**
+     * Parses and persists rows from a stream on the calling thread while writer threads store them, so only
+     * a bounded number of batches is held in memory. When the writers fall behind, the caller blocks; if a
+     * batch cannot be queued within {@code catalog.ingest.upload-timeout}, reading stops and the rows queued
+     * so far are still written.
+     *
+     * @param source the store, kind and date the rows belong to
+     * @param tokens the input, positioned after the header
+     * @param mode   whether rows are inserted as new or may replace stored rows
+     * @return the totals of the run
+     * @throws IOException                 if the input cannot be read
+     * @throws IngestBackpressureException if the writers did not keep up; it carries the totals written so far
+     */
+    public IngestSummary stream(IngestFile source, CsvTokenizer tokens, IngestMode mode) throws IOException {
+        long start = System.nanoTime();
+        int writerThreads = Math.max(1, properties.writerThreads());
+        BlockingQueue<IngestBatch> queue = new ArrayBlockingQueue<>(Math.max(1, properties.queueCapacity()));
+        FileRun run = new FileRun(source, mode, progress);
+        Map<IngestFile, FileRun> runs = Map.of(source, run);
+        progress.filesQueued(1);
+
+        ExecutorService writers = Executors.newFixedThreadPool(writerThreads, Thread.ofPlatform().name("ingest-upload-writer-", 0).factory());
+        boolean timedOut = false;
+        try {
+            quarantine.clear(source);
+            startDiff(run);
+            for (int i = 0; i < writerThreads; i++) {
+                writers.submit(() -> drain(queue, runs));
+            }
+            BatchingSink sink = new BatchingSink(run, queue, quarantine, Math.max(1, properties.batchSize()), properties.uploadTimeout().toNanos());
+            reader.readRows(tokens, source, sink);
+            sink.flush();
+        } catch (WriteTimeout e) {
+            timedOut = true;
+            run.failed = true;
+        } catch (IOException | RuntimeException e) {
+            run.failed = true;
+            throw e;
+        } finally {
+            release(run);
+            try {
+                for (int i = 0; i < writerThreads; i++) {
+                    queue.put(END_OF_INPUT);
+                }
+                writers.shutdown();
+                writers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                writers.shutdownNow();
+            }
+        }
+
+        IngestSummary.FileResult result = run.result();
+        IngestSummary summary = new IngestSummary(List.of(result), result.persisted(), result.rejected(),
+                Duration.ofNanos(System.nanoTime() - start));
+        if (timedOut) {
+            throw new IngestBackpressureException("Writers fell behind for longer than " + properties.uploadTimeout().toSeconds()
+                    + "s while loading " + source.fileName(), summary);
+        }
+        return summary;
+    }
+
+    private void parse(FileRun run, BlockingQueue<IngestBatch> queue) {
+        run.start = System.nanoTime();
+        try {
+            quarantine.clear(run.file);
+            startDiff(run);
+            BatchingSink sink = new BatchingSink(run, queue, quarantine, Math.max(1, properties.batchSize()), -1);
+            reader.read(run.file, sink);
+            sink.flush();
+        } catch (IOException | DataAccessException e) {
+            run.failed = true;
+            log.error("Failed to load data from file {}", run.file.fileName(), e);
+        } finally {
+            release(run);
+        }
+    }
+
+    private void startDiff(FileRun run) {
+        if (run.mode == IngestMode.REPLACE && run.file.kind() == IngestFile.Kind.PRODUCTS) {
+            run.diff = writer.startReplace(run.file);
+        }
+    }
+
+    /**
+     * Drops one pending reference of a file; the last one completes the file. A reload that was read to the end
+     * then deletes the stored rows it no longer contains. The file's load time is recorded either way.
+     */
+    private void release(FileRun run) {
+        if (run.pending.decrementAndGet() > 0) return;
+
+        if (run.diff != null && !run.failed) {
+            try {
+                run.changes = writer.finishReplace(run.diff);
+            } catch (RuntimeException e) {
+                log.error("Failed to delete rows missing from {}", run.file.fileName(), e);
+            }
+        }
+        metrics.fileLoaded(run.file, Duration.ofNanos(System.nanoTime() - run.start), run.failed);
+        run.complete();
+    }
+
+    private void drain(BlockingQueue<IngestBatch> queue, Map<IngestFile, FileRun> runs) {
+        try {
+            while (true) {
+                IngestBatch batch = queue.take();
+                if (batch == END_OF_INPUT) return;
+                progress.batchTaken();
+
+                FileRun run = runs.get(batch.source());
+                int written = 0;
+                try {
+                    written = writer.write(batch, run.diff);
+                } catch (RuntimeException e) {
+                    log.error("Failed to write batch from {}", batch.source().fileName(), e);
+                }
+                run.written(batch.size(), written);
+                release(run);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Signals that a batch could not be queued in time.
+     */
+    private static final class WriteTimeout extends RuntimeException {
+        private WriteTimeout() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Collects parsed rows of one file into batches and queues each batch once it is full.
+     * With a negative timeout, queueing waits as long as it takes.
+     */
+    private static final class BatchingSink implements CatalogCsvReader.RowSink {
+        private final FileRun run;
+        private final BlockingQueue<IngestBatch> queue;
+        private final IngestQuarantine quarantine;
+        private final int batchSize;
+        private final long timeoutNanos;
+        private List<Product> products;
+        private List<Discount> discounts;
+
+        private BatchingSink(FileRun run, BlockingQueue<IngestBatch> queue, IngestQuarantine quarantine, int batchSize,
+                             long timeoutNanos) {
+            this.run = run;
+            this.queue = queue;
+            this.quarantine = quarantine;
+            this.batchSize = batchSize;
+            this.timeoutNanos = timeoutNanos;
+            this.products = new ArrayList<>(batchSize);
+            this.discounts = new ArrayList<>(batchSize);
+        }
+
+        @Override
+        public void product(Product product) {
+            products.add(product);
+            if (products.size() >= batchSize) flush();
+        }
+
+        @Override
+        public void discount(Discount discount) {
+            discounts.add(discount);
+            if (discounts.size() >= batchSize) flush();
+        }
+
+        @Override
+        public void rejected(long lineNumber, String line, String reason) {
+            run.rejected.increment();
+            run.progress.rowsParsed(1);
+            run.progress.rowsRejected(1);
+            if (run.rejected.sum() <= IngestQuarantine.LIMIT_PER_FILE) {
+                quarantine.reject(run.file, lineNumber, line, reason);
+            }
+        }
+
+        private void flush() {
+            if (products.isEmpty() && discounts.isEmpty()) return;
+            run.progress.rowsParsed(products.size() + discounts.size());
+            run.enqueue(new IngestBatch(run.file, run.mode, products, discounts), queue, timeoutNanos);
+            products = new ArrayList<>(batchSize);
+            discounts = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Per-file bookkeeping. The pending count starts at one for the parser itself and goes up
+     * by one per queued batch, so the file is complete when it drops back to zero.
+     */
+    private static final class FileRun {
+        private final IngestFile file;
+        private final IngestMode mode;
+        private final IngestProgress progress;
+        private volatile long start = System.nanoTime();
+        private volatile boolean failed;
+        private volatile PartitionDiff diff;
+        private volatile IngestSummary.Diff changes;
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final LongAdder persisted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private FileRun(IngestFile file, IngestMode mode, IngestProgress progress) {
+            this.file = file;
+            this.mode = mode;
+            this.progress = progress;
+        }
+
+        private void enqueue(IngestBatch batch, BlockingQueue<IngestBatch> queue, long timeoutNanos) {
+            pending.incrementAndGet();
+            try {
+                if (timeoutNanos < 0) {
+                    queue.put(batch);
+                } else if (!queue.offer(batch, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                    pending.decrementAndGet();
+                    throw new WriteTimeout();
+                }
+                progress.batchQueued();
+            } catch (InterruptedException e) {
+                pending.decrementAndGet();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while queueing rows from " + file.fileName());
+            }
+        }
+
+        private void written(int size, int written) {
+            persisted.add(written);
+            rejected.add(size - written);
+            progress.rowsLoaded(written);
+            progress.rowsRejected(size - written);
+        }
+
+        private IngestSummary.FileResult result() {
+            return new IngestSummary.FileResult(file, persisted.sum(), rejected.sum(), failed || pending.get() > 0, changes);
+        }
+
+        private void complete() {
+            progress.fileDone();
+            long rows = persisted.sum();
+            double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+            log.info("Loaded {} {} from {} in {} ms ({} rows/s, {} rejected)",
+                    rows, file.kind() == IngestFile.Kind.DISCOUNTS ? "discounts" : "products", file.fileName(),
+                    Math.round(seconds * 1000), Math.round(rows / Math.max(seconds, 1e-9)), rejected.sum());
+            if (changes != null) {
+                log.info("Reloaded {}: {} inserted, {} updated, {} deleted, {} unchanged", file.fileName(),
+                        changes.inserted(), changes.updated(), changes.deleted(), changes.unchanged());
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.accesa.ingest;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of the catalog load, shared by the loader, the readiness check and the {@code ingest} actuator endpoint.
+ */
+@Component
+public class IngestProgress {
+
+    public enum State { PENDING, LOADING, READY, FAILED }
+
+    /**
+     * A point-in-time copy of the counters.
+     */
+    public record Snapshot(State state, int filesTotal, int filesDone, long rowsLoaded, long rowsRejected,
+                           Instant startedAt, Instant finishedAt, String error) {}
+
+    private final AtomicInteger filesTotal = new AtomicInteger();
+    private final AtomicInteger filesDone = new AtomicInteger();
+    private final LongAdder rowsParsed = new LongAdder();
+    private final LongAdder rowsLoaded = new LongAdder();
+    private final LongAdder rowsRejected = new LongAdder();
+    private final AtomicInteger batchesPending = new AtomicInteger();
+    private volatile Instant lastFileAt;
+    private volatile State state = State.PENDING;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public void loadStarted() {
+        startedAt = Instant.now();
+        state = State.LOADING;
+    }
+
+    public void loadFinished() {
+        finishedAt = Instant.now();
+        state = State.READY;
+    }
+
+    public void loadFailed(Throwable cause) {
+        finishedAt = Instant.now();
+        error = cause.getMessage();
+        state = State.FAILED;
+    }
+
+    public void filesQueued(int count) {
+        filesTotal.addAndGet(count);
+    }
+
+    public void fileDone() {
+        filesDone.incrementAndGet();
+        lastFileAt = Instant.now();
+    }
+
+    public void rowsParsed(long count) {
+        rowsParsed.add(count);
+    }
+
+    public void batchQueued() {
+        batchesPending.incrementAndGet();
+    }
+
+    public void batchTaken() {
+        batchesPending.decrementAndGet();
+    }
+
+    public void rowsLoaded(long count) {
+        rowsLoaded.add(count);
+    }
+
+    public void rowsRejected(long count) {
+        rowsRejected.add(count);
+    }
+
+    public long rowsParsed() {
+        return rowsParsed.sum();
+    }
+
+    public int batchesPending() {
+        return batchesPending.get();
+    }
+
+    /**
+     * @return the time since a file was last loaded, or empty if none has been yet
+     */
+    public Optional<Duration> sinceLastFile() {
+        Instant last = lastFileAt;
+        return last == null ? Optional.empty() : Optional.of(Duration.between(last, Instant.now()));
+    }
+
+    public boolean isReady() {
+        return state == State.READY;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(state, filesTotal.get(), filesDone.get(), rowsLoaded.sum(), rowsRejected.sum(),
+                startedAt, finishedAt, error);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.RejectedRow;
+import com.example.accesa.repository.RejectedRowRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps the rows that were rejected while loading catalog files in the {@code rejected_row} table.
+ * Failing to record a rejection is logged but never fails the load itself.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngestQuarantine {
+    /**
+     * The most unparseable lines recorded per file and load; further ones are only counted. Rows refused by
+     * the database are always recorded, since each of them has already cost a single-row retry.
+     */
+    public static final int LIMIT_PER_FILE = 1000;
+
+    private final RejectedRowRepository repository;
+
+    /**
+     * Forgets the rejections of an earlier load of the file, before it is loaded again.
+     *
+     * @param file the file about to be loaded
+     */
+    public void clear(IngestFile file) {
+        try {
+            repository.deleteByFileName(file.fileName());
+        } catch (DataAccessException e) {
+            log.warn("Failed to clear rejected rows of {}: {}", file.fileName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Records a rejected row.
+     *
+     * @param file       the file the row came from
+     * @param lineNumber the line in the file, or null if it is not known
+     * @param content    the row as read or as it was about to be written
+     * @param reason     why the row was rejected
+     */
+    public void reject(IngestFile file, Long lineNumber, String content, String reason) {
+        log.debug("Rejected line {} of {}: {} ({})", lineNumber, file.fileName(), content, reason);
+        try {
+            repository.save(new RejectedRow(null, file.fileName(), lineNumber, truncate(content), truncate(reason),
+                    LocalDateTime.now()));
+        } catch (DataAccessException e) {
+            log.warn("Failed to record rejected row of {}: {}", file.fileName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Lists recorded rejections in the order they happened.
+     *
+     * @param fileName the file to list, or null for all files
+     * @param page     the zero-based page
+     * @param size     the page size
+     * @return the rejections on that page
+     */
+    public List<RejectedRow> find(String fileName, int page, int size) {
+        PageRequest request = PageRequest.of(page, size, Sort.by("id"));
+        return (fileName == null ? repository.findAll(request) : repository.findByFileName(fileName, request)).getContent();
+    }
+
+    private static String truncate(String text) {
+        if (text == null || text.length() <= RejectedRow.MAX_TEXT_LENGTH) return text;
+        return text.substring(0, RejectedRow.MAX_TEXT_LENGTH - 3) + "...";
+    }
+}
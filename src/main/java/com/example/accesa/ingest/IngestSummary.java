@@ -0,0 +1,55 @@
+package com.example.accesa.ingest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Totals for one ingestion run.
+ *
+ * @param files     the outcome of every file processed
+ * @param persisted the number of rows written to the database
+ * @param rejected  the number of rows skipped because they could not be parsed or stored
+ * @param elapsed   the wall-clock duration of the run
+ */
+public record IngestSummary(List<FileResult> files, long persisted, long rejected, Duration elapsed) {
+
+    public static final IngestSummary EMPTY = new IngestSummary(List.of(), 0, 0, Duration.ZERO);
+
+    /**
+     * The outcome of loading one file.
+     *
+     * @param file      the file
+     * @param persisted the number of rows written to the database, or found already stored as given
+     * @param rejected  the number of rows skipped
+     * @param failed    whether the file could not be read to the end
+     * @param diff      what changed in the stored partition, for files reloaded in {@link IngestMode#REPLACE} mode
+     */
+    public record FileResult(IngestFile file, long persisted, long rejected, boolean failed, Diff diff) {
+
+        public FileResult(IngestFile file, long persisted, long rejected, boolean failed) {
+            this(file, persisted, rejected, failed, null);
+        }
+    }
+
+    /**
+     * The writes a reload needed.
+     *
+     * @param inserted  rows that were not stored before
+     * @param updated   rows whose values changed
+     * @param deleted   stored rows that the new file no longer contains
+     * @param unchanged rows that were already stored as given and were not written
+     */
+    public record Diff(long inserted, long updated, long deleted, long unchanged) {}
+
+    /**
+     * Combines the totals of two consecutive runs.
+     */
+    public IngestSummary plus(IngestSummary other) {
+        return new IngestSummary(
+                Stream.concat(files.stream(), other.files.stream()).toList(),
+                persisted + other.persisted,
+                rejected + other.rejected,
+                elapsed.plus(other.elapsed));
+    }
+}
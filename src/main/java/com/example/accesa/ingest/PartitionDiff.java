@@ -0,0 +1,107 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the rows of a reloaded product file against what is stored for its store and date.
+ * Batches of the file are classified as they arrive, possibly from several writer threads;
+ * once the whole file has been seen, the stored rows it no longer contains are the deletions.
+ */
+public final class PartitionDiff {
+    private final Map<String, Product> stored;
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+    private final LongAdder inserted = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+
+    /**
+     * The changes a batch needs.
+     *
+     * @param inserts   rows that are not stored yet
+     * @param updates   rows whose stored values differ
+     * @param unchanged the number of rows that are stored exactly as given
+     */
+    public record Changes(List<Product> inserts, List<Product> updates, int unchanged) {}
+
+    /**
+     * @param stored the rows currently stored for the partition
+     */
+    public PartitionDiff(Collection<Product> stored) {
+        this.stored = new HashMap<>(Math.max(16, stored.size() * 4 / 3 + 1));
+        stored.forEach(p -> this.stored.put(p.getId().getProductId(), p));
+    }
+
+    /**
+     * Sorts the rows of a batch into inserts, updates and unchanged rows, and marks them as seen.
+     *
+     * @param batch rows of the reloaded file
+     * @return the writes the batch needs
+     */
+    public Changes classify(List<Product> batch) {
+        List<Product> inserts = new ArrayList<>();
+        List<Product> updates = new ArrayList<>();
+        int same = 0;
+        for (Product row : batch) {
+            String id = row.getId().getProductId();
+            boolean first = seen.add(id);
+            Product current = stored.get(id);
+            if (current == null) {
+                if (first) inserts.add(row);
+                else updates.add(row);
+            } else if (sameValues(current, row)) {
+                same++;
+            } else {
+                updates.add(row);
+            }
+        }
+        return new Changes(inserts, updates, same);
+    }
+
+    /**
+     * Records how many rows of a classified batch were actually written.
+     */
+    public void applied(int inserts, int updates, int unchanged) {
+        inserted.add(inserts);
+        updated.add(updates);
+        this.unchanged.add(unchanged);
+    }
+
+    /**
+     * The stored rows that none of the classified batches contained. Only meaningful once the whole file has been seen.
+     */
+    public List<ProductId> missing() {
+        return stored.values().stream()
+                .filter(p -> !seen.contains(p.getId().getProductId()))
+                .map(Product::getId)
+                .toList();
+    }
+
+    /**
+     * Summarizes the diff after the deletions have been written.
+     *
+     * @param deleted the number of deleted rows
+     */
+    public IngestSummary.Diff report(long deleted) {
+        return new IngestSummary.Diff(inserted.sum(), updated.sum(), deleted, unchanged.sum());
+    }
+
+    private static boolean sameValues(Product a, Product b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getCategory(), b.getCategory())
+                && Objects.equals(a.getBrand(), b.getBrand())
+                && sameNumber(a.getQuantity(), b.getQuantity())
+                && Objects.equals(a.getUnit(), b.getUnit())
+                && sameNumber(a.getPrice(), b.getPrice())
+                && Objects.equals(a.getCurrency(), b.getCurrency());
+    }
+
+    private static boolean sameNumber(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+}
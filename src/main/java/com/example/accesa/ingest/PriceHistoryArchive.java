@@ -0,0 +1,250 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.config.CatalogHistoryProperties;
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.domain.SearchText;
+import com.example.accesa.dto.ProductFilter;
+import com.example.accesa.repository.CatalogBulkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The cold tier of the price history. Products older than {@code catalog.history.hot-months} are moved out of the
+ * catalog database into one {@link HistorySegment} per store and month under {@code catalog.history.dir}, so the
+ * heap holds only recent prices however much history is kept. The latest date of every store always stays in the
+ * database, so current prices are never archived. Segments are mapped on first use; at most
+ * {@code catalog.history.open-segments} stay mapped. The checksum of a segment is checked the first time it is
+ * mapped only, so a segment that is mapped again after it was dropped costs no more than the map itself.
+ */
+@Slf4j
+@Component
+public class PriceHistoryArchive {
+    private static final String SUFFIX = ".seg";
+
+    private final CatalogBulkRepository bulkRepo;
+    private final CatalogHistoryProperties properties;
+    private final ApplicationEventPublisher events;
+    private final Map<Path, HistorySegment> mapped;
+    private final Map<Path, FileStamp> verified = new HashMap<>();
+
+    private volatile List<SegmentFile> files;
+
+    /**
+     * A segment file, with the store and month taken from its name.
+     */
+    private record SegmentFile(Path path, String store, YearMonth month) {}
+
+    /**
+     * The modification time and size of a segment file whose checksum has been checked.
+     */
+    private record FileStamp(FileTime modified, long size) {
+
+        static FileStamp of(Path path) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new FileStamp(attributes.lastModifiedTime(), attributes.size());
+        }
+    }
+
+    public PriceHistoryArchive(CatalogBulkRepository bulkRepo, CatalogHistoryProperties properties,
+                               ApplicationEventPublisher events) {
+        this.bulkRepo = bulkRepo;
+        this.properties = properties;
+        this.events = events;
+        this.mapped = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, HistorySegment> eldest) {
+                return size() > properties.openSegments();
+            }
+        };
+    }
+
+    /**
+     * Whether a history directory is configured.
+     */
+    public boolean enabled() {
+        return properties.dir() != null;
+    }
+
+    /**
+     * @return the first day of the oldest month that stays in the database
+     */
+    public LocalDate cutoff(LocalDate today) {
+        return today.withDayOfMonth(1).minusMonths(Math.max(properties.hotMonths(), 1) - 1L);
+    }
+
+    /**
+     * Moves the products dated before the cutoff into the segment files, one month at a time, except those of the
+     * latest date of each store. A month that already has a segment is merged into it, with the database rows
+     * replacing the archived rows of the same dates. The archived dates are then deleted from the database. Runs must
+     * not overlap with ingestion, which {@code DataLoaderService} ensures for file loads and uploads alike.
+     *
+     * @param cutoff the first date that stays in the database
+     * @return the number of archived rows
+     * @throws IOException if a segment cannot be written, or an existing one cannot be read; the rows of that month
+     *                     stay in the database
+     */
+    public int archive(LocalDate cutoff) throws IOException {
+        if (!enabled()) return 0;
+        Optional<LocalDate> oldest = bulkRepo.findOldestProductDate();
+        if (oldest.isEmpty() || !oldest.get().isBefore(cutoff)) return 0;
+
+        long start = System.nanoTime();
+        Files.createDirectories(properties.dir());
+        Map<String, LocalDate> latest = bulkRepo.findLatestProductDates();
+        int archived = 0;
+        for (YearMonth month = YearMonth.from(oldest.get()); month.atDay(1).isBefore(cutoff); month = month.plusMonths(1)) {
+            Map<String, List<Product>> byStore = bulkRepo.findProducts(month.atDay(1), month.plusMonths(1).atDay(1)).stream()
+                    .filter(p -> p.getId().getDate().isBefore(latest.get(p.getId().getStoreName())))
+                    .collect(Collectors.groupingBy(p -> p.getId().getStoreName()));
+
+            for (Map.Entry<String, List<Product>> store : byStore.entrySet()) {
+                Path path = properties.dir().resolve(fileName(store.getKey(), month));
+                List<Product> rows = new ArrayList<>(store.getValue());
+                Set<LocalDate> dates = rows.stream().map(p -> p.getId().getDate()).collect(Collectors.toCollection(TreeSet::new));
+                if (Files.exists(path)) {
+                    HistorySegment.open(path).all().stream()
+                            .filter(p -> !dates.contains(p.getId().getDate()))
+                            .forEach(rows::add);
+                }
+                HistorySegment.write(path, store.getKey(), rows);
+                synchronized (mapped) {
+                    mapped.remove(path);
+                    verified.remove(path);
+                }
+
+                dates.forEach(date -> bulkRepo.deleteProducts(store.getKey(), date));
+                List<ProductId> ids = store.getValue().stream().map(Product::getId).toList();
+                events.publishEvent(CatalogChangedEvent.deleted(ids));
+                archived += ids.size();
+            }
+        }
+        files = null;
+        log.info("Archived {} products dated before {} in {} ms", archived, cutoff, (System.nanoTime() - start) / 1_000_000);
+        return archived;
+    }
+
+    /**
+     * @param productId the product
+     * @param storeName the store to keep, matched ignoring case, or null for all stores
+     * @return the archived rows of one product, by date
+     */
+    public List<Product> history(String productId, String storeName) {
+        return collect(storeName, segment -> segment.history(productId), month -> true);
+    }
+
+    /**
+     * Reads only the segments of the months the date range overlaps.
+     *
+     * @param from the first date to keep, or null for no bound
+     * @param to   the last date to keep, or null for no bound
+     * @return the archived rows of one product in the date range, by date
+     */
+    public List<Product> history(String productId, String storeName, LocalDate from, LocalDate to) {
+        return collect(storeName, segment -> segment.history(productId).stream()
+                        .filter(p -> (from == null || !p.getId().getDate().isBefore(from))
+                                && (to == null || !p.getId().getDate().isAfter(to)))
+                        .toList(),
+                overlapping(from, to));
+    }
+
+    /**
+     * Reads only the segments of the filter's store and of the months its date range overlaps.
+     *
+     * @param filter the criteria, whose name must be set
+     * @return the archived rows that match the filter, by date
+     */
+    public List<Product> historyByName(ProductFilter filter) {
+        String needle = SearchText.normalize(filter.name());
+        Predicate<String> nameFilter = n -> SearchText.contains(n, needle);
+        return collect(filter.store(), segment -> segment.withName(nameFilter).stream().filter(filter::test).toList(),
+                overlapping(filter.from(), filter.to()));
+    }
+
+    private static Predicate<YearMonth> overlapping(LocalDate from, LocalDate to) {
+        YearMonth first = from == null ? null : YearMonth.from(from);
+        YearMonth last = to == null ? null : YearMonth.from(to);
+        return month -> (first == null || !month.isBefore(first)) && (last == null || !month.isAfter(last));
+    }
+
+    private List<Product> collect(String storeName, Function<HistorySegment, List<Product>> query,
+                                  Predicate<YearMonth> months) {
+        if (!enabled()) return List.of();
+        List<Product> result = new ArrayList<>();
+        for (SegmentFile file : files()) {
+            if (storeName != null && !file.store().equalsIgnoreCase(storeName) || !months.test(file.month())) continue;
+            segment(file.path()).ifPresent(segment -> result.addAll(query.apply(segment)));
+        }
+        result.sort(Comparator.comparing(p -> p.getId().getDate()));
+        return result;
+    }
+
+    private Optional<HistorySegment> segment(Path path) {
+        synchronized (mapped) {
+            HistorySegment segment = mapped.get(path);
+            if (segment == null) {
+                try {
+                    FileStamp stamp = FileStamp.of(path);
+                    segment = HistorySegment.open(path, !stamp.equals(verified.get(path)));
+                    verified.put(path, stamp);
+                } catch (IOException e) {
+                    log.warn("Ignoring unreadable history segment: {}", e.getMessage());
+                    return Optional.empty();
+                }
+                mapped.put(path, segment);
+            }
+            return Optional.of(segment);
+        }
+    }
+
+    private List<SegmentFile> files() {
+        List<SegmentFile> current = files;
+        if (current != null) return current;
+
+        current = new ArrayList<>();
+        if (Files.isDirectory(properties.dir())) {
+            try (Stream<Path> entries = Files.list(properties.dir())) {
+                entries.map(PriceHistoryArchive::parse).flatMap(Optional::stream).forEach(current::add);
+            } catch (IOException e) {
+                log.warn("Failed to list history segments in {}: {}", properties.dir(), e.getMessage());
+                return List.of();
+            }
+        }
+        current.sort(Comparator.comparing(SegmentFile::month));
+        files = current;
+        return current;
+    }
+
+    static String fileName(String store, YearMonth month) {
+        return URLEncoder.encode(store, StandardCharsets.UTF_8) + "_" + month + SUFFIX;
+    }
+
+    private static Optional<SegmentFile> parse(Path path) {
+        String name = path.getFileName().toString();
+        int separator = name.lastIndexOf('_');
+        if (!name.endsWith(SUFFIX) || separator < 1) return Optional.empty();
+        try {
+            return Optional.of(new SegmentFile(path, URLDecoder.decode(name.substring(0, separator), StandardCharsets.UTF_8),
+                    YearMonth.parse(name.substring(separator + 1, name.length() - SUFFIX.length()))));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
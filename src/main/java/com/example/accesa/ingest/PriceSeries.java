@@ -0,0 +1,188 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * The encoding of one product's prices in one store, as stored in a {@link HistorySegment}.
+ *
+ * <p>The rows are split into blocks of consecutive dates with the same name, category, brand, unit, currency and
+ * quantity, which are stored once per block. The dates and prices of a block are stored as runs: a run of n points
+ * adds the same date step and the same price step to the previous point n times, so a price that stays the same
+ * on a regular schedule takes a few bytes however long it lasts. All numbers are varints, signed ones zigzag
+ * encoded:
+ * <pre>
+ * series: blocks, then per block name, category, brand, unit, currency as dictionary code + 1 (0 for null),
+ *         quantity + 1 as unscaled value (0 for null), points, then runs until the points are used up
+ * run:    n &lt;&lt; 1 | 1 if the prices are null, date step, price step unless the prices are null
+ * </pre>
+ * Dates and prices start from zero at the beginning of the series; null prices leave the price unchanged.
+ */
+final class PriceSeries {
+
+    private PriceSeries() {
+    }
+
+    /**
+     * Appends the encoding of a series.
+     *
+     * @param rows          the rows of one product in one store, by date
+     * @param codes         the dictionary code of a non-null string
+     * @param quantityScale the scale quantities are stored at
+     * @param priceScale    the scale prices are stored at
+     */
+    static void encode(List<Product> rows, ToIntFunction<String> codes, int quantityScale, int priceScale,
+                       ByteArrayOutputStream out) {
+        List<Integer> blockStarts = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (i == 0 || !sameAttributes(rows.get(i - 1), rows.get(i))) blockStarts.add(i);
+        }
+        blockStarts.add(rows.size());
+
+        writeVarint(out, blockStarts.size() - 1);
+        long date = 0, price = 0;
+        for (int b = 0; b + 1 < blockStarts.size(); b++) {
+            int from = blockStarts.get(b), to = blockStarts.get(b + 1);
+            Product first = rows.get(from);
+            for (String value : new String[]{first.getName(), first.getCategory(), first.getBrand(), first.getUnit(),
+                    first.getCurrency()}) {
+                writeVarint(out, value == null ? 0 : codes.applyAsInt(value) + 1);
+            }
+            writeVarint(out, first.getQuantity() == null ? 0 : zigzag(unscaled(first.getQuantity(), quantityScale)) + 1);
+            writeVarint(out, to - from);
+
+            int i = from;
+            while (i < to) {
+                Product start = rows.get(i);
+                boolean nullPrices = start.getPrice() == null;
+                long dateStep = start.getId().getDate().toEpochDay() - date;
+                long priceStep = nullPrices ? 0 : unscaled(start.getPrice(), priceScale) - price;
+                int n = 1;
+                while (i + n < to && continues(rows.get(i + n - 1), rows.get(i + n), dateStep, nullPrices, priceStep, priceScale)) {
+                    n++;
+                }
+                writeVarint(out, (long) n << 1 | (nullPrices ? 1 : 0));
+                writeVarint(out, zigzag(dateStep));
+                if (!nullPrices) writeVarint(out, zigzag(priceStep));
+
+                date += n * dateStep;
+                if (!nullPrices) price += n * priceStep;
+                i += n;
+            }
+        }
+    }
+
+    /**
+     * Decodes a series lazily, one row per call to {@link Iterator#next()}.
+     *
+     * @param buf       the buffer holding the series
+     * @param offset    where the series starts
+     * @param strings   the dictionary
+     * @param productId the product the series belongs to
+     * @param store     the store the series belongs to
+     */
+    static Iterator<Product> decode(ByteBuffer buf, int offset, IntFunction<String> strings, String productId,
+                                    String store, int quantityScale, int priceScale) {
+        return new Iterator<>() {
+            private int pos = offset;
+            private long blocks = -1, points, run;
+            private boolean nullPrices;
+            private long dateStep, priceStep, date, price;
+            private String name, category, brand, unit, currency;
+            private BigDecimal quantity;
+
+            @Override
+            public boolean hasNext() {
+                if (blocks < 0) blocks = readVarint();
+                return points > 0 || blocks > 0;
+            }
+
+            @Override
+            public Product next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                if (points == 0) {
+                    blocks--;
+                    name = string();
+                    category = string();
+                    brand = string();
+                    unit = string();
+                    currency = string();
+                    long q = readVarint();
+                    quantity = q == 0 ? null : BigDecimal.valueOf(unzigzag(q - 1), quantityScale);
+                    points = readVarint();
+                }
+                if (run == 0) {
+                    long header = readVarint();
+                    run = header >>> 1;
+                    nullPrices = (header & 1) != 0;
+                    dateStep = unzigzag(readVarint());
+                    priceStep = nullPrices ? 0 : unzigzag(readVarint());
+                }
+                run--;
+                points--;
+                date += dateStep;
+                price += priceStep;
+                return new Product(new ProductId(productId, store, LocalDate.ofEpochDay(date)), name, category, brand,
+                        quantity, unit, nullPrices ? null : BigDecimal.valueOf(price, priceScale), currency);
+            }
+
+            private String string() {
+                int code = (int) readVarint();
+                return code == 0 ? null : strings.apply(code - 1);
+            }
+
+            private long readVarint() {
+                long value = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = buf.get(pos++);
+                    value |= (long) (b & 0x7f) << shift;
+                    if (b >= 0) return value;
+                }
+            }
+        };
+    }
+
+    private static boolean sameAttributes(Product a, Product b) {
+        return Objects.equals(a.getName(), b.getName()) && Objects.equals(a.getCategory(), b.getCategory())
+                && Objects.equals(a.getBrand(), b.getBrand()) && Objects.equals(a.getUnit(), b.getUnit())
+                && Objects.equals(a.getCurrency(), b.getCurrency())
+                && (a.getQuantity() == null ? b.getQuantity() == null
+                : b.getQuantity() != null && a.getQuantity().compareTo(b.getQuantity()) == 0);
+    }
+
+    private static boolean continues(Product previous, Product next, long dateStep, boolean nullPrices, long priceStep,
+                                     int priceScale) {
+        if (next.getId().getDate().toEpochDay() - previous.getId().getDate().toEpochDay() != dateStep) return false;
+        if (nullPrices) return next.getPrice() == null;
+        return next.getPrice() != null
+                && unscaled(next.getPrice(), priceScale) - unscaled(previous.getPrice(), priceScale) == priceStep;
+    }
+
+    private static long unscaled(BigDecimal value, int scale) {
+        return value.setScale(scale).unscaledValue().longValueExact();
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.accesa.repository;
+
+import com.example.accesa.domain.Discount;
+import com.example.accesa.domain.DiscountId;
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bulk access to the product and discount tables that bypasses the JPA persistence context.
+ * Rows are sent in JDBC batches, either as plain INSERT statements, which make no existence check and
+ * must only be used for rows that are known not to be stored yet, or as MERGE statements that replace
+ * any stored row with the same key. Products can also be updated and deleted by key, for reloads that
+ * only write what changed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CatalogBulkRepository {
+    private static final String PRODUCT_COLUMNS =
+            "product (product_id, store_name, date, name, category, brand, quantity, unit, price, currency, base_unit, "
+            + "base_unit_price) ";
+
+    private static final String DISCOUNT_COLUMNS =
+            "discount (product_id, store_name, from_date, name, brand, quantity, unit, category, to_date, percentage) ";
+
+    private static final String VALUES = "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String PRODUCT_VALUES = "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PRODUCT = "INSERT INTO " + PRODUCT_COLUMNS + PRODUCT_VALUES;
+    private static final String MERGE_PRODUCT = "MERGE INTO " + PRODUCT_COLUMNS + "KEY (product_id, store_name, date) " + PRODUCT_VALUES;
+    private static final String INSERT_DISCOUNT = "INSERT INTO " + DISCOUNT_COLUMNS + VALUES;
+    private static final String MERGE_DISCOUNT = "MERGE INTO " + DISCOUNT_COLUMNS + "KEY (product_id, store_name, from_date) " + VALUES;
+
+    private static final ParameterizedPreparedStatementSetter<Product> PRODUCT_SETTER = (ps, p) -> {
+        ps.setString(1, p.getId().getProductId());
+        ps.setString(2, p.getId().getStoreName());
+        ps.setDate(3, Date.valueOf(p.getId().getDate()));
+        ps.setString(4, p.getName());
+        ps.setString(5, p.getCategory());
+        ps.setString(6, p.getBrand());
+        ps.setBigDecimal(7, p.getQuantity());
+        ps.setString(8, p.getUnit());
+        ps.setBigDecimal(9, p.getPrice());
+        ps.setString(10, p.getCurrency());
+        ps.setString(11, p.getBaseUnit());
+        ps.setBigDecimal(12, p.getBaseUnitPrice());
+    };
+
+    private static final RowMapper<Product> PRODUCT_MAPPER = (rs, i) -> new Product(
+            new ProductId(rs.getString(1), rs.getString(2), rs.getObject(3, LocalDate.class)),
+            rs.getString(4), rs.getString(5), rs.getString(6), rs.getBigDecimal(7),
+            rs.getString(8), rs.getBigDecimal(9), rs.getString(10));
+
+    private static final ParameterizedPreparedStatementSetter<Discount> DISCOUNT_SETTER = (ps, d) -> {
+        ps.setString(1, d.getId().getProductId());
+        ps.setString(2, d.getId().getStoreName());
+        ps.setDate(3, Date.valueOf(d.getId().getFromDate()));
+        ps.setString(4, d.getName());
+        ps.setString(5, d.getBrand());
+        ps.setBigDecimal(6, d.getQuantity());
+        ps.setString(7, d.getUnit());
+        ps.setString(8, d.getCategory());
+        ps.setDate(9, Date.valueOf(d.getToDate()));
+        ps.setBigDecimal(10, d.getPercentage());
+    };
+
+    private static final String SELECT_PRODUCTS =
+            "SELECT product_id, store_name, date, name, category, brand, quantity, unit, price, currency FROM product";
+
+    private static final String SELECT_LATEST_PRODUCTS = SELECT_PRODUCTS + " p WHERE date = (SELECT MAX(q.date) FROM product q"
+            + " WHERE q.product_id = p.product_id AND q.store_name = p.store_name)";
+
+    private static final String SELECT_PRODUCTS_ORDERED = SELECT_PRODUCTS + " ORDER BY product_id, store_name, date";
+
+    private static final String SELECT_PARTITION = SELECT_PRODUCTS + " WHERE store_name = ? AND date = ?";
+
+    private static final String SELECT_PERIOD = SELECT_PRODUCTS + " WHERE date >= ? AND date < ?";
+
+    private static final String SELECT_NAME_STORES = "SELECT DISTINCT name, brand, store_name FROM product WHERE name IS NOT NULL";
+
+    private static final String SELECT_LATEST_DATES = "SELECT store_name, MAX(date) FROM product GROUP BY store_name";
+
+    private static final String UPDATE_PRODUCT =
+            "UPDATE product SET name = ?, category = ?, brand = ?, quantity = ?, unit = ?, price = ?, currency = ?, " +
+            "base_unit = ?, base_unit_price = ? WHERE product_id = ? AND store_name = ? AND date = ?";
+
+    private static final String DELETE_PRODUCT = "DELETE FROM product WHERE product_id = ? AND store_name = ? AND date = ?";
+
+    private static final String DELETE_PARTITION = "DELETE FROM product WHERE store_name = ? AND date = ?";
+
+    private static final String SELECT_DISCOUNTS =
+            "SELECT product_id, store_name, from_date, name, brand, quantity, unit, category, to_date, percentage FROM discount";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reads every stored product as a detached entity.
+     *
+     * @return all products, in no particular order
+     */
+    @Transactional(readOnly = true)
+    public List<Product> findAllProducts() {
+        return jdbcTemplate.query(SELECT_PRODUCTS, PRODUCT_MAPPER);
+    }
+
+    /**
+     * Reads the latest row of every product in every store as detached entities, each found through
+     * {@code idx_product_history}, so only as many rows are loaded as there are (product, store) pairs.
+     *
+     * @return the rows of the latest date per product and store, in no particular order
+     */
+    @Transactional(readOnly = true)
+    public List<Product> findLatestProducts() {
+        return jdbcTemplate.query(SELECT_LATEST_PRODUCTS, PRODUCT_MAPPER);
+    }
+
+    /**
+     * Streams every stored product row to the handler, ordered by product id, store and date, without creating entities.
+     * The columns are, in order: product_id, store_name, date, name, category, brand, quantity, unit, price, currency.
+     *
+     * @param handler the receiver of each row
+     */
+    @Transactional(readOnly = true)
+    public void scanProducts(RowCallbackHandler handler) {
+        jdbcTemplate.query(SELECT_PRODUCTS_ORDERED, handler);
+    }
+
+    /**
+     * Reads the products stored for one store and date as detached entities.
+     *
+     * @param storeName the store
+     * @param date      the price date
+     * @return the products of that partition, in no particular order
+     */
+    @Transactional(readOnly = true)
+    public List<Product> findProducts(String storeName, LocalDate date) {
+        return jdbcTemplate.query(SELECT_PARTITION, PRODUCT_MAPPER, storeName, Date.valueOf(date));
+    }
+
+    /**
+     * Reads the products stored for a range of dates as detached entities.
+     *
+     * @param from the first date, inclusive
+     * @param to   the last date, exclusive
+     * @return the products of those dates, in no particular order
+     */
+    @Transactional(readOnly = true)
+    public List<Product> findProducts(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(SELECT_PERIOD, PRODUCT_MAPPER, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * @return the oldest date any product is stored for, or empty if there are no products
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDate> findOldestProductDate() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject("SELECT MIN(date) FROM product", LocalDate.class));
+    }
+
+    /**
+     * @return the most recent date products are stored for, per store
+     */
+    @Transactional(readOnly = true)
+    public Map<String, LocalDate> findLatestProductDates() {
+        Map<String, LocalDate> latest = new HashMap<>();
+        jdbcTemplate.query(SELECT_LATEST_DATES, (RowCallbackHandler) rs -> latest.put(rs.getString(1), rs.getObject(2, LocalDate.class)));
+        return latest;
+    }
+
+    /**
+     * @return the distinct product names, in no particular order
+     */
+    @Transactional(readOnly = true)
+    public List<String> findProductNames() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT name FROM product WHERE name IS NOT NULL", String.class);
+    }
+
+    /**
+     * Streams the distinct (name, brand, store) triples of the stored products to the handler, in no particular
+     * order. The columns are, in order: name, brand, store_name.
+     *
+     * @param handler the receiver of each row
+     */
+    @Transactional(readOnly = true)
+    public void scanProductStores(RowCallbackHandler handler) {
+        jdbcTemplate.query(SELECT_NAME_STORES, handler);
+    }
+
+    /**
+     * Streams every stored discount row to the handler, without creating entities. The columns are, in order:
+     * product_id, store_name, from_date, name, brand, quantity, unit, category, to_date, percentage.
+     *
+     * @param handler the receiver of each row
+     */
+    @Transactional(readOnly = true)
+    public void scanDiscounts(RowCallbackHandler handler) {
+        jdbcTemplate.query(SELECT_DISCOUNTS, handler);
+    }
+
+    /**
+     * Reads every stored discount as a detached entity.
+     *
+     * @return all discounts, in no particular order
+     */
+    @Transactional(readOnly = true)
+    public List<Discount> findAllDiscounts() {
+        return jdbcTemplate.query(SELECT_DISCOUNTS, (rs, i) -> new Discount(
+                new DiscountId(rs.getString(1), rs.getString(2), rs.getObject(3, LocalDate.class)),
+                rs.getString(4), rs.getString(5), rs.getBigDecimal(6), rs.getString(7),
+                rs.getString(8), rs.getObject(9, LocalDate.class), rs.getBigDecimal(10)));
+    }
+
+    /**
+     * Inserts all products as a single JDBC batch. The batch is atomic: if any row fails
+     * (e.g. a duplicate key), none of the rows are kept.
+     *
+     * @param products the products to insert
+     * @return the number of inserted rows
+     */
+    @Transactional
+    public int insertProducts(List<Product> products) {
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, products, products.size(), PRODUCT_SETTER);
+        return products.size();
+    }
+
+    /**
+     * Inserts or replaces all products as a single JDBC batch, keyed by product id, store and date.
+     *
+     * @param products the products to store
+     * @return the number of stored rows
+     */
+    @Transactional
+    public int mergeProducts(List<Product> products) {
+        jdbcTemplate.batchUpdate(MERGE_PRODUCT, products, products.size(), PRODUCT_SETTER);
+        return products.size();
+    }
+
+    /**
+     * Updates the non-key columns of all products as a single JDBC batch. Products that are not stored are ignored.
+     *
+     * @param products the new state of the products
+     * @return the number of products sent
+     */
+    @Transactional
+    public int updateProducts(List<Product> products) {
+        jdbcTemplate.batchUpdate(UPDATE_PRODUCT, products, products.size(), (ps, p) -> {
+            ps.setString(1, p.getName());
+            ps.setString(2, p.getCategory());
+            ps.setString(3, p.getBrand());
+            ps.setBigDecimal(4, p.getQuantity());
+            ps.setString(5, p.getUnit());
+            ps.setBigDecimal(6, p.getPrice());
+            ps.setString(7, p.getCurrency());
+            ps.setString(8, p.getBaseUnit());
+            ps.setBigDecimal(9, p.getBaseUnitPrice());
+            ps.setString(10, p.getId().getProductId());
+            ps.setString(11, p.getId().getStoreName());
+            ps.setDate(12, Date.valueOf(p.getId().getDate()));
+        });
+        return products.size();
+    }
+
+    /**
+     * Deletes the given products as a single JDBC batch.
+     *
+     * @param ids the keys of the products to delete
+     * @return the number of keys sent
+     */
+    @Transactional
+    public int deleteProducts(List<ProductId> ids) {
+        jdbcTemplate.batchUpdate(DELETE_PRODUCT, ids, ids.size(), (ps, id) -> {
+            ps.setString(1, id.getProductId());
+            ps.setString(2, id.getStoreName());
+            ps.setDate(3, Date.valueOf(id.getDate()));
+        });
+        return ids.size();
+    }
+
+    /**
+     * Deletes every product stored for one store and date.
+     *
+     * @param storeName the store
+     * @param date      the price date
+     * @return the number of deleted rows
+     */
+    @Transactional
+    public int deleteProducts(String storeName, LocalDate date) {
+        return jdbcTemplate.update(DELETE_PARTITION, storeName, Date.valueOf(date));
+    }
+
+    /**
+     * Inserts all discounts as a single JDBC batch. The batch is atomic: if any row fails
+     * (e.g. a duplicate key), none of the rows are kept.
+     *
+     * @param discounts the discounts to insert
+     * @return the number of inserted rows
+     */
+    @Transactional
+    public int insertDiscounts(List<Discount> discounts) {
+        jdbcTemplate.batchUpdate(INSERT_DISCOUNT, discounts, discounts.size(), DISCOUNT_SETTER);
+        return discounts.size();
+    }
+
+    /**
+     * Inserts or replaces all discounts as a single JDBC batch, keyed by product id, store and start date.
+     *
+     * @param discounts the discounts to store
+     * @return the number of stored rows
+     */
+    @Transactional
+    public int mergeDiscounts(List<Discount> discounts) {
+        jdbcTemplate.batchUpdate(MERGE_DISCOUNT, discounts, discounts.size(), DISCOUNT_SETTER);
+        return discounts.size();
+    }
+}
@@ -2,13 +2,41 @@ package com.example.accesa.repository;
 
 import com.example.accesa.domain.Discount;
 import com.example.accesa.domain.DiscountId;
+import com.example.accesa.dto.DiscountView;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface DiscountRepository extends JpaRepository<Discount, DiscountId> {
+    String SELECT_VIEW = "SELECT new com.example.accesa.dto.DiscountView(d.id, d.name, d.brand, d.quantity, d.unit, "
+            + "d.category, d.toDate, d.percentage) FROM Discount d";
+
     List<Discount> findById_FromDateGreaterThanEqual(LocalDate fromDate);
-}
\ No newline at end of file
+    List<Discount> findByOrderByPercentageDesc(Limit limit);
+
+    /**
+     * Reads every discount as a plain value, without creating managed entities.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW)
+    List<DiscountView> findAllViews();
+
+    /**
+     * Streams every discount as a plain value, reading 1000 rows per round trip. The stream must be consumed inside
+     * a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_VIEW)
+    Stream<DiscountView> streamViews();
+}
@@ -0,0 +1,9 @@
+package com.example.accesa.repository;
+
+import com.example.accesa.domain.IngestedFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IngestedFileRepository extends JpaRepository<IngestedFile, String> {
+}
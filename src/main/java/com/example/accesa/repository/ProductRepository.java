@@ -2,14 +2,120 @@ package com.example.accesa.repository;
 
 import com.example.accesa.domain.Product;
 import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.ProductView;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, ProductId> {
-    List<Product> findById_StoreName(String storeName);
+public interface ProductRepository extends JpaRepository<Product, ProductId>, JpaSpecificationExecutor<Product> {
+    String SELECT_VIEW = "SELECT new com.example.accesa.dto.ProductView(p.id, p.name, p.category, p.brand, "
+            + "p.quantity, p.unit, p.price, p.currency, p.baseUnit, p.baseUnitPrice) FROM Product p";
+    String PAGE_ORDER = " ORDER BY p.id.storeName, p.id.productId, p.id.date";
+    String TIMELINE_ORDER = " ORDER BY p.id.productId, p.id.date, p.id.storeName";
+    String STREAM_FETCH_SIZE = "1000";
+
     List<Product> findById_ProductIdOrderById_DateAsc(String productId);
     List<Product> findByCategoryAndBrandNot(String category, String excludedBrand);
-}
\ No newline at end of file
+    Optional<Product> findFirstById_ProductIdAndId_StoreNameOrderById_DateDesc(String productId, String storeName);
+
+    /**
+     * Reads every product as a plain value, without creating managed entities.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW)
+    List<ProductView> findAllViews();
+
+    /**
+     * Reads the first page of products in (store, product id, date) order.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + PAGE_ORDER)
+    List<ProductView> findViewPage(Limit limit);
+
+    /**
+     * Reads the first page of one store's products in (product id, date) order.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + " WHERE p.id.storeName = :storeName" + PAGE_ORDER)
+    List<ProductView> findViewPageByStoreName(String storeName, Limit limit);
+
+    /**
+     * Reads the products of one store that come after the given product id and date. The range on the product id
+     * lets the page index seek to the start instead of skipping the rows before it.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + " WHERE p.id.storeName = :storeName AND p.id.productId >= :productId"
+            + " AND (p.id.productId > :productId OR p.id.date > :date)" + PAGE_ORDER)
+    List<ProductView> findViewPageInStoreAfter(String storeName, String productId, LocalDate date, Limit limit);
+
+    /**
+     * Reads the products of the stores that come after the given one.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + " WHERE p.id.storeName > :storeName" + PAGE_ORDER)
+    List<ProductView> findViewPageAfterStore(String storeName, Limit limit);
+
+    /**
+     * Reads the first page of one product's price history in (date, store) order, optionally only that of one store.
+     * The order starts with the product id, which the query fixes, so that it matches the timeline index and no sort
+     * is needed.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT p FROM Product p WHERE p.id.productId = :productId"
+            + " AND (:storeName IS NULL OR p.id.storeName = :storeName)" + TIMELINE_ORDER)
+    List<Product> findHistoryPage(String productId, String storeName, Limit limit);
+
+    /**
+     * Reads the price history of one product that comes after the given date and store. The range on the date lets
+     * the timeline index seek to the start instead of skipping the rows before it.
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT p FROM Product p WHERE p.id.productId = :productId"
+            + " AND (:storeName IS NULL OR p.id.storeName = :storeName)"
+            + " AND p.id.date >= :date AND (p.id.date > :date OR p.id.storeName > :afterStore)" + TIMELINE_ORDER)
+    List<Product> findHistoryPageAfter(String productId, String storeName, LocalDate date, String afterStore, Limit limit);
+
+    /**
+     * Reads the latest row of every product in every store that is sold in the given base unit, optionally only
+     * those of one category, by ascending price per base unit. Rows are read in the order of the unit price index
+     * and each is checked to be its product's latest in its store through the history index, so the query stops
+     * after the rows of one page. The order starts with the base unit, which the query fixes, so that it matches
+     * the index and no sort is needed. Rows without a price per base unit, e.g. of a zero quantity, are skipped,
+     * since the database sorts them first.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_VIEW + " WHERE p.baseUnit = :baseUnit AND p.baseUnitPrice IS NOT NULL"
+            + " AND (:category IS NULL OR p.category = :category)"
+            + " AND p.id.date = (SELECT MAX(q.id.date) FROM Product q"
+            + " WHERE q.id.productId = p.id.productId AND q.id.storeName = p.id.storeName)"
+            + " ORDER BY p.baseUnit, p.baseUnitPrice, p.id.storeName, p.id.productId")
+    List<ProductView> findCheapestViews(String baseUnit, String category, Limit limit);
+
+    /**
+     * Streams every product as a plain value in (store, product id, date) order, reading {@value #STREAM_FETCH_SIZE}
+     * rows per round trip. The stream must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_VIEW + PAGE_ORDER)
+    Stream<ProductView> streamViews();
+
+    /**
+     * Streams the products of one store like {@link #streamViews()}.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SELECT_VIEW + " WHERE p.id.storeName = :storeName" + PAGE_ORDER)
+    Stream<ProductView> streamViewsByStoreName(String storeName);
+}
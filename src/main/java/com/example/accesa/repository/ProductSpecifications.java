@@ -0,0 +1,66 @@
+package com.example.accesa.repository;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.PageCursor;
+import com.example.accesa.dto.ProductFilter;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Compiles a {@link ProductFilter} into one query. The name criterion is passed as the list of names that match it,
+ * found beforehand in the name index, since the database cannot ignore diacritics. The text columns ignore case in
+ * the database, so the text criteria are plain comparisons that the indexes on name, store, category and brand can
+ * serve.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * @param filter the criteria other than the name
+     * @param names  the product names to accept
+     */
+    public static Specification<Product> matching(ProductFilter filter, Collection<String> names) {
+        return (root, query, cb) -> {
+            Path<ProductId> id = root.get("id");
+            List<Predicate> where = new ArrayList<>();
+            where.add(root.get("name").in(names));
+            if (filter.store() != null) where.add(cb.equal(id.get("storeName"), filter.store()));
+            if (filter.brand() != null) where.add(cb.equal(root.get("brand"), filter.brand()));
+            if (filter.category() != null) where.add(cb.equal(root.get("category"), filter.category()));
+            if (filter.unit() != null) where.add(cb.equal(root.get("unit"), filter.unit()));
+            if (filter.minPrice() != null) where.add(cb.greaterThanOrEqualTo(root.get("price"), filter.minPrice()));
+            if (filter.maxPrice() != null) where.add(cb.lessThanOrEqualTo(root.get("price"), filter.maxPrice()));
+            if (filter.from() != null) where.add(cb.greaterThanOrEqualTo(id.get("date"), filter.from()));
+            if (filter.to() != null) where.add(cb.lessThanOrEqualTo(id.get("date"), filter.to()));
+            return cb.and(where.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Accepts the rows that come after a page's last row in (date, store, product id) order. The range on the date
+     * lets an index on the date seek to the start.
+     *
+     * @param cursor the key of the last row of the previous page
+     */
+    public static Specification<Product> after(PageCursor cursor) {
+        return (root, query, cb) -> {
+            Path<ProductId> id = root.get("id");
+            Path<LocalDate> date = id.get("date");
+            Path<String> store = id.get("storeName");
+            return cb.and(cb.greaterThanOrEqualTo(date, cursor.date()), cb.or(
+                    cb.greaterThan(date, cursor.date()),
+                    cb.greaterThan(store, cursor.storeName()),
+                    cb.and(cb.equal(store, cursor.storeName()),
+                            cb.greaterThan(id.get("productId"), cursor.productId()))));
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.accesa.repository;
+
+import com.example.accesa.domain.RejectedRow;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RejectedRowRepository extends JpaRepository<RejectedRow, Long> {
+
+    Page<RejectedRow> findByFileName(String fileName, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RejectedRow r WHERE r.fileName = :fileName")
+    int deleteByFileName(String fileName);
+}
@@ -4,7 +4,6 @@ import com.example.accesa.domain.PriceAlert;
 import com.example.accesa.domain.Product;
 import com.example.accesa.dto.PriceAlertRequest;
 import com.example.accesa.repository.PriceAlertRepository;
-import com.example.accesa.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -18,7 +17,7 @@ import java.util.List;
 public class AlertService {
 
     private final PriceAlertRepository alertRepo;
-    private final ProductRepository productRepo;
+    private final CurrentPriceProjection currentPrices;
 
     /**
      * Creates a new PriceAlert entity from the provided request data.
@@ -44,7 +43,7 @@ public class AlertService {
      */
     public List<PriceAlert> getActiveAlerts() {
         return alertRepo.findAll().stream()
-                .filter(alert -> productRepo.findById_ProductIdOrderById_DateAsc(alert.getProductId()).stream()
+                .filter(alert -> currentPrices.latest(alert.getProductId()).values().stream()
                         .max(Comparator.comparing(a -> a.getId().getDate()))
                         .map(Product::getPrice)
                         .orElse(BigDecimal.valueOf(Double.MAX_VALUE))
@@ -2,13 +2,15 @@ package com.example.accesa.service;
 
 import com.example.accesa.domain.Product;
 import com.example.accesa.dto.BasketRequest;
-import com.example.accesa.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
-import java.util.*;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -16,7 +18,7 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class BasketService {
-    private final ProductRepository productRepo;
+    private final CurrentPriceProjection currentPrices;
 
     /**
      * Optimizes the shopping basket by calculating the total price for each store
@@ -28,34 +30,23 @@ public class BasketService {
     public Map<String, ? extends Serializable> optimizeBasket(BasketRequest request) {
         List<String> productIds = request.productIds();
 
-        // Group all products by store name for processing
-        Map<String, List<Product>> grouped = productRepo.findAll().stream()
-                .filter(p -> productIds.contains(p.getId().getProductId()))
+        // Group the latest price of each requested product by store name
+        Map<String, List<Product>> grouped = productIds.stream()
+                .distinct()
+                .flatMap(id -> currentPrices.latest(id).values().stream())
                 .collect(Collectors.groupingBy(p -> p.getId().getStoreName()));
 
         Map<String, BigDecimal> storeTotals = new HashMap<>();
 
         for (var entry : grouped.entrySet()) {
-            String store = entry.getKey();
-
-            // For each productId, select the most recent entry (latest date)
-            List<Product> products = entry.getValue().stream()
-                    .collect(Collectors.collectingAndThen(
-                            Collectors.groupingBy(p -> p.getId().getProductId()),
-                            m -> m.values().stream()
-                                    .map(list -> list.stream()
-                                            .max(Comparator.comparing(p -> p.getId().getDate()))
-                                            .orElse(null))
-                                    .filter(Objects::nonNull)
-                                    .toList()
-                    ));
+            List<Product> products = entry.getValue();
 
             // Only consider stores that have all requested products
             if (products.size() == productIds.size()) {
                 BigDecimal total = products.stream()
                         .map(Product::getPrice)
                         .reduce(BigDecimal.ZERO, BigDecimal::add);
-                storeTotals.put(store, total);
+                storeTotals.put(entry.getKey(), total);
             }
         }
 
@@ -76,15 +67,10 @@ public class BasketService {
     public Map<String, Object> splitOptimizeBasket(BasketRequest request) {
         List<String> productIds = request.productIds();
 
-        // Group products by unique (productId + storeName) pair and get the latest entry per group
-        List<Product> latestProducts = productRepo.findAll().stream()
-                .filter(p -> productIds.contains(p.getId().getProductId()))
-                .collect(Collectors.groupingBy(p -> List.of(p.getId().getProductId(), p.getId().getStoreName())))
-                .values().stream()
-                .map(list -> list.stream()
-                        .max(Comparator.comparing(p -> p.getId().getDate()))
-                        .orElse(null))
-                .filter(Objects::nonNull)
+        // The latest entry of each requested product in every store that sells it
+        List<Product> latestProducts = productIds.stream()
+                .distinct()
+                .flatMap(id -> currentPrices.latest(id).values().stream())
                 .toList();
 
         // For each product, choose the cheapest available price across all stores
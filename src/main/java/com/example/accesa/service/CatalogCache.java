@@ -0,0 +1,124 @@
+package com.example.accesa.service;
+
+import com.example.accesa.config.CatalogEngineProperties;
+import com.example.accesa.ingest.CatalogChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of query results, read through by the services. Keys include the catalog generation, which every
+ * {@link CatalogChangedEvent} bumps, so a result computed before a change is never served after it; the TTL only
+ * bounds how long an unused result occupies memory. The least recently used result is evicted once
+ * {@code catalog.engine.cache-size} results are held. Published to Micrometer as:
+ * <ul>
+ *     <li>{@code catalog.cache.gets}: lookups, tagged with result hit or miss</li>
+ *     <li>{@code catalog.cache.evictions}: results dropped for size or age</li>
+ *     <li>{@code catalog.cache.size}: results held</li>
+ *     <li>{@code catalog.cache.generation}: the catalog generation</li>
+ * </ul>
+ * Cached values are shared between callers and must not be modified.
+ */
+@Component
+public class CatalogCache {
+    private final CatalogEngineProperties properties;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Map<Key, Entry> entries;
+
+    private record Key(long generation, String query, List<Object> args) {}
+
+    private record Entry(Object value, long expiresAt) {}
+
+    public CatalogCache(MeterRegistry registry, CatalogEngineProperties properties) {
+        this.properties = properties;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() <= properties.cacheSize()) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+        FunctionCounter.builder("catalog.cache.gets", hits, LongAdder::sum).tag("result", "hit")
+                .description("Cached query results served").register(registry);
+        FunctionCounter.builder("catalog.cache.gets", misses, LongAdder::sum).tag("result", "miss")
+                .description("Query results computed").register(registry);
+        FunctionCounter.builder("catalog.cache.evictions", evictions, LongAdder::sum)
+                .description("Cached query results dropped for size or age").register(registry);
+        Gauge.builder("catalog.cache.size", this, CatalogCache::size)
+                .description("Cached query results").register(registry);
+        Gauge.builder("catalog.cache.generation", generation, AtomicLong::get)
+                .description("Catalog changes seen since startup").register(registry);
+    }
+
+    /**
+     * Returns the cached result of a query, computing and caching it if there is none for the current generation.
+     *
+     * @param query  a name unique to the query
+     * @param args   the query's arguments, which must have value equality; nulls are allowed
+     * @param loader computes the result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String query, List<?> args, Supplier<T> loader) {
+        if (properties.cacheSize() <= 0) return loader.get();
+
+        Key key = new Key(generation.get(), query, Collections.unmodifiableList(new ArrayList<>(args)));
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() - now > 0) {
+                hits.increment();
+                return (T) entry.value();
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        T value = loader.get();
+        synchronized (entries) {
+            if (key.generation() == generation.get()) entries.put(key, new Entry(value, now + properties.cacheTtl().toNanos()));
+        }
+        return value;
+    }
+
+    /**
+     * @return the catalog generation, bumped by every change to the catalog tables
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Moves to a new generation and drops the results of the previous ones.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
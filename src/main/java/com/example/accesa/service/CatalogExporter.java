@@ -0,0 +1,69 @@
+package com.example.accesa.service;
+
+import com.example.accesa.repository.DiscountRepository;
+import com.example.accesa.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalog as newline-delimited JSON, one row per line, in the same shape as the list endpoints.
+ * Rows are streamed from the database as plain values and written as they arrive, so memory use does not depend
+ * on the size of the catalog.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogExporter {
+    private final ProductRepository productRepo;
+    private final DiscountRepository discountRepo;
+    private final ObjectMapper mapper;
+
+    /**
+     * Writes every product, optionally only those of one store, in (store, product id, date) order.
+     *
+     * @param store the name of the store to filter by, or null to write all
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long writeProducts(String store, OutputStream out) throws IOException {
+        try (Stream<?> rows = store == null ? productRepo.streamViews() : productRepo.streamViewsByStoreName(store)) {
+            return write(rows, out);
+        }
+    }
+
+    /**
+     * Writes every discount.
+     *
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long writeDiscounts(OutputStream out) throws IOException {
+        try (Stream<?> rows = discountRepo.streamViews()) {
+            return write(rows, out);
+        }
+    }
+
+    private long write(Stream<?> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = mapper.writer().withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (JsonGenerator json = mapper.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            try (SequenceWriter lines = writer.writeValues(json)) {
+                for (Iterator<?> it = rows.iterator(); it.hasNext(); count++) lines.write(it.next());
+            }
+            if (count > 0) json.writeRaw('\n');
+        }
+        out.flush();
+        return count;
+    }
+}
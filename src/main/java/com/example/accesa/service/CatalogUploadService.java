@@ -0,0 +1,76 @@
+package com.example.accesa.service;
+
+import com.example.accesa.config.IngestProperties;
+import com.example.accesa.dto.IngestResult;
+import com.example.accesa.exception.InvalidUploadException;
+import com.example.accesa.ingest.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CatalogUploadService {
+    private static final int READ_BUFFER = 64 << 10;
+    private static final int MAX_LINE_LENGTH = 1 << 20;
+
+    private final CatalogCsvReader reader;
+    private final IngestPipeline pipeline;
+    private final DataLoaderService loader;
+    private final IngestProperties properties;
+
+    /**
+     * Loads a product or discount CSV for one store and date from a stream, telling the layout apart by its header.
+     * The body is parsed while it arrives and only a bounded number of rows is held in memory, so the size of an
+     * upload does not matter. A product upload is the complete price list of its store and date: it is diffed
+     * against what is stored, so only new and changed rows are written, and rows it no longer contains are
+     * deleted once it has been read completely. Repeating an upload is therefore safe. After a successful upload
+     * the catalog snapshot is refreshed in the background. Uploads run alongside each other and alongside file
+     * loads, but wait for a running archive run or snapshot write, for at most {@code catalog.ingest.upload-timeout}.
+     *
+     * @param store the store as used in file names, e.g. "lidl"
+     * @param date  the date the prices or discounts belong to
+     * @param body  the CSV content, header line first
+     * @return the number of stored and skipped rows
+     * @throws InvalidUploadException      if the store name, header or a line is not acceptable
+     * @throws IngestBackpressureException if the database could not keep up with the upload, or the catalog stayed
+     *                                     busy for longer than the upload timeout
+     */
+    public IngestResult upload(String store, LocalDate date, InputStream body) {
+        try (CsvTokenizer tokens = CsvTokenizer.of(Channels.newChannel(body), READ_BUFFER, MAX_LINE_LENGTH)) {
+            IngestFile.Kind kind = reader.readHeader(tokens).orElseThrow(() -> new InvalidUploadException(
+                    "Unrecognized CSV header; expected the product or the discount layout"));
+
+            IngestFile source;
+            try {
+                source = IngestFile.stream(store, kind, date);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidUploadException(e.getMessage());
+            }
+
+            IngestSummary summary = loader.shared(properties.uploadTimeout(),
+                    () -> pipeline.stream(source, tokens, IngestMode.REPLACE)).orElseThrow(() -> busy(source));
+            IngestResult result = IngestResult.of(source, summary);
+            loader.scheduleSnapshot();
+            return result;
+        } catch (IOException e) {
+            throw new InvalidUploadException("Could not read upload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the refusal of an upload that could not start, since an archive run or snapshot write took too long
+     */
+    private IngestBackpressureException busy(IngestFile source) {
+        IngestSummary nothing = new IngestSummary(List.of(new IngestSummary.FileResult(source, 0, 0, true)),
+                0, 0, Duration.ZERO);
+        return new IngestBackpressureException("The catalog was busy archiving or saving for longer than "
+                + properties.uploadTimeout().toSeconds() + "s; nothing was stored from " + source.fileName(), nothing);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.accesa.service;
+
+import com.example.accesa.config.CatalogEngineProperties;
+import com.example.accesa.ingest.CatalogChangedEvent;
+import com.example.accesa.repository.CatalogBulkRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a {@link PriceColumns} copy of the product table when {@code catalog.engine.columnar} is enabled.
+ * The copy is rebuilt on a background thread once the catalog has been quiet for {@code catalog.engine.rebuild-delay}
+ * after a {@link CatalogChangedEvent}. Until the rebuild has caught up with every change, {@link #current()} is
+ * empty and callers answer from the database, so the columnar copy never serves stale prices.
+ */
+@Slf4j
+@Component
+public class ColumnarCatalog {
+    private final CatalogBulkRepository bulkRepo;
+    private final CatalogEngineProperties properties;
+    private final ScheduledExecutorService rebuilds;
+    private final AtomicLong changes = new AtomicLong();
+
+    private volatile Built built;
+    private ScheduledFuture<?> pending;
+
+    private record Built(PriceColumns columns, long changes) {}
+
+    public ColumnarCatalog(CatalogBulkRepository bulkRepo, CatalogEngineProperties properties) {
+        this.bulkRepo = bulkRepo;
+        this.properties = properties;
+        this.rebuilds = properties.columnar()
+                ? Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("columnar-rebuild").factory())
+                : null;
+    }
+
+    /**
+     * @return the columnar copy, or empty if the engine is disabled or the copy is behind the database
+     */
+    public Optional<PriceColumns> current() {
+        Built copy = built;
+        return copy != null && copy.changes() == changes.get() ? Optional.of(copy.columns()) : Optional.empty();
+    }
+
+    /**
+     * Marks the copy as stale and schedules a rebuild, pushing back one that has not started yet.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (rebuilds == null || !event.productsChanged()) return;
+        changes.incrementAndGet();
+        synchronized (this) {
+            if (pending != null) pending.cancel(false);
+            pending = rebuilds.schedule(this::rebuildQuietly, properties.rebuildDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Reads the whole product table into a new columnar copy and publishes it.
+     *
+     * @return the new copy
+     */
+    public PriceColumns rebuild() {
+        long start = System.nanoTime();
+        long seen = changes.get();
+        PriceColumns.Builder builder = PriceColumns.builder();
+        bulkRepo.scanProducts(rs -> builder.add(rs.getString(1), rs.getString(2), rs.getObject(3, LocalDate.class),
+                rs.getString(4), rs.getString(5), rs.getString(6), rs.getBigDecimal(7), rs.getString(8),
+                rs.getBigDecimal(9), rs.getString(10)));
+        PriceColumns columns = builder.build();
+        built = new Built(columns, seen);
+        log.info("Rebuilt columnar catalog: {} rows, {} MB of columns in {} ms",
+                columns.size(), columns.columnBytes() >> 20, (System.nanoTime() - start) / 1_000_000);
+        return columns;
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild the columnar catalog; queries are answered from the database", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rebuilds != null) rebuilds.shutdownNow();
+    }
+}
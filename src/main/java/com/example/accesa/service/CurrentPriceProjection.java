@@ -0,0 +1,129 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.ingest.CatalogChangedEvent;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The latest price row of every product in every store, kept in memory so that baskets and alerts cost one
+ * lookup per product instead of a pass over the whole price history.
+ * <p>
+ * The projection is filled from the latest rows of the product table on first use, without reading older
+ * history, and then follows {@link CatalogChangedEvent}s:
+ * a written row replaces the current one for its product and store unless that one is newer, and when the
+ * current row is deleted, the next latest is read back from the table. The initial read merges its rows the
+ * same way but keeps the row already held when the dates tie, so an upload that rewrites a latest price while
+ * the read is running is not set back to the stored one.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentPriceProjection {
+    private final CatalogBulkRepository bulkRepo;
+    private final ProductRepository productRepo;
+
+    private final Map<String, Map<String, Product>> byProduct = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean loaded;
+
+    /**
+     * Returns the latest price row of a product in each store that sells it.
+     *
+     * @param productId the product
+     * @return the rows keyed by store name; empty if the product is unknown
+     */
+    public Map<String, Product> latest(String productId) {
+        ensureLoaded();
+        Map<String, Product> stores = byProduct.get(productId);
+        return stores == null ? Map.of() : Map.copyOf(stores);
+    }
+
+    /**
+     * Returns the latest price row of a product in one store.
+     *
+     * @param productId the product
+     * @param storeName the store
+     * @return the row, or empty if the store does not sell the product
+     */
+    public Optional<Product> latest(String productId, String storeName) {
+        ensureLoaded();
+        Map<String, Product> stores = byProduct.get(productId);
+        return stores == null ? Optional.empty() : Optional.ofNullable(stores.get(storeName));
+    }
+
+    /**
+     * Returns the latest price row of every product in every store.
+     *
+     * @return a copy of the rows, in no particular order
+     */
+    public List<Product> all() {
+        ensureLoaded();
+        List<Product> rows = new ArrayList<>();
+        byProduct.values().forEach(stores -> rows.addAll(stores.values()));
+        return rows;
+    }
+
+    /**
+     * A number that grows after every applied change, so derived read models can tell whether they are behind.
+     * A copy taken by {@link #all()} after reading the version holds at least the rows of that version.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Applies stored and deleted product rows.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        try {
+            event.written().forEach(p -> merge(p, true));
+            event.deleted().forEach(this::removed);
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            bulkRepo.findLatestProducts().forEach(p -> merge(p, false));
+            loaded = true;
+        }
+    }
+
+    private void merge(Product product, boolean replaceSameDate) {
+        ProductId id = product.getId();
+        byProduct.computeIfAbsent(id.getProductId(), k -> new ConcurrentHashMap<>())
+                .merge(id.getStoreName(), product, (current, candidate) -> {
+                    int order = candidate.getId().getDate().compareTo(current.getId().getDate());
+                    return order > 0 || order == 0 && replaceSameDate ? candidate : current;
+                });
+    }
+
+    private void removed(ProductId id) {
+        Map<String, Product> stores = byProduct.get(id.getProductId());
+        if (stores == null) return;
+        Product current = stores.get(id.getStoreName());
+        if (current == null || !current.getId().getDate().equals(id.getDate())) return;
+
+        Optional<Product> previous = productRepo.findFirstById_ProductIdAndId_StoreNameOrderById_DateDesc(
+                id.getProductId(), id.getStoreName());
+        stores.compute(id.getStoreName(), (store, now) -> {
+            if (now == null || !now.getId().getDate().equals(id.getDate())) return now;
+            return previous.orElse(null);
+        });
+    }
+}
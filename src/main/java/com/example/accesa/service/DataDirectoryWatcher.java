@@ -0,0 +1,112 @@
+package com.example.accesa.service;
+
+import com.example.accesa.config.CatalogDataProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the external data directory and ingests CSV files that are dropped into it or rewritten.
+ * Events are collected until the directory has been quiet for {@code catalog.data.watch-debounce},
+ * so a file is not picked up while it is still being copied. Files should ideally be written elsewhere
+ * and moved into place; a file read half-written is simply reloaded once its final content arrives,
+ * since its checksum will have changed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DataDirectoryWatcher implements SmartLifecycle {
+    private final DataLoaderService loader;
+    private final CatalogDataProperties properties;
+
+    private volatile WatchService watchService;
+    private volatile Thread thread;
+
+    @Override
+    public void start() {
+        Path dir = properties.dir();
+        if (dir == null || !properties.watch()) return;
+
+        try {
+            Files.createDirectories(dir);
+            watchService = dir.getFileSystem().newWatchService();
+            dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot watch data directory " + dir, e);
+        }
+        thread = Thread.ofPlatform().daemon().name("data-dir-watcher").start(() -> watch(dir, watchService));
+        log.info("Watching {} for catalog files", dir.toAbsolutePath());
+    }
+
+    @Override
+    public void stop() {
+        Thread watcher = thread;
+        thread = null;
+        if (watcher == null) return;
+
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("Failed to close watch service", e);
+        }
+        watcher.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    private void watch(Path dir, WatchService watchService) {
+        long debounce = properties.watchDebounce().toMillis();
+        Set<Path> pending = new LinkedHashSet<>();
+        try {
+            while (true) {
+                WatchKey key = pending.isEmpty()
+                        ? watchService.take()
+                        : watchService.poll(debounce, TimeUnit.MILLISECONDS);
+
+                if (key == null) {
+                    ingest(List.copyOf(pending));
+                    pending.clear();
+                    continue;
+                }
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        pending.addAll(loader.listDataDirectory());
+                    } else if (event.context() instanceof Path name && name.toString().endsWith(".csv")) {
+                        pending.add(dir.resolve(name));
+                    }
+                }
+                if (!key.reset()) {
+                    log.warn("Data directory {} is no longer accessible, stopped watching", dir);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // shutting down
+        } catch (IOException e) {
+            log.error("Stopped watching data directory {}", dir, e);
+        }
+    }
+
+    private void ingest(List<Path> paths) {
+        try {
+            loader.ingest(paths.stream().filter(Files::isRegularFile).toList());
+        } catch (RuntimeException e) {
+            log.error("Failed to ingest {}", paths, e);
+        }
+    }
+}
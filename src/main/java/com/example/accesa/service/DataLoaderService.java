@@ -1,151 +1,305 @@
 package com.example.accesa.service;
 
-import com.example.accesa.domain.Product;
-import com.example.accesa.domain.Discount;
-import com.example.accesa.domain.DiscountId;
-import com.example.accesa.domain.ProductId;
-import com.example.accesa.repository.ProductRepository;
-import com.example.accesa.repository.DiscountRepository;
-import jakarta.annotation.PostConstruct;
+import com.example.accesa.config.CatalogDataProperties;
+import com.example.accesa.domain.IngestedFile;
+import com.example.accesa.ingest.CatalogSnapshot;
+import com.example.accesa.ingest.IngestFile;
+import com.example.accesa.ingest.IngestMode;
+import com.example.accesa.ingest.IngestPipeline;
+import com.example.accesa.ingest.IngestProgress;
+import com.example.accesa.ingest.IngestSummary;
+import com.example.accesa.ingest.PriceHistoryArchive;
+import com.example.accesa.repository.IngestedFileRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.io.*;
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.Objects;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DataLoaderService {
-    private final ProductRepository productRepo;
-    private final DiscountRepository discountRepo;
+    private static final String BUNDLED_FILES = "classpath:/data/*.csv";
 
+    private final IngestPipeline pipeline;
+    private final IngestProgress progress;
+    private final IngestedFileRepository manifest;
+    private final CatalogSnapshot snapshot;
+    private final PriceHistoryArchive archive;
+    private final CatalogDataProperties properties;
+    private final ResourcePatternResolver resources;
     /**
-     * Initializes and loads all product and discount data from CSV files located in the /data directory.
-     * This runs automatically after the Spring context is initialized.
+     * Held shared by everything that writes rows, i.e. file loads and uploads, and exclusively by the archive runs
+     * and snapshot writes, which must not see rows arrive while they read the catalog.
      */
-    @PostConstruct
+    private final ReadWriteLock catalogLock = new ReentrantReadWriteLock();
+    /**
+     * Serializes file loads, which check the manifest before they write.
+     */
+    private final Lock runs = new ReentrantLock();
+    private final ScheduledExecutorService snapshotWriter = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("catalog-snapshot-writer").factory());
+    private final AtomicBoolean snapshotPending = new AtomicBoolean();
+
+    /**
+     * Work run by {@link #shared}.
+     */
+    @FunctionalInterface
+    public interface CatalogWork<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * Loads all product and discount data from the CSV files bundled under /data and from the external
+     * data directory, if one is configured. If a catalog snapshot exists it is restored first, and files
+     * recorded in the manifest with an unchanged checksum are skipped; the snapshot is rewritten when any
+     * file had to be loaded. This runs in the background once the application is ready, so the HTTP port
+     * is bound right away; the readiness probe reports DOWN until the load has finished. Prices older than the
+     * hot months are then moved to the history archive, if one is configured.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
     public void loadData() {
-        String[] stores = {"Lidl", "Kaufland", "Profi"};
-
-        for (String store : stores) {
-            try {
-                loadStoreData(store);
-            } catch (Exception e) {
-                System.err.println("Failed to load data for store: " + store);
-                e.printStackTrace();
+        progress.loadStarted();
+        try {
+            restoreSnapshot();
+
+            List<IngestFile> files = new ArrayList<>();
+            if (properties.bundled()) {
+                Arrays.stream(resources.getResources(BUNDLED_FILES))
+                        .map(IngestFile::of)
+                        .flatMap(Optional::stream)
+                        .forEach(files::add);
             }
+            listDataDirectory().stream()
+                    .map(IngestFile::of)
+                    .flatMap(Optional::stream)
+                    .forEach(files::add);
+
+            IngestSummary summary = ingestFiles(files);
+            progress.loadFinished();
+            int archived = archiveHistory();
+            if (!summary.files().isEmpty() || archived > 0) writeSnapshot();
+        } catch (Exception e) {
+            log.error("Failed to load catalog data", e);
+            progress.loadFailed(e);
         }
     }
 
     /**
-     * Loads all product or discount CSV files for a specific store.
+     * Restores the catalog snapshot, if one is configured and the catalog is still empty.
+     * An unreadable snapshot is logged and ignored, so the catalog is then loaded from CSV alone.
      *
-     * @param store the store name to load data for (e.g., "Lidl")
-     * @throws IOException if an error occurs reading the files
+     * @return true if a snapshot was restored
      */
-    private void loadStoreData(String store) throws IOException {
-        String storeLower = store.toLowerCase();
-        File folder = new File(Objects.requireNonNull(getClass().getResource("/data")).getFile());
-        File[] files = folder.listFiles();
+    public boolean restoreSnapshot() {
+        if (!snapshot.enabled() || manifest.count() > 0) return false;
+        try {
+            return snapshot.restore();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unusable catalog snapshot: {}", e.getMessage());
+            return false;
+        }
+    }
 
-        if (files == null) return;
+    /**
+     * Moves the prices older than the hot months from the catalog database to the history archive, if one is
+     * configured. Failures are logged; rows that could not be archived stay in the database.
+     *
+     * @return the number of archived rows
+     */
+    public int archiveHistory() {
+        if (!archive.enabled()) return 0;
+        catalogLock.writeLock().lock();
+        try {
+            return archive.archive(archive.cutoff(LocalDate.now()));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to archive price history", e);
+            return 0;
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
 
-        for (File file : files) {
-            String fileName = file.getName();
-            if (!fileName.startsWith(storeLower)) continue;
+    /**
+     * Runs work that writes to the catalog while no archive run or snapshot write is in progress, so an upload
+     * cannot commit rows of a month that is being moved to the archive. File loads and other such work run
+     * alongside it, so a slow writer holds up only archive runs and snapshot writes.
+     *
+     * @param wait how long to wait for a running archive run or snapshot write
+     * @param work the work to run
+     * @return its result, or empty if the wait ran out or was interrupted and the work was not run
+     * @throws E if the work fails
+     */
+    public <T, E extends Exception> Optional<T> shared(Duration wait, CatalogWork<T, E> work) throws E {
+        try {
+            if (!catalogLock.readLock().tryLock(wait.toNanos(), TimeUnit.NANOSECONDS)) return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(work.run());
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
 
-            if (fileName.contains("discounts")) {
-                loadDiscounts(fileName, store);
-            } else {
-                loadProducts(fileName, store);
-            }
+    /**
+     * Saves the current catalog to the snapshot file, if one is configured. Failures are logged, since the
+     * catalog itself is unaffected.
+     */
+    public void writeSnapshot() {
+        if (!snapshot.enabled()) return;
+        catalogLock.writeLock().lock();
+        try {
+            snapshot.write();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write catalog snapshot", e);
+        } finally {
+            catalogLock.writeLock().unlock();
         }
     }
 
     /**
-     * Parses a CSV file and loads product records into the database.
-     * Each product is assigned a unique ID that includes product ID, store, and date.
-     *
-     * @param filename the name of the CSV file
-     * @param store    the store from which the product data originated
+     * Saves the catalog to the snapshot file in the background, {@code catalog.data.snapshot-delay} from now, so a
+     * request does not wait for it. A write that is already scheduled covers later calls, so a run of uploads
+     * causes one write.
      */
-    private void loadProducts(String filename, String store) {
-        try (InputStream is = getClass().getResourceAsStream("/data/" + filename);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(is)))) {
+    public void scheduleSnapshot() {
+        if (!snapshot.enabled() || !snapshotPending.compareAndSet(false, true)) return;
+        snapshotWriter.schedule(() -> {
+            snapshotPending.set(false);
+            writeSnapshot();
+        }, properties.snapshotDelay().toMillis(), TimeUnit.MILLISECONDS);
+    }
 
-            reader.readLine();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(";");
-                if (parts.length < 8) continue;
+    /**
+     * Writes a snapshot that is still scheduled before the application stops, so no upload is left out of it.
+     */
+    @PreDestroy
+    public void flushSnapshot() {
+        snapshotWriter.shutdownNow();
+        if (snapshotPending.getAndSet(false)) writeSnapshot();
+    }
 
-                try {
-                    String[] tokens = filename.replace(".csv", "").split("_");
-                    String dateStr = tokens[tokens.length - 1];
-                    LocalDate date = LocalDate.parse(dateStr);
-
-                    Product p = new Product();
-                    p.setId(new ProductId(parts[0], store, date));
-                    p.setName(parts[1]);
-                    p.setCategory(parts[2]);
-                    p.setBrand(parts[3]);
-                    p.setQuantity(new BigDecimal(parts[4]));
-                    p.setUnit(parts[5]);
-                    p.setPrice(new BigDecimal(parts[6]));
-                    p.setCurrency(parts[7]);
-
-                    productRepo.save(p);
-                } catch (Exception e) {
-                    System.err.println("Skipping invalid product line in " + filename + ": " + line);
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to load products from file: " + filename);
+    /**
+     * Lists the regular files in the external data directory, creating the directory if it does not exist yet.
+     *
+     * @return the files in name order, or an empty list if no data directory is configured
+     * @throws IOException if the directory cannot be created or read
+     */
+    public List<Path> listDataDirectory() throws IOException {
+        Path dir = properties.dir();
+        if (dir == null) return List.of();
+
+        Files.createDirectories(dir);
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries.filter(Files::isRegularFile).sorted().toList();
         }
     }
 
     /**
-     * Parses a CSV file and loads discount records into the database.
-     * Each discount is associated with a product and store, and includes a validity date range.
+     * Loads the given product and discount CSV files, then archives old prices and refreshes the catalog snapshot
+     * if anything was loaded.
+     * The store, kind and date of each file are taken from its name; files that do not follow the naming scheme
+     * are ignored.
      *
-     * @param filename the name of the discount CSV file
-     * @param store    the store associated with the discounts
+     * @param paths the files to load
+     * @return the totals of the run
      */
-    private void loadDiscounts(String filename, String store) {
-        try (InputStream is = getClass().getResourceAsStream("/data/" + filename);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(is)))) {
+    public IngestSummary ingest(Collection<Path> paths) {
+        IngestSummary summary = ingestFiles(paths.stream()
+                .map(IngestFile::of)
+                .flatMap(Optional::stream)
+                .toList());
+        if (!summary.files().isEmpty()) {
+            archiveHistory();
+            writeSnapshot();
+        }
+        return summary;
+    }
 
-            reader.readLine();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(";");
-                if (parts.length < 9) continue;
+    /**
+     * Loads the files that are new or have changed since they were last loaded, according to the manifest.
+     * New files are inserted; changed files are diffed against what is stored for their store and date,
+     * so only new, changed and removed rows are written. Every file that
+     * was read to the end is then recorded in the manifest with its checksum. If several files share a name,
+     * the last one wins. Runs are serialized, so a file dropped while another run is in progress is
+     * only checked once that run has been recorded.
+     *
+     * @param files the candidate files
+     * @return the totals of the run
+     */
+    public IngestSummary ingestFiles(List<IngestFile> files) {
+        runs.lock();
+        catalogLock.readLock().lock();
+        try {
+            Map<String, IngestFile> byName = new LinkedHashMap<>();
+            files.forEach(f -> byName.put(f.fileName(), f));
 
+            List<IngestFile> added = new ArrayList<>();
+            List<IngestFile> changed = new ArrayList<>();
+            Map<String, String> checksums = new HashMap<>();
+            for (IngestFile file : byName.values()) {
+                String checksum;
                 try {
-                    DiscountId id = new DiscountId();
-                    id.setProductId(parts[0]);
-                    id.setStoreName(store);
-                    id.setFromDate(LocalDate.parse(parts[6]));
-
-                    Discount d = new Discount();
-                    d.setId(id);
-                    d.setName(parts[1]);
-                    d.setBrand(parts[2]);
-                    d.setQuantity(new BigDecimal(parts[3]));
-                    d.setUnit(parts[4]);
-                    d.setCategory(parts[5]);
-                    d.setToDate(LocalDate.parse(parts[7]));
-                    d.setPercentage(new BigDecimal(parts[8]));
-
-                    discountRepo.save(d);
-                } catch (Exception e) {
-                    System.err.println("Skipping invalid discount line in " + filename + ": " + line);
+                    checksum = file.checksum();
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable file {}: {}", file.fileName(), e.getMessage());
+                    continue;
                 }
+
+                Optional<IngestedFile> known = manifest.findById(file.fileName());
+                if (known.isEmpty()) {
+                    added.add(file);
+                } else if (!known.get().getChecksum().equals(checksum)) {
+                    changed.add(file);
+                } else {
+                    continue;
+                }
+                checksums.put(file.fileName(), checksum);
             }
-        } catch (Exception e) {
-            System.err.println("Failed to load discounts from file: " + filename);
+
+            int unchanged = byName.size() - added.size() - changed.size();
+            if (unchanged > 0) {
+                log.info("Skipping {} files that are already loaded", unchanged);
+            }
+
+            IngestSummary summary = pipeline.run(added, IngestMode.INSERT)
+                    .plus(pipeline.run(changed, IngestMode.REPLACE));
+
+            LocalDateTime now = LocalDateTime.now();
+            manifest.saveAll(summary.files().stream()
+                    .filter(result -> !result.failed())
+                    .map(result -> new IngestedFile(result.file().fileName(),
+                            checksums.get(result.file().fileName()), result.persisted(), now))
+                    .toList());
+            return summary;
+        } finally {
+            catalogLock.readLock().unlock();
+            runs.unlock();
         }
     }
-}
\ No newline at end of file
+}
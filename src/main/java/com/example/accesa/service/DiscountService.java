@@ -1,47 +1,50 @@
 package com.example.accesa.service;
 
 import com.example.accesa.domain.Discount;
+import com.example.accesa.dto.DiscountView;
 import com.example.accesa.repository.DiscountRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.Comparator;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class DiscountService {
     private final DiscountRepository discountRepo;
+    private final CatalogCache cache;
 
     /**
-     * Retrieves all available discounts from the repository.
+     * Retrieves all available discounts from the repository, as plain values rather than managed entities.
+     * Results are cached until the catalog changes.
      *
-     * @return a list of all Discount entities
+     * @return a list of all discount rows
      */
-    public List<Discount> getAllDiscounts() {
-        return discountRepo.findAll();
+    public List<DiscountView> getAllDiscounts() {
+        return cache.get("discounts", List.of(), discountRepo::findAllViews);
     }
 
     /**
-     * Retrieves discounts that have started within the last 24 hours.
+     * Retrieves discounts that have started within the last 24 hours. Results are cached until the catalog changes
+     * or the day ends.
      *
      * @return a list of new Discount entities
      */
     public List<Discount> getNewDiscounts() {
-        return discountRepo.findById_FromDateGreaterThanEqual(LocalDate.now().minusDays(1));
+        LocalDate since = LocalDate.now().minusDays(1);
+        return cache.get("new-discounts", List.of(since), () -> discountRepo.findById_FromDateGreaterThanEqual(since));
     }
 
     /**
-     * Retrieves the top N discounts sorted by the highest percentage.
+     * Retrieves the top N discounts sorted by the highest percentage. Results are cached until the catalog changes.
      *
      * @param top the maximum number of discounts to return
      * @return a list of top Discount entities with the highest percentages
      */
     public List<Discount> getBestDiscounts(int top) {
-        return discountRepo.findAll().stream()
-                .sorted(Comparator.comparing(Discount::getPercentage).reversed())
-                .limit(top)
-                .toList();
+        if (top <= 0) return List.of();
+        return cache.get("best-discounts", List.of(top), () -> discountRepo.findByOrderByPercentageDesc(Limit.of(top)));
     }
 }
\ No newline at end of file
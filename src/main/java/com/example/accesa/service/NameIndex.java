@@ -0,0 +1,178 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.SearchText;
+import com.example.accesa.ingest.CatalogChangedEvent;
+import com.example.accesa.repository.CatalogBulkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An inverted trigram index over the distinct product names in {@link SearchText} form, for substring search that
+ * ignores case and diacritics. Every name gets a dense id; every three-character sequence of a normalized name maps
+ * to the ascending ids of the names containing it. A search intersects the lists of the needle's trigrams, starting
+ * from the shortest, and checks the remaining candidates, so it costs about as much as the rarest trigram has names
+ * rather than as much as there are names. Needles shorter than three characters are matched against every name.
+ *
+ * <p>The index is read from the database on first use and then follows {@link CatalogChangedEvent}s. Names are
+ * never removed, so a name whose rows have all been deleted can still be returned; callers look the names up in
+ * the catalog, where it then matches nothing.
+ */
+@Slf4j
+@Component
+public class NameIndex {
+    private static final int GRAM = 3;
+
+    private final CatalogBulkRepository bulkRepo;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<String> normalized = new ArrayList<>();
+    private final Map<Long, Postings> grams = new HashMap<>();
+    private volatile boolean listening;
+    private volatile boolean loaded;
+
+    public NameIndex(CatalogBulkRepository bulkRepo) {
+        this.bulkRepo = bulkRepo;
+    }
+
+    /**
+     * @param text the text to find, in any case and with or without diacritics
+     * @return the names that contain the text, ignoring case and diacritics
+     */
+    public Set<String> namesContaining(String text) {
+        if (!loaded) load();
+        String needle = SearchText.normalize(text);
+        lock.readLock().lock();
+        try {
+            Set<String> result = new HashSet<>();
+            if (needle.length() < GRAM) {
+                for (int id = 0; id < normalized.size(); id++) {
+                    if (normalized.get(id).contains(needle)) result.add(names.get(id));
+                }
+                return result;
+            }
+
+            List<Postings> lists = new ArrayList<>();
+            for (long gram : grams(needle)) {
+                Postings list = grams.get(gram);
+                if (list == null) return result;
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            Postings rarest = lists.getFirst();
+            candidates:
+            for (int i = 0; i < rarest.size; i++) {
+                int id = rarest.ids[i];
+                for (int l = 1; l < lists.size(); l++) {
+                    if (!lists.get(l).contains(id)) continue candidates;
+                }
+                if (normalized.get(id).contains(needle)) result.add(names.get(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of distinct names indexed
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the names of written products. Ignored until the index is first used, since the load reads them.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!listening || event.written().isEmpty()) return;
+        addAll(event.written().stream().map(Product::getName).toList());
+    }
+
+    /**
+     * Indexes the given names, skipping those already indexed.
+     */
+    public void addAll(Collection<String> values) {
+        lock.writeLock().lock();
+        try {
+            for (String name : values) {
+                if (name == null || ids.containsKey(name)) continue;
+                int id = names.size();
+                String form = SearchText.normalize(name);
+                ids.put(name, id);
+                names.add(name);
+                normalized.add(form);
+                for (int i = 0; i + GRAM <= form.length(); i++) {
+                    grams.computeIfAbsent(gram(form, i), g -> new Postings()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the names in the database, while searches that arrive meanwhile wait. Written names are indexed from
+     * before the read starts, since {@link #addAll} ignores a name it already has, but searches only run once the
+     * whole read is in.
+     */
+    private synchronized void load() {
+        if (loaded) return;
+        long start = System.nanoTime();
+        listening = true;
+        addAll(bulkRepo.findProductNames());
+        loaded = true;
+        log.info("Indexed {} product names in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @return the distinct trigrams of the text
+     */
+    private static Set<Long> grams(String text) {
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            result.add(gram(text, i));
+        }
+        return result;
+    }
+
+    /**
+     * @return the trigram starting at the index, packed as three 16-bit chars
+     */
+    private static long gram(String text, int i) {
+        return (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2);
+    }
+
+    /**
+     * The ascending ids of the names that contain one trigram.
+     */
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        /**
+         * Adds an id greater than or equal to the last; adding the last again does nothing.
+         */
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.PricePoint;
+import com.example.accesa.ingest.CatalogChangedEvent;
+import com.example.accesa.ingest.PriceHistoryArchive;
+import com.example.accesa.repository.CatalogBulkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers "what did a product cost in a store on a day" from the price that was in force then, i.e. the one of the
+ * latest snapshot on or before that day. Every (product, store) pair has its snapshot dates as a sorted array of
+ * epoch days next to the prices, so a lookup is one binary search and creates no entities.
+ *
+ * <p>The series are read from the product table on first use and then follow {@link CatalogChangedEvent}s. A
+ * series is never changed in place: a change replaces it with a new one, so lookups take no lock. Events are
+ * applied whether or not the table has been read yet, and the read only fills in the days a series lacks, so it
+ * cannot undo a price that ingestion changed while it ran. Days before the first row in the database, whose rows
+ * may have been moved to the {@link PriceHistoryArchive}, are answered from the archive, as are the stores that no
+ * longer have any row of the product in the database.
+ *
+ * <p>Store names compare ignoring case in the database, so a product's series are keyed by the lower-cased store
+ * name, and rows whose store names differ only in case fall into one series.
+ */
+@Slf4j
+@Component
+public class PriceAsOfIndex {
+    private final CatalogBulkRepository bulkRepo;
+    private final PriceHistoryArchive archive;
+
+    private final Map<String, Map<String, Series>> byProduct = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public PriceAsOfIndex(CatalogBulkRepository bulkRepo, PriceHistoryArchive archive) {
+        this.bulkRepo = bulkRepo;
+        this.archive = archive;
+    }
+
+    /**
+     * The snapshot dates and prices of one product in one store, by date. The store name is spelled as in the first
+     * row seen; the currency is the latest one seen.
+     */
+    private record Series(String store, int[] days, BigDecimal[] prices, String currency) {
+
+        /**
+         * @return the index of the last day on or before the given one, or -1 if there is none
+         */
+        int floor(int day) {
+            int i = Arrays.binarySearch(days, day);
+            return i >= 0 ? i : -i - 2;
+        }
+
+        /**
+         * @param replace whether a point of the same day is replaced, or kept
+         */
+        Series with(int day, BigDecimal price, String currency, boolean replace) {
+            int i = Arrays.binarySearch(days, day);
+            if (i >= 0) {
+                if (!replace) return this;
+                BigDecimal[] p = prices.clone();
+                p[i] = price;
+                return new Series(store, days, p, currency);
+            }
+            int at = -i - 1;
+            int[] d = new int[days.length + 1];
+            BigDecimal[] p = new BigDecimal[days.length + 1];
+            System.arraycopy(days, 0, d, 0, at);
+            System.arraycopy(prices, 0, p, 0, at);
+            d[at] = day;
+            p[at] = price;
+            System.arraycopy(days, at, d, at + 1, days.length - at);
+            System.arraycopy(prices, at, p, at + 1, days.length - at);
+            return new Series(store, d, p, at == days.length ? currency : this.currency);
+        }
+
+        /**
+         * @return the series without the day, or null if nothing is left
+         */
+        Series without(int day) {
+            int i = Arrays.binarySearch(days, day);
+            if (i < 0) return this;
+            if (days.length == 1) return null;
+            int[] d = new int[days.length - 1];
+            BigDecimal[] p = new BigDecimal[days.length - 1];
+            System.arraycopy(days, 0, d, 0, i);
+            System.arraycopy(prices, 0, p, 0, i);
+            System.arraycopy(days, i + 1, d, i, days.length - i - 1);
+            System.arraycopy(prices, i + 1, p, i, days.length - i - 1);
+            return new Series(store, d, p, currency);
+        }
+    }
+
+    /**
+     * Looks up the price of a product on a day, in one store or in every store that had it.
+     *
+     * @param productId the product
+     * @param storeName the store, matched ignoring case, or null for every store
+     * @param asOf      the day to price
+     * @return the prices in force on the day, one per store, by store name; empty if there were none yet
+     */
+    public List<PricePoint> priceAsOf(String productId, String storeName, LocalDate asOf) {
+        ensureLoaded();
+        int day = (int) asOf.toEpochDay();
+        Map<String, Series> stores = byProduct.getOrDefault(productId, Map.of());
+        Collection<Series> matching = storeName == null ? stores.values()
+                : Optional.ofNullable(stores.get(key(storeName))).map(List::of).orElse(List.of());
+        Map<String, PricePoint> result = new TreeMap<>();
+        boolean beforeDatabase = false, matched = !matching.isEmpty();
+        for (Series series : matching) {
+            int i = series.floor(day);
+            if (i < 0) {
+                beforeDatabase = true;
+                continue;
+            }
+            result.put(key(series.store()), new PricePoint(productId, series.store(), asOf,
+                    LocalDate.ofEpochDay(series.days()[i]), series.prices()[i], series.currency()));
+        }
+        // the archive is cut by date per store, so a store may have only archived rows even when others have some
+        // in the database: a lookup across stores always asks it too
+        if ((storeName == null || beforeDatabase || !matched) && archive.enabled()) {
+            for (Product p : archive.history(productId, storeName)) {
+                ProductId id = p.getId();
+                if (id.getDate().isAfter(asOf)) continue;
+                result.merge(key(id.getStoreName()), new PricePoint(productId, id.getStoreName(), asOf, id.getDate(),
+                        p.getPrice(), p.getCurrency()), (a, b) -> a.date().isBefore(b.date()) ? b : a);
+            }
+        }
+        return List.copyOf(result.values());
+    }
+
+    /**
+     * Applies stored and deleted product rows.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        event.written().forEach(p -> merge(p.getId(), p.getPrice(), p.getCurrency(), true));
+        event.deleted().forEach(this::removed);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            long start = System.nanoTime();
+            int[] rows = new int[1];
+            bulkRepo.scanProducts(rs -> {
+                merge(new ProductId(rs.getString(1), rs.getString(2), rs.getObject(3, LocalDate.class)),
+                        rs.getBigDecimal(9), rs.getString(10), false);
+                rows[0]++;
+            });
+            loaded = true;
+            log.info("Indexed {} prices of {} products for as-of lookups in {} ms", rows[0], byProduct.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void merge(ProductId id, BigDecimal price, String currency, boolean replace) {
+        int day = (int) id.getDate().toEpochDay();
+        byProduct.computeIfAbsent(id.getProductId(), k -> new ConcurrentHashMap<>())
+                .compute(key(id.getStoreName()), (store, series) -> series == null
+                        ? new Series(id.getStoreName(), new int[]{day}, new BigDecimal[]{price}, currency)
+                        : series.with(day, price, currency, replace));
+    }
+
+    private void removed(ProductId id) {
+        Map<String, Series> stores = byProduct.get(id.getProductId());
+        if (stores == null) return;
+        stores.computeIfPresent(key(id.getStoreName()), (store, series) -> series.without((int) id.getDate().toEpochDay()));
+    }
+
+    private static String key(String storeName) {
+        return storeName.toLowerCase(Locale.ROOT);
+    }
+}
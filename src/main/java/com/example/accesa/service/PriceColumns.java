@@ -0,0 +1,288 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * An immutable copy of the product table held in primitive columns: text as int ids into per-column dictionaries,
+ * prices and quantities as longs in hundredths (the scale of the database columns) and dates as epoch days.
+ * Rows are grouped by product, then store, then date, and also indexed by name, so the history queries touch
+ * only the rows they return. {@link Product}s are created for the result rows only.
+ */
+public final class PriceColumns {
+    private static final int SCALE = 2;
+    private static final long NULL_DECIMAL = Long.MIN_VALUE;
+
+    private final int size;
+    private final String[] productIds;
+    private final Map<String, Integer> productCodes;
+    private final int[] productStart;
+    private final String[] stores;
+    private final String[] names;
+    private final Map<String, Integer> nameCodes;
+    private final String[] categories;
+    private final String[] brands;
+    private final String[] units;
+    private final String[] currencies;
+
+    private final int[] product;
+    private final int[] store;
+    private final int[] date;
+    private final int[] name;
+    private final int[] category;
+    private final int[] brand;
+    private final int[] unit;
+    private final int[] currency;
+    private final long[] quantity;
+    private final long[] price;
+
+    private final int[] nameStart;
+    private final int[] nameRows;
+
+    private PriceColumns(Builder b) {
+        size = b.size;
+        productIds = b.productIds.values();
+        productCodes = b.productIds.codes;
+        stores = b.stores.values();
+        names = b.names.values();
+        nameCodes = b.names.codes;
+        categories = b.categories.values();
+        brands = b.brands.values();
+        units = b.units.values();
+        currencies = b.currencies.values();
+
+        product = Arrays.copyOf(b.product, size);
+        store = Arrays.copyOf(b.store, size);
+        date = Arrays.copyOf(b.date, size);
+        name = Arrays.copyOf(b.name, size);
+        category = Arrays.copyOf(b.category, size);
+        brand = Arrays.copyOf(b.brand, size);
+        unit = Arrays.copyOf(b.unit, size);
+        currency = Arrays.copyOf(b.currency, size);
+        quantity = Arrays.copyOf(b.quantity, size);
+        price = Arrays.copyOf(b.price, size);
+
+        productStart = offsets(product, productIds.length);
+        nameStart = offsets(name, names.length);
+        nameRows = new int[size];
+        int[] next = Arrays.copyOf(nameStart, names.length);
+        for (int row = 0; row < size; row++) {
+            nameRows[next[name[row]]++] = row;
+        }
+    }
+
+    /**
+     * Counts the rows per code and turns the counts into start offsets, with one extra entry for the end.
+     */
+    private static int[] offsets(int[] column, int codes) {
+        int[] start = new int[codes + 1];
+        for (int code : column) start[code + 1]++;
+        for (int i = 0; i < codes; i++) start[i + 1] += start[i];
+        return start;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Approximates the heap taken by the columns and indexes, not counting the dictionary strings.
+     */
+    public long columnBytes() {
+        return (long) size * (9 * Integer.BYTES + 2 * Long.BYTES) + (long) (productStart.length + nameStart.length) * Integer.BYTES;
+    }
+
+    /**
+     * Same as {@link ProductService#getPriceHistoryById}: the rows of one product, by date.
+     *
+     * @param productId the product
+     * @param storeName the store to keep, matched ignoring case, or null for all stores
+     */
+    public List<Product> history(String productId, String storeName) {
+        Integer code = productCodes.get(productId);
+        if (code == null) return List.of();
+
+        boolean[] storeMatch = matchIgnoreCase(stores, storeName);
+        List<Integer> rows = new ArrayList<>();
+        for (int row = productStart[code]; row < productStart[code + 1]; row++) {
+            if (storeMatch == null || storeMatch[store[row]]) rows.add(row);
+        }
+        return byDate(rows);
+    }
+
+    /**
+     * Same as {@link ProductService#getPriceHistoryByName}: the rows with one of the given names, optionally
+     * narrowed to a store, brand and category matched ignoring case, by date.
+     *
+     * @param productNames the names to find, e.g. from a {@link NameIndex} search
+     */
+    public List<Product> historyByName(Collection<String> productNames, String storeName, String brandName,
+                                       String categoryName) {
+        boolean[] storeMatch = matchIgnoreCase(stores, storeName);
+        boolean[] brandMatch = matchIgnoreCase(brands, brandName);
+        boolean[] categoryMatch = matchIgnoreCase(categories, categoryName);
+
+        List<Integer> rows = new ArrayList<>();
+        for (String productName : productNames) {
+            Integer n = nameCodes.get(productName);
+            if (n == null) continue;
+            for (int i = nameStart[n]; i < nameStart[n + 1]; i++) {
+                int row = nameRows[i];
+                if ((storeMatch == null || storeMatch[store[row]])
+                        && (brandMatch == null || brandMatch[brand[row]])
+                        && (categoryMatch == null || categoryMatch[category[row]])) {
+                    rows.add(row);
+                }
+            }
+        }
+        return byDate(rows);
+    }
+
+    private List<Product> byDate(List<Integer> rows) {
+        rows.sort(Comparator.comparingInt(row -> date[row]));
+        List<Product> result = new ArrayList<>(rows.size());
+        for (int row : rows) result.add(product(row));
+        return result;
+    }
+
+    /**
+     * @return which dictionary entries equal the value ignoring case, or null if there is no value to match
+     */
+    private static boolean[] matchIgnoreCase(String[] dictionary, String value) {
+        if (value == null) return null;
+        boolean[] match = new boolean[dictionary.length];
+        for (int i = 0; i < dictionary.length; i++) {
+            match[i] = dictionary[i] != null && dictionary[i].equalsIgnoreCase(value);
+        }
+        return match;
+    }
+
+    private Product product(int row) {
+        return new Product(
+                new ProductId(productIds[product[row]], stores[store[row]], LocalDate.ofEpochDay(date[row])),
+                names[name[row]], categories[category[row]], brands[brand[row]], decimal(quantity[row]),
+                units[unit[row]], decimal(price[row]), currencies[currency[row]]);
+    }
+
+    private static BigDecimal decimal(long hundredths) {
+        return hundredths == NULL_DECIMAL ? null : BigDecimal.valueOf(hundredths, SCALE);
+    }
+
+    /**
+     * Collects rows, which must arrive grouped by product id, then store, then date.
+     */
+    public static final class Builder {
+        private final Dictionary productIds = new Dictionary();
+        private final Dictionary stores = new Dictionary();
+        private final Dictionary names = new Dictionary();
+        private final Dictionary categories = new Dictionary();
+        private final Dictionary brands = new Dictionary();
+        private final Dictionary units = new Dictionary();
+        private final Dictionary currencies = new Dictionary();
+
+        private int size;
+        private int[] product = new int[1024];
+        private int[] store = new int[1024];
+        private int[] date = new int[1024];
+        private int[] name = new int[1024];
+        private int[] category = new int[1024];
+        private int[] brand = new int[1024];
+        private int[] unit = new int[1024];
+        private int[] currency = new int[1024];
+        private long[] quantity = new long[1024];
+        private long[] price = new long[1024];
+
+        private Builder() {
+        }
+
+        /**
+         * Appends a row.
+         *
+         * @throws IllegalStateException if a product's rows are not contiguous
+         * @throws ArithmeticException   if a price or quantity has more than two decimals
+         */
+        public Builder add(String productId, String storeName, LocalDate day, String productName, String categoryName,
+                           String brandName, BigDecimal packageQuantity, String packageUnit, BigDecimal amount,
+                           String currencyCode) {
+            int code = productIds.code(productId);
+            if (size > 0 && code != product[size - 1] && code < productIds.size() - 1) {
+                throw new IllegalStateException("Rows of product " + productId + " are not contiguous");
+            }
+            if (size == product.length) grow();
+
+            product[size] = code;
+            store[size] = stores.code(storeName);
+            date[size] = Math.toIntExact(day.toEpochDay());
+            name[size] = names.code(productName);
+            category[size] = categories.code(categoryName);
+            brand[size] = brands.code(brandName);
+            unit[size] = units.code(packageUnit);
+            currency[size] = currencies.code(currencyCode);
+            quantity[size] = hundredths(packageQuantity);
+            price[size] = hundredths(amount);
+            size++;
+            return this;
+        }
+
+        public PriceColumns build() {
+            return new PriceColumns(this);
+        }
+
+        private static long hundredths(BigDecimal value) {
+            if (value == null) return NULL_DECIMAL;
+            return value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        }
+
+        private void grow() {
+            int capacity = product.length * 2;
+            product = Arrays.copyOf(product, capacity);
+            store = Arrays.copyOf(store, capacity);
+            date = Arrays.copyOf(date, capacity);
+            name = Arrays.copyOf(name, capacity);
+            category = Arrays.copyOf(category, capacity);
+            brand = Arrays.copyOf(brand, capacity);
+            unit = Arrays.copyOf(unit, capacity);
+            currency = Arrays.copyOf(currency, capacity);
+            quantity = Arrays.copyOf(quantity, capacity);
+            price = Arrays.copyOf(price, capacity);
+        }
+    }
+
+    /**
+     * Assigns dense int ids to the distinct values of a column, in order of first appearance. Null is a value too.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        String[] values() {
+            return values.toArray(String[]::new);
+        }
+    }
+}
@@ -1,92 +1,286 @@
 package com.example.accesa.service;
 
+import com.example.accesa.domain.BaseUnit;
 import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.CursorPage;
+import com.example.accesa.dto.PageCursor;
+import com.example.accesa.dto.PriceAsOfRequest;
+import com.example.accesa.dto.PricePoint;
+import com.example.accesa.dto.ProductFilter;
+import com.example.accesa.dto.ProductView;
+import com.example.accesa.dto.Suggestion;
+import com.example.accesa.ingest.PriceHistoryArchive;
 import com.example.accesa.repository.ProductRepository;
+import com.example.accesa.repository.ProductSpecifications;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
+    /**
+     * The order of price history results: by date, then store and product id, so pages have a total order.
+     */
+    static final Comparator<ProductId> HISTORY_ORDER = Comparator.comparing(ProductId::getDate)
+            .thenComparing(ProductId::getStoreName).thenComparing(ProductId::getProductId);
+
+    /**
+     * How many names a name search looks up per query, which keeps the IN list a size the database handles well.
+     */
+    static final int NAMES_PER_QUERY = 1000;
+
+    private static final Sort HISTORY_SORT = Sort.by("id.date", "id.storeName", "id.productId");
+
     private final ProductRepository productRepo;
+    private final CurrentPriceProjection currentPrices;
+    private final ColumnarCatalog columnar;
+    private final PriceHistoryArchive archive;
+    private final CatalogCache cache;
+    private final NameIndex nameIndex;
+    private final SuggestionIndex suggestions;
+    private final SubstituteIndex substitutes;
+    private final PriceAsOfIndex priceAsOf;
 
     /**
-     * Retrieves all products, optionally filtered by store name.
+     * Retrieves one page of products, optionally filtered by store name, in (store, product id, date) order, as plain
+     * values rather than managed entities. Each page is read by seeking to its start key, so a deep page costs the
+     * same as the first. Results are cached until the catalog changes.
      *
      * @param store the name of the store to filter by, or null to fetch all
-     * @return a list of Product entities
+     * @param after the key of the last row of the previous page, or null for the first page
+     * @param size  the maximum number of rows
+     * @return the page of product rows
      */
-    public List<Product> getAllProducts(String store) {
-        if (store == null) return productRepo.findAll();
-        return productRepo.findById_StoreName(store);
+    public CursorPage<ProductView> getProducts(String store, PageCursor after, int size) {
+        return cache.get("products", Arrays.asList(store, after, size), () -> loadProducts(store, after, size));
+    }
+
+    private CursorPage<ProductView> loadProducts(String store, PageCursor after, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<ProductView> rows;
+        if (after == null) {
+            rows = store == null ? productRepo.findViewPage(limit) : productRepo.findViewPageByStoreName(store, limit);
+        } else {
+            rows = new ArrayList<>(productRepo.findViewPageInStoreAfter(
+                    store == null ? after.storeName() : store, after.productId(), after.date(), limit));
+            if (store == null && rows.size() <= size) {
+                rows.addAll(productRepo.findViewPageAfterStore(after.storeName(), Limit.of(size + 1 - rows.size())));
+            }
+        }
+        return CursorPage.of(rows, size, ProductView::id);
     }
 
     /**
      * Retrieves the price history of a product by its ID,
-     * optionally filtered by store.
+     * optionally filtered by store. Answered from the columnar catalog when it is enabled and current,
+     * and from the history archive for prices that have been moved out of the database. Results are cached
+     * until the catalog changes.
      *
      * @param productId the ID of the product
      * @param store     the name of the store to filter by, or null
      * @return a list of Product records sorted by date
      */
     public List<Product> getPriceHistoryById(String productId, String store) {
-        return productRepo.findById_ProductIdOrderById_DateAsc(productId).stream()
-                .filter(p -> store == null || p.getId().getStoreName().equalsIgnoreCase(store))
-                .collect(Collectors.toList());
+        return cache.get("history-by-id", Arrays.asList(productId, store), () -> loadPriceHistoryById(productId, store));
     }
 
     /**
-     * Retrieves the price history of a product by name,
-     * optionally filtered by store, brand, and category.
+     * Retrieves one page of {@link #getPriceHistoryById(String, String)}, in (date, store, product id) order. When
+     * the columnar catalog is current, the page is cut out of the complete history; otherwise the database is asked
+     * for the page's rows only, by seeking to its start key, and the archive for the rows in the page's date range.
      *
-     * @param name     the product name to search
-     * @param store    optional store name
-     * @param brand    optional brand filter
-     * @param category optional category filter
-     * @return a filtered and sorted list of Product entities
+     * @param after the key of the last row of the previous page, or null for the first page
+     * @param size  the maximum number of rows
      */
-    public List<Product> getPriceHistoryByName(String name, String store, String brand, String category) {
-        return productRepo.findAll().stream()
-                .filter(p -> p.getName().toLowerCase().contains(name.toLowerCase()))
-                .filter(p -> store == null || p.getId().getStoreName().equalsIgnoreCase(store))
-                .filter(p -> brand == null || p.getBrand().equalsIgnoreCase(brand))
-                .filter(p -> category == null || p.getCategory().equalsIgnoreCase(category))
-                .sorted(Comparator.comparing(p -> p.getId().getDate()))
-                .toList();
+    public CursorPage<Product> getPriceHistoryById(String productId, String store, PageCursor after, int size) {
+        if (columnar.current().isPresent()) {
+            return CursorPage.slice(getPriceHistoryById(productId, store), Product::getId, HISTORY_ORDER, after, size);
+        }
+        return cache.get("history-by-id-page", Arrays.asList(productId, store, after, size), () -> {
+            Limit limit = Limit.of(size + 1);
+            List<Product> recent = after == null
+                    ? productRepo.findHistoryPage(productId, store, limit)
+                    : productRepo.findHistoryPageAfter(productId, store, after.date(), after.storeName(), limit);
+            LocalDate last = recent.size() > size ? recent.getLast().getId().getDate() : null;
+            return page(recent, archive.history(productId, store, after == null ? null : after.date(), last), after, size);
+        });
+    }
+
+    private List<Product> loadPriceHistoryById(String productId, String store) {
+        Optional<PriceColumns> columns = columnar.current();
+        List<Product> recent = columns.isPresent()
+                ? columns.get().history(productId, store)
+                : productRepo.findById_ProductIdOrderById_DateAsc(productId).stream()
+                        .filter(p -> store == null || p.getId().getStoreName().equalsIgnoreCase(store))
+                        .collect(Collectors.toList());
+        return withArchived(recent, archive.history(productId, store));
     }
 
     /**
-     * Finds recommended substitute products in the same category,
-     * and within 10% (default) of the reference unit price.
+     * Retrieves the price history of products matching a filter, whose name criterion is required. The names that
+     * contain the text, ignoring case and diacritics, are found in the {@link NameIndex}; their rows are read from the
+     * columnar catalog when it is enabled and current, otherwise by database queries that apply every criterion, and
+     * from the history archive for prices that have been moved out of the database. Results are cached until the
+     * catalog changes.
      *
-     * @param productId the ID of the reference product
-     * @return a list of substitute Product entities
+     * @param filter the criteria; see {@link ProductFilter}
+     * @return the matching Product rows, by date
      */
+    public List<Product> getPriceHistoryByName(ProductFilter filter) {
+        return cache.get("history-by-name", List.of(filter), () -> loadPriceHistoryByName(filter));
+    }
+
     /**
-     * Retrieves all variations of the same product (same name, brand, category)
-     * across all stores/dates, sorted by unit price descending.
+     * Retrieves one page of {@link #getPriceHistoryByName(ProductFilter)}, in (date, store, product id) order. When
+     * the columnar catalog is current, the page is cut out of the complete result; otherwise each name query reads
+     * at most one page of rows after the start key, and the archive only the rows in the page's date range.
      *
-     * @param productId the ID of the reference product
-     * @return a list of product variants sorted by unit price
+     * @param after the key of the last row of the previous page, or null for the first page
+     * @param size  the maximum number of rows
      */
-    public List<Product> findSubstitutes(String productId, double ignoredMargin) {
-        List<Product> history = productRepo.findById_ProductIdOrderById_DateAsc(productId);
-        if (history.isEmpty()) return List.of();
+    public CursorPage<Product> getPriceHistoryByName(ProductFilter filter, PageCursor after, int size) {
+        if (columnar.current().isPresent()) {
+            return CursorPage.slice(getPriceHistoryByName(filter), Product::getId, HISTORY_ORDER, after, size);
+        }
+        return cache.get("history-by-name-page", Arrays.asList(filter, after, size), () -> {
+            List<String> names = List.copyOf(nameIndex.namesContaining(filter.name()));
+            List<Product> recent = new ArrayList<>();
+            for (int from = 0; from < names.size(); from += NAMES_PER_QUERY) {
+                Specification<Product> query = ProductSpecifications.matching(filter,
+                        names.subList(from, Math.min(names.size(), from + NAMES_PER_QUERY)));
+                if (after != null) query = query.and(ProductSpecifications.after(after));
+                recent.addAll(productRepo.findBy(query, q -> q.sortBy(HISTORY_SORT).limit(size + 1).all()));
+            }
+            recent.sort(Comparator.comparing(Product::getId, HISTORY_ORDER));
+            if (recent.size() > size + 1) recent = recent.subList(0, size + 1);
+            LocalDate last = recent.size() > size ? recent.getLast().getId().getDate() : null;
+            return page(recent, archive.historyByName(filter.within(after == null ? null : after.date(), last)), after, size);
+        });
+    }
+
+    private List<Product> loadPriceHistoryByName(ProductFilter filter) {
+        Set<String> names = nameIndex.namesContaining(filter.name());
+        Optional<PriceColumns> columns = columnar.current();
+        List<Product> recent = new ArrayList<>();
+        if (columns.isPresent()) {
+            columns.get().historyByName(names, filter.store(), filter.brand(), filter.category()).stream()
+                    .filter(filter::test)
+                    .forEach(recent::add);
+        } else {
+            List<String> list = List.copyOf(names);
+            for (int from = 0; from < list.size(); from += NAMES_PER_QUERY) {
+                List<String> chunk = list.subList(from, Math.min(list.size(), from + NAMES_PER_QUERY));
+                recent.addAll(productRepo.findAll(ProductSpecifications.matching(filter, chunk)));
+            }
+        }
+        return withArchived(recent, archive.historyByName(filter));
+    }
 
-        Product reference = history.get(history.size() - 1);
+    /**
+     * Retrieves the latest price of every product in every store sold in a base unit, cheapest per base unit first,
+     * read in order from the stored price per base unit. Results are cached until the catalog changes.
+     *
+     * @param unit     the unit to compare in; g and ml are taken as kg and l
+     * @param category the category to restrict to, or null for all
+     * @param size     the most rows to return
+     * @return the cheapest rows by price per base unit
+     */
+    public List<ProductView> getCheapest(String unit, String category, int size) {
+        String baseUnit = BaseUnit.of(unit);
+        return cache.get("cheapest", Arrays.asList(baseUnit, category, size),
+                () -> productRepo.findCheapestViews(baseUnit, category, Limit.of(size)));
+    }
 
-        return productRepo.findAll().stream()
-                .filter(p -> p.getCategory().equalsIgnoreCase(reference.getCategory()))
-                .filter(p -> p.getBrand().equalsIgnoreCase(reference.getBrand()))
-                .filter(p -> p.getName().equalsIgnoreCase(reference.getName()))
-                .sorted(Comparator.comparing(Product::getUnitPrice))
+    /**
+     * Suggests product names for a prefix typed by the user, from the in-memory {@link SuggestionIndex}.
+     *
+     * @param prefix the start of a product name, ignoring case and diacritics
+     * @param limit  the most suggestions to return
+     * @return the matching (name, brand) pairs, carried by the most stores first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return suggestions.suggest(prefix, limit);
+    }
+
+    /**
+     * Looks up the price a product had on a day, from the in-memory {@link PriceAsOfIndex}.
+     *
+     * @param productId the product
+     * @param store     the store, ignoring case, or null for every store
+     * @param asOf      the day to price
+     * @return the price in force on that day in each store, by store name
+     */
+    public List<PricePoint> getPriceAsOf(String productId, String store, LocalDate asOf) {
+        return priceAsOf.priceAsOf(productId, store, asOf);
+    }
+
+    /**
+     * Answers several as-of lookups at once.
+     *
+     * @param queries the (product, store, day) lookups
+     * @return the results of every lookup, in the order of the queries
+     */
+    public List<PricePoint> getPricesAsOf(List<PriceAsOfRequest.Query> queries) {
+        List<PricePoint> result = new ArrayList<>(queries.size());
+        for (PriceAsOfRequest.Query q : queries) result.addAll(priceAsOf.priceAsOf(q.productId(), q.storeName(), q.asOf()));
+        return result;
+    }
+
+    /**
+     * Merges archived rows with the database rows, in {@link #HISTORY_ORDER}. An archived row that is also in the
+     * database, because its file was reloaded after it was archived, is replaced by the database row.
+     */
+    private static List<Product> withArchived(List<Product> recent, List<Product> archived) {
+        Set<ProductId> reloaded = archived.isEmpty() ? Set.of() : recent.stream().map(Product::getId).collect(Collectors.toSet());
+        return Stream.concat(archived.stream().filter(p -> !reloaded.contains(p.getId())), recent.stream())
+                .sorted(Comparator.comparing(Product::getId, HISTORY_ORDER))
                 .toList();
     }
 
+    /**
+     * Makes a page from at most {@code size + 1} database rows after the cursor and the archived rows of their date
+     * range. Archived rows after the last database row belong to a later page, where they are merged with that
+     * page's database rows.
+     */
+    private static CursorPage<Product> page(List<Product> recent, List<Product> archived, PageCursor after, int size) {
+        ProductId start = after == null ? null : after.toId();
+        ProductId end = recent.size() > size ? recent.getLast().getId() : null;
+        List<Product> inPage = archived.stream()
+                .filter(p -> (start == null || HISTORY_ORDER.compare(p.getId(), start) > 0)
+                        && (end == null || HISTORY_ORDER.compare(p.getId(), end) <= 0))
+                .toList();
+        List<Product> rows = withArchived(recent, inPage);
+        return CursorPage.of(rows.subList(0, Math.min(rows.size(), size + 1)), size, Product::getId);
+    }
 
-}
\ No newline at end of file
+    /**
+     * Finds products of other brands in the same category whose price per base unit, counting g as kg and ml as l,
+     * is within a margin of the product's latest price. Candidates are the latest rows of every store, looked up by
+     * price range in the {@link SubstituteIndex}.
+     *
+     * @param productId the ID of the reference product
+     * @param margin    the largest difference in price per base unit, in percent
+     * @return the substitutes, by ascending price per base unit
+     */
+    public List<Product> findSubstitutes(String productId, double margin) {
+        return currentPrices.latest(productId).values().stream()
+                .max(Comparator.comparing(p -> p.getId().getDate()))
+                .map(reference -> substitutes.substitutes(reference, margin))
+                .orElse(List.of());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.BaseUnit;
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.SearchText;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * The current price rows of every category, sorted by the price per base unit stored with each row (see
+ * {@link BaseUnit}), so that the products priced near a reference are found by two binary searches instead of a
+ * pass over the catalog. Rows are grouped by category, ignoring case and diacritics, and by base unit, since
+ * prices per kg and per piece do not compare. Rows without a price per base unit are left out.
+ *
+ * <p>The shelves are built from the {@link CurrentPriceProjection} on first use and rebuilt on the next use after
+ * the projection has changed.
+ */
+@Component
+@RequiredArgsConstructor
+public class SubstituteIndex {
+    private final CurrentPriceProjection currentPrices;
+
+    private volatile Built built;
+
+    private record Built(long version, Map<String, Shelf> shelves) {}
+
+    /**
+     * The rows of one category and base unit, by ascending price per base unit.
+     */
+    private record Shelf(double[] unitPrices, Product[] rows) {
+
+        List<Product> between(double low, double high) {
+            List<Product> result = new ArrayList<>();
+            for (int i = lowerBound(low); i < rows.length && unitPrices[i] <= high; i++) result.add(rows[i]);
+            return result;
+        }
+
+        private int lowerBound(double value) {
+            int lo = 0, hi = unitPrices.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (unitPrices[mid] < value) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    /**
+     * Finds the current rows of other brands in the reference's category whose price per base unit is within a
+     * margin of the reference's.
+     *
+     * @param reference the product to replace
+     * @param margin    the largest difference in price per base unit, in percent of the reference's
+     * @return the substitutes, by ascending price per base unit
+     */
+    public List<Product> substitutes(Product reference, double margin) {
+        BigDecimal unitPrice = reference.getBaseUnitPrice();
+        if (unitPrice == null || reference.getCategory() == null) return List.of();
+        Shelf shelf = shelves().get(key(reference));
+        if (shelf == null) return List.of();
+
+        double price = unitPrice.doubleValue();
+        return shelf.between(price * (1 - margin / 100), price * (1 + margin / 100)).stream()
+                .filter(p -> !sameBrand(p.getBrand(), reference.getBrand()))
+                .toList();
+    }
+
+    private Map<String, Shelf> shelves() {
+        Built copy = built;
+        return copy != null && copy.version() == currentPrices.version() ? copy.shelves() : rebuild();
+    }
+
+    private synchronized Map<String, Shelf> rebuild() {
+        long version = currentPrices.version();
+        if (built != null && built.version() == version) return built.shelves();
+
+        Map<String, List<Product>> grouped = new HashMap<>();
+        for (Product p : currentPrices.all()) {
+            if (p.getBaseUnitPrice() == null || p.getCategory() == null) continue;
+            grouped.computeIfAbsent(key(p), k -> new ArrayList<>()).add(p);
+        }
+
+        Map<String, Shelf> shelves = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((key, rows) -> {
+            rows.sort(Comparator.comparing(Product::getBaseUnitPrice));
+            double[] prices = new double[rows.size()];
+            for (int i = 0; i < prices.length; i++) prices[i] = rows.get(i).getBaseUnitPrice().doubleValue();
+            shelves.put(key, new Shelf(prices, rows.toArray(Product[]::new)));
+        });
+        built = new Built(version, shelves);
+        return shelves;
+    }
+
+    private static String key(Product p) {
+        return SearchText.normalize(p.getCategory()) + '\0' + p.getBaseUnit();
+    }
+
+    private static boolean sameBrand(String a, String b) {
+        return a == null ? b == null : a.equalsIgnoreCase(b);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.SearchText;
+import com.example.accesa.dto.Suggestion;
+import com.example.accesa.ingest.CatalogChangedEvent;
+import com.example.accesa.repository.CatalogBulkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A prefix trie over the distinct (name, brand) pairs of the catalog in {@link SearchText} form, for suggestions
+ * while the user types. Every node keeps the best {@value #MAX_SUGGESTIONS} pairs below it, ranked by how many
+ * stores carry them, so a lookup walks as many nodes as the prefix has characters and copies one short array,
+ * whatever the size of the catalog. Children are held in sorted arrays rather than maps to keep nodes small.
+ *
+ * <p>The trie is read from the database on first use and then follows {@link CatalogChangedEvent}s. Store counts
+ * only grow, which lets a node's ranking be updated by moving one pair up; deleted rows are not subtracted, so a
+ * pair keeps the count it had until the application restarts.
+ */
+@Slf4j
+@Component
+public class SuggestionIndex {
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final Comparator<Entry> RANK = Comparator.comparingInt((Entry e) -> -e.stores.size())
+            .thenComparing(e -> e.name)
+            .thenComparing(e -> e.brand, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final CatalogBulkRepository bulkRepo;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Node root = new Node();
+    private volatile boolean listening;
+    private volatile boolean loaded;
+
+    public SuggestionIndex(CatalogBulkRepository bulkRepo) {
+        this.bulkRepo = bulkRepo;
+    }
+
+    /**
+     * @param prefix the start of a product name, in any case and with or without diacritics
+     * @param limit  the most suggestions to return, at most {@value #MAX_SUGGESTIONS}
+     * @return the names starting with the prefix, ignoring case and diacritics, carried by the most stores first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (!loaded) load();
+        String key = SearchText.normalize(prefix.strip());
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) node = node.child(key.charAt(i));
+            if (node == null) return List.of();
+
+            int n = Math.min(limit, node.top.length);
+            List<Suggestion> result = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Entry e = node.top[i];
+                result.add(new Suggestion(e.name, e.brand, e.stores.size()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of distinct (name, brand) pairs indexed
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the stores of written products. Ignored until the index is first used, since the load reads them.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!listening) return;
+        for (Product p : event.written()) add(p.getName(), p.getBrand(), p.getId().getStoreName());
+    }
+
+    /**
+     * Records that a store carries a product.
+     *
+     * @param name  the product name; a null name is skipped
+     * @param brand the brand, or null
+     * @param store the store carrying it
+     */
+    public void add(String name, String brand, String store) {
+        if (name == null) return;
+        lock.writeLock().lock();
+        try {
+            Entry entry = count(name, brand, store);
+            if (entry != null) place(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the pairs in the database and ranks them; lookups that arrive meanwhile wait for the whole trie rather
+     * than see a partial ranking. Store counts are sets, so a row that an event counts during the scan is not
+     * counted twice by the scan. Every pair is counted before any is placed, so each is placed in the trie once
+     * rather than once per store.
+     */
+    private synchronized void load() {
+        if (loaded) return;
+        long start = System.nanoTime();
+        listening = true;
+        List<String[]> rows = new ArrayList<>();
+        bulkRepo.scanProductStores(rs -> rows.add(new String[]{rs.getString(1), rs.getString(2), rs.getString(3)}));
+        lock.writeLock().lock();
+        try {
+            Set<Entry> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (String[] row : rows) {
+                Entry entry = row[0] == null ? null : count(row[0], row[1], row[2]);
+                if (entry != null) counted.add(entry);
+            }
+            counted.forEach(this::place);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        loaded = true;
+        log.info("Indexed {} product suggestions in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @return the pair, if the store was new to it
+     */
+    private Entry count(String name, String brand, String store) {
+        String key = SearchText.normalize(name) + '\0' + Objects.toString(SearchText.normalize(brand), "");
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry(name, brand));
+        return entry.stores.add(store) ? entry : null;
+    }
+
+    /**
+     * Offers a pair whose store count has grown to every node of its name.
+     */
+    private void place(Entry entry) {
+        Node node = root;
+        for (int i = 0; i < entry.key.length(); i++) {
+            node = node.childOrAdd(entry.key.charAt(i));
+            node.offer(entry);
+        }
+    }
+
+    /**
+     * A (name, brand) pair and the stores carrying it.
+     */
+    private static final class Entry {
+        private final String name;
+        private final String brand;
+        private final String key;
+        private final Set<String> stores = new HashSet<>(4);
+
+        Entry(String name, String brand) {
+            this.name = name;
+            this.brand = brand;
+            this.key = SearchText.normalize(name);
+        }
+    }
+
+    /**
+     * One character of a prefix: its children by next character and the best pairs whose name starts with it.
+     */
+    private static final class Node {
+        private static final char[] NO_KEYS = {};
+        private static final Node[] NO_CHILDREN = {};
+        private static final Entry[] NO_ENTRIES = {};
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private Entry[] top = NO_ENTRIES;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrAdd(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) return children[i];
+            int at = -i - 1;
+            Node child = new Node();
+            char[] k = new char[keys.length + 1];
+            Node[] n = new Node[children.length + 1];
+            System.arraycopy(keys, 0, k, 0, at);
+            System.arraycopy(children, 0, n, 0, at);
+            k[at] = c;
+            n[at] = child;
+            System.arraycopy(keys, at, k, at + 1, keys.length - at);
+            System.arraycopy(children, at, n, at + 1, children.length - at);
+            keys = k;
+            children = n;
+            return child;
+        }
+
+        /**
+         * Places a pair whose store count has grown, moving it up past the pairs it now outranks.
+         */
+        void offer(Entry entry) {
+            int at = top.length - 1;
+            while (at >= 0 && top[at] != entry) at--;
+            if (at < 0) {
+                if (top.length == MAX_SUGGESTIONS) {
+                    if (RANK.compare(entry, top[MAX_SUGGESTIONS - 1]) >= 0) return;
+                } else {
+                    top = Arrays.copyOf(top, top.length + 1);
+                }
+                at = top.length - 1;
+                top[at] = entry;
+            }
+            for (; at > 0 && RANK.compare(top[at], top[at - 1]) < 0; at--) {
+                Entry swap = top[at - 1];
+                top[at - 1] = top[at];
+                top[at] = swap;
+            }
+        }
+    }
+}
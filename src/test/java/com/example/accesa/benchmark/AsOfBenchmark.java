@@ -0,0 +1,105 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.PricePoint;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.ProductRepository;
+import com.example.accesa.service.PriceAsOfIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of a "price as of a day" lookup for one product and store, answered by loading the product's whole
+ * history as entities and keeping the latest row on or before the day, versus a binary search in the
+ * {@link PriceAsOfIndex}. Every product has a weekly snapshot in every store. The figures of the last round are
+ * reported. Run with {@code ./mvnw -Pbenchmark test -Dtest=AsOfBenchmark [-Dbench.rows=1000000]}.
+ */
+@SpringBootTest(properties = "catalog.data.bundled=false")
+class AsOfBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 300_000);
+    private static final String[] STORES = {"Lidl", "Kaufland", "Profi", "Mega", "Auchan"};
+    private static final int DATES = 52;
+    private static final LocalDate FIRST = LocalDate.of(2030, 1, 1);
+    private static final int SCAN_QUERIES = 500;
+    private static final int INDEX_QUERIES = 200_000;
+    private static final int ROUNDS = 2;
+
+    @Autowired
+    private CatalogBulkRepository bulkRepo;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private PriceAsOfIndex index;
+
+    @Test
+    void indexVersusHistoryScan() {
+        int products = ROWS / STORES.length / DATES;
+        insert(products);
+
+        long build = System.nanoTime();
+        index.priceAsOf("P000000", null, FIRST);
+        build = System.nanoTime() - build;
+
+        Random random = new Random(42);
+        long scan = 0, indexed = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < SCAN_QUERIES; i++) {
+                String id = "P%06d".formatted(random.nextInt(products));
+                String store = STORES[random.nextInt(STORES.length)];
+                LocalDate day = FIRST.plusDays(random.nextInt(DATES * 7));
+                assertThat(scan(id, store, day).getPrice()).isEqualTo(index.priceAsOf(id, store, day).get(0).price());
+            }
+            scan = (System.nanoTime() - start) / SCAN_QUERIES;
+
+            start = System.nanoTime();
+            long found = 0;
+            for (int i = 0; i < INDEX_QUERIES; i++) {
+                List<PricePoint> points = index.priceAsOf("P%06d".formatted(random.nextInt(products)),
+                        STORES[random.nextInt(STORES.length)], FIRST.plusDays(random.nextInt(DATES * 7)));
+                found += points.size();
+            }
+            indexed = (System.nanoTime() - start) / INDEX_QUERIES;
+            assertThat(found).isEqualTo(INDEX_QUERIES);
+        }
+
+        System.out.printf("%n%,d rows, %d snapshots per product and store, index built in %,d ms%n"
+                        + "  history load + scan: %,10.2f µs per lookup%n  as-of index:         %,10.2f µs per lookup%n%n",
+                products * STORES.length * DATES, DATES, build / 1_000_000, scan / 1e3, indexed / 1e3);
+    }
+
+    /**
+     * The latest row of the product in the store on or before the day, from its whole history.
+     */
+    private Product scan(String productId, String store, LocalDate day) {
+        Product best = null;
+        for (Product p : productRepo.findById_ProductIdOrderById_DateAsc(productId)) {
+            if (p.getId().getStoreName().equalsIgnoreCase(store) && !p.getId().getDate().isAfter(day)) best = p;
+        }
+        return best;
+    }
+
+    private void insert(int products) {
+        for (int d = 0; d < DATES; d++) {
+            List<Product> batch = new ArrayList<>(products * STORES.length);
+            for (String store : STORES) {
+                for (int i = 0; i < products; i++) {
+                    batch.add(new Product(new ProductId("P%06d".formatted(i), store, FIRST.plusWeeks(d)),
+                            "Item " + i, "category " + i % 40, "brand " + i % 200, BigDecimal.ONE, "kg",
+                            BigDecimal.valueOf(100 + (i * 7 + d * 13) % 9900, 2), "RON"));
+                }
+            }
+            bulkRepo.insertProducts(batch);
+        }
+    }
+}
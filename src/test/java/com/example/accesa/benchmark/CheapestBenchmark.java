@@ -0,0 +1,102 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.BaseUnit;
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.ProductView;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of the 20 cheapest current products per kg, computed in Java from every row with the price per kg
+ * divided out on each comparison, versus read in order from the stored, indexed price per base unit. Half the
+ * packages are in grams, so the comparison only comes out right once units are normalized. The figures of the
+ * last round are reported. Run with {@code ./mvnw -Pbenchmark test -Dtest=CheapestBenchmark [-Dbench.rows=1000000]}.
+ */
+@SpringBootTest(properties = "catalog.data.bundled=false")
+class CheapestBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 300_000);
+    private static final String[] STORES = {"Lidl", "Kaufland", "Profi", "Mega", "Auchan"};
+    private static final int DATES = 10;
+    private static final int TOP = 20;
+    private static final int QUERIES = 5;
+    private static final int ROUNDS = 2;
+
+    @Autowired
+    private CatalogBulkRepository bulkRepo;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Test
+    void storedColumnVersusJavaSort() {
+        insert(ROWS / STORES.length / DATES);
+
+        long java = 0, stored = 0;
+        List<ProductId> expected = List.of(), actual = List.of();
+        for (int round = 0; round < ROUNDS; round++) {
+            java = time(this::cheapestInJava);
+            stored = time(() -> productRepo.findCheapestViews("kg", null, Limit.of(TOP)));
+            expected = cheapestInJava().stream().map(Product::getId).toList();
+            actual = productRepo.findCheapestViews("kg", null, Limit.of(TOP)).stream().map(ProductView::id).toList();
+        }
+
+        assertThat(actual).isEqualTo(expected);
+        System.out.printf("%n%,d rows, top %d per kg%n  all rows + java sort: %,8.2f ms%n  stored column index:  %,8.2f ms%n%n",
+                ROWS, TOP, java / 1e6, stored / 1e6);
+    }
+
+    /**
+     * The latest row of every product and store, sorted by a price per kg computed on every comparison.
+     */
+    private List<Product> cheapestInJava() {
+        Map<List<String>, Product> latest = new HashMap<>();
+        for (Product p : bulkRepo.findAllProducts()) {
+            latest.merge(List.of(p.getId().getProductId(), p.getId().getStoreName()), p,
+                    (a, b) -> a.getId().getDate().isAfter(b.getId().getDate()) ? a : b);
+        }
+        return latest.values().stream()
+                .filter(p -> "kg".equals(BaseUnit.of(p.getUnit())))
+                .sorted(Comparator.comparing((Product p) -> BaseUnit.unitPrice(p.getPrice(), p.getQuantity(), p.getUnit()))
+                        .thenComparing(p -> p.getId().getStoreName()).thenComparing(p -> p.getId().getProductId()))
+                .limit(TOP)
+                .toList();
+    }
+
+    private void insert(int products) {
+        LocalDate first = LocalDate.of(2030, 1, 1);
+        for (int d = 0; d < DATES; d++) {
+            List<Product> batch = new ArrayList<>(products * STORES.length);
+            for (String store : STORES) {
+                for (int i = 0; i < products; i++) {
+                    boolean grams = i % 2 == 0;
+                    batch.add(new Product(new ProductId("P%06d".formatted(i), store, first.plusWeeks(d)),
+                            "Item " + i, "category " + i % 40, "brand " + i % 200,
+                            grams ? BigDecimal.valueOf(250 + i % 750) : BigDecimal.ONE, grams ? "g" : "kg",
+                            BigDecimal.valueOf(100 + (i * 7 + d * 13) % 9900, 2), "RON"));
+                }
+            }
+            bulkRepo.insertProducts(batch);
+        }
+    }
+
+    /**
+     * @return the mean duration of one query, in nanoseconds
+     */
+    private static long time(Supplier<?> query) {
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) query.get();
+        return (System.nanoTime() - start) / QUERIES;
+    }
+}
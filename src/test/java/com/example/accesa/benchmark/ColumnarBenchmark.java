@@ -0,0 +1,111 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.ProductRepository;
+import com.example.accesa.service.ColumnarCatalog;
+import com.example.accesa.service.PriceColumns;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap and query latency of the price history lookups, answered from the database through JPA
+ * versus from the {@link PriceColumns} copy. Each query runs {@value #QUERIES} times per round; the figures
+ * of the last round are reported.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=ColumnarBenchmark [-Dbench.rows=1000000]}.
+ */
+@SpringBootTest(properties = {"catalog.data.bundled=false", "catalog.engine.columnar=true", "catalog.engine.rebuild-delay=1h"})
+class ColumnarBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 500_000);
+    private static final String[] STORES = {"lidl", "kaufland", "profi", "mega", "auchan"};
+    private static final int DATES = 10;
+    private static final int QUERIES = 20;
+    private static final int ROUNDS = 2;
+
+    @Autowired
+    private CatalogBulkRepository bulkRepo;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private ColumnarCatalog columnar;
+
+    @Test
+    void columnsVersusDatabase() {
+        int products = ROWS / STORES.length / DATES;
+        insert(products);
+
+        long entityHeap = retained(() -> bulkRepo.findAllProducts());
+        long columnHeap = retained(() -> columnar.rebuild());
+        PriceColumns columns = columnar.current().orElseThrow();
+
+        long[] jpa = new long[2], cols = new long[2];
+        for (int round = 0; round < ROUNDS; round++) {
+            jpa[0] = time(() -> productRepo.findById_ProductIdOrderById_DateAsc("P000042"));
+            cols[0] = time(() -> columns.history("P000042", null));
+            jpa[1] = time(() -> productRepo.findAll().stream()
+                    .filter(p -> p.getName().equalsIgnoreCase("item 4242"))
+                    .sorted(Comparator.comparing(p -> p.getId().getDate())).toList());
+            cols[1] = time(() -> columns.historyByName(Set.of("Item 4242"), null, null, null));
+        }
+
+        assertThat(columns.size()).isEqualTo(products * STORES.length * DATES);
+        assertThat(columns.history("P000042", null)).hasSize(STORES.length * DATES);
+        System.out.printf("%n%,d rows%n  heap: entities %,d MB | columns %,d MB%n"
+                        + "  history by id:   jpa %,8.2f ms | columns %,8.3f ms%n"
+                        + "  history by name: jpa %,8.2f ms | columns %,8.3f ms%n%n",
+                columns.size(), entityHeap >> 20, columnHeap >> 20,
+                jpa[0] / 1e6, cols[0] / 1e6, jpa[1] / 1e6, cols[1] / 1e6);
+    }
+
+    private void insert(int products) {
+        LocalDate first = LocalDate.of(2030, 1, 1);
+        for (int d = 0; d < DATES; d++) {
+            List<Product> batch = new ArrayList<>(products * STORES.length);
+            for (String store : STORES) {
+                for (int i = 0; i < products; i++) {
+                    batch.add(new Product(new ProductId("P%06d".formatted(i), store, first.plusWeeks(d)),
+                            "Item " + i, "category " + i % 40, "brand " + i % 200, BigDecimal.ONE, "kg",
+                            BigDecimal.valueOf(100 + (i + d) % 900, 2), "RON"));
+                }
+            }
+            bulkRepo.insertProducts(batch);
+        }
+    }
+
+    /**
+     * @return the mean duration of one query, in nanoseconds
+     */
+    private static long time(Supplier<?> query) {
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) query.get();
+        return (System.nanoTime() - start) / QUERIES;
+    }
+
+    private static long retained(Supplier<?> load) {
+        long before = usedHeap();
+        Object kept = load.get();
+        long after = usedHeap();
+        assertThat(kept).isNotNull();
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
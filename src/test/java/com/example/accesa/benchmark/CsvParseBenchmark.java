@@ -0,0 +1,107 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.Discount;
+import com.example.accesa.domain.Product;
+import com.example.accesa.ingest.CatalogCsvReader;
+import com.example.accesa.ingest.CsvTokenizer;
+import com.example.accesa.ingest.IngestFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parse-only throughput of the byte tokenizer against the previous {@code String.split} path,
+ * on a generated multi-million-line price file. No database is involved.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=CsvParseBenchmark [-Dbench.lines=5000000]}.
+ */
+class CsvParseBenchmark {
+    private static final int LINES = Integer.getInteger("bench.lines", 3_000_000);
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tokenizerVersusSplit() throws IOException {
+        Path file = IngestBenchmark.generateProducts(dir.resolve("bench_2030-01-01.csv"), LINES);
+        long bytes = Files.size(file);
+        IngestFile ingestFile = IngestFile.of(file).orElseThrow();
+        CatalogCsvReader reader = new CatalogCsvReader();
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long t0 = System.nanoTime();
+            long tokenized = tokenizeOnly(file);
+            long t1 = System.nanoTime();
+            long mapped = toEntities(reader, ingestFile);
+            long t2 = System.nanoTime();
+            long split = splitBaseline(file);
+            long t3 = System.nanoTime();
+
+            assertThat(tokenized).isEqualTo(split);
+            assertThat(mapped).isEqualTo(LINES);
+            System.out.printf("round %d (%,d lines, %,d MB): tokenizer %s | tokenizer->entities %s | split+BigDecimal %s%n",
+                    round, LINES, bytes >> 20, rate(bytes, t1 - t0), rate(bytes, t2 - t1), rate(bytes, t3 - t2));
+        }
+    }
+
+    /**
+     * Splits every line and parses the quantity and price as fixed-point numbers, without creating objects.
+     *
+     * @return the sum of all prices (in bani) and quantities (in thousandths), as a check value
+     */
+    private static long tokenizeOnly(Path file) throws IOException {
+        long checksum = 0;
+        try (CsvTokenizer t = CsvTokenizer.open(file)) {
+            t.next();
+            while (t.next()) {
+                checksum += t.fixedPoint(6, 2) + t.fixedPoint(4, 3);
+            }
+        }
+        return checksum;
+    }
+
+    private static long toEntities(CatalogCsvReader reader, IngestFile file) throws IOException {
+        long[] rows = {0};
+        reader.read(file, new CatalogCsvReader.RowSink() {
+            @Override
+            public void product(Product product) {
+                rows[0]++;
+            }
+
+            @Override
+            public void discount(Discount discount) {
+                rows[0]++;
+            }
+
+            @Override
+            public void rejected(long lineNumber, String line, String reason) {
+            }
+        });
+        return rows[0];
+    }
+
+    private static long splitBaseline(Path file) throws IOException {
+        long checksum = 0;
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            in.readLine();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split(";");
+                checksum += new BigDecimal(parts[6]).movePointRight(2).longValueExact()
+                        + new BigDecimal(parts[4]).movePointRight(3).longValueExact();
+            }
+        }
+        return checksum;
+    }
+
+    private static String rate(long bytes, long nanos) {
+        return "%,.0f MB/s".formatted(bytes / 1_048_576d / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.ApiResponse;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.ProductRepository;
+import com.example.accesa.service.CatalogExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Live heap in the middle of writing the whole product table, as one JSON list in an {@link ApiResponse} versus
+ * as streamed NDJSON, at growing table sizes. The heap is measured after a full GC once half of the bytes have
+ * been written, and reported above the heap in use before the export started.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=ExportBenchmark [-Dbench.rows=400000]}.
+ */
+@SpringBootTest(properties = "catalog.data.bundled=false")
+class ExportBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 300_000);
+    private static final int STEPS = 3;
+
+    @Autowired
+    private CatalogBulkRepository bulkRepo;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private CatalogExporter exporter;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Test
+    void streamVersusList() throws IOException {
+        System.out.printf("%n  rows      | list: heap, time  | ndjson: heap, time%n");
+        for (int step = 0; step < STEPS; step++) {
+            insert(step, ROWS / STEPS);
+            int rows = ROWS / STEPS * (step + 1);
+
+            HalfwayHeap discard = new HalfwayHeap(Long.MAX_VALUE);
+            long start = System.nanoTime();
+            long bytes = writeList(discard);
+            long listMillis = (System.nanoTime() - start) / 1_000_000;
+            discard = new HalfwayHeap(Long.MAX_VALUE);
+            start = System.nanoTime();
+            long written = exporter.writeProducts(null, discard);
+            long ndjsonMillis = (System.nanoTime() - start) / 1_000_000;
+
+            HalfwayHeap list = new HalfwayHeap(bytes / 2);
+            writeList(list);
+            HalfwayHeap ndjson = new HalfwayHeap(bytes / 2);
+            exporter.writeProducts(null, ndjson);
+
+            assertThat(written).isEqualTo(rows);
+            System.out.printf("  %,9d | %,6d MB %,6d ms | %,6d MB %,6d ms%n",
+                    rows, list.heap >> 20, listMillis, ndjson.heap >> 20, ndjsonMillis);
+        }
+        System.out.println();
+    }
+
+    private long writeList(HalfwayHeap out) throws IOException {
+        mapper.writeValue(out, new ApiResponse<>(true, productRepo.findAllViews(), "Products retrieved"));
+        return out.written;
+    }
+
+    private void insert(int step, int rows) {
+        LocalDate date = LocalDate.of(2030, 1, 1).plusWeeks(step);
+        List<Product> batch = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Product(new ProductId("P%06d".formatted(i), "lidl", date), "Item " + i,
+                    "category " + i % 40, "brand " + i % 200, BigDecimal.ONE, "kg",
+                    BigDecimal.valueOf(100 + i % 900, 2), "RON"));
+        }
+        bulkRepo.insertProducts(batch);
+    }
+
+    /**
+     * Discards what is written, except for measuring the live heap once {@code halfway} bytes have gone through.
+     */
+    private static final class HalfwayHeap extends OutputStream {
+        private final long baseline = usedHeap();
+        private final long halfway;
+        private long written;
+        private long heap;
+
+        HalfwayHeap(long halfway) {
+            this.halfway = halfway;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (written < halfway && written + len >= halfway) heap = usedHeap() - baseline;
+            written += len;
+        }
+
+        private static long usedHeap() {
+            for (int i = 0; i < 3; i++) System.gc();
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.ProductFilter;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.ProductRepository;
+import com.example.accesa.repository.ProductSpecifications;
+import com.example.accesa.service.NameIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of a selective price history filter, applied in Java to every row read by {@code findAll()} versus
+ * compiled into one query by {@link ProductSpecifications} over the names found in the {@link NameIndex}. The figures of the last round are reported.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=FilterBenchmark [-Dbench.rows=1000000]}.
+ */
+@SpringBootTest(properties = "catalog.data.bundled=false")
+class FilterBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 300_000);
+    private static final String[] STORES = {"Lidl", "Kaufland", "Profi", "Mega", "Auchan"};
+    private static final int DATES = 10;
+    private static final int QUERIES = 5;
+    private static final int ROUNDS = 2;
+
+    @Autowired
+    private CatalogBulkRepository bulkRepo;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private NameIndex nameIndex;
+
+    @Test
+    void pushdownVersusJavaFilter() {
+        insert(ROWS / STORES.length / DATES);
+        ProductFilter filter = new ProductFilter("item 7", "lidl", "BRAND 7", "category 7", null,
+                null, new BigDecimal("5.00"), null, null);
+
+        long java = 0, pushdown = 0;
+        List<Product> expected = List.of(), actual = List.of();
+        for (int round = 0; round < ROUNDS; round++) {
+            java = time(() -> productRepo.findAll().stream().filter(filter::test).toList());
+            pushdown = time(() -> productRepo.findAll(ProductSpecifications.matching(filter,
+                    nameIndex.namesContaining(filter.name()))));
+            expected = productRepo.findAll().stream().filter(filter::test).toList();
+            actual = productRepo.findAll(ProductSpecifications.matching(filter, nameIndex.namesContaining(filter.name())));
+        }
+
+        assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+        System.out.printf("%n%,d rows, %,d match%n  findAll + java filter: %,8.2f ms%n  pushed down:           %,8.2f ms%n%n",
+                ROWS, actual.size(), java / 1e6, pushdown / 1e6);
+    }
+
+    private void insert(int products) {
+        LocalDate first = LocalDate.of(2030, 1, 1);
+        for (int d = 0; d < DATES; d++) {
+            List<Product> batch = new ArrayList<>(products * STORES.length);
+            for (String store : STORES) {
+                for (int i = 0; i < products; i++) {
+                    batch.add(new Product(new ProductId("P%06d".formatted(i), store, first.plusWeeks(d)),
+                            "Item " + i, "category " + i % 40, "brand " + i % 200, BigDecimal.ONE, "kg",
+                            BigDecimal.valueOf(100 + (i + d) % 900, 2), "RON"));
+                }
+            }
+            bulkRepo.insertProducts(batch);
+        }
+    }
+
+    /**
+     * @return the mean duration of one query, in nanoseconds
+     */
+    private static long time(Supplier<?> query) {
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) query.get();
+        return (System.nanoTime() - start) / QUERIES;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.Discount;
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.StringDictionary;
+import com.example.accesa.ingest.CatalogCsvReader;
+import com.example.accesa.ingest.IngestFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap retained by a parsed price file, with the low-cardinality columns decoded per row versus shared
+ * through a {@link StringDictionary}. No database is involved.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=HeapBenchmark [-Dbench.rows=1000000]}.
+ */
+class HeapBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 1_000_000);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void retainedHeapWithAndWithoutDictionary() throws IOException {
+        IngestFile file = IngestFile.of(IngestBenchmark.generateProducts(dir.resolve("heap_2030-01-01.csv"), ROWS)).orElseThrow();
+
+        long plain = retained(new CatalogCsvReader(null), file);
+        long shared = retained(new CatalogCsvReader(new StringDictionary(1 << 16)), file);
+
+        System.out.printf("%,d products retained: per-row strings %,d MB | dictionary %,d MB (%.0f%% less)%n",
+                ROWS, plain >> 20, shared >> 20, 100.0 * (plain - shared) / plain);
+        assertThat(shared).isLessThan(plain);
+    }
+
+    private static long retained(CatalogCsvReader reader, IngestFile file) throws IOException {
+        long before = usedHeap();
+        List<Product> products = new ArrayList<>(ROWS);
+        reader.read(file, new CatalogCsvReader.RowSink() {
+            @Override
+            public void product(Product product) {
+                products.add(product);
+            }
+
+            @Override
+            public void discount(Discount discount) {
+            }
+
+            @Override
+            public void rejected(long lineNumber, String line, String reason) {
+            }
+        });
+        long after = usedHeap();
+        assertThat(products).hasSize(ROWS);
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
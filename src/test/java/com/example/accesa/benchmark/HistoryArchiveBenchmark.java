@@ -0,0 +1,106 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.ingest.PriceHistoryArchive;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap held by the in-memory catalog database before and after the price history older than the hot months is
+ * moved to the memory-mapped segments, and the latency of a history query that reads both tiers.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=HistoryArchiveBenchmark [-Dbench.rows=1000000]}.
+ */
+@SpringBootTest(properties = {"catalog.data.bundled=false", "catalog.history.hot-months=3"})
+class HistoryArchiveBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 500_000);
+    private static final String[] STORES = {"lidl", "kaufland", "profi", "mega", "auchan"};
+    private static final int WEEKS = 104;
+    private static final int QUERIES = 50;
+    private static final Path DIR = tempDir();
+
+    @Autowired
+    private CatalogBulkRepository bulkRepo;
+
+    @Autowired
+    private PriceHistoryArchive archive;
+
+    @Autowired
+    private ProductService productService;
+
+    @DynamicPropertySource
+    static void historyDir(DynamicPropertyRegistry registry) {
+        registry.add("catalog.history.dir", DIR::toString);
+    }
+
+    @Test
+    void heapBeforeAndAfterArchiving() throws IOException {
+        int products = ROWS / STORES.length / WEEKS;
+        LocalDate last = LocalDate.now();
+        for (int w = 0; w < WEEKS; w++) {
+            List<Product> batch = new ArrayList<>(products * STORES.length);
+            for (String store : STORES) {
+                for (int i = 0; i < products; i++) {
+                    batch.add(new Product(new ProductId("P%06d".formatted(i), store, last.minusWeeks(w)),
+                            "Item " + i, "category " + i % 40, "brand " + i % 200, BigDecimal.ONE, "kg",
+                            BigDecimal.valueOf(100 + (i + w) % 900, 2), "RON"));
+                }
+            }
+            bulkRepo.insertProducts(batch);
+        }
+
+        long before = usedHeap();
+        long start = System.nanoTime();
+        int archived = archive.archive(archive.cutoff(LocalDate.now()));
+        long archiveMs = (System.nanoTime() - start) / 1_000_000;
+        long after = usedHeap();
+
+        productService.getPriceHistoryById("P000042", null);
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) productService.getPriceHistoryById("P000042", null);
+        double queryMs = (System.nanoTime() - start) / 1e6 / QUERIES;
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) archive.history("P000042", null);
+        double archiveQueryMs = (System.nanoTime() - start) / 1e6 / QUERIES;
+
+        assertThat(productService.getPriceHistoryById("P000042", null)).hasSize(STORES.length * WEEKS);
+        long segmentBytes;
+        try (Stream<Path> files = Files.list(DIR)) {
+            segmentBytes = files.mapToLong(p -> p.toFile().length()).sum();
+        }
+        System.out.printf("%n%,d rows over %d weeks, %,d archived in %,d ms to %,d MB of segments%n"
+                        + "  used heap: %,d MB before | %,d MB after%n  history by id across both tiers: %.2f ms (archive %.2f ms)%n%n",
+                products * STORES.length * WEEKS, WEEKS, archived, archiveMs, segmentBytes >> 20,
+                before >> 20, after >> 20, queryMs, archiveQueryMs);
+    }
+
+    private static Path tempDir() {
+        try {
+            return Files.createTempDirectory("history");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
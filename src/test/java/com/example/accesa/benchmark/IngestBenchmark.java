@@ -0,0 +1,111 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.config.IngestProperties;
+import com.example.accesa.ingest.*;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.DiscountRepository;
+import com.example.accesa.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the ingestion path against the in-memory database on generated price files.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=IngestBenchmark [-Dbench.rows=200000]}.
+ */
+@SpringBootTest
+class IngestBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 100_000);
+
+    @TempDir
+    Path dir;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private DiscountRepository discountRepo;
+
+    @Autowired
+    private CatalogBulkRepository bulkRepo;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Test
+    void bulkInsertVersusPerRowSave() throws IOException {
+        IngestFile jpaFile = IngestFile.of(generateProducts(dir.resolve("benchjpa_2030-01-01.csv"), ROWS)).orElseThrow();
+        IngestFile bulkFile = IngestFile.of(generateProducts(dir.resolve("benchbulk_2030-01-01.csv"), ROWS)).orElseThrow();
+
+        long perRow = time(pipeline(new IngestProperties(false, 1000, 1, 1, 16, Duration.ofSeconds(30))), List.of(jpaFile));
+        long bulk = time(pipeline(new IngestProperties(true, 1000, 1, 1, 16, Duration.ofSeconds(30))), List.of(bulkFile));
+
+        System.out.printf("%n%,d rows%n  per-row save: %,d ms (%,d rows/s)%n  jdbc batch:   %,d ms (%,d rows/s)%n  speedup:      %.1fx%n%n",
+                ROWS, perRow, ROWS * 1000L / Math.max(perRow, 1), bulk, ROWS * 1000L / Math.max(bulk, 1),
+                (double) perRow / Math.max(bulk, 1));
+        assertThat(productRepo.findViewPageByStoreName("Benchbulk", Limit.unlimited())).hasSize(ROWS);
+    }
+
+    @Test
+    void parallelFilesVersusSequential() throws IOException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int filesPerRun = Math.max(4, cores);
+        List<IngestFile> sequentialFiles = new ArrayList<>();
+        List<IngestFile> parallelFiles = new ArrayList<>();
+        for (int i = 1; i <= filesPerRun; i++) {
+            String date = "2030-01-%02d".formatted(i);
+            sequentialFiles.add(IngestFile.of(generateProducts(dir.resolve("seq_" + date + ".csv"), ROWS / filesPerRun)).orElseThrow());
+            parallelFiles.add(IngestFile.of(generateProducts(dir.resolve("par_" + date + ".csv"), ROWS / filesPerRun)).orElseThrow());
+        }
+
+        long sequential = time(pipeline(new IngestProperties(true, 1000, 1, 1, 16, Duration.ofSeconds(30))), sequentialFiles);
+        long parallel = time(pipeline(new IngestProperties(true, 1000, cores, Math.max(2, cores / 2), 16, Duration.ofSeconds(30))), parallelFiles);
+
+        System.out.printf("%n%d files x %,d rows%n  1 parser / 1 writer:   %,d ms%n  %d parsers / %d writers: %,d ms%n  speedup:               %.1fx%n%n",
+                filesPerRun, ROWS / filesPerRun, sequential, cores, Math.max(2, cores / 2), parallel,
+                (double) sequential / Math.max(parallel, 1));
+    }
+
+    private IngestPipeline pipeline(IngestProperties properties) {
+        IngestQuarantine quarantine = mock(IngestQuarantine.class);
+        IngestProgress progress = new IngestProgress();
+        CatalogWriter writer = new CatalogWriter(productRepo, discountRepo, bulkRepo, properties, quarantine, events);
+        return new IngestPipeline(new CatalogCsvReader(), writer, properties, progress,
+                new IngestMetrics(new SimpleMeterRegistry(), progress), quarantine);
+    }
+
+    private long time(IngestPipeline pipeline, List<IngestFile> files) {
+        long start = System.nanoTime();
+        pipeline.run(files);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    static Path generateProducts(Path file, int rows) throws IOException {
+        String[] categories = {"lactate", "panificație", "băuturi", "gustări", "legume și fructe"};
+        String[] units = {"kg", "g", "l", "ml", "buc"};
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n");
+            for (int i = 0; i < rows; i++) {
+                out.write("P" + i + ";produs " + i + ";" + categories[i % categories.length] + ";Brand" + (i % 97)
+                        + ";" + (1 + i % 5) + ";" + units[i % units.length] + ";" + (1 + i % 300) + "." + (i % 100)
+                        + ";RON\n");
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.SearchText;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.service.NameIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Build time, heap and query latency of the {@link NameIndex} over synthetic Romanian product names, against a scan
+ * that normalizes every name per query, as the name search did before the index. No database is involved.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=NameIndexBenchmark [-Dbench.rows=2000000]}.
+ */
+class NameIndexBenchmark {
+    private static final int NAMES = Integer.getInteger("bench.rows", 1_000_000);
+    private static final String[] WORDS = {"Lapte", "Brânză", "Ouă", "Șuncă", "Smântână", "Pâine", "Făină", "Măsline",
+            "Iaurt", "Cașcaval", "Roșii", "Cârnați", "Mușchi", "Zahăr", "Orez", "Ulei", "Țelină", "Cafea", "Ceai", "Apă"};
+    private static final String[] NEEDLES = {"branza", "oua 10", "suncă pre", "cafea mac", "telina 42", "zzz"};
+    private static final int ROUNDS = 3;
+
+    @Test
+    void indexVersusScan() {
+        List<String> names = generate();
+
+        System.gc();
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        NameIndex index = new NameIndex(mock(CatalogBulkRepository.class));
+        index.addAll(names);
+        long buildMs = (System.nanoTime() - start) / 1_000_000;
+        System.gc();
+        long heapMb = (usedHeap() - heapBefore) >> 20;
+
+        long indexed = 0, scanned = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            indexed = scanned = 0;
+            for (String needle : NEEDLES) {
+                start = System.nanoTime();
+                Set<String> found = index.namesContaining(needle);
+                indexed += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                Set<String> expected = scan(names, needle);
+                scanned += System.nanoTime() - start;
+
+                assertThat(found).isEqualTo(expected);
+            }
+        }
+
+        System.out.printf("%n%,d names, index built in %,d ms, %,d MB of heap (names included)%n"
+                        + "  %d queries: index %,8.2f ms | normalizing scan %,8.2f ms%n%n",
+                index.size(), buildMs, heapMb, NEEDLES.length, indexed / 1e6, scanned / 1e6);
+    }
+
+    private static Set<String> scan(List<String> names, String text) {
+        String needle = SearchText.normalize(text);
+        Set<String> result = new HashSet<>();
+        for (String name : names) {
+            if (SearchText.contains(name, needle)) result.add(name);
+        }
+        return result;
+    }
+
+    private static List<String> generate() {
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>(NAMES);
+        for (int i = 0; i < NAMES; i++) {
+            names.add(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)].toLowerCase()
+                    + " " + i);
+        }
+        return names;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.PageCursor;
+import com.example.accesa.dto.ProductView;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.ProductRepository;
+import com.example.accesa.service.ProductService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of the product list page at increasing depths, read by keyset from a cursor versus by OFFSET.
+ * Each page is read {@value #QUERIES} times per round; the figures of the last round are reported.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=PaginationBenchmark [-Dbench.rows=1000000]}.
+ */
+@SpringBootTest(properties = {"catalog.data.bundled=false", "catalog.engine.cache-size=0"})
+class PaginationBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 300_000);
+    private static final String[] STORES = {"auchan", "kaufland", "lidl"};
+    private static final int SIZE = 500;
+    private static final int QUERIES = 50;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private CatalogBulkRepository bulkRepo;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void keysetVersusOffset() {
+        insert();
+
+        System.out.printf("%n%,d rows, pages of %d%n", ROWS, SIZE);
+        for (double depth : new double[]{0, 0.5, 0.99}) {
+            int offset = (int) (ROWS * depth) / SIZE * SIZE;
+            PageCursor after = offset == 0 ? null : PageCursor.of(byOffset(offset - 1, 1).getFirst().id());
+
+            long keyset = 0, offsetNanos = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                offsetNanos = time(() -> byOffset(offset, SIZE));
+                keyset = time(() -> productService.getProducts(null, after, SIZE));
+            }
+            assertThat(productService.getProducts(null, after, SIZE).items()).isEqualTo(byOffset(offset, SIZE));
+            System.out.printf("  row %,9d: keyset %,8.2f ms | offset %,8.2f ms%n", offset, keyset / 1e6, offsetNanos / 1e6);
+        }
+        System.out.println();
+    }
+
+    /**
+     * The same query as the keyset pages, positioned with OFFSET instead.
+     */
+    private List<ProductView> byOffset(int offset, int size) {
+        return entityManager.createQuery(ProductRepository.SELECT_VIEW + ProductRepository.PAGE_ORDER, ProductView.class)
+                .setFirstResult(offset).setMaxResults(size).getResultList();
+    }
+
+    private void insert() {
+        LocalDate first = LocalDate.of(2030, 1, 1);
+        int products = ROWS / STORES.length / 4;
+        for (int d = 0; d < 4; d++) {
+            List<Product> batch = new ArrayList<>(products * STORES.length);
+            for (String store : STORES) {
+                for (int i = 0; i < products; i++) {
+                    batch.add(new Product(new ProductId("P%06d".formatted(i), store, first.plusWeeks(d)),
+                            "Item " + i, "category " + i % 40, "brand " + i % 200, BigDecimal.ONE, "kg",
+                            BigDecimal.valueOf(100 + (i + d) % 900, 2), "RON"));
+                }
+            }
+            bulkRepo.insertProducts(batch);
+        }
+    }
+
+    /**
+     * @return the mean duration of one query, in nanoseconds
+     */
+    private static long time(Supplier<?> query) {
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) query.get();
+        return (System.nanoTime() - start) / QUERIES;
+    }
+}
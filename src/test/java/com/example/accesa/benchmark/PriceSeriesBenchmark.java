@@ -0,0 +1,103 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.ingest.HistorySegment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Size and encode/decode throughput of the history segments for a year of daily prices per product, where a price
+ * holds for a few weeks between changes. The size is compared with the same rows as fixed-width columns, as
+ * segments stored them before the series encoding, and with the CSV lines they were loaded from. No database is
+ * involved. Run with {@code ./mvnw -Pbenchmark test -Dtest=PriceSeriesBenchmark [-Dbench.rows=2000000]}.
+ */
+class PriceSeriesBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 1_000_000);
+    private static final int DAYS = 365;
+    private static final int FIXED_WIDTH_ROW = 7 * Integer.BYTES + 2 * Long.BYTES;
+    private static final int ROUNDS = 3;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void segmentSizeAndThroughput() throws IOException {
+        List<List<Product>> months = generate(ROWS / DAYS);
+        int rows = months.stream().mapToInt(List::size).sum();
+        long csvBytes = months.stream().flatMap(List::stream).mapToLong(PriceSeriesBenchmark::csvLength).sum();
+
+        long encodeNanos = 0, decodeNanos = 0, fileBytes = 0, seriesBytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            encodeNanos = decodeNanos = fileBytes = seriesBytes = 0;
+            for (int m = 0; m < months.size(); m++) {
+                Path path = dir.resolve("lidl_" + m + ".seg");
+                long start = System.nanoTime();
+                HistorySegment.write(path, "lidl", months.get(m));
+                encodeNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                HistorySegment segment = HistorySegment.open(path);
+                List<Product> decoded = segment.all();
+                decodeNanos += System.nanoTime() - start;
+
+                assertThat(decoded).hasSameSizeAs(months.get(m));
+                fileBytes += Files.size(path);
+                seriesBytes += segment.seriesBytes();
+            }
+        }
+
+        System.out.printf("%n%,d rows, %d months of daily prices%n"
+                        + "  CSV lines:            %,12d bytes (%.1fx)%n"
+                        + "  fixed-width columns:  %,12d bytes (%.1fx)%n"
+                        + "  segment files:        %,12d bytes, of which series %,d bytes%n"
+                        + "  encode %,.0f rows/s | open and decode %,.0f rows/s%n%n",
+                rows, months.size(), csvBytes, (double) csvBytes / fileBytes,
+                (long) rows * FIXED_WIDTH_ROW, (double) rows * FIXED_WIDTH_ROW / fileBytes, fileBytes, seriesBytes,
+                rows / (encodeNanos / 1e9), rows / (decodeNanos / 1e9));
+        assertThat(fileBytes * 10).isLessThan((long) rows * FIXED_WIDTH_ROW);
+    }
+
+    /**
+     * @return the rows of each month, for the given number of products over {@value #DAYS} days
+     */
+    private static List<List<Product>> generate(int products) {
+        Random random = new Random(42);
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        List<List<Product>> months = new ArrayList<>();
+        for (int i = 0; i < 12; i++) months.add(new ArrayList<>());
+
+        for (int p = 0; p < products; p++) {
+            long cents = 200 + random.nextInt(5000);
+            int nextChange = random.nextInt(30);
+            for (int day = 0; day < DAYS; day++) {
+                if (day == nextChange) {
+                    cents = Math.max(50, cents + random.nextInt(101) - 50);
+                    nextChange = day + 7 + random.nextInt(35);
+                }
+                LocalDate date = first.plusDays(day);
+                months.get(YearMonth.from(date).getMonthValue() - 1).add(new Product(
+                        new ProductId("P%06d".formatted(p), "lidl", date), "Item " + p, "category " + p % 40,
+                        "brand " + p % 200, new BigDecimal("1.00"), "kg", BigDecimal.valueOf(cents, 2), "RON"));
+            }
+        }
+        return months;
+    }
+
+    private static long csvLength(Product p) {
+        return String.join(";", p.getId().getProductId(), p.getName(), p.getCategory(), p.getBrand(),
+                p.getQuantity().toPlainString(), p.getUnit(), p.getPrice().toPlainString(), p.getCurrency()).length() + 1;
+    }
+}
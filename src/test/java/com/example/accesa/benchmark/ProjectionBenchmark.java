@@ -0,0 +1,94 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency and allocation of the product list endpoint's work, loading managed entities versus the read-only
+ * {@code ProductView} projection, each followed by JSON serialization. The figures of the last round are reported.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=ProjectionBenchmark [-Dbench.rows=500000]}.
+ */
+@SpringBootTest(properties = "catalog.data.bundled=false")
+class ProjectionBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 200_000);
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private CatalogBulkRepository bulkRepo;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Test
+    void viewsVersusEntities() {
+        insert();
+
+        long[] entityQuery = null, viewQuery = null, entities = null, views = null;
+        byte[] entityJson = null, viewJson = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            entityQuery = measure(() -> productRepo.findAll());
+            viewQuery = measure(() -> productRepo.findAllViews());
+            List<byte[]> out = new ArrayList<>(2);
+            entities = measure(() -> out.add(json(productRepo.findAll())));
+            views = measure(() -> out.add(json(productRepo.findAllViews())));
+            entityJson = out.get(0);
+            viewJson = out.get(1);
+        }
+
+        assertThat(viewJson).isEqualTo(entityJson);
+        System.out.printf("%n%,d rows, %,d KB of JSON%n"
+                        + "  query only:  entities %,6d ms %,5d MB | views %,6d ms %,5d MB allocated%n"
+                        + "  query + json: entities %,5d ms %,5d MB | views %,6d ms %,5d MB allocated%n%n",
+                ROWS, viewJson.length >> 10, entityQuery[0], entityQuery[1] >> 20, viewQuery[0], viewQuery[1] >> 20,
+                entities[0], entities[1] >> 20, views[0], views[1] >> 20);
+    }
+
+    private void insert() {
+        LocalDate date = LocalDate.of(2030, 1, 1);
+        List<Product> batch = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(new Product(new ProductId("P%06d".formatted(i), "lidl", date), "Item " + i,
+                    "category " + i % 40, "brand " + i % 200, BigDecimal.ONE, "kg",
+                    BigDecimal.valueOf(100 + i % 900, 2), "RON"));
+        }
+        bulkRepo.insertProducts(batch);
+    }
+
+    private byte[] json(Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the duration in milliseconds and the bytes allocated by this thread
+     */
+    private static long[] measure(Supplier<?> work) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().threadId();
+        long allocated = threads.getThreadAllocatedBytes(id);
+        long start = System.nanoTime();
+        work.get();
+        return new long[]{(System.nanoTime() - start) / 1_000_000, threads.getThreadAllocatedBytes(id) - allocated};
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.config.CatalogDataProperties;
+import com.example.accesa.ingest.CatalogSnapshot;
+import com.example.accesa.ingest.IngestPipeline;
+import com.example.accesa.ingest.IngestProgress;
+import com.example.accesa.ingest.PriceHistoryArchive;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.IngestedFileRepository;
+import com.example.accesa.service.DataLoaderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static com.example.accesa.benchmark.IngestBenchmark.generateProducts;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares a cold start, which parses every CSV file, with a warm start that restores the catalog snapshot
+ * and only checks the files against the manifest. The figures of the last round are reported, the earlier
+ * rounds warm up the JIT.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=StartupBenchmark [-Dbench.rows=200000]}.
+ */
+@SpringBootTest(properties = "catalog.data.bundled=false")
+class StartupBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 100_000);
+    private static final int FILES = 20;
+    private static final int ROUNDS = 2;
+
+    @TempDir
+    Path dir;
+
+    @Autowired
+    private IngestPipeline pipeline;
+
+    @Autowired
+    private IngestedFileRepository manifest;
+
+    @Autowired
+    private CatalogBulkRepository bulkRepo;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private PriceHistoryArchive archive;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void snapshotRestoreVersusCsvLoad() throws IOException {
+        Path data = Files.createDirectories(dir.resolve("data"));
+        for (int i = 1; i <= FILES; i++) {
+            generateProducts(data.resolve("bench_2030-01-%02d.csv".formatted(i)), ROWS / FILES);
+        }
+        CatalogDataProperties properties = new CatalogDataProperties(data, false, false, Duration.ofSeconds(2),
+                dir.resolve("catalog.snapshot"), Duration.ofSeconds(10));
+
+        long cold = 0, warm = 0, write = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            clearCatalog();
+            cold = time(loader(properties, false));
+
+            long start = System.nanoTime();
+            new CatalogSnapshot(bulkRepo, manifest, properties, events).write();
+            write = (System.nanoTime() - start) / 1_000_000;
+
+            clearCatalog();
+            warm = time(loader(properties, true));
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Long.class)).isEqualTo(ROWS / FILES * FILES);
+        System.out.printf("%n%d files, %,d rows, snapshot %,d KB%n  cold start (parse CSV):       %,d ms%n  warm start (restore snapshot): %,d ms%n  snapshot write:                %,d ms%n  speedup:                       %.1fx%n%n",
+                FILES, ROWS, Files.size(dir.resolve("catalog.snapshot")) / 1024, cold, warm, write,
+                (double) cold / Math.max(warm, 1));
+    }
+
+    private DataLoaderService loader(CatalogDataProperties properties, boolean withSnapshot) {
+        CatalogDataProperties effective = withSnapshot ? properties
+                : new CatalogDataProperties(properties.dir(), false, false, properties.watchDebounce(), null,
+                        properties.snapshotDelay());
+        return new DataLoaderService(pipeline, new IngestProgress(), manifest,
+                new CatalogSnapshot(bulkRepo, manifest, effective, events), archive, effective, new PathMatchingResourcePatternResolver());
+    }
+
+    private long time(DataLoaderService loader) {
+        long start = System.nanoTime();
+        loader.loadData();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private void clearCatalog() {
+        jdbcTemplate.execute("DELETE FROM product");
+        jdbcTemplate.execute("DELETE FROM discount");
+        jdbcTemplate.execute("DELETE FROM ingested_file");
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.BaseUnit;
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.service.CurrentPriceProjection;
+import com.example.accesa.service.SubstituteIndex;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Latency of a substitute search with a 10% margin, as a pass over every current row that filters by category,
+ * brand and unit price and sorts with {@link Product#getUnitPrice()}, versus a range lookup in the
+ * {@link SubstituteIndex}. The index build is reported separately. No database is involved.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=SubstituteBenchmark [-Dbench.rows=1000000]}.
+ */
+class SubstituteBenchmark {
+    private static final int ROWS = Integer.getInteger("bench.rows", 500_000);
+    private static final int QUERIES = 200;
+    private static final double MARGIN = 10;
+
+    @Test
+    void rangeLookupVersusScan() {
+        Random random = new Random(42);
+        List<Product> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            boolean grams = random.nextBoolean();
+            rows.add(new Product(new ProductId("P%07d".formatted(i), "Lidl", LocalDate.of(2030, 1, 1)), "Item " + i,
+                    "category " + i % 40, "brand " + i % 200, BigDecimal.valueOf(grams ? 100 + random.nextInt(900) : 1),
+                    grams ? "g" : "kg", BigDecimal.valueOf(100 + random.nextInt(9900), 2), "RON"));
+        }
+        CurrentPriceProjection currentPrices = mock(CurrentPriceProjection.class);
+        when(currentPrices.all()).thenReturn(rows);
+        SubstituteIndex index = new SubstituteIndex(currentPrices);
+
+        long start = System.nanoTime();
+        index.substitutes(rows.getFirst(), MARGIN);
+        long buildMs = (System.nanoTime() - start) / 1_000_000;
+
+        long scan = 0, lookup = 0, found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            Product reference = rows.get(random.nextInt(ROWS));
+            start = System.nanoTime();
+            List<Product> scanned = scan(rows, reference);
+            scan += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<Product> indexed = index.substitutes(reference, MARGIN);
+            lookup += System.nanoTime() - start;
+
+            assertThat(indexed).hasSameSizeAs(scanned);
+            found += indexed.size();
+        }
+
+        System.out.printf("%n%,d rows, index built in %,d ms, %,d substitutes per query on average%n"
+                        + "  scan + sort: %,8.3f ms | range lookup: %,8.3f ms per query%n%n",
+                ROWS, buildMs, found / QUERIES, scan / 1e6 / QUERIES, lookup / 1e6 / QUERIES);
+    }
+
+    /**
+     * The search as done before the index, with the unit conversion the index applies.
+     */
+    private static List<Product> scan(List<Product> rows, Product reference) {
+        double price = perKg(reference);
+        return rows.stream()
+                .filter(p -> p.getCategory().equalsIgnoreCase(reference.getCategory()))
+                .filter(p -> !p.getBrand().equalsIgnoreCase(reference.getBrand()))
+                .filter(p -> perKg(p) >= price * (1 - MARGIN / 100) && perKg(p) <= price * (1 + MARGIN / 100))
+                .sorted(Comparator.comparing(Product::getUnitPrice))
+                .toList();
+    }
+
+    private static double perKg(Product p) {
+        return BaseUnit.unitPrice(p.getPrice(), p.getQuantity(), p.getUnit()).doubleValue();
+    }
+}
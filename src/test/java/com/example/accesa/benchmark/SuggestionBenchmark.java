@@ -0,0 +1,95 @@
+package com.example.accesa.benchmark;
+
+import com.example.accesa.domain.SearchText;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.service.SuggestionIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Build time, heap and lookup latency percentiles of the {@link SuggestionIndex} over synthetic (name, brand) pairs
+ * carried by up to five stores, for prefixes of one to eight characters. The rows are handed to the index as the
+ * database scan would hand them, without a database.
+ * Run with {@code ./mvnw -Pbenchmark test -Dtest=SuggestionBenchmark [-Dbench.rows=500000]}.
+ */
+class SuggestionBenchmark {
+    private static final int PAIRS = Integer.getInteger("bench.rows", 200_000);
+    private static final String[] STORES = {"Lidl", "Kaufland", "Profi", "Mega", "Auchan"};
+    private static final String[] WORDS = {"Lapte", "Brânză", "Ouă", "Șuncă", "Smântână", "Pâine", "Făină", "Măsline",
+            "Iaurt", "Cașcaval", "Roșii", "Cârnați", "Mușchi", "Zahăr", "Orez", "Ulei", "Țelină", "Cafea", "Ceai", "Apă"};
+    private static final int LOOKUPS = 200_000;
+
+    @Test
+    void lookupLatency() {
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>(PAIRS);
+        for (int i = 0; i < PAIRS; i++) {
+            names.add(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)].toLowerCase()
+                    + " " + random.nextInt(1000) + "g");
+        }
+
+        String[] row = new String[3];
+        ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> row[(int) args[0] - 1]);
+        CatalogBulkRepository bulkRepo = mock(CatalogBulkRepository.class);
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(0);
+            for (int i = 0; i < PAIRS; i++) {
+                for (int s = 0, n = 1 + i % STORES.length; s < n; s++) {
+                    row[0] = names.get(i);
+                    row[1] = "brand " + i % 50;
+                    row[2] = STORES[s];
+                    handler.processRow(rs);
+                }
+            }
+            return null;
+        }).when(bulkRepo).scanProductStores(any());
+
+        System.gc();
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        SuggestionIndex index = new SuggestionIndex(bulkRepo);
+        index.suggest("warm", 1);
+        long buildMs = (System.nanoTime() - start) / 1_000_000;
+        System.gc();
+        long heapMb = (usedHeap() - heapBefore) >> 20;
+
+        long[] nanos = new long[LOOKUPS];
+        long found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            String name = SearchText.normalize(names.get(random.nextInt(PAIRS)));
+            String prefix = name.substring(0, Math.min(name.length(), 1 + random.nextInt(8)));
+            long t = System.nanoTime();
+            found += index.suggest(prefix, SuggestionIndex.MAX_SUGGESTIONS).size();
+            nanos[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(nanos);
+
+        assertThat(found).isPositive();
+        System.out.printf("%n%,d pairs, built in %,d ms, %,d MB of heap%n"
+                        + "  %,d lookups: p50 %,.1f us | p99 %,.1f us | p99.9 %,.1f us%n%n",
+                index.size(), buildMs, heapMb, LOOKUPS, percentile(nanos, 0.50), percentile(nanos, 0.99),
+                percentile(nanos, 0.999));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, sorted.length * p)] / 1e3;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.accesa.controller;
 
 import com.example.accesa.domain.Discount;
+import com.example.accesa.domain.DiscountId;
+import com.example.accesa.dto.DiscountView;
+import com.example.accesa.service.CatalogExporter;
 import com.example.accesa.service.DiscountService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +28,9 @@ class DiscountControllerTest {
     @MockBean
     private DiscountService discountService;
 
+    @MockBean
+    private CatalogExporter exporter;
+
     private Discount mockDiscount() {
         Discount discount = new Discount();
         discount.setName("Milk");
@@ -39,12 +45,15 @@ class DiscountControllerTest {
 
     @Test
     void getAllDiscounts_shouldReturnListOfDiscounts() throws Exception {
-        when(discountService.getAllDiscounts()).thenReturn(List.of(mockDiscount()));
+        when(discountService.getAllDiscounts()).thenReturn(List.of(new DiscountView(
+                new DiscountId("P001", "Lidl", LocalDate.of(2025, 5, 1)), "Milk", "BrandA", BigDecimal.ONE, "l",
+                "Dairy", LocalDate.of(2025, 5, 7), new BigDecimal("10.5"))));
 
         mockMvc.perform(get("/discounts"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
-                .andExpect(jsonPath("$.data").isArray());
+                .andExpect(jsonPath("$.data[0].id.fromDate").value("2025-05-01"))
+                .andExpect(jsonPath("$.data[0].percentage").value(10.5));
     }
 
     // --- /discounts/best ---
@@ -0,0 +1,106 @@
+package com.example.accesa.controller;
+
+import com.example.accesa.domain.RejectedRow;
+import com.example.accesa.dto.IngestResult;
+import com.example.accesa.exception.InvalidUploadException;
+import com.example.accesa.ingest.IngestBackpressureException;
+import com.example.accesa.ingest.IngestFile;
+import com.example.accesa.ingest.IngestQuarantine;
+import com.example.accesa.ingest.IngestSummary;
+import com.example.accesa.service.CatalogUploadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(IngestController.class)
+class IngestControllerTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 8);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CatalogUploadService uploadService;
+
+    @MockBean
+    private IngestQuarantine quarantine;
+
+    @Test
+    void upload_shouldReturnAcceptedAndRejectedCounts() throws Exception {
+        when(uploadService.upload(eq("lidl"), eq(DATE), any()))
+                .thenReturn(new IngestResult("Lidl", DATE, IngestFile.Kind.PRODUCTS, 120, 2,
+                        new IngestSummary.Diff(3, 1, 0, 116), 35));
+
+        mockMvc.perform(post("/ingest/lidl/2025-05-08").contentType("text/csv").content("product_id;..."))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.accepted").value(120))
+                .andExpect(jsonPath("$.data.rejected").value(2))
+                .andExpect(jsonPath("$.data.changes.updated").value(1))
+                .andExpect(jsonPath("$.message").value("120 rows accepted, 2 rejected"));
+    }
+
+    @Test
+    void upload_whenWritersFallBehind_shouldReturn503WithPartialCounts() throws Exception {
+        IngestFile source = IngestFile.stream("lidl", IngestFile.Kind.PRODUCTS, DATE);
+        IngestSummary partial = new IngestSummary(List.of(new IngestSummary.FileResult(source, 4000, 0, true)),
+                4000, 0, Duration.ofSeconds(31));
+        when(uploadService.upload(eq("lidl"), eq(DATE), any()))
+                .thenThrow(new IngestBackpressureException("Writers fell behind", partial));
+
+        mockMvc.perform(post("/ingest/lidl/2025-05-08").contentType("text/csv").content("product_id;..."))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.data.accepted").value(4000));
+    }
+
+    @Test
+    void upload_withUnknownHeader_shouldReturnBadRequest() throws Exception {
+        when(uploadService.upload(eq("lidl"), eq(DATE), any()))
+                .thenThrow(new InvalidUploadException("Unrecognized CSV header"));
+
+        mockMvc.perform(post("/ingest/lidl/2025-05-08").contentType("text/csv").content("a;b;c"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unrecognized CSV header"));
+    }
+
+    @Test
+    void upload_withInvalidDate_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/ingest/lidl/2025-13-40").contentType("text/csv").content("a;b;c"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getRejections_shouldListQuarantinedRowsWithReasons() throws Exception {
+        when(quarantine.find("lidl_2025-05-08.csv", 0, 100)).thenReturn(List.of(new RejectedRow(1L, "lidl_2025-05-08.csv", 27L,
+                "PX;lapte;lactate;Zuzu;1;l;abc;RON", "Not a decimal number: abc", LocalDateTime.of(2025, 5, 8, 9, 0))));
+
+        mockMvc.perform(get("/ingest/rejections").param("file", "lidl_2025-05-08.csv"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].lineNumber").value(27))
+                .andExpect(jsonPath("$.data[0].reason").value("Not a decimal number: abc"));
+    }
+
+    @Test
+    void getRejections_withOversizedPage_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/ingest/rejections").param("size", "5000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+}
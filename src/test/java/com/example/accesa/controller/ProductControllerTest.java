@@ -1,18 +1,36 @@
 package com.example.accesa.controller;
 
 import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.CursorPage;
+import com.example.accesa.dto.PageCursor;
+import com.example.accesa.dto.PriceAsOfRequest;
+import com.example.accesa.dto.PricePoint;
+import com.example.accesa.dto.ProductFilter;
+import com.example.accesa.dto.ProductView;
+import com.example.accesa.dto.Suggestion;
+import com.example.accesa.service.CatalogExporter;
 import com.example.accesa.service.ProductService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ProductController.class)
@@ -24,6 +42,9 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private CatalogExporter exporter;
+
     private Product mockProduct() {
         Product product = new Product();
         product.setName("Milk");
@@ -37,26 +58,71 @@ class ProductControllerTest {
 
     @Test
     void getAllProducts_shouldReturnList() throws Exception {
-        when(productService.getAllProducts(null)).thenReturn(List.of(mockProduct()));
+        when(productService.getProducts(null, null, 500)).thenReturn(new CursorPage<>(List.of(new ProductView(
+                new ProductId("P001", "Lidl", LocalDate.of(2025, 5, 8)), "Milk", "Dairy", "BrandA",
+                new BigDecimal("0.5"), "l", new BigDecimal("4.99"), "RON", "l", new BigDecimal("9.98"))), null));
         mockMvc.perform(get("/products"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$.success").value(true))
-                .andExpect(jsonPath("$.data").isArray());
+                .andExpect(jsonPath("$.data[0].id.storeName").value("Lidl"))
+                .andExpect(jsonPath("$.data[0].id.date").value("2025-05-08"))
+                .andExpect(jsonPath("$.data[0].unitPrice").value(9.98));
     }
 
     @Test
     void getAllProducts_withInvalidStore_shouldReturnEmptyList() throws Exception {
-        when(productService.getAllProducts("Unknown")).thenReturn(List.of());
+        when(productService.getProducts("Unknown", null, 500)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/products?store=Unknown"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data").isEmpty());
     }
 
+    @Test
+    void getAllProducts_withCursor_shouldPassItOnAndReturnTheNextOne() throws Exception {
+        PageCursor after = new PageCursor("Lidl", "P001", LocalDate.of(2025, 5, 8));
+        String next = new PageCursor("Lidl", "P002", LocalDate.of(2025, 5, 8)).encode();
+        when(productService.getProducts(null, after, 1)).thenReturn(new CursorPage<>(List.of(), next));
+
+        mockMvc.perform(get("/products").param("cursor", after.encode()).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", next));
+    }
+
+    @Test
+    void getAllProducts_invalidCursor_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/products").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void getAllProducts_sizeTooLarge_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/products").param("size", "5001"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportProducts_withNdjsonAccept_shouldStreamFromTheExporter() throws Exception {
+        when(exporter.writeProducts(eq("Lidl"), any())).thenAnswer(call -> {
+            call.<OutputStream>getArgument(1).write("{\"name\":\"Milk\"}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/products?store=Lidl").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"name\":\"Milk\"}\n"));
+    }
+
     // --- /products/{productId}/price-history ---
 
     @Test
     void getPriceHistoryById_shouldReturnHistory() throws Exception {
-        when(productService.getPriceHistoryById("P001", null)).thenReturn(List.of(mockProduct()));
+        when(productService.getPriceHistoryById("P001", null, null, 500)).thenReturn(new CursorPage<>(List.of(mockProduct()), null));
         mockMvc.perform(get("/products/P001/price-history"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data").isArray());
@@ -70,7 +136,7 @@ class ProductControllerTest {
 
     @Test
     void getPriceHistoryById_notFound_shouldReturnEmpty() throws Exception {
-        when(productService.getPriceHistoryById("INVALID", null)).thenReturn(List.of());
+        when(productService.getPriceHistoryById("INVALID", null, null, 500)).thenReturn(new CursorPage<>(List.of(), null));
         mockMvc.perform(get("/products/INVALID/price-history"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data").isEmpty());
@@ -80,8 +146,8 @@ class ProductControllerTest {
 
     @Test
     void getPriceHistoryByName_shouldReturnResults() throws Exception {
-        when(productService.getPriceHistoryByName("milk", null, null, null))
-                .thenReturn(List.of(mockProduct()));
+        when(productService.getPriceHistoryByName(ProductFilter.byName("milk", null, null, null), null, 500))
+                .thenReturn(new CursorPage<>(List.of(mockProduct()), null));
         mockMvc.perform(get("/products/name/price-history?name=milk"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data").isArray());
@@ -89,11 +155,20 @@ class ProductControllerTest {
 
     @Test
     void getPriceHistoryByName_withAllFilters() throws Exception {
-        when(productService.getPriceHistoryByName("milk", "Lidl", "BrandA", "Dairy"))
-                .thenReturn(List.of(mockProduct()));
-        mockMvc.perform(get("/products/name/price-history?name=milk&store=Lidl&brand=BrandA&category=Dairy"))
+        ProductFilter filter = new ProductFilter("milk", "Lidl", "BrandA", "Dairy", "l", new BigDecimal("1.5"),
+                new BigDecimal("10"), LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 31));
+        when(productService.getPriceHistoryByName(filter, null, 500))
+                .thenReturn(new CursorPage<>(List.of(mockProduct()), null));
+        mockMvc.perform(get("/products/name/price-history?name=milk&store=Lidl&brand=BrandA&category=Dairy"
+                        + "&unit=l&minPrice=1.5&maxPrice=10&from=2025-05-01&to=2025-05-31"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.data").isArray());
+                .andExpect(jsonPath("$.data[0].name").value("Milk"));
+    }
+
+    @Test
+    void getPriceHistoryByName_invalidDate_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/products/name/price-history?name=milk&from=May"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -102,6 +177,101 @@ class ProductControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    // --- /products/cheapest ---
+
+    @Test
+    void getCheapest_shouldDefaultToKilograms() throws Exception {
+        when(productService.getCheapest("kg", null, 20)).thenReturn(List.of(new ProductView(
+                new ProductId("P020", "Lidl", LocalDate.of(2025, 5, 8)), "spaghetti", "paste", "Barilla",
+                new BigDecimal("500"), "g", new BigDecimal("5.60"), "RON", "kg", new BigDecimal("11.2000"))));
+        mockMvc.perform(get("/products/cheapest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].baseUnit").value("kg"))
+                .andExpect(jsonPath("$.data[0].baseUnitPrice").value(11.2));
+    }
+
+    @Test
+    void getCheapest_sizeTooLarge_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/products/cheapest?unit=l&size=5001"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // --- /products/suggest ---
+
+    @Test
+    void suggest_shouldReturnSuggestions() throws Exception {
+        when(productService.suggest("lap", 10)).thenReturn(List.of(new Suggestion("Lapte Zuzu", "Zuzu", 3)));
+        mockMvc.perform(get("/products/suggest?q=lap"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].name").value("Lapte Zuzu"))
+                .andExpect(jsonPath("$.data[0].stores").value(3));
+    }
+
+    @Test
+    void suggest_blankPrefix_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/products/suggest?q= "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void suggest_limitTooLarge_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/products/suggest?q=lap&limit=11"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // --- /products/{productId}/price and /products/prices ---
+
+    @Test
+    void getPriceAsOf_shouldReturnThePricePerStore() throws Exception {
+        LocalDate may1 = LocalDate.of(2025, 5, 1), may5 = LocalDate.of(2025, 5, 5);
+        when(productService.getPriceAsOf("P001", null, may5))
+                .thenReturn(List.of(new PricePoint("P001", "Lidl", may5, may1, new BigDecimal("9.80"), "RON")));
+        mockMvc.perform(get("/products/P001/price?asOf=2025-05-05"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].date").value("2025-05-01"))
+                .andExpect(jsonPath("$.data[0].price").value(9.80));
+    }
+
+    @Test
+    void getPriceAsOf_missingDate_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/products/P001/price"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getPriceAsOf_invalidDate_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/products/P001/price?asOf=05/05/2025"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getPricesAsOf_shouldAnswerEveryQuery() throws Exception {
+        LocalDate may1 = LocalDate.of(2025, 5, 1);
+        when(productService.getPricesAsOf(List.of(new PriceAsOfRequest.Query("P001", "Lidl", may1))))
+                .thenReturn(List.of(new PricePoint("P001", "Lidl", may1, may1, new BigDecimal("9.80"), "RON")));
+        mockMvc.perform(post("/products/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"queries\":[{\"productId\":\"P001\",\"storeName\":\"Lidl\",\"asOf\":\"2025-05-01\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].storeName").value("Lidl"));
+    }
+
+    @Test
+    void getPricesAsOf_queryWithoutDate_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/products/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"queries\":[{\"productId\":\"P001\"}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getPricesAsOf_noQueries_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/products/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"queries\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
     // --- /products/{productId}/substitutes ---
 
     @Test
@@ -133,6 +303,12 @@ class ProductControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getSubstitutes_negativeMargin_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/products/P001/substitutes?margin=-5"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getSubstitutes_productNotFound_shouldReturnEmpty() throws Exception {
         when(productService.findSubstitutes("INVALID", 10.0)).thenReturn(List.of());
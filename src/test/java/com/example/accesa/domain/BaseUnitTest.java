@@ -0,0 +1,26 @@
+package com.example.accesa.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BaseUnitTest {
+
+    @Test
+    void of_shouldCountGramsAsKilogramsAndMillilitresAsLitres() {
+        assertThat(BaseUnit.of("g")).isEqualTo("kg");
+        assertThat(BaseUnit.of("ML")).isEqualTo("l");
+        assertThat(BaseUnit.of("buc")).isEqualTo("buc");
+        assertThat(BaseUnit.of(null)).isNull();
+    }
+
+    @Test
+    void unitPrice_shouldBePerBaseUnit() {
+        assertThat(BaseUnit.unitPrice(new BigDecimal("4.50"), new BigDecimal("500"), "g")).isEqualByComparingTo("9.00");
+        assertThat(BaseUnit.unitPrice(new BigDecimal("13.50"), new BigDecimal("10"), "buc")).isEqualByComparingTo("1.35");
+        assertThat(BaseUnit.unitPrice(new BigDecimal("4.50"), BigDecimal.ZERO, "kg")).isNull();
+        assertThat(BaseUnit.unitPrice(null, BigDecimal.ONE, "kg")).isNull();
+    }
+}
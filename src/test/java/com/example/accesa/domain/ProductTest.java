@@ -3,6 +3,7 @@ package com.example.accesa.domain;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -31,4 +32,19 @@ class ProductTest {
         p.setPrice(new BigDecimal("10.0"));
         assertThat(p.getUnitPrice()).isEqualByComparingTo("0.0000");
     }
-}
\ No newline at end of file
+
+    @Test
+    void baseUnitPrice_shouldFollowTheQuantityUnitAndPrice() {
+        Product p = new Product(new ProductId("P020", "Lidl", LocalDate.of(2025, 5, 8)), "spaghetti", "paste",
+                "Barilla", new BigDecimal("500"), "g", new BigDecimal("5.60"), "RON");
+        assertThat(p.getBaseUnit()).isEqualTo("kg");
+        assertThat(p.getBaseUnitPrice()).isEqualByComparingTo("11.20");
+
+        p.setQuantity(new BigDecimal("1"));
+        p.setUnit("kg");
+        assertThat(p.getBaseUnitPrice()).isEqualByComparingTo("5.60");
+
+        p.setPrice(null);
+        assertThat(p.getBaseUnitPrice()).isNull();
+    }
+}
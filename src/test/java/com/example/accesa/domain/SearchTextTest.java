@@ -0,0 +1,23 @@
+package com.example.accesa.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTextTest {
+
+    @Test
+    void normalize_shouldLowerCaseAndStripDiacritics() {
+        assertThat(SearchText.normalize("Brânză Telemea")).isEqualTo("branza telemea");
+        assertThat(SearchText.normalize("Șuncă ţară")).isEqualTo("sunca tara");
+        assertThat(SearchText.normalize("Lapte 1.5%")).isEqualTo("lapte 1.5%");
+        assertThat(SearchText.normalize(null)).isNull();
+    }
+
+    @Test
+    void contains_shouldMatchNormalizedNeedle() {
+        assertThat(SearchText.contains("Ouă mărimea M", "oua")).isTrue();
+        assertThat(SearchText.contains("Ouă mărimea M", "ouă")).isFalse();
+        assertThat(SearchText.contains(null, "oua")).isFalse();
+    }
+}
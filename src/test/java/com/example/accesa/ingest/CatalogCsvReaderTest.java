@@ -0,0 +1,129 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.Discount;
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.StringDictionary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCsvReaderTest {
+
+    static final String PRODUCT_HEADER =
+            "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n";
+    static final String DISCOUNT_HEADER =
+            "product_id;product_name;brand;package_quantity;package_unit;product_category;from_date;to_date;percentage_of_discount\n";
+
+    @TempDir
+    Path dir;
+
+    private final CatalogCsvReader reader = new CatalogCsvReader();
+
+    static class CollectingSink implements CatalogCsvReader.RowSink {
+        final List<Product> products = new ArrayList<>();
+        final List<Discount> discounts = new ArrayList<>();
+        final List<String> rejected = new ArrayList<>();
+        final List<String> reasons = new ArrayList<>();
+
+        @Override
+        public void product(Product product) {
+            products.add(product);
+        }
+
+        @Override
+        public void discount(Discount discount) {
+            discounts.add(discount);
+        }
+
+        @Override
+        public void rejected(long lineNumber, String line, String reason) {
+            rejected.add(line);
+            reasons.add(lineNumber + ": " + reason);
+        }
+    }
+
+    private IngestFile write(String name, String content) throws IOException {
+        return IngestFile.of(Files.writeString(dir.resolve(name), content)).orElseThrow();
+    }
+
+    @Test
+    void read_products_shouldParseRowsAndRejectInvalidOnes() throws IOException {
+        IngestFile file = write("lidl_2025-05-08.csv", PRODUCT_HEADER +
+                "P001;lapte zuzu;lactate;Zuzu;1;l;9.80;RON\n" +
+                "P002;iaurt grecesc;lactate;Lidl;0.4;kg;not-a-price;RON\n" +
+                "P003;too;short\n" +
+                "\n" +
+                "P004;pâine albă;panificație;Lidl;500;g;3.40;RON");
+        CollectingSink sink = new CollectingSink();
+
+        reader.read(file, sink);
+
+        assertThat(sink.products).extracting(p -> p.getId().getProductId()).containsExactly("P001", "P004");
+        assertThat(sink.rejected).containsExactly("P002;iaurt grecesc;lactate;Lidl;0.4;kg;not-a-price;RON", "P003;too;short");
+        assertThat(sink.reasons).containsExactly("3: Not a decimal number: not-a-price", "4: Expected 8 fields, found 3");
+        Product bread = sink.products.get(1);
+        assertThat(bread.getId().getStoreName()).isEqualTo("Lidl");
+        assertThat(bread.getId().getDate()).isEqualTo(LocalDate.of(2025, 5, 8));
+        assertThat(bread.getName()).isEqualTo("pâine albă");
+        assertThat(bread.getQuantity()).isEqualByComparingTo("500");
+        assertThat(bread.getPrice()).isEqualByComparingTo("3.40");
+    }
+
+    @Test
+    void read_discounts_shouldParseDateRangeAndPercentage() throws IOException {
+        IngestFile file = write("kaufland_discounts_2025-05-01.csv", DISCOUNT_HEADER +
+                "P008;brânză telemea;Pilos;0.3;kg;lactate;2025-05-01;2025-05-07;15\n" +
+                "P009;bad;Pilos;0.3;kg;lactate;not-a-date;2025-05-07;15\n");
+        CollectingSink sink = new CollectingSink();
+
+        reader.read(file, sink);
+
+        assertThat(sink.discounts).hasSize(1);
+        assertThat(sink.rejected).hasSize(1);
+        Discount d = sink.discounts.get(0);
+        assertThat(d.getId().getStoreName()).isEqualTo("Kaufland");
+        assertThat(d.getId().getFromDate()).isEqualTo(LocalDate.of(2025, 5, 1));
+        assertThat(d.getToDate()).isEqualTo(LocalDate.of(2025, 5, 7));
+        assertThat(d.getPercentage()).isEqualByComparingTo("15");
+    }
+
+    @Test
+    void read_shouldShareRepeatedCategoryBrandUnitAndCurrencyInstances() throws IOException {
+        IngestFile file = write("lidl_2025-05-08.csv", PRODUCT_HEADER +
+                "P001;lapte zuzu;lactate;Zuzu;1;l;9.80;RON\n" +
+                "P002;lapte bio;lactate;Zuzu;1;l;11.20;RON\n");
+        CollectingSink sink = new CollectingSink();
+
+        new CatalogCsvReader(new StringDictionary(16)).read(file, sink);
+
+        Product first = sink.products.get(0);
+        Product second = sink.products.get(1);
+        assertThat(second.getCategory()).isSameAs(first.getCategory());
+        assertThat(second.getBrand()).isSameAs(first.getBrand());
+        assertThat(second.getUnit()).isSameAs(first.getUnit());
+        assertThat(second.getCurrency()).isSameAs(first.getCurrency());
+        assertThat(second.getName()).isNotSameAs(first.getName());
+    }
+
+    @Test
+    void readHeader_shouldTellProductAndDiscountLayoutsApart() throws IOException {
+        assertThat(reader.readHeader(tokens(PRODUCT_HEADER))).contains(IngestFile.Kind.PRODUCTS);
+        assertThat(reader.readHeader(tokens(DISCOUNT_HEADER))).contains(IngestFile.Kind.DISCOUNTS);
+        assertThat(reader.readHeader(tokens("id;name;price\n"))).isEmpty();
+        assertThat(reader.readHeader(tokens(""))).isEmpty();
+    }
+
+    private static CsvTokenizer tokens(String content) {
+        return CsvTokenizer.of(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
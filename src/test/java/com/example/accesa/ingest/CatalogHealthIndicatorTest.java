@@ -0,0 +1,42 @@
+package com.example.accesa.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogHealthIndicatorTest {
+
+    private final IngestProgress progress = new IngestProgress();
+    private final CatalogHealthIndicator indicator = new CatalogHealthIndicator(progress);
+
+    @Test
+    void health_shouldBeDownWhileLoading() {
+        progress.loadStarted();
+        progress.filesQueued(12);
+        progress.fileDone();
+
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
+        assertThat(indicator.health().getDetails())
+                .containsEntry("state", IngestProgress.State.LOADING)
+                .containsEntry("filesDone", 1)
+                .containsEntry("filesTotal", 12);
+    }
+
+    @Test
+    void health_shouldBeUpOnceLoaded() {
+        progress.loadStarted();
+        progress.loadFinished();
+
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void health_shouldStayDownAndExplainWhenLoadFailed() {
+        progress.loadStarted();
+        progress.loadFailed(new IllegalStateException("disk gone"));
+
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.DOWN);
+        assertThat(indicator.health().getDetails()).containsEntry("error", "disk gone");
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.config.CatalogDataProperties;
+import com.example.accesa.domain.*;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.IngestedFileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private CatalogBulkRepository bulkRepo;
+    private IngestedFileRepository manifest;
+    private CatalogSnapshot snapshot;
+
+    private final List<Product> products = List.of(
+            new Product(new ProductId("P001", "Lidl", LocalDate.of(2025, 5, 8)),
+                    "lapte zuzu", "lactate", "Zuzu", new BigDecimal("1.00"), "l", new BigDecimal("9.80"), "RON"),
+            new Product(new ProductId("P002", "Lidl", LocalDate.of(2025, 5, 8)),
+                    "pâine albă", "panificație", null, new BigDecimal("0.50"), "kg", new BigDecimal("3.45"), "RON"));
+    private final List<Discount> discounts = List.of(
+            new Discount(new DiscountId("P001", "Lidl", LocalDate.of(2025, 5, 8)),
+                    "lapte zuzu", "Zuzu", new BigDecimal("1.00"), "l", "lactate", LocalDate.of(2025, 5, 14), new BigDecimal("10.00")));
+    private final List<IngestedFile> files = List.of(
+            new IngestedFile("lidl_2025-05-08.csv", "1a2b3c4d", 2, LocalDateTime.of(2025, 5, 8, 9, 30)));
+
+    @BeforeEach
+    void setup() {
+        bulkRepo = mock(CatalogBulkRepository.class);
+        manifest = mock(IngestedFileRepository.class);
+        snapshot = new CatalogSnapshot(bulkRepo, manifest,
+                new CatalogDataProperties(null, true, false, Duration.ofSeconds(2), dir.resolve("catalog.snapshot"),
+                        Duration.ofSeconds(10)), mock(ApplicationEventPublisher.class));
+    }
+
+    /**
+     * Feeds the products and discounts to the repository's row scans, column by column as the queries return them.
+     */
+    private void stored() throws SQLException {
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(0);
+            for (Product p : products) {
+                handler.processRow(row(p.getId().getProductId(), p.getId().getStoreName(), p.getId().getDate(),
+                        p.getName(), p.getCategory(), p.getBrand(), p.getQuantity(), p.getUnit(), p.getPrice(), p.getCurrency()));
+            }
+            return null;
+        }).when(bulkRepo).scanProducts(any());
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(0);
+            for (Discount d : discounts) {
+                handler.processRow(row(d.getId().getProductId(), d.getId().getStoreName(), d.getId().getFromDate(),
+                        d.getName(), d.getBrand(), d.getQuantity(), d.getUnit(), d.getCategory(), d.getToDate(), d.getPercentage()));
+            }
+            return null;
+        }).when(bulkRepo).scanDiscounts(any());
+    }
+
+    private static ResultSet row(Object... columns) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] instanceof BigDecimal value) when(rs.getBigDecimal(i + 1)).thenReturn(value);
+            else if (columns[i] instanceof LocalDate value) when(rs.getObject(i + 1, LocalDate.class)).thenReturn(value);
+            else when(rs.getString(i + 1)).thenReturn((String) columns[i]);
+        }
+        return rs;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void restore_shouldReproduceWhatWasWritten() throws Exception {
+        stored();
+        when(manifest.findAll()).thenReturn(files);
+        snapshot.write();
+
+        List<Product> restoredProducts = new ArrayList<>();
+        List<Discount> restoredDiscounts = new ArrayList<>();
+        List<IngestedFile> restoredFiles = new ArrayList<>();
+        when(bulkRepo.insertProducts(anyList())).thenAnswer(inv -> {
+            restoredProducts.addAll(inv.getArgument(0));
+            return 0;
+        });
+        when(bulkRepo.insertDiscounts(anyList())).thenAnswer(inv -> {
+            restoredDiscounts.addAll(inv.getArgument(0));
+            return 0;
+        });
+        when(manifest.saveAll(anyList())).thenAnswer(inv -> {
+            restoredFiles.addAll(inv.getArgument(0));
+            return restoredFiles;
+        });
+
+        assertThat(snapshot.restore()).isTrue();
+        assertThat(restoredProducts).isEqualTo(products);
+        assertThat(restoredDiscounts).isEqualTo(discounts);
+        assertThat(restoredFiles).isEqualTo(files);
+    }
+
+    @Test
+    void restore_withoutSnapshotFile_shouldDoNothing() throws IOException {
+        assertThat(snapshot.restore()).isFalse();
+        verifyNoInteractions(bulkRepo, manifest);
+    }
+
+    @Test
+    void restore_whenFileIsCorrupt_shouldFailBeforeWritingAnything() throws Exception {
+        stored();
+        when(manifest.findAll()).thenReturn(files);
+        snapshot.write();
+        Path file = dir.resolve("catalog.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+
+        assertThatThrownBy(snapshot::restore).isInstanceOf(IOException.class).hasMessageContaining("checksum");
+        verify(bulkRepo, never()).insertProducts(anyList());
+        verify(manifest, never()).saveAll(anyList());
+    }
+}
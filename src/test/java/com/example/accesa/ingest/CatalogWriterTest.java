@@ -0,0 +1,97 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.config.IngestProperties;
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.DiscountRepository;
+import com.example.accesa.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.LocalDate;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CatalogWriterTest {
+
+    private static final IngestFile SOURCE =
+            new IngestFile(new FileSystemResource("lidl_2025-05-08.csv"), "Lidl", IngestFile.Kind.PRODUCTS, LocalDate.of(2025, 5, 8));
+
+    private ProductRepository productRepo;
+    private DiscountRepository discountRepo;
+    private CatalogBulkRepository bulkRepo;
+    private IngestQuarantine quarantine;
+    private ApplicationEventPublisher events;
+
+    @BeforeEach
+    void setup() {
+        productRepo = mock(ProductRepository.class);
+        discountRepo = mock(DiscountRepository.class);
+        bulkRepo = mock(CatalogBulkRepository.class);
+        quarantine = mock(IngestQuarantine.class);
+        events = mock(ApplicationEventPublisher.class);
+    }
+
+    private CatalogWriter writer(boolean bulk) {
+        return new CatalogWriter(productRepo, discountRepo, bulkRepo, new IngestProperties(bulk, 1000, 1, 1, 1, Duration.ofSeconds(30)), quarantine, events);
+    }
+
+    private Product product(String id) {
+        Product p = new Product();
+        p.setId(new ProductId(id, "Lidl", LocalDate.of(2025, 5, 8)));
+        return p;
+    }
+
+    @Test
+    void write_bulk_shouldSendOneJdbcBatch() {
+        when(bulkRepo.insertProducts(anyList())).thenReturn(2);
+
+        int written = writer(true).write(new IngestBatch(SOURCE, IngestMode.INSERT, List.of(product("P001"), product("P002")), List.of()));
+
+        assertThat(written).isEqualTo(2);
+        verify(bulkRepo).insertProducts(anyList());
+        verifyNoInteractions(productRepo);
+    }
+
+    @Test
+    void write_bulkUpsert_shouldMergeRows() {
+        when(bulkRepo.mergeProducts(anyList())).thenReturn(1);
+
+        int written = writer(true).write(new IngestBatch(SOURCE, IngestMode.UPSERT, List.of(product("P001")), List.of()));
+
+        assertThat(written).isEqualTo(1);
+        verify(bulkRepo).mergeProducts(anyList());
+        verify(bulkRepo, never()).insertProducts(anyList());
+    }
+
+    @Test
+    void write_bulk_whenBatchRejected_shouldRetryRowByRow() {
+        doThrow(new DuplicateKeyException("duplicate"))
+                .when(bulkRepo).insertProducts(argThat(list -> list.size() > 1));
+        doReturn(1).doThrow(new DuplicateKeyException("duplicate"))
+                .when(bulkRepo).insertProducts(argThat(list -> list.size() == 1));
+
+        int written = writer(true).write(new IngestBatch(SOURCE, IngestMode.INSERT, List.of(product("P001"), product("P001")), List.of()));
+
+        assertThat(written).isEqualTo(1);
+        verify(quarantine).reject(eq(SOURCE), isNull(), contains("P001"), eq("duplicate"));
+        verify(events).publishEvent(argThat((CatalogChangedEvent e) -> e.written().size() == 1));
+    }
+
+    @Test
+    void write_legacy_shouldSaveEachRowThroughRepository() {
+        int written = writer(false).write(new IngestBatch(SOURCE, IngestMode.INSERT, List.of(product("P001"), product("P002")), List.of()));
+
+        assertThat(written).isEqualTo(2);
+        verify(productRepo, times(2)).save(any(Product.class));
+        verifyNoInteractions(bulkRepo);
+    }
+}
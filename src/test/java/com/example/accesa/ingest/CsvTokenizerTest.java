@@ -0,0 +1,153 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.StringDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvTokenizerTest {
+
+    private static CsvTokenizer tokens(String content) {
+        return CsvTokenizer.of(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<List<String>> readAll(CsvTokenizer t) throws IOException {
+        List<List<String>> lines = new ArrayList<>();
+        while (t.next()) {
+            List<String> fields = new ArrayList<>();
+            for (int i = 0; i < t.fieldCount(); i++) fields.add(t.string(i));
+            lines.add(fields);
+        }
+        return lines;
+    }
+
+    @Test
+    void next_shouldSplitFieldsAndHandleCrLfAndMissingTrailingNewline() throws IOException {
+        CsvTokenizer t = tokens("P001;lapte zuzu;lactate\r\nP002;;ouă mărimea M\nP003;last;line");
+
+        assertThat(readAll(t)).containsExactly(
+                List.of("P001", "lapte zuzu", "lactate"),
+                List.of("P002", "", "ouă mărimea M"),
+                List.of("P003", "last", "line"));
+        assertThat(t.lineNumber()).isEqualTo(3);
+    }
+
+    @Test
+    void next_fromChannelWithTinyBuffer_shouldReassembleLinesAcrossRefills() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            csv.append("P").append(i).append(";brânză telemea foarte lungă ").append(i).append(";12.90\n");
+        }
+        CsvTokenizer t = CsvTokenizer.of(Channels.newChannel(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8))), 16);
+
+        List<List<String>> lines = readAll(t);
+
+        assertThat(lines).hasSize(200);
+        assertThat(lines.get(137)).containsExactly("P137", "brânză telemea foarte lungă 137", "12.90");
+    }
+
+    @Test
+    void next_fromChannelWithLineLimit_shouldRejectLongerLines() throws IOException {
+        String csv = "P001;short\nP002;" + "x".repeat(500) + "\n";
+        CsvTokenizer t = CsvTokenizer.of(Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))), 64, 256);
+
+        assertThat(t.next()).isTrue();
+        assertThat(t.string(1)).isEqualTo("short");
+        assertThatThrownBy(t::next).isInstanceOf(IOException.class).hasMessageContaining("longer than 256 bytes");
+    }
+
+    @Test
+    void decimal_shouldKeepTheWrittenScaleLikeBigDecimal() throws IOException {
+        CsvTokenizer t = tokens("9.80;0.4;500;-1.5;+.25;12345678901234567890.5");
+        t.next();
+
+        for (int i = 0; i < t.fieldCount(); i++) {
+            assertThat(t.decimal(i)).isEqualTo(new BigDecimal(t.string(i)));
+        }
+    }
+
+    @Test
+    void fixedPoint_shouldScaleToTheRequestedFractionDigits() throws IOException {
+        CsvTokenizer t = tokens("9.8;13;0.125");
+        t.next();
+
+        assertThat(t.fixedPoint(0, 2)).isEqualTo(980);
+        assertThat(t.fixedPoint(1, 2)).isEqualTo(1300);
+        assertThat(t.fixedPoint(2, 3)).isEqualTo(125);
+        assertThatThrownBy(() -> t.fixedPoint(2, 2)).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void decimal_shouldRejectMalformedNumbers() throws IOException {
+        CsvTokenizer t = tokens("abc;;1.2.3;-");
+        t.next();
+
+        for (int i = 0; i < t.fieldCount(); i++) {
+            int field = i;
+            assertThatThrownBy(() -> t.decimal(field)).isInstanceOf(NumberFormatException.class);
+        }
+    }
+
+    @Test
+    void date_shouldParseIsoDatesAndRejectInvalidOnes() throws IOException {
+        CsvTokenizer t = tokens("2025-05-01;2025-02-30;2025/05/01;25-05-01");
+        t.next();
+
+        assertThat(t.date(0)).isEqualTo(LocalDate.of(2025, 5, 1));
+        assertThatThrownBy(() -> t.date(1)).isInstanceOf(DateTimeException.class);
+        assertThatThrownBy(() -> t.date(2)).isInstanceOf(DateTimeException.class);
+        assertThatThrownBy(() -> t.date(3)).isInstanceOf(DateTimeException.class);
+    }
+
+    @Test
+    void line_shouldReturnTheRawLineWithoutTerminator() throws IOException {
+        CsvTokenizer t = tokens("header\r\nP001;x\r\n");
+        t.next();
+        t.next();
+
+        assertThat(t.line()).isEqualTo("P001;x");
+        assertThatThrownBy(() -> t.string(2)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void string_withDictionary_shouldReturnCanonicalInstances() throws IOException {
+        StringDictionary dictionary = new StringDictionary(16);
+        String canonical = dictionary.intern(new String("lactate"));
+        CsvTokenizer first = tokens("lactate;kg\nlactate;l\n");
+        CsvTokenizer second = tokens("lactate\n");
+
+        first.next();
+        assertThat(first.string(0, dictionary)).isSameAs(canonical);
+        String kg = first.string(1, dictionary);
+        first.next();
+        assertThat(first.string(0, dictionary)).isSameAs(canonical);
+        assertThat(first.string(1, dictionary)).isEqualTo("l");
+        second.next();
+        assertThat(second.string(0, dictionary)).isSameAs(canonical);
+        assertThat(dictionary.intern("kg")).isSameAs(kg);
+    }
+
+    @Test
+    void string_withFullDictionary_shouldStillDecodeNewValues() throws IOException {
+        StringDictionary dictionary = new StringDictionary(1);
+        dictionary.intern("lactate");
+        CsvTokenizer t = tokens("Zuzu\n");
+
+        t.next();
+
+        assertThat(t.string(0, dictionary)).isEqualTo("Zuzu");
+        assertThat(dictionary.size()).isEqualTo(1);
+    }
+}
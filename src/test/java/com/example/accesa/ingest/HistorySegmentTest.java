@@ -0,0 +1,93 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HistorySegmentTest {
+
+    @TempDir
+    Path dir;
+
+    private static Product product(String id, int day, String name, String price) {
+        return new Product(new ProductId(id, "Lidl", LocalDate.of(2024, 3, day)), name, "lactate", "Zuzu",
+                new BigDecimal("1.00"), "l", price == null ? null : new BigDecimal(price), "RON");
+    }
+
+    private final List<Product> products = List.of(
+            product("P002", 8, "iaurt grecesc", "11.50"),
+            product("P001", 8, "lapte zuzu", "9.70"),
+            product("P001", 1, "lapte zuzu", "9.80"),
+            new Product(new ProductId("P003", "Lidl", LocalDate.of(2024, 3, 1)), "pâine albă", "panificație", null,
+                    new BigDecimal("0.50"), "kg", null, "RON"));
+
+    @Test
+    void open_shouldReadBackWhatWasWritten() throws IOException {
+        Path path = dir.resolve("lidl.seg");
+        HistorySegment.write(path, "Lidl", products);
+
+        HistorySegment segment = HistorySegment.open(path);
+
+        assertThat(segment.store()).isEqualTo("Lidl");
+        assertThat(segment.size()).isEqualTo(4);
+        assertThat(segment.all()).containsExactlyInAnyOrderElementsOf(products);
+    }
+
+    @Test
+    void history_shouldFindOneProductByDate() throws IOException {
+        Path path = dir.resolve("lidl.seg");
+        HistorySegment.write(path, "Lidl", products);
+        HistorySegment segment = HistorySegment.open(path);
+
+        assertThat(segment.history("P001")).extracting(Product::getPrice)
+                .containsExactly(new BigDecimal("9.80"), new BigDecimal("9.70"));
+        assertThat(segment.history("P000")).isEmpty();
+        assertThat(segment.history("lapte zuzu")).isEmpty();
+    }
+
+    @Test
+    void withName_shouldReturnTheRowsOfMatchingNames() throws IOException {
+        Path path = dir.resolve("lidl.seg");
+        HistorySegment.write(path, "Lidl", products);
+        HistorySegment segment = HistorySegment.open(path);
+
+        assertThat(segment.withName(n -> n.contains("zuzu"))).hasSize(2);
+        assertThat(segment.withName(n -> n.startsWith("pâine"))).singleElement()
+                .satisfies(p -> assertThat(p.getPrice()).isNull());
+        assertThat(segment.withName(n -> false)).isEmpty();
+    }
+
+    @Test
+    void open_whenFileIsCorrupt_shouldFail() throws IOException {
+        Path path = dir.resolve("lidl.seg");
+        HistorySegment.write(path, "Lidl", products);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[40] ^= 1;
+        Files.write(path, bytes);
+
+        assertThatThrownBy(() -> HistorySegment.open(path)).isInstanceOf(IOException.class).hasMessageContaining("checksum");
+    }
+
+    @Test
+    void open_withoutVerifying_shouldSkipTheChecksum() throws IOException {
+        Path path = dir.resolve("lidl.seg");
+        HistorySegment.write(path, "Lidl", products);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+
+        assertThatThrownBy(() -> HistorySegment.open(path)).isInstanceOf(IOException.class);
+        assertThat(HistorySegment.open(path, false).all()).containsExactlyInAnyOrderElementsOf(products);
+    }
+}
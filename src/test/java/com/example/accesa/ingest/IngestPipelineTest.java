@@ -0,0 +1,159 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.config.IngestProperties;
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.DiscountRepository;
+import com.example.accesa.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.example.accesa.ingest.CatalogCsvReaderTest.DISCOUNT_HEADER;
+import static com.example.accesa.ingest.CatalogCsvReaderTest.PRODUCT_HEADER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IngestPipelineTest {
+
+    @TempDir
+    Path dir;
+
+    private final IngestProgress progress = new IngestProgress();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IngestMetrics metrics = new IngestMetrics(registry, progress);
+    private final IngestQuarantine quarantine = mock(IngestQuarantine.class);
+
+    private IngestFile write(String name, String content) throws IOException {
+        return IngestFile.of(Files.writeString(dir.resolve(name), content)).orElseThrow();
+    }
+
+    @Test
+    void run_shouldWriteEveryParsedRowAcrossFilesAndCountRejects() throws IOException {
+        StringBuilder lidl = new StringBuilder(PRODUCT_HEADER);
+        for (int i = 0; i < 25; i++) {
+            lidl.append("P").append(i).append(";lapte;lactate;Zuzu;1;l;9.80;RON\n");
+        }
+        lidl.append("PX;lapte;lactate;Zuzu;1;l;abc;RON\n");
+        List<IngestFile> files = List.of(
+                write("lidl_2025-05-08.csv", lidl.toString()),
+                write("profi_2025-05-08.csv", PRODUCT_HEADER + "P001;lapte;lactate;Zuzu;1;l;9.10;RON\n"),
+                write("profi_discounts_2025-05-08.csv", DISCOUNT_HEADER + "P001;lapte;Zuzu;1;l;lactate;2025-05-08;2025-05-14;10\n"));
+
+        List<IngestBatch> written = Collections.synchronizedList(new ArrayList<>());
+        CatalogWriter writer = mock(CatalogWriter.class);
+        when(writer.write(any(), any())).thenAnswer(inv -> {
+            IngestBatch batch = inv.getArgument(0);
+            written.add(batch);
+            return batch.size();
+        });
+        IngestPipeline pipeline = new IngestPipeline(new CatalogCsvReader(), writer, new IngestProperties(true, 10, 2, 2, 1, Duration.ofSeconds(30)), progress, metrics, quarantine);
+
+        IngestSummary summary = pipeline.run(files);
+
+        assertThat(summary.files()).hasSize(3).noneMatch(IngestSummary.FileResult::failed);
+        assertThat(summary.persisted()).isEqualTo(27);
+        assertThat(summary.rejected()).isEqualTo(1);
+        assertThat(written).allMatch(batch -> batch.size() <= 10);
+        assertThat(written.stream().flatMap(b -> b.products().stream()).filter(p -> p.getId().getStoreName().equals("Lidl")))
+                .hasSize(25);
+        assertThat(written.stream().flatMap(b -> b.discounts().stream())).hasSize(1);
+        assertThat(progress.snapshot().filesTotal()).isEqualTo(3);
+        assertThat(progress.snapshot().filesDone()).isEqualTo(3);
+        assertThat(progress.snapshot().rowsLoaded()).isEqualTo(27);
+        assertThat(progress.snapshot().rowsRejected()).isEqualTo(1);
+        verify(quarantine).reject(files.get(0), 27L, "PX;lapte;lactate;Zuzu;1;l;abc;RON", "Not a decimal number: abc");
+        assertThat(registry.get("catalog.ingest.rows").tag("outcome", "parsed").functionCounter().count()).isEqualTo(28);
+        assertThat(registry.get("catalog.ingest.file").tag("outcome", "success").timers()).hasSize(3);
+        assertThat(registry.get("catalog.ingest.file").tags("store", "Profi", "kind", "discounts").timer().count()).isEqualTo(1);
+        assertThat(registry.get("catalog.ingest.files.pending").gauge().value()).isZero();
+        assertThat(registry.get("catalog.ingest.batches.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void run_shouldCountRowsTheWriterCouldNotStoreAsRejected() throws IOException {
+        IngestFile file = write("lidl_2025-05-08.csv", PRODUCT_HEADER +
+                "P001;lapte;lactate;Zuzu;1;l;9.80;RON\n" +
+                "P002;lapte;lactate;Zuzu;1;l;9.80;RON\n");
+        CatalogWriter writer = mock(CatalogWriter.class);
+        when(writer.write(any(), any())).thenReturn(1);
+        IngestPipeline pipeline = new IngestPipeline(new CatalogCsvReader(), writer, new IngestProperties(true, 10, 1, 1, 1, Duration.ofSeconds(30)), progress, metrics, quarantine);
+
+        IngestSummary summary = pipeline.run(List.of(file));
+
+        assertThat(summary.persisted()).isEqualTo(1);
+        assertThat(summary.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void run_shouldTagBatchesWithModeAndFlagUnreadableFiles() throws IOException {
+        IngestFile file = write("lidl_2025-05-08.csv", PRODUCT_HEADER + "P001;lapte;lactate;Zuzu;1;l;9.80;RON\n");
+        IngestFile missing = IngestFile.of(dir.resolve("profi_2025-05-08.csv")).orElseThrow();
+        List<IngestMode> modes = Collections.synchronizedList(new ArrayList<>());
+        CatalogWriter writer = mock(CatalogWriter.class);
+        when(writer.write(any(), any())).thenAnswer(inv -> {
+            IngestBatch batch = inv.getArgument(0);
+            modes.add(batch.mode());
+            return batch.size();
+        });
+        IngestPipeline pipeline = new IngestPipeline(new CatalogCsvReader(), writer, new IngestProperties(true, 10, 1, 1, 1, Duration.ofSeconds(30)), progress, metrics, quarantine);
+
+        IngestSummary summary = pipeline.run(List.of(file, missing), IngestMode.UPSERT);
+
+        assertThat(modes).containsExactly(IngestMode.UPSERT);
+        assertThat(summary.files()).extracting(IngestSummary.FileResult::failed).containsExactly(false, true);
+    }
+
+    @Test
+    void run_replace_shouldWriteOnlyTheDiffAndDeleteMissingRows() throws IOException {
+        IngestFile file = write("lidl_2025-05-08.csv", PRODUCT_HEADER +
+                "P001;lapte;lactate;Zuzu;1;l;9.80;RON\n" +
+                "P002;unt;lactate;Pilos;0.2;kg;7.20;RON\n" +
+                "P004;iaurt;lactate;Zuzu;0.4;kg;3.10;RON\n");
+        CatalogBulkRepository bulkRepo = mock(CatalogBulkRepository.class);
+        when(bulkRepo.findProducts("Lidl", LocalDate.of(2025, 5, 8))).thenReturn(List.of(
+                stored("P001", "lapte", "lactate", "Zuzu", "1.00", "l", "9.80"),
+                stored("P002", "unt", "lactate", "Pilos", "0.20", "kg", "7.50"),
+                stored("P003", "smântână", "lactate", "Napolact", "0.20", "kg", "5.00")));
+        when(bulkRepo.insertProducts(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        when(bulkRepo.updateProducts(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        when(bulkRepo.deleteProducts(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        IngestProperties properties = new IngestProperties(true, 2, 1, 2, 4, Duration.ofSeconds(30));
+        CatalogWriter writer = new CatalogWriter(mock(ProductRepository.class), mock(DiscountRepository.class), bulkRepo, properties, quarantine, mock(ApplicationEventPublisher.class));
+        IngestPipeline pipeline = new IngestPipeline(new CatalogCsvReader(), writer, properties, progress, metrics, quarantine);
+
+        IngestSummary summary = pipeline.run(List.of(file), IngestMode.REPLACE);
+
+        assertThat(summary.files()).singleElement().extracting(IngestSummary.FileResult::diff)
+                .isEqualTo(new IngestSummary.Diff(1, 1, 1, 1));
+        assertThat(summary.persisted()).isEqualTo(3);
+        verify(bulkRepo).insertProducts(argThat(rows -> rows.size() == 1 && rows.get(0).getId().getProductId().equals("P004")));
+        verify(bulkRepo).updateProducts(argThat(rows -> rows.size() == 1 && rows.get(0).getId().getProductId().equals("P002")));
+        verify(bulkRepo).deleteProducts(List.of(new ProductId("P003", "Lidl", LocalDate.of(2025, 5, 8))));
+    }
+
+    private static Product stored(String id, String name, String category, String brand, String quantity, String unit, String price) {
+        return new Product(new ProductId(id, "Lidl", LocalDate.of(2025, 5, 8)), name, category, brand,
+                new BigDecimal(quantity), unit, new BigDecimal(price), "RON");
+    }
+
+    @Test
+    void run_withNoFiles_shouldReturnEmptySummary() {
+        IngestPipeline pipeline = new IngestPipeline(new CatalogCsvReader(), mock(CatalogWriter.class), new IngestProperties(true, 10, 1, 1, 1, Duration.ofSeconds(30)), progress, metrics, quarantine);
+
+        assertThat(pipeline.run(List.of()).files()).isEmpty();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionDiffTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 8);
+
+    private static Product product(String id, String price) {
+        return new Product(new ProductId(id, "Lidl", DATE), "lapte", "lactate", "Zuzu",
+                new BigDecimal("1.00"), "l", new BigDecimal(price), "RON");
+    }
+
+    @Test
+    void classify_shouldSplitInsertsUpdatesAndUnchangedRows() {
+        PartitionDiff diff = new PartitionDiff(List.of(product("P001", "9.80"), product("P002", "4.50")));
+
+        PartitionDiff.Changes changes = diff.classify(List.of(product("P001", "9.80"), product("P002", "4.20"), product("P003", "7.00")));
+
+        assertThat(changes.inserts()).extracting(p -> p.getId().getProductId()).containsExactly("P003");
+        assertThat(changes.updates()).extracting(p -> p.getId().getProductId()).containsExactly("P002");
+        assertThat(changes.unchanged()).isEqualTo(1);
+    }
+
+    @Test
+    void classify_shouldCompareNumbersByValueNotScale() {
+        PartitionDiff diff = new PartitionDiff(List.of(product("P001", "9.80")));
+        Product reloaded = product("P001", "9.8");
+        reloaded.setQuantity(BigDecimal.ONE);
+
+        assertThat(diff.classify(List.of(reloaded)).unchanged()).isEqualTo(1);
+    }
+
+    @Test
+    void missing_shouldListStoredRowsNoBatchContained() {
+        PartitionDiff diff = new PartitionDiff(List.of(product("P001", "9.80"), product("P002", "4.50"), product("P003", "1.00")));
+        diff.classify(List.of(product("P002", "4.50")));
+        diff.classify(List.of(product("P004", "2.00")));
+
+        assertThat(diff.missing()).extracting(ProductId::getProductId).containsExactlyInAnyOrder("P001", "P003");
+    }
+
+    @Test
+    void classify_whenIdRepeatsAcrossBatches_shouldInsertOnlyOnce() {
+        PartitionDiff diff = new PartitionDiff(List.of());
+
+        assertThat(diff.classify(List.of(product("P001", "9.80"))).inserts()).hasSize(1);
+        PartitionDiff.Changes again = diff.classify(List.of(product("P001", "9.90")));
+        assertThat(again.inserts()).isEmpty();
+        assertThat(again.updates()).hasSize(1);
+    }
+}
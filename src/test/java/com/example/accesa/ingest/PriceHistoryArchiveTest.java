@@ -0,0 +1,104 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.config.CatalogHistoryProperties;
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.ProductFilter;
+import com.example.accesa.repository.CatalogBulkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PriceHistoryArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private CatalogBulkRepository bulkRepo;
+    private ApplicationEventPublisher events;
+    private PriceHistoryArchive archive;
+
+    private static Product product(String store, LocalDate date, String price) {
+        return new Product(new ProductId("P001", store, date), "lapte zuzu", "lactate", "Zuzu",
+                new BigDecimal("1.00"), "l", new BigDecimal(price), "RON");
+    }
+
+    private final Product lidlJanuary = product("lidl", LocalDate.of(2025, 1, 6), "9.90");
+    private final Product lidlFebruary = product("lidl", LocalDate.of(2025, 2, 3), "9.80");
+    private final Product profiFebruary = product("profi", LocalDate.of(2025, 2, 3), "9.60");
+
+    @BeforeEach
+    void setup() {
+        bulkRepo = mock(CatalogBulkRepository.class);
+        events = mock(ApplicationEventPublisher.class);
+        archive = new PriceHistoryArchive(bulkRepo, new CatalogHistoryProperties(dir, 3, 2), events);
+    }
+
+    @Test
+    void cutoff_shouldKeepTheHotMonthsCountingTheCurrentOne() {
+        assertThat(archive.cutoff(LocalDate.of(2025, 5, 20))).isEqualTo(LocalDate.of(2025, 3, 1));
+    }
+
+    @Test
+    void archive_shouldMoveOldRowsToSegmentsButKeepEachStoresLatestDate() throws IOException {
+        when(bulkRepo.findOldestProductDate()).thenReturn(Optional.of(lidlJanuary.getId().getDate()));
+        when(bulkRepo.findLatestProductDates()).thenReturn(Map.of("lidl", LocalDate.of(2025, 5, 5), "profi", LocalDate.of(2025, 2, 3)));
+        when(bulkRepo.findProducts(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1))).thenReturn(List.of(lidlJanuary));
+        when(bulkRepo.findProducts(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 3, 1))).thenReturn(List.of(lidlFebruary, profiFebruary));
+
+        int archived = archive.archive(LocalDate.of(2025, 3, 1));
+
+        assertThat(archived).isEqualTo(2);
+        verify(bulkRepo).deleteProducts("lidl", LocalDate.of(2025, 1, 6));
+        verify(bulkRepo).deleteProducts("lidl", LocalDate.of(2025, 2, 3));
+        verify(bulkRepo, never()).deleteProducts("profi", LocalDate.of(2025, 2, 3));
+        verify(events, times(2)).publishEvent(any(CatalogChangedEvent.class));
+        assertThat(dir.resolve(PriceHistoryArchive.fileName("lidl", YearMonth.of(2025, 2)))).exists();
+
+        assertThat(archive.history("P001", null)).containsExactly(lidlJanuary, lidlFebruary);
+        assertThat(archive.history("P001", "PROFI")).isEmpty();
+        assertThat(archive.historyByName(ProductFilter.byName("ZUZU", "Lidl", "zuzu", null))).hasSize(2);
+        assertThat(archive.historyByName(ProductFilter.byName("zuzu", null, "Other", null))).isEmpty();
+        assertThat(archive.historyByName(new ProductFilter("zuzu", null, null, null, null, null, null,
+                LocalDate.of(2025, 2, 1), null))).containsExactly(lidlFebruary);
+    }
+
+    @Test
+    void archive_whenMonthIsArchivedAgain_shouldReplaceTheReloadedDates() throws IOException {
+        Product reloaded = product("lidl", lidlJanuary.getId().getDate(), "8.50");
+        Product sameMonth = product("lidl", LocalDate.of(2025, 1, 13), "9.95");
+        when(bulkRepo.findOldestProductDate()).thenReturn(Optional.of(lidlJanuary.getId().getDate()));
+        when(bulkRepo.findLatestProductDates()).thenReturn(Map.of("lidl", LocalDate.of(2025, 5, 5)));
+        when(bulkRepo.findProducts(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1)))
+                .thenReturn(List.of(lidlJanuary, sameMonth))
+                .thenReturn(List.of(reloaded));
+        archive.archive(LocalDate.of(2025, 2, 1));
+
+        archive.archive(LocalDate.of(2025, 2, 1));
+
+        assertThat(archive.history("P001", "lidl")).containsExactly(reloaded, sameMonth);
+    }
+
+    @Test
+    void history_whenNoDirectoryIsConfigured_shouldBeEmpty() throws IOException {
+        archive = new PriceHistoryArchive(bulkRepo, new CatalogHistoryProperties(null, 3, 2), events);
+
+        assertThat(archive.archive(LocalDate.of(2025, 3, 1))).isZero();
+        assertThat(archive.history("P001", null)).isEmpty();
+        verifyNoInteractions(bulkRepo);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.accesa.ingest;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceSeriesTest {
+
+    private static final List<String> DICTIONARY = List.of("Zuzu", "l", "lactate", "lapte zuzu", "lapte zuzu 1.5%", "RON");
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private static Product product(int day, String name, String quantity, String price) {
+        return new Product(new ProductId("P001", "lidl", START.plusDays(day)), name, "lactate", "Zuzu",
+                quantity == null ? null : new BigDecimal(quantity), "l", price == null ? null : new BigDecimal(price), "RON");
+    }
+
+    private static byte[] encode(List<Product> rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PriceSeries.encode(rows, DICTIONARY::indexOf, 2, 2, out);
+        return out.toByteArray();
+    }
+
+    private static List<Product> decode(byte[] bytes) {
+        Iterator<Product> series = PriceSeries.decode(ByteBuffer.wrap(bytes), 0, DICTIONARY::get, "P001", "lidl", 2, 2);
+        List<Product> rows = new ArrayList<>();
+        series.forEachRemaining(rows::add);
+        return rows;
+    }
+
+    @Test
+    void decode_shouldReproduceChangingPricesAttributesAndGaps() {
+        List<Product> rows = List.of(
+                product(0, "lapte zuzu", "1.00", "9.80"),
+                product(1, "lapte zuzu", "1.00", "9.80"),
+                product(2, "lapte zuzu", "1.00", "8.90"),
+                product(9, "lapte zuzu", "1.00", "8.90"),
+                product(10, "lapte zuzu 1.5%", "1.00", "8.90"),
+                product(11, "lapte zuzu 1.5%", null, null),
+                product(12, "lapte zuzu 1.5%", null, "10.05"));
+
+        assertThat(decode(encode(rows))).containsExactlyElementsOf(rows);
+    }
+
+    @Test
+    void encode_whenPriceRepeatsDaily_shouldTakeAFewBytesWhateverTheLength() {
+        List<Product> year = new ArrayList<>();
+        for (int day = 0; day < 365; day++) year.add(product(day, "lapte zuzu", "1.00", day < 200 ? "9.80" : "9.50"));
+
+        byte[] bytes = encode(year);
+
+        assertThat(bytes.length).isLessThan(32);
+        assertThat(decode(bytes)).containsExactlyElementsOf(year);
+    }
+
+    @Test
+    void decode_whenSeriesIsEmpty_shouldHaveNoRows() {
+        assertThat(decode(encode(List.of()))).isEmpty();
+    }
+}
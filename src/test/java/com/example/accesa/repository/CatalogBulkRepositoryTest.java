@@ -0,0 +1,47 @@
+package com.example.accesa.repository;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import(CatalogBulkRepository.class)
+class CatalogBulkRepositoryTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+    private static final LocalDate MAY_8 = LocalDate.of(2025, 5, 8);
+
+    @Autowired
+    private CatalogBulkRepository bulkRepo;
+
+    private static Product product(String id, String store, LocalDate date, String price) {
+        return new Product(new ProductId(id, store, date), "name " + id, "lactate", "brand " + id,
+                BigDecimal.ONE, "l", new BigDecimal(price), "RON");
+    }
+
+    @Test
+    void findLatestProducts_shouldReadOnlyTheLatestRowPerProductAndStore() {
+        bulkRepo.insertProducts(List.of(
+                product("P001", "Lidl", MAY_1, "9.50"),
+                product("P001", "Lidl", MAY_8, "9.80"),
+                product("P001", "Profi", MAY_1, "9.10"),
+                product("P002", "Lidl", MAY_1, "4.10")));
+
+        assertThat(bulkRepo.findLatestProducts())
+                .extracting(p -> p.getId().getProductId(), p -> p.getId().getStoreName(), Product::getPrice)
+                .containsExactlyInAnyOrder(
+                        tuple("P001", "Lidl", new BigDecimal("9.80")),
+                        tuple("P001", "Profi", new BigDecimal("9.10")),
+                        tuple("P002", "Lidl", new BigDecimal("4.10")));
+    }
+}
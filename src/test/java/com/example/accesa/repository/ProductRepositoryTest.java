@@ -0,0 +1,85 @@
+package com.example.accesa.repository;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.ProductView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+class ProductRepositoryTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+    private static final LocalDate MAY_8 = LocalDate.of(2025, 5, 8);
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @BeforeEach
+    void setup() {
+        productRepo.saveAll(List.of(
+                product("P001", "Lidl", MAY_1, "lactate", "0.5", "kg", "3.00"),
+                product("P001", "Lidl", MAY_8, "lactate", "0.5", "kg", "6.00"),
+                product("P002", "Lidl", MAY_1, "lactate", "400", "g", "4.40"),
+                product("P003", "Profi", MAY_8, "paste", "500", "g", "5.20"),
+                product("P004", "Profi", MAY_8, "băuturi", "2", "l", "5.00")));
+    }
+
+    private static Product product(String id, String store, LocalDate date, String category, String quantity,
+                                   String unit, String price) {
+        return new Product(new ProductId(id, store, date), "name " + id, category, "brand " + id,
+                new BigDecimal(quantity), unit, new BigDecimal(price), "RON");
+    }
+
+    @Test
+    void findCheapestViews_shouldOrderTheLatestRowsByPricePerBaseUnit() {
+        assertThat(productRepo.findCheapestViews("kg", null, Limit.of(10)))
+                .extracting(v -> v.id().getProductId(), ProductView::baseUnitPrice)
+                .containsExactly(
+                        tuple("P003", new BigDecimal("10.4000")),
+                        tuple("P002", new BigDecimal("11.0000")),
+                        tuple("P001", new BigDecimal("12.0000")));
+    }
+
+    @Test
+    void findCheapestViews_shouldSkipRowsWithoutAPricePerBaseUnit() {
+        productRepo.save(product("P005", "Profi", MAY_8, "lactate", "0", "kg", "1.00"));
+
+        assertThat(productRepo.findCheapestViews("kg", null, Limit.of(10)))
+                .extracting(v -> v.id().getProductId()).containsExactly("P003", "P002", "P001");
+    }
+
+    @Test
+    void findCheapestViews_shouldFilterByCategoryAndLimit() {
+        assertThat(productRepo.findCheapestViews("kg", "LACTATE", Limit.of(1)))
+                .extracting(v -> v.id().getProductId()).containsExactly("P002");
+        assertThat(productRepo.findCheapestViews("l", null, Limit.of(10)))
+                .extracting(v -> v.id().getProductId()).containsExactly("P004");
+    }
+
+    @Test
+    void findHistoryPage_shouldContinueAfterTheDateAndStoreOfTheCursor() {
+        productRepo.saveAll(List.of(
+                product("P001", "Kaufland", MAY_1, "lactate", "0.5", "kg", "2.90"),
+                product("P001", "Kaufland", MAY_8, "lactate", "0.5", "kg", "5.90")));
+
+        assertThat(productRepo.findHistoryPage("P001", null, Limit.of(2)))
+                .extracting(p -> p.getId().getDate(), p -> p.getId().getStoreName())
+                .containsExactly(tuple(MAY_1, "Kaufland"), tuple(MAY_1, "Lidl"));
+        assertThat(productRepo.findHistoryPageAfter("P001", null, MAY_1, "Lidl", Limit.of(10)))
+                .extracting(p -> p.getId().getDate(), p -> p.getId().getStoreName())
+                .containsExactly(tuple(MAY_8, "Kaufland"), tuple(MAY_8, "Lidl"));
+        assertThat(productRepo.findHistoryPageAfter("P001", "lidl", MAY_1, "Kaufland", Limit.of(10)))
+                .extracting(p -> p.getId().getDate()).containsExactly(MAY_1, MAY_8);
+    }
+}
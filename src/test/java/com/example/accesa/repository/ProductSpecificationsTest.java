@@ -0,0 +1,77 @@
+package com.example.accesa.repository;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.PageCursor;
+import com.example.accesa.dto.ProductFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+class ProductSpecificationsTest {
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @BeforeEach
+    void setup() {
+        productRepo.saveAll(List.of(
+                product("P001", "Lidl", LocalDate.of(2025, 5, 1), "Lapte Zuzu", "Zuzu", "l", "9.80"),
+                product("P001", "Lidl", LocalDate.of(2025, 5, 8), "Lapte Zuzu", "Zuzu", "l", "10.40"),
+                product("P001", "Kaufland", LocalDate.of(2025, 5, 8), "Lapte Zuzu", "Zuzu", "l", "9.50"),
+                product("P002", "Lidl", LocalDate.of(2025, 5, 8), "Lapte praf 100%", "Napolact", "kg", "24.00")));
+    }
+
+    private static Product product(String id, String store, LocalDate date, String name, String brand, String unit, String price) {
+        return new Product(new ProductId(id, store, date), name, "lactate", brand, BigDecimal.ONE, unit, new BigDecimal(price), "RON");
+    }
+
+    private List<Product> find(ProductFilter filter, String... names) {
+        return productRepo.findAll(ProductSpecifications.matching(filter, List.of(names)));
+    }
+
+    @Test
+    void matching_shouldCompareTextIgnoringCase() {
+        assertThat(find(ProductFilter.byName("LAPTE", "lidl", "zuzu", "LACTATE"), "LAPTE ZUZU")).hasSize(2);
+        assertThat(find(new ProductFilter("lapte", null, null, null, "KG", null, null, null, null), "Lapte Zuzu", "Lapte praf 100%"))
+                .extracting(p -> p.getId().getProductId()).containsExactly("P002");
+    }
+
+    @Test
+    void matching_shouldIncludeTheBoundsOfPriceAndDateRanges() {
+        ProductFilter filter = new ProductFilter("zuzu", null, null, null, null, new BigDecimal("9.50"),
+                new BigDecimal("10.00"), LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 8));
+
+        assertThat(find(filter, "Lapte Zuzu")).extracting(Product::getPrice)
+                .containsExactlyInAnyOrder(new BigDecimal("9.80"), new BigDecimal("9.50"));
+    }
+
+    @Test
+    void matching_shouldMatchTheGivenNamesWhole() {
+        assertThat(find(ProductFilter.byName("apte", null, null, null), "Lapte Zuzu", "Lapte praf 100%")).hasSize(4);
+        assertThat(find(ProductFilter.byName("apte", null, null, null), "Lapte")).isEmpty();
+    }
+
+    @Test
+    void after_shouldAcceptTheRowsAfterTheCursorInDateStoreProductOrder() {
+        ProductFilter filter = ProductFilter.byName("lapte", null, null, null);
+        List<String> names = List.of("Lapte Zuzu", "Lapte praf 100%");
+
+        assertThat(productRepo.findAll(ProductSpecifications.matching(filter, names)
+                .and(ProductSpecifications.after(new PageCursor("Lidl", "P001", LocalDate.of(2025, 5, 1))))))
+                .extracting(p -> p.getId().getStoreName(), p -> p.getId().getProductId())
+                .containsExactlyInAnyOrder(tuple("Kaufland", "P001"), tuple("Lidl", "P001"), tuple("Lidl", "P002"));
+        assertThat(productRepo.findAll(ProductSpecifications.matching(filter, names)
+                .and(ProductSpecifications.after(new PageCursor("Lidl", "P001", LocalDate.of(2025, 5, 8))))))
+                .extracting(p -> p.getId().getProductId()).containsExactly("P002");
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.accesa.repository;
+
+import com.example.accesa.dto.ProductFilter;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL that the repository queries actually send, so a change to a query or to the
+ * indexes that makes a lookup fall back to a full table scan fails here.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.accesa.repository.QueryPlanTest$SqlCapture")
+class QueryPlanTest {
+
+    /**
+     * Records every statement Hibernate prepares.
+     */
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private DiscountRepository discountRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        SqlCapture.statements.clear();
+    }
+
+    private String planOfLastQuery(Object... args) {
+        String sql = SqlCapture.statements.getLast();
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, args);
+    }
+
+    @Test
+    void findViewPageByStoreName_shouldUseStoreIndex() {
+        productRepo.findViewPageByStoreName("Lidl", Limit.of(10));
+
+        assertThat(planOfLastQuery("Lidl", 10)).containsIgnoringCase("idx_product_").doesNotContain("tableScan");
+    }
+
+    @Test
+    void findViewPageInStoreAfter_shouldSeekToTheCursorAndReadThePageIndexInOrder() {
+        LocalDate date = LocalDate.of(2025, 5, 8);
+        productRepo.findViewPageInStoreAfter("Lidl", "P001", date, Limit.of(10));
+
+        assertThat(planOfLastQuery("Lidl", "P001", "P001", date, 10)).containsIgnoringCase("idx_product_page")
+                .containsIgnoringCase("PRODUCT_ID >= ?2").contains("index sorted");
+    }
+
+    @Test
+    void findViewPageAfterStore_shouldReadThePageIndexInOrder() {
+        productRepo.findViewPageAfterStore("Lidl", Limit.of(10));
+
+        assertThat(planOfLastQuery("Lidl", 10)).containsIgnoringCase("idx_product_page").contains("index sorted");
+    }
+
+    @Test
+    void findById_ProductIdOrderById_DateAsc_shouldUseHistoryIndex() {
+        productRepo.findById_ProductIdOrderById_DateAsc("P001");
+
+        assertThat(planOfLastQuery("P001")).containsIgnoringCase("idx_product_history").doesNotContain("tableScan");
+    }
+
+    @Test
+    void findHistoryPageAfter_shouldSeekTheTimelineIndexInOrder() {
+        LocalDate date = LocalDate.of(2025, 5, 1);
+        productRepo.findHistoryPageAfter("P001", null, date, "Lidl", Limit.of(10));
+
+        assertThat(planOfLastQuery("P001", null, null, date, date, "Lidl", 10)).containsIgnoringCase("idx_product_timeline")
+                .contains("index sorted").doesNotContain("tableScan");
+    }
+
+    @Test
+    void findByCategoryAndBrandNot_shouldUseCategoryBrandIndex() {
+        productRepo.findByCategoryAndBrandNot("lactate", "Zuzu");
+
+        assertThat(planOfLastQuery("lactate", "Zuzu")).containsIgnoringCase("idx_product_category_brand").doesNotContain("tableScan");
+    }
+
+    @Test
+    void findAllMatchingFilter_shouldUseAnIndexForTheCaseInsensitiveCriteria() {
+        productRepo.findAll(ProductSpecifications.matching(ProductFilter.byName("lapte", "lidl", "zuzu", "lactate"),
+                List.of("Lapte Zuzu")));
+
+        assertThat(planOfLastQuery("Lapte Zuzu", "lidl", "zuzu", "lactate")).containsIgnoringCase("idx_product_")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void findAllMatchingNames_shouldUseNameIndex() {
+        productRepo.findAll(ProductSpecifications.matching(ProductFilter.byName("lapte", null, null, null),
+                List.of("Lapte Zuzu", "Lapte praf")));
+
+        assertThat(planOfLastQuery("Lapte Zuzu", "Lapte praf")).containsIgnoringCase("idx_product_name")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void findCheapestViews_shouldReadTheUnitPriceIndexAndCheckTheLatestRowThroughTheHistoryIndex() {
+        productRepo.findCheapestViews("kg", null, Limit.of(10));
+
+        assertThat(planOfLastQuery("kg", null, null, 10)).containsIgnoringCase("idx_product_unit_price")
+                .containsIgnoringCase("idx_product_history").contains("index sorted").doesNotContain("tableScan");
+    }
+
+    @Test
+    void findById_FromDateGreaterThanEqual_shouldUsePeriodIndex() {
+        LocalDate since = LocalDate.of(2025, 5, 1);
+        discountRepo.findById_FromDateGreaterThanEqual(since);
+
+        assertThat(planOfLastQuery(since)).containsIgnoringCase("idx_discount_period").doesNotContain("tableScan");
+    }
+
+    @Test
+    void findByOrderByPercentageDesc_shouldReadPercentageIndexInOrder() {
+        discountRepo.findByOrderByPercentageDesc(Limit.of(5));
+
+        assertThat(planOfLastQuery(5)).containsIgnoringCase("idx_discount_percentage").contains("index sorted");
+    }
+
+    @Test
+    void partitionLookup_shouldNotScanTheTable() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT product_id FROM product WHERE store_name = ? AND date = ?", String.class,
+                "Lidl", LocalDate.of(2025, 5, 8));
+
+        assertThat(plan).doesNotContain("tableScan");
+    }
+
+    @Test
+    void partitionDelete_shouldUseStoreDateIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN DELETE FROM product WHERE store_name = ? AND date = ?", String.class,
+                "Lidl", LocalDate.of(2025, 5, 8));
+
+        assertThat(plan).containsIgnoringCase("idx_product_store_date").containsIgnoringCase("AND DATE = ?2");
+    }
+}
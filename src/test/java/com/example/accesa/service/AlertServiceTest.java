@@ -5,13 +5,13 @@ import com.example.accesa.domain.Product;
 import com.example.accesa.domain.ProductId;
 import com.example.accesa.dto.PriceAlertRequest;
 import com.example.accesa.repository.PriceAlertRepository;
-import com.example.accesa.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -19,14 +19,14 @@ import static org.mockito.Mockito.*;
 class AlertServiceTest {
 
     private PriceAlertRepository alertRepo;
-    private ProductRepository productRepo;
+    private CurrentPriceProjection currentPrices;
     private AlertService alertService;
 
     @BeforeEach
     void setup() {
         alertRepo = mock(PriceAlertRepository.class);
-        productRepo = mock(ProductRepository.class);
-        alertService = new AlertService(alertRepo, productRepo);
+        currentPrices = mock(CurrentPriceProjection.class);
+        alertService = new AlertService(alertRepo, currentPrices);
     }
 
     @Test
@@ -65,7 +65,7 @@ class AlertServiceTest {
         product.setPrice(new BigDecimal("4.99"));
 
         when(alertRepo.findAll()).thenReturn(List.of(alert));
-        when(productRepo.findById_ProductIdOrderById_DateAsc("P001")).thenReturn(List.of(product));
+        when(currentPrices.latest("P001")).thenReturn(Map.of("Lidl", product));
 
         List<PriceAlert> active = alertService.getActiveAlerts();
 
@@ -83,7 +83,7 @@ class AlertServiceTest {
         product.setPrice(new BigDecimal("5.10"));
 
         when(alertRepo.findAll()).thenReturn(List.of(alert));
-        when(productRepo.findById_ProductIdOrderById_DateAsc("P002")).thenReturn(List.of(product));
+        when(currentPrices.latest("P002")).thenReturn(Map.of("Profi", product));
 
         List<PriceAlert> active = alertService.getActiveAlerts();
 
@@ -97,7 +97,7 @@ class AlertServiceTest {
         alert.setTargetPrice(new BigDecimal("9.99"));
 
         when(alertRepo.findAll()).thenReturn(List.of(alert));
-        when(productRepo.findById_ProductIdOrderById_DateAsc("P003")).thenReturn(List.of());
+        when(currentPrices.latest("P003")).thenReturn(Map.of());
 
         List<PriceAlert> active = alertService.getActiveAlerts();
 
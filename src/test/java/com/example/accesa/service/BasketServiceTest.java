@@ -3,6 +3,7 @@ package com.example.accesa.service;
 import com.example.accesa.domain.Product;
 import com.example.accesa.domain.ProductId;
 import com.example.accesa.dto.BasketRequest;
+import com.example.accesa.repository.CatalogBulkRepository;
 import com.example.accesa.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,13 +17,13 @@ import static org.mockito.Mockito.*;
 
 class BasketServiceTest {
 
-    private ProductRepository productRepo;
+    private CatalogBulkRepository bulkRepo;
     private BasketService basketService;
 
     @BeforeEach
     void setup() {
-        productRepo = mock(ProductRepository.class);
-        basketService = new BasketService(productRepo);
+        bulkRepo = mock(CatalogBulkRepository.class);
+        basketService = new BasketService(new CurrentPriceProjection(bulkRepo, mock(ProductRepository.class)));
     }
 
     private Product createProduct(String productId, String store, LocalDate date, double price) {
@@ -40,7 +41,7 @@ class BasketServiceTest {
                 createProduct("P002", "Lidl", LocalDate.now(), 5.0),
                 createProduct("P002", "Kaufland", LocalDate.now(), 5.5)
         );
-        when(productRepo.findAll()).thenReturn(products);
+        when(bulkRepo.findLatestProducts()).thenReturn(products);
 
         BasketRequest request = new BasketRequest(List.of("P001", "P002"));
         Map<String, ?> result = basketService.optimizeBasket(request);
@@ -55,7 +56,7 @@ class BasketServiceTest {
                 createProduct("P001", "Lidl", LocalDate.now(), 10.0),
                 createProduct("P002", "Kaufland", LocalDate.now(), 5.0)
         );
-        when(productRepo.findAll()).thenReturn(products);
+        when(bulkRepo.findLatestProducts()).thenReturn(products);
 
         BasketRequest request = new BasketRequest(List.of("P001", "P002"));
         Map<String, ?> result = basketService.optimizeBasket(request);
@@ -71,7 +72,7 @@ class BasketServiceTest {
                 createProduct("P001", "Kaufland", LocalDate.now().minusDays(1), 10.0),
                 createProduct("P002", "Profi", LocalDate.now(), 4.0)
         );
-        when(productRepo.findAll()).thenReturn(products);
+        when(bulkRepo.findLatestProducts()).thenReturn(products);
 
         BasketRequest request = new BasketRequest(List.of("P001", "P002"));
         Map<String, Object> result = basketService.splitOptimizeBasket(request);
@@ -85,7 +86,7 @@ class BasketServiceTest {
 
     @Test
     void splitOptimizeBasket_shouldHandleEmptyProductList() {
-        when(productRepo.findAll()).thenReturn(Collections.emptyList());
+        when(bulkRepo.findLatestProducts()).thenReturn(Collections.emptyList());
 
         BasketRequest request = new BasketRequest(List.of("P001"));
         Map<String, Object> result = basketService.splitOptimizeBasket(request);
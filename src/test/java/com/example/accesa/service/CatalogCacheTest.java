@@ -0,0 +1,86 @@
+package com.example.accesa.service;
+
+import com.example.accesa.config.CatalogEngineProperties;
+import com.example.accesa.ingest.CatalogChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private CatalogCache cache(int size, Duration ttl) {
+        return new CatalogCache(registry, new CatalogEngineProperties(false, Duration.ZERO, size, ttl));
+    }
+
+    private String load(CatalogCache cache, String query, Object... args) {
+        return cache.get(query, Arrays.asList(args), () -> query + loads.incrementAndGet());
+    }
+
+    private double gets(String result) {
+        return registry.get("catalog.cache.gets").tag("result", result).functionCounter().count();
+    }
+
+    @Test
+    void get_shouldServeRepeatedQueriesFromCacheAndCountHitsAndMisses() {
+        CatalogCache cache = cache(10, Duration.ofMinutes(1));
+
+        assertThat(load(cache, "products", (Object) null)).isEqualTo("products1");
+        assertThat(load(cache, "products", (Object) null)).isEqualTo("products1");
+        assertThat(load(cache, "products", "lidl")).isEqualTo("products2");
+        assertThat(load(cache, "history", "lidl")).isEqualTo("history3");
+
+        assertThat(gets("hit")).isEqualTo(1);
+        assertThat(gets("miss")).isEqualTo(3);
+        assertThat(registry.get("catalog.cache.size").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void onCatalogChanged_shouldStopServingEarlierResults() {
+        CatalogCache cache = cache(10, Duration.ofMinutes(1));
+        load(cache, "products");
+
+        cache.onCatalogChanged(CatalogChangedEvent.discounts(1));
+
+        assertThat(load(cache, "products")).isEqualTo("products2");
+        assertThat(cache.generation()).isEqualTo(1);
+    }
+
+    @Test
+    void get_whenFull_shouldEvictTheLeastRecentlyUsedResult() {
+        CatalogCache cache = cache(2, Duration.ofMinutes(1));
+        load(cache, "a");
+        load(cache, "b");
+        load(cache, "a");
+
+        load(cache, "c");
+
+        assertThat(load(cache, "a")).isEqualTo("a1");
+        assertThat(load(cache, "b")).isEqualTo("b4");
+        assertThat(registry.get("catalog.cache.evictions").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void get_whenResultHasExpired_shouldComputeItAgain() {
+        CatalogCache cache = cache(10, Duration.ZERO);
+        load(cache, "a");
+
+        assertThat(load(cache, "a")).isEqualTo("a2");
+    }
+
+    @Test
+    void get_whenDisabled_shouldAlwaysCompute() {
+        CatalogCache cache = cache(0, Duration.ofMinutes(1));
+
+        assertThat(List.of(load(cache, "a"), load(cache, "a"))).containsExactly("a1", "a2");
+        assertThat(registry.get("catalog.cache.size").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.DiscountId;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.DiscountView;
+import com.example.accesa.dto.ProductView;
+import com.example.accesa.repository.DiscountRepository;
+import com.example.accesa.repository.ProductRepository;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CatalogExporterTest {
+
+    private ProductRepository productRepo;
+    private DiscountRepository discountRepo;
+    private CatalogExporter exporter;
+
+    @BeforeEach
+    void setup() {
+        productRepo = mock(ProductRepository.class);
+        discountRepo = mock(DiscountRepository.class);
+        exporter = new CatalogExporter(productRepo, discountRepo, Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+    }
+
+    private ProductView product(String id) {
+        return new ProductView(new ProductId(id, "Lidl", LocalDate.of(2025, 5, 8)), "lapte", "lactate", "Zuzu",
+                new BigDecimal("0.50"), "l", new BigDecimal("4.90"), "RON", "l", new BigDecimal("9.8000"));
+    }
+
+    @Test
+    void writeProducts_shouldWriteOneJsonObjectPerLineAndCloseTheStream() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(productRepo.streamViewsByStoreName("Lidl"))
+                .thenReturn(Stream.of(product("P001"), product("P002")).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exporter.writeProducts("Lidl", out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(3).endsWith("");
+        assertThat(lines[0]).isEqualTo("{\"id\":{\"productId\":\"P001\",\"storeName\":\"Lidl\",\"date\":\"2025-05-08\"},"
+                + "\"name\":\"lapte\",\"category\":\"lactate\",\"brand\":\"Zuzu\",\"quantity\":0.50,\"unit\":\"l\","
+                + "\"price\":4.90,\"currency\":\"RON\",\"baseUnit\":\"l\",\"baseUnitPrice\":9.8000,\"unitPrice\":9.8000}");
+        assertThat(lines[1]).startsWith("{\"id\":{\"productId\":\"P002\"");
+        assertThat(closed).isTrue();
+        verify(productRepo, never()).streamViews();
+    }
+
+    @Test
+    void writeDiscounts_withNoRows_shouldWriteNothing() throws IOException {
+        when(discountRepo.streamViews()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exporter.writeDiscounts(out)).isZero();
+        assertThat(out.size()).isZero();
+    }
+
+    @Test
+    void writeDiscounts_shouldWriteEveryRow() throws IOException {
+        when(discountRepo.streamViews()).thenReturn(Stream.of(new DiscountView(
+                new DiscountId("P001", "Lidl", LocalDate.of(2025, 5, 1)), "lapte", "Zuzu", BigDecimal.ONE, "l",
+                "lactate", LocalDate.of(2025, 5, 7), new BigDecimal("10"))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.writeDiscounts(out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("\"toDate\":\"2025-05-07\",\"percentage\":10}\n");
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.accesa.service;
+
+import com.example.accesa.config.IngestProperties;
+import com.example.accesa.dto.IngestResult;
+import com.example.accesa.exception.InvalidUploadException;
+import com.example.accesa.ingest.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CatalogUploadServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 8);
+
+    private CatalogWriter writer;
+    private DataLoaderService loader;
+    private final List<IngestBatch> written = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setup() {
+        writer = mock(CatalogWriter.class);
+        loader = mock(DataLoaderService.class);
+        when(loader.shared(any(), any()))
+                .thenAnswer(inv -> Optional.of(((DataLoaderService.CatalogWork<?, ?>) inv.getArgument(1)).run()));
+        when(writer.write(any(), any())).thenAnswer(inv -> {
+            IngestBatch batch = inv.getArgument(0);
+            written.add(batch);
+            return batch.size();
+        });
+    }
+
+    private CatalogUploadService service(Duration uploadTimeout) {
+        IngestProperties properties = new IngestProperties(true, 2, 1, 1, 1, uploadTimeout);
+        CatalogCsvReader reader = new CatalogCsvReader();
+        IngestProgress progress = new IngestProgress();
+        IngestPipeline pipeline = new IngestPipeline(reader, writer, properties, progress,
+                new IngestMetrics(new SimpleMeterRegistry(), progress), mock(IngestQuarantine.class));
+        return new CatalogUploadService(reader, pipeline, loader, properties);
+    }
+
+    private static InputStream body(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void upload_shouldDetectProductLayoutAndReplaceThePartition() {
+        IngestResult result = service(Duration.ofSeconds(30)).upload("Lidl", DATE, body(
+                "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n" +
+                "P001;lapte zuzu;lactate;Zuzu;1;l;9.80;RON\n" +
+                "P002;iaurt;lactate;Zuzu;0.4;kg;abc;RON\n" +
+                "P003;unt;lactate;Pilos;0.2;kg;7.50;RON\n"));
+
+        assertThat(result.kind()).isEqualTo(IngestFile.Kind.PRODUCTS);
+        assertThat(result.store()).isEqualTo("Lidl");
+        assertThat(result.accepted()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(1);
+        assertThat(written).allMatch(batch -> batch.mode() == IngestMode.REPLACE);
+        assertThat(written.stream().flatMap(b -> b.products().stream()))
+                .allMatch(p -> p.getId().getStoreName().equals("Lidl") && p.getId().getDate().equals(DATE));
+        verify(loader).scheduleSnapshot();
+        verify(loader, never()).writeSnapshot();
+    }
+
+    @Test
+    void upload_shouldDetectDiscountLayout() {
+        IngestResult result = service(Duration.ofSeconds(30)).upload("profi", DATE, body(
+                "product_id;product_name;brand;package_quantity;package_unit;product_category;from_date;to_date;percentage_of_discount\n" +
+                "P001;lapte zuzu;Zuzu;1;l;lactate;2025-05-08;2025-05-14;10\n"));
+
+        assertThat(result.kind()).isEqualTo(IngestFile.Kind.DISCOUNTS);
+        assertThat(result.accepted()).isEqualTo(1);
+    }
+
+    @Test
+    void upload_withUnknownHeaderOrStore_shouldBeRejected() {
+        CatalogUploadService service = service(Duration.ofSeconds(30));
+
+        assertThatThrownBy(() -> service.upload("lidl", DATE, body("id;name\nP001;x\n")))
+                .isInstanceOf(InvalidUploadException.class);
+        assertThatThrownBy(() -> service.upload("../etc", DATE, body(
+                "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n")))
+                .isInstanceOf(InvalidUploadException.class);
+        verifyNoInteractions(writer);
+        verify(loader, never()).scheduleSnapshot();
+    }
+
+    @Test
+    void upload_whenWriterStalls_shouldGiveUpWithPartialCounts() {
+        doAnswer(inv -> {
+            Thread.sleep(300);
+            return ((IngestBatch) inv.getArgument(0)).size();
+        }).when(writer).write(any(), any());
+        StringBuilder csv = new StringBuilder("product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n");
+        for (int i = 0; i < 40; i++) {
+            csv.append("P").append(i).append(";lapte;lactate;Zuzu;1;l;9.80;RON\n");
+        }
+
+        assertThatThrownBy(() -> service(Duration.ofMillis(50)).upload("lidl", DATE, body(csv.toString())))
+                .isInstanceOfSatisfying(IngestBackpressureException.class, e -> {
+                    assertThat(e.getPartial().persisted()).isPositive().isLessThan(40);
+                    assertThat(e.getPartial().files()).singleElement().matches(IngestSummary.FileResult::failed);
+                });
+        verify(loader, never()).scheduleSnapshot();
+    }
+
+    @Test
+    void upload_whenTheCatalogStaysBusy_shouldBeRefusedWithoutReadingTheRows() {
+        doReturn(Optional.empty()).when(loader).shared(eq(Duration.ofMillis(50)), any());
+
+        assertThatThrownBy(() -> service(Duration.ofMillis(50)).upload("Lidl", DATE, body(
+                "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n" +
+                "P001;lapte zuzu;lactate;Zuzu;1;l;9.80;RON\n")))
+                .isInstanceOfSatisfying(IngestBackpressureException.class, e ->
+                        assertThat(e.getPartial().files()).singleElement().matches(IngestSummary.FileResult::failed));
+        assertThat(written).isEmpty();
+        verify(loader, never()).scheduleSnapshot();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.accesa.service;
+
+import com.example.accesa.config.CatalogEngineProperties;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.ingest.CatalogChangedEvent;
+import com.example.accesa.repository.CatalogBulkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ColumnarCatalogTest {
+
+    private final CatalogBulkRepository bulkRepo = mock(CatalogBulkRepository.class);
+    private ColumnarCatalog catalog;
+
+    @AfterEach
+    void tearDown() {
+        catalog.stop();
+    }
+
+    private void storeOneRow() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn("P001");
+        when(rs.getString(2)).thenReturn("Lidl");
+        when(rs.getObject(3, LocalDate.class)).thenReturn(LocalDate.of(2025, 5, 8));
+        when(rs.getBigDecimal(9)).thenReturn(new BigDecimal("9.80"));
+        doAnswer(inv -> {
+            inv.<RowCallbackHandler>getArgument(0).processRow(rs);
+            return null;
+        }).when(bulkRepo).scanProducts(any());
+    }
+
+    @Test
+    void current_whenDisabled_shouldStayEmpty() {
+        catalog = new ColumnarCatalog(bulkRepo, new CatalogEngineProperties(false, Duration.ZERO, 0, Duration.ZERO));
+
+        catalog.onCatalogChanged(CatalogChangedEvent.deleted(List.of(new ProductId("P001", "Lidl", LocalDate.of(2025, 5, 8)))));
+
+        assertThat(catalog.current()).isEmpty();
+        verifyNoInteractions(bulkRepo);
+    }
+
+    @Test
+    void onCatalogChanged_shouldRebuildAndServeOnlyOnceCaughtUp() throws Exception {
+        storeOneRow();
+        catalog = new ColumnarCatalog(bulkRepo, new CatalogEngineProperties(true, Duration.ofMillis(10), 0, Duration.ZERO));
+        catalog.rebuild();
+        assertThat(catalog.current()).isPresent();
+
+        catalog.onCatalogChanged(CatalogChangedEvent.deleted(List.of(new ProductId("P001", "Lidl", LocalDate.of(2025, 5, 8)))));
+        assertThat(catalog.current()).isEmpty();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (catalog.current().isEmpty() && System.nanoTime() < deadline) Thread.sleep(10);
+        assertThat(catalog.current().orElseThrow().history("P001", null)).hasSize(1);
+    }
+}
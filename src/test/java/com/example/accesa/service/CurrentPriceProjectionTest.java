@@ -0,0 +1,104 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.ingest.CatalogChangedEvent;
+import com.example.accesa.repository.CatalogBulkRepository;
+import com.example.accesa.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CurrentPriceProjectionTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+    private static final LocalDate MAY_8 = LocalDate.of(2025, 5, 8);
+
+    private CatalogBulkRepository bulkRepo;
+    private ProductRepository productRepo;
+    private CurrentPriceProjection projection;
+
+    @BeforeEach
+    void setup() {
+        bulkRepo = mock(CatalogBulkRepository.class);
+        productRepo = mock(ProductRepository.class);
+        projection = new CurrentPriceProjection(bulkRepo, productRepo);
+    }
+
+    private Product product(String id, String store, LocalDate date, String price) {
+        Product p = new Product();
+        p.setId(new ProductId(id, store, date));
+        p.setPrice(new BigDecimal(price));
+        return p;
+    }
+
+    @Test
+    void latest_shouldLoadTheNewestRowPerStoreOnFirstUse() {
+        when(bulkRepo.findLatestProducts()).thenReturn(List.of(
+                product("P001", "Lidl", MAY_8, "9.80"),
+                product("P001", "Lidl", MAY_1, "9.50"),
+                product("P001", "Profi", MAY_1, "9.10")));
+
+        assertThat(projection.latest("P001")).containsOnlyKeys("Lidl", "Profi");
+        assertThat(projection.latest("P001", "Lidl")).get().extracting(Product::getPrice).isEqualTo(new BigDecimal("9.80"));
+        assertThat(projection.latest("P002")).isEmpty();
+        projection.latest("P001");
+        verify(bulkRepo, times(1)).findLatestProducts();
+    }
+
+    @Test
+    void all_shouldReturnTheLatestRowsAndVersionShouldCountChanges() {
+        when(bulkRepo.findLatestProducts()).thenReturn(List.of(
+                product("P001", "Lidl", MAY_1, "9.50"),
+                product("P002", "Lidl", MAY_1, "4.10")));
+        assertThat(projection.all()).hasSize(2);
+        assertThat(projection.version()).isZero();
+
+        projection.onCatalogChanged(CatalogChangedEvent.written(List.of(product("P001", "Lidl", MAY_8, "9.80"))));
+
+        assertThat(projection.version()).isEqualTo(1);
+        assertThat(projection.all()).extracting(Product::getPrice)
+                .containsExactlyInAnyOrder(new BigDecimal("9.80"), new BigDecimal("4.10"));
+    }
+
+    @Test
+    void onCatalogChanged_shouldKeepTheNewerRowAndTakeSameDateUpdates() {
+        projection.onCatalogChanged(CatalogChangedEvent.written(List.of(product("P001", "Lidl", MAY_8, "9.80"))));
+        projection.onCatalogChanged(CatalogChangedEvent.written(List.of(product("P001", "Lidl", MAY_1, "9.50"))));
+        assertThat(projection.latest("P001", "Lidl")).get().extracting(Product::getPrice).isEqualTo(new BigDecimal("9.80"));
+
+        projection.onCatalogChanged(CatalogChangedEvent.written(List.of(product("P001", "Lidl", MAY_8, "8.90"))));
+        assertThat(projection.latest("P001", "Lidl")).get().extracting(Product::getPrice).isEqualTo(new BigDecimal("8.90"));
+    }
+
+    @Test
+    void latest_whenLoadedAfterAnUpdate_shouldNotRevertItToTheStoredRow() {
+        projection.onCatalogChanged(CatalogChangedEvent.written(List.of(product("P001", "Lidl", MAY_8, "8.90"))));
+        when(bulkRepo.findLatestProducts()).thenReturn(List.of(product("P001", "Lidl", MAY_8, "9.80")));
+
+        assertThat(projection.latest("P001", "Lidl")).get().extracting(Product::getPrice).isEqualTo(new BigDecimal("8.90"));
+    }
+
+    @Test
+    void onCatalogChanged_whenCurrentRowIsDeleted_shouldFallBackToThePreviousDate() {
+        projection.onCatalogChanged(CatalogChangedEvent.written(List.of(
+                product("P001", "Lidl", MAY_8, "9.80"), product("P002", "Lidl", MAY_8, "4.20"))));
+        when(productRepo.findFirstById_ProductIdAndId_StoreNameOrderById_DateDesc("P001", "Lidl"))
+                .thenReturn(Optional.of(product("P001", "Lidl", MAY_1, "9.50")));
+        when(productRepo.findFirstById_ProductIdAndId_StoreNameOrderById_DateDesc("P002", "Lidl"))
+                .thenReturn(Optional.empty());
+
+        projection.onCatalogChanged(CatalogChangedEvent.deleted(List.of(
+                new ProductId("P001", "Lidl", MAY_8), new ProductId("P002", "Lidl", MAY_8), new ProductId("P003", "Lidl", MAY_8))));
+
+        assertThat(projection.latest("P001", "Lidl")).get().extracting(Product::getPrice).isEqualTo(new BigDecimal("9.50"));
+        assertThat(projection.latest("P002")).isEmpty();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.accesa.service;
+
+import com.example.accesa.config.CatalogDataProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class DataDirectoryWatcherTest {
+
+    @TempDir
+    Path dir;
+
+    private final DataLoaderService loader = mock(DataLoaderService.class);
+    private DataDirectoryWatcher watcher;
+
+    @AfterEach
+    void tearDown() {
+        if (watcher != null) watcher.stop();
+    }
+
+    @Test
+    void start_shouldIngestCsvFilesDroppedIntoTheDirectory() throws IOException {
+        watcher = new DataDirectoryWatcher(loader, new CatalogDataProperties(dir, true, true, Duration.ofMillis(100), null, Duration.ofSeconds(10)));
+        watcher.start();
+        assertThat(watcher.isRunning()).isTrue();
+
+        Path csv = Files.writeString(dir.resolve("lidl_2025-05-08.csv"), "header");
+        Files.writeString(dir.resolve("notes.txt"), "ignored");
+
+        verify(loader, timeout(10_000)).ingest(List.of(csv));
+        verify(loader, never()).ingest(argThat(paths -> paths.stream().anyMatch(p -> p.toString().endsWith(".txt"))));
+    }
+
+    @Test
+    void start_whenWatchingDisabled_shouldDoNothing() {
+        watcher = new DataDirectoryWatcher(loader, new CatalogDataProperties(dir, true, false, Duration.ofMillis(100), null, Duration.ofSeconds(10)));
+        watcher.start();
+
+        assertThat(watcher.isRunning()).isFalse();
+        verify(loader, never()).ingest(anyCollection());
+    }
+}
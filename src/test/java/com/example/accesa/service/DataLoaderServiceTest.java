@@ -0,0 +1,292 @@
+package com.example.accesa.service;
+
+import com.example.accesa.config.CatalogDataProperties;
+import com.example.accesa.domain.IngestedFile;
+import com.example.accesa.ingest.CatalogSnapshot;
+import com.example.accesa.ingest.IngestFile;
+import com.example.accesa.ingest.IngestMode;
+import com.example.accesa.ingest.IngestPipeline;
+import com.example.accesa.ingest.IngestProgress;
+import com.example.accesa.ingest.IngestSummary;
+import com.example.accesa.ingest.PriceHistoryArchive;
+import com.example.accesa.repository.IngestedFileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DataLoaderServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private IngestPipeline pipeline;
+    private IngestProgress progress;
+    private IngestedFileRepository manifest;
+    private CatalogSnapshot snapshot;
+    private PriceHistoryArchive archive;
+
+    @BeforeEach
+    void setup() {
+        pipeline = mock(IngestPipeline.class);
+        progress = new IngestProgress();
+        manifest = mock(IngestedFileRepository.class);
+        snapshot = mock(CatalogSnapshot.class);
+        archive = mock(PriceHistoryArchive.class);
+        when(pipeline.run(anyList(), any())).thenAnswer(inv -> {
+            List<IngestFile> files = inv.getArgument(0);
+            return new IngestSummary(files.stream().map(f -> new IngestSummary.FileResult(f, 1, 0, false)).toList(),
+                    files.size(), 0, Duration.ZERO);
+        });
+    }
+
+    private DataLoaderService loader(Path dataDir, boolean bundled) {
+        return new DataLoaderService(pipeline, progress, manifest, snapshot, archive,
+                new CatalogDataProperties(dataDir, bundled, false, Duration.ofSeconds(2), null, Duration.ofMillis(200)),
+                new PathMatchingResourcePatternResolver());
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(dir.resolve(name), content);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<IngestFile> filesRunWith(IngestMode mode) {
+        ArgumentCaptor<List<IngestFile>> captor = ArgumentCaptor.forClass(List.class);
+        verify(pipeline).run(captor.capture(), eq(mode));
+        return captor.getValue();
+    }
+
+    @Test
+    void ingest_shouldResolveStoreKindAndDateFromFileNames() throws IOException {
+        Path lidl = write("lidl_2025-05-08.csv", "header");
+        Path kaufland = write("kaufland_discounts_2025-05-01.csv", "header");
+
+        loader(null, false).ingest(List.of(lidl, kaufland));
+
+        assertThat(filesRunWith(IngestMode.INSERT))
+                .extracting(IngestFile::store, IngestFile::kind, IngestFile::date)
+                .containsExactly(
+                        tuple("Lidl", IngestFile.Kind.PRODUCTS, LocalDate.of(2025, 5, 8)),
+                        tuple("Kaufland", IngestFile.Kind.DISCOUNTS, LocalDate.of(2025, 5, 1)));
+    }
+
+    @Test
+    void ingest_shouldIgnoreFilesOutsideTheNamingScheme() throws IOException {
+        loader(null, false).ingest(List.of(
+                write("README.md", "notes"),
+                write("lidl_2025-13-40.csv", "header"),
+                write("profi_2025-05-01.csv", "header")));
+
+        assertThat(filesRunWith(IngestMode.INSERT)).extracting(IngestFile::store).containsExactly("Profi");
+    }
+
+    @Test
+    void ingest_shouldSkipUnchangedFilesAndReloadChangedOnes() throws IOException {
+        Path unchanged = write("lidl_2025-05-08.csv", "same");
+        Path changed = write("profi_2025-05-08.csv", "edited");
+        Path added = write("kaufland_2025-05-08.csv", "new");
+        String checksum = IngestFile.of(unchanged).orElseThrow().checksum();
+        when(manifest.findById("lidl_2025-05-08.csv"))
+                .thenReturn(Optional.of(new IngestedFile("lidl_2025-05-08.csv", checksum, 1, LocalDateTime.now())));
+        when(manifest.findById("profi_2025-05-08.csv"))
+                .thenReturn(Optional.of(new IngestedFile("profi_2025-05-08.csv", "00000000", 1, LocalDateTime.now())));
+
+        IngestSummary summary = loader(null, false).ingest(List.of(unchanged, changed, added));
+
+        assertThat(filesRunWith(IngestMode.INSERT)).extracting(IngestFile::fileName).containsExactly("kaufland_2025-05-08.csv");
+        assertThat(filesRunWith(IngestMode.REPLACE)).extracting(IngestFile::fileName).containsExactly("profi_2025-05-08.csv");
+        assertThat(summary.files()).hasSize(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingest_shouldRecordLoadedFilesInManifest() throws IOException {
+        Path lidl = write("lidl_2025-05-08.csv", "header");
+        ArgumentCaptor<List<IngestedFile>> captor = ArgumentCaptor.forClass(List.class);
+
+        loader(null, false).ingest(List.of(lidl));
+
+        verify(manifest).saveAll(captor.capture());
+        assertThat(captor.getValue()).singleElement().satisfies(entry -> {
+            assertThat(entry.getFileName()).isEqualTo("lidl_2025-05-08.csv");
+            assertThat(entry.getChecksum()).isEqualTo(IngestFile.of(lidl).orElseThrow().checksum());
+            assertThat(entry.getRowsLoaded()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void loadData_shouldLoadBundledAndExternalFilesAndMarkCatalogReady() throws IOException {
+        write("penny_2025-05-08.csv", "header");
+
+        loader(dir, true).loadData();
+
+        assertThat(filesRunWith(IngestMode.INSERT)).hasSize(13).extracting(IngestFile::store).contains("Penny");
+        assertThat(progress.isReady()).isTrue();
+    }
+
+    @Test
+    void loadData_shouldRestoreSnapshotBeforeIngestingAndRewriteItAfterwards() throws IOException {
+        write("penny_2025-05-08.csv", "header");
+        when(snapshot.enabled()).thenReturn(true);
+        when(snapshot.restore()).thenReturn(true);
+
+        loader(dir, false).loadData();
+
+        var order = inOrder(snapshot, pipeline);
+        order.verify(snapshot).restore();
+        order.verify(pipeline).run(anyList(), eq(IngestMode.INSERT));
+        order.verify(snapshot).write();
+        assertThat(progress.isReady()).isTrue();
+    }
+
+    @Test
+    void loadData_whenSnapshotIsCorrupt_shouldFallBackToCsv() throws IOException {
+        when(snapshot.enabled()).thenReturn(true);
+        when(snapshot.restore()).thenThrow(new IOException("Snapshot checksum mismatch"));
+
+        loader(null, true).loadData();
+
+        assertThat(filesRunWith(IngestMode.INSERT)).hasSize(12);
+        assertThat(progress.isReady()).isTrue();
+    }
+
+    @Test
+    void loadData_whenCatalogAlreadyHoldsFiles_shouldNotRestoreSnapshot() throws IOException {
+        when(snapshot.enabled()).thenReturn(true);
+        when(manifest.count()).thenReturn(12L);
+
+        loader(null, false).loadData();
+
+        verify(snapshot, never()).restore();
+    }
+
+    @Test
+    void loadData_whenPipelineFails_shouldReportFailure() {
+        when(pipeline.run(anyList(), any())).thenThrow(new IllegalStateException("disk gone"));
+
+        loader(null, true).loadData();
+
+        assertThat(progress.snapshot().state()).isEqualTo(IngestProgress.State.FAILED);
+        assertThat(progress.snapshot().error()).isEqualTo("disk gone");
+    }
+
+    @Test
+    void shared_shouldWaitForARunningArchive() throws Exception {
+        CountDownLatch archiving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        when(archive.enabled()).thenReturn(true);
+        when(archive.archive(any())).thenAnswer(inv -> {
+            archiving.countDown();
+            release.await();
+            order.add("archive");
+            return 1;
+        });
+        DataLoaderService loader = loader(null, false);
+
+        Thread archiveRun = Thread.ofPlatform().start(loader::archiveHistory);
+        archiving.await();
+        Thread upload = Thread.ofPlatform().start(() -> loader.shared(Duration.ofSeconds(10), () -> order.add("upload")));
+        upload.join(200);
+        assertThat(upload.isAlive()).isTrue();
+
+        release.countDown();
+        archiveRun.join();
+        upload.join();
+        assertThat(order).containsExactly("archive", "upload");
+    }
+
+    @Test
+    void shared_whenTheArchiveOutlastsTheWait_shouldNotRunTheWork() throws Exception {
+        CountDownLatch archiving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(archive.enabled()).thenReturn(true);
+        when(archive.archive(any())).thenAnswer(inv -> {
+            archiving.countDown();
+            release.await();
+            return 1;
+        });
+        DataLoaderService loader = loader(null, false);
+
+        Thread archiveRun = Thread.ofPlatform().start(loader::archiveHistory);
+        archiving.await();
+        Optional<String> result = loader.shared(Duration.ofMillis(50), () -> "upload");
+        release.countDown();
+        archiveRun.join();
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void shared_shouldNotWaitForOtherSharedWork() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DataLoaderService loader = loader(null, false);
+
+        Thread slowUpload = Thread.ofPlatform().start(() -> {
+            try {
+                loader.shared(Duration.ofSeconds(10), () -> {
+                    running.countDown();
+                    release.await();
+                    return null;
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        running.await();
+        Optional<String> result = loader.shared(Duration.ofMillis(50), () -> "upload");
+        release.countDown();
+        slowUpload.join();
+
+        assertThat(result).contains("upload");
+    }
+
+    @Test
+    void scheduleSnapshot_shouldWriteOnceInTheBackgroundForARunOfCalls() throws IOException {
+        when(snapshot.enabled()).thenReturn(true);
+        DataLoaderService loader = loader(null, false);
+
+        loader.scheduleSnapshot();
+        loader.scheduleSnapshot();
+        loader.scheduleSnapshot();
+
+        verify(snapshot, never()).write();
+        verify(snapshot, timeout(2_000)).write();
+        loader.scheduleSnapshot();
+        verify(snapshot, timeout(2_000).times(2)).write();
+    }
+
+    @Test
+    void flushSnapshot_shouldWriteAScheduledSnapshotAtOnce() throws IOException {
+        when(snapshot.enabled()).thenReturn(true);
+        DataLoaderService loader = loader(null, false);
+
+        loader.flushSnapshot();
+        verify(snapshot, never()).write();
+
+        loader = loader(null, false);
+        loader.scheduleSnapshot();
+        loader.flushSnapshot();
+        verify(snapshot).write();
+    }
+}
@@ -1,12 +1,18 @@
 package com.example.accesa.service;
 
+import com.example.accesa.config.CatalogEngineProperties;
 import com.example.accesa.domain.Discount;
 import com.example.accesa.domain.DiscountId;
+import com.example.accesa.dto.DiscountView;
+import com.example.accesa.ingest.CatalogChangedEvent;
 import com.example.accesa.repository.DiscountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -16,12 +22,14 @@ import static org.mockito.Mockito.*;
 class DiscountServiceTest {
 
     private DiscountRepository discountRepo;
+    private CatalogCache cache;
     private DiscountService discountService;
 
     @BeforeEach
     void setup() {
         discountRepo = mock(DiscountRepository.class);
-        discountService = new DiscountService(discountRepo);
+        cache = new CatalogCache(new SimpleMeterRegistry(), new CatalogEngineProperties(false, Duration.ZERO, 100, Duration.ofMinutes(10)));
+        discountService = new DiscountService(discountRepo, cache);
     }
 
     private Discount createDiscount(String id, double percentage, LocalDate fromDate) {
@@ -35,15 +43,20 @@ class DiscountServiceTest {
         return d;
     }
 
+    private DiscountView view(Discount d) {
+        return new DiscountView(d.getId(), d.getName(), d.getBrand(), d.getQuantity(), d.getUnit(), d.getCategory(),
+                d.getToDate(), d.getPercentage());
+    }
+
     @Test
     void getAllDiscounts_shouldReturnAll() {
-        List<Discount> mockDiscounts = List.of(
-                createDiscount("P001", 10, LocalDate.now().minusDays(2)),
-                createDiscount("P002", 15, LocalDate.now())
+        List<DiscountView> mockDiscounts = List.of(
+                view(createDiscount("P001", 10, LocalDate.now().minusDays(2))),
+                view(createDiscount("P002", 15, LocalDate.now()))
         );
-        when(discountRepo.findAll()).thenReturn(mockDiscounts);
+        when(discountRepo.findAllViews()).thenReturn(mockDiscounts);
 
-        List<Discount> result = discountService.getAllDiscounts();
+        List<DiscountView> result = discountService.getAllDiscounts();
 
         assertThat(result).hasSize(2);
     }
@@ -64,11 +77,10 @@ class DiscountServiceTest {
     @Test
     void getBestDiscounts_shouldReturnSortedTopN() {
         List<Discount> mockDiscounts = List.of(
-                createDiscount("P001", 10, LocalDate.now()),
-                createDiscount("P002", 20, LocalDate.now()),
-                createDiscount("P003", 30, LocalDate.now())
+                createDiscount("P003", 30, LocalDate.now()),
+                createDiscount("P002", 20, LocalDate.now())
         );
-        when(discountRepo.findAll()).thenReturn(mockDiscounts);
+        when(discountRepo.findByOrderByPercentageDesc(Limit.of(2))).thenReturn(mockDiscounts);
 
         List<Discount> topTwo = discountService.getBestDiscounts(2);
 
@@ -79,10 +91,23 @@ class DiscountServiceTest {
 
     @Test
     void getBestDiscounts_whenEmpty_shouldReturnEmptyList() {
-        when(discountRepo.findAll()).thenReturn(List.of());
+        when(discountRepo.findByOrderByPercentageDesc(Limit.of(5))).thenReturn(List.of());
 
         List<Discount> result = discountService.getBestDiscounts(5);
 
         assertThat(result).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBestDiscounts_shouldBeServedFromCacheUntilTheCatalogChanges() {
+        when(discountRepo.findByOrderByPercentageDesc(Limit.of(2))).thenReturn(List.of(createDiscount("P001", 20, LocalDate.now())));
+
+        discountService.getBestDiscounts(2);
+        discountService.getBestDiscounts(2);
+        verify(discountRepo, times(1)).findByOrderByPercentageDesc(Limit.of(2));
+
+        cache.onCatalogChanged(CatalogChangedEvent.discounts(1));
+        discountService.getBestDiscounts(2);
+        verify(discountRepo, times(2)).findByOrderByPercentageDesc(Limit.of(2));
+    }
+}
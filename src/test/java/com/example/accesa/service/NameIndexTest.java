@@ -0,0 +1,104 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.ingest.CatalogChangedEvent;
+import com.example.accesa.repository.CatalogBulkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class NameIndexTest {
+
+    private final CatalogBulkRepository bulkRepo = mock(CatalogBulkRepository.class);
+    private NameIndex index;
+
+    @BeforeEach
+    void setup() {
+        when(bulkRepo.findProductNames()).thenReturn(List.of("Ouă mărimea M", "Brânză telemea", "Lapte Zuzu",
+                "Lapte praf", "Șuncă presată"));
+        index = new NameIndex(bulkRepo);
+    }
+
+    @Test
+    void namesContaining_shouldIgnoreCaseAndDiacritics() {
+        assertThat(index.namesContaining("oua")).containsExactly("Ouă mărimea M");
+        assertThat(index.namesContaining("BRANZA")).containsExactly("Brânză telemea");
+        assertThat(index.namesContaining("şuncă")).containsExactly("Șuncă presată");
+        assertThat(index.namesContaining("lapte")).containsExactlyInAnyOrder("Lapte Zuzu", "Lapte praf");
+    }
+
+    @Test
+    void namesContaining_shouldRequireTheWholeNeedleNotJustItsTrigrams() {
+        assertThat(index.namesContaining("apte zuz")).containsExactly("Lapte Zuzu");
+        assertThat(index.namesContaining("lapte telemea")).isEmpty();
+        assertThat(index.namesContaining("xyz")).isEmpty();
+    }
+
+    @Test
+    void namesContaining_withNeedleShorterThanATrigram_shouldScanTheNames() {
+        assertThat(index.namesContaining("zu")).containsExactly("Lapte Zuzu");
+        assertThat(index.namesContaining("")).hasSize(5);
+    }
+
+    @Test
+    void namesContaining_shouldLoadTheNamesOnce() {
+        index.namesContaining("lapte");
+        index.namesContaining("oua");
+
+        verify(bulkRepo, times(1)).findProductNames();
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    void onCatalogChanged_shouldIndexWrittenNamesOnceLoaded() {
+        Product written = new Product(new ProductId("P009", "Lidl", LocalDate.of(2025, 5, 8)), "Smântână 20%",
+                "lactate", "Napolact", BigDecimal.ONE, "kg", new BigDecimal("7.50"), "RON");
+
+        index.onCatalogChanged(CatalogChangedEvent.written(List.of(written)));
+        assertThat(index.size()).isZero();
+
+        index.namesContaining("lapte");
+        index.onCatalogChanged(CatalogChangedEvent.written(List.of(written)));
+
+        assertThat(index.namesContaining("smantana")).containsExactly("Smântână 20%");
+        assertThat(index.size()).isEqualTo(6);
+    }
+
+    @Test
+    void namesContaining_duringTheLoad_shouldWaitForAllNames() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bulkRepo.findProductNames()).thenAnswer(inv -> {
+            reading.countDown();
+            release.await();
+            return List.of("Lapte Zuzu", "Lapte praf");
+        });
+        Product written = new Product(new ProductId("P009", "Lidl", LocalDate.of(2025, 5, 8)), "Lapte bătut",
+                "lactate", "Zuzu", BigDecimal.ONE, "l", new BigDecimal("5.50"), "RON");
+        Set<String> first = ConcurrentHashMap.newKeySet(), second = ConcurrentHashMap.newKeySet();
+
+        Thread loading = Thread.ofPlatform().start(() -> first.addAll(index.namesContaining("lapte")));
+        reading.await();
+        index.onCatalogChanged(CatalogChangedEvent.written(List.of(written)));
+        Thread searching = Thread.ofPlatform().start(() -> second.addAll(index.namesContaining("lapte")));
+        searching.join(200);
+        assertThat(searching.isAlive()).isTrue();
+
+        release.countDown();
+        loading.join();
+        searching.join();
+        assertThat(first).containsExactlyInAnyOrder("Lapte Zuzu", "Lapte praf", "Lapte bătut");
+        assertThat(second).isEqualTo(first);
+        verify(bulkRepo, times(1)).findProductNames();
+    }
+}
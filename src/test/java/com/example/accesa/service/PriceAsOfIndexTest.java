@@ -0,0 +1,144 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.PricePoint;
+import com.example.accesa.ingest.CatalogChangedEvent;
+import com.example.accesa.ingest.PriceHistoryArchive;
+import com.example.accesa.repository.CatalogBulkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PriceAsOfIndexTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+    private static final LocalDate MAY_8 = LocalDate.of(2025, 5, 8);
+    private static final LocalDate MAY_15 = LocalDate.of(2025, 5, 15);
+
+    private final CatalogBulkRepository bulkRepo = mock(CatalogBulkRepository.class);
+    private final PriceHistoryArchive archive = mock(PriceHistoryArchive.class);
+    private PriceAsOfIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new PriceAsOfIndex(bulkRepo, archive);
+    }
+
+    private void store(Product... rows) throws Exception {
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(0);
+            for (Product row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(row.getId().getProductId());
+                when(rs.getString(2)).thenReturn(row.getId().getStoreName());
+                when(rs.getObject(3, LocalDate.class)).thenReturn(row.getId().getDate());
+                when(rs.getBigDecimal(9)).thenReturn(row.getPrice());
+                when(rs.getString(10)).thenReturn(row.getCurrency());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(bulkRepo).scanProducts(any());
+    }
+
+    private static Product product(String id, String store, LocalDate date, String price) {
+        return new Product(new ProductId(id, store, date), "lapte", "lactate", "Zuzu",
+                BigDecimal.ONE, "l", new BigDecimal(price), "RON");
+    }
+
+    @Test
+    void priceAsOf_shouldTakeTheLatestSnapshotOnOrBeforeTheDay() throws Exception {
+        store(product("P001", "Lidl", MAY_1, "9.50"), product("P001", "Lidl", MAY_8, "9.80"),
+                product("P001", "Profi", MAY_8, "9.10"));
+
+        assertThat(index.priceAsOf("P001", null, MAY_1)).extracting(PricePoint::storeName, PricePoint::price)
+                .containsExactly(tuple("Lidl", new BigDecimal("9.50")));
+        assertThat(index.priceAsOf("P001", null, MAY_15)).extracting(PricePoint::storeName, PricePoint::date)
+                .containsExactly(tuple("Lidl", MAY_8), tuple("Profi", MAY_8));
+        assertThat(index.priceAsOf("P001", "lidl", LocalDate.of(2025, 5, 7)))
+                .containsExactly(new PricePoint("P001", "Lidl", LocalDate.of(2025, 5, 7), MAY_1, new BigDecimal("9.50"), "RON"));
+        assertThat(index.priceAsOf("P002", null, MAY_15)).isEmpty();
+        verify(bulkRepo, times(1)).scanProducts(any());
+    }
+
+    @Test
+    void priceAsOf_beforeTheDatabase_shouldAskTheArchive() throws Exception {
+        store(product("P001", "Lidl", MAY_8, "9.80"));
+        when(archive.enabled()).thenReturn(true);
+        when(archive.history("P001", "Lidl")).thenReturn(List.of(
+                product("P001", "Lidl", LocalDate.of(2025, 4, 1), "8.90"),
+                product("P001", "Lidl", MAY_1, "9.20")));
+
+        assertThat(index.priceAsOf("P001", "Lidl", LocalDate.of(2025, 4, 20))).extracting(PricePoint::price)
+                .containsExactly(new BigDecimal("8.90"));
+        assertThat(index.priceAsOf("P001", "Lidl", MAY_8)).extracting(PricePoint::price)
+                .containsExactly(new BigDecimal("9.80"));
+        verify(archive, times(1)).history(any(), any());
+    }
+
+    @Test
+    void priceAsOf_acrossStores_shouldAddTheStoresWhoseRowsAreAllArchived() throws Exception {
+        store(product("P001", "Lidl", MAY_1, "9.50"));
+        when(archive.enabled()).thenReturn(true);
+        when(archive.history("P001", null)).thenReturn(List.of(
+                product("P001", "Lidl", LocalDate.of(2025, 3, 1), "8.70"),
+                product("P001", "Profi", LocalDate.of(2025, 3, 1), "9.10"),
+                product("P001", "Profi", LocalDate.of(2025, 4, 1), "9.30")));
+
+        assertThat(index.priceAsOf("P001", null, MAY_8)).extracting(PricePoint::storeName, PricePoint::price)
+                .containsExactly(tuple("Lidl", new BigDecimal("9.50")), tuple("Profi", new BigDecimal("9.30")));
+    }
+
+    @Test
+    void onCatalogChanged_shouldInsertReplaceAndRemoveSnapshots() throws Exception {
+        store(product("P001", "Lidl", MAY_1, "9.50"), product("P001", "Lidl", MAY_15, "9.90"));
+        index.priceAsOf("P001", null, MAY_1);
+
+        index.onCatalogChanged(CatalogChangedEvent.written(List.of(product("P001", "Lidl", MAY_8, "9.80"))));
+        assertThat(index.priceAsOf("P001", null, MAY_8)).extracting(PricePoint::price)
+                .containsExactly(new BigDecimal("9.80"));
+
+        index.onCatalogChanged(CatalogChangedEvent.written(List.of(product("P001", "Lidl", MAY_8, "8.80"))));
+        assertThat(index.priceAsOf("P001", null, MAY_8)).extracting(PricePoint::price)
+                .containsExactly(new BigDecimal("8.80"));
+
+        index.onCatalogChanged(CatalogChangedEvent.deleted(List.of(new ProductId("P001", "Lidl", MAY_8))));
+        assertThat(index.priceAsOf("P001", null, MAY_8)).extracting(PricePoint::price)
+                .containsExactly(new BigDecimal("9.50"));
+    }
+
+    @Test
+    void load_shouldNotReplaceSnapshotsThatArrivedThroughEvents() throws Exception {
+        store(product("P001", "Lidl", MAY_8, "9.80"));
+        index.onCatalogChanged(CatalogChangedEvent.written(List.of(product("P001", "Lidl", MAY_8, "8.80"))));
+
+        assertThat(index.priceAsOf("P001", "Lidl", MAY_8)).extracting(PricePoint::price)
+                .containsExactly(new BigDecimal("8.80"));
+    }
+
+    @Test
+    void priceAsOf_shouldKeepOneSeriesPerStoreIgnoringCase() throws Exception {
+        store(product("P001", "Lidl", MAY_1, "9.50"), product("P001", "LIDL", MAY_8, "9.80"));
+
+        assertThat(index.priceAsOf("P001", null, MAY_8)).extracting(PricePoint::storeName, PricePoint::price)
+                .containsExactly(tuple("Lidl", new BigDecimal("9.80")));
+
+        index.onCatalogChanged(CatalogChangedEvent.written(List.of(product("P001", "lidl", MAY_15, "9.90"))));
+        assertThat(index.priceAsOf("P001", "lIdL", MAY_15)).extracting(PricePoint::storeName, PricePoint::price)
+                .containsExactly(tuple("Lidl", new BigDecimal("9.90")));
+
+        index.onCatalogChanged(CatalogChangedEvent.deleted(List.of(new ProductId("P001", "LIDL", MAY_15))));
+        assertThat(index.priceAsOf("P001", null, MAY_15)).extracting(PricePoint::price)
+                .containsExactly(new BigDecimal("9.80"));
+    }
+}
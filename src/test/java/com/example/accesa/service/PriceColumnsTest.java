@@ -0,0 +1,62 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceColumnsTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+    private static final LocalDate MAY_8 = LocalDate.of(2025, 5, 8);
+
+    private static PriceColumns columns() {
+        return PriceColumns.builder()
+                .add("P001", "Kaufland", MAY_8, "Lapte Zuzu", "lactate", "Zuzu", new BigDecimal("1"), "l", new BigDecimal("9.50"), "RON")
+                .add("P001", "Lidl", MAY_1, "Lapte Zuzu", "lactate", "Zuzu", new BigDecimal("1"), "l", new BigDecimal("9.80"), "RON")
+                .add("P001", "Lidl", MAY_8, "Lapte Zuzu", "lactate", "Zuzu", new BigDecimal("1"), "l", new BigDecimal("9.70"), "RON")
+                .add("P002", "Lidl", MAY_1, "Iaurt grecesc", "lactate", "Lidl", new BigDecimal("0.4"), "kg", new BigDecimal("11.50"), "RON")
+                .add("P003", "Profi", MAY_1, "lapte zuzu", "lactate", "zuzu", new BigDecimal("1"), "l", new BigDecimal("9.10"), "RON")
+                .build();
+    }
+
+    @Test
+    void history_shouldReturnTheProductsRowsByDateAsEntities() {
+        List<Product> history = columns().history("P001", null);
+
+        assertThat(history).extracting(p -> p.getId().getDate()).containsExactly(MAY_1, MAY_8, MAY_8);
+        assertThat(history.get(0)).isEqualTo(new Product(new ProductId("P001", "Lidl", MAY_1), "Lapte Zuzu", "lactate", "Zuzu",
+                new BigDecimal("1.00"), "l", new BigDecimal("9.80"), "RON"));
+        assertThat(columns().history("P001", "LIDL")).extracting(Product::getPrice)
+                .containsExactly(new BigDecimal("9.80"), new BigDecimal("9.70"));
+        assertThat(columns().history("P999", null)).isEmpty();
+    }
+
+    @Test
+    void historyByName_shouldReturnTheRowsOfTheGivenNamesMatchingTheFiltersIgnoringCase() {
+        PriceColumns columns = columns();
+
+        assertThat(columns.historyByName(Set.of("Lapte Zuzu", "lapte zuzu"), null, null, null)).hasSize(4);
+        assertThat(columns.historyByName(Set.of("Lapte Zuzu"), "lidl", "zuzu", "LACTATE")).extracting(p -> p.getId().getDate())
+                .containsExactly(MAY_1, MAY_8);
+        assertThat(columns.historyByName(Set.of("Iaurt grecesc"), null, "Zuzu", null)).isEmpty();
+        assertThat(columns.historyByName(Set.of("Unknown"), null, null, null)).isEmpty();
+    }
+
+    @Test
+    void builder_shouldRejectRowsThatAreNotGroupedByProduct() {
+        PriceColumns.Builder builder = PriceColumns.builder()
+                .add("P001", "Lidl", MAY_1, "a", "c", "b", BigDecimal.ONE, "l", BigDecimal.ONE, "RON")
+                .add("P002", "Lidl", MAY_1, "a", "c", "b", BigDecimal.ONE, "l", BigDecimal.ONE, "RON");
+
+        assertThatThrownBy(() -> builder.add("P001", "Lidl", MAY_8, "a", "c", "b", BigDecimal.ONE, "l", BigDecimal.ONE, "RON"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
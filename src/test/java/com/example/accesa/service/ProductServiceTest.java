@@ -1,15 +1,31 @@
 package com.example.accesa.service;
 
+import com.example.accesa.config.CatalogEngineProperties;
 import com.example.accesa.domain.Product;
 import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.CursorPage;
+import com.example.accesa.dto.PageCursor;
+import com.example.accesa.dto.PriceAsOfRequest;
+import com.example.accesa.dto.PricePoint;
+import com.example.accesa.dto.ProductFilter;
+import com.example.accesa.dto.ProductView;
+import com.example.accesa.ingest.PriceHistoryArchive;
 import com.example.accesa.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -17,12 +33,24 @@ import static org.mockito.Mockito.*;
 class ProductServiceTest {
 
     private ProductRepository productRepo;
+    private CurrentPriceProjection currentPrices;
+    private ColumnarCatalog columnar;
+    private PriceHistoryArchive archive;
+    private NameIndex nameIndex;
+    private PriceAsOfIndex priceAsOf;
     private ProductService productService;
 
     @BeforeEach
     void setup() {
         productRepo = mock(ProductRepository.class);
-        productService = new ProductService(productRepo);
+        currentPrices = mock(CurrentPriceProjection.class);
+        columnar = mock(ColumnarCatalog.class);
+        archive = mock(PriceHistoryArchive.class);
+        nameIndex = mock(NameIndex.class);
+        priceAsOf = mock(PriceAsOfIndex.class);
+        productService = new ProductService(productRepo, currentPrices, columnar, archive,
+                new CatalogCache(new SimpleMeterRegistry(), new CatalogEngineProperties(false, Duration.ZERO, 0, Duration.ZERO)),
+                nameIndex, mock(SuggestionIndex.class), new SubstituteIndex(currentPrices), priceAsOf);
     }
 
     private Product createProduct(String id, String store, String brand, String category, BigDecimal unitPrice, LocalDate date) {
@@ -35,25 +63,57 @@ class ProductServiceTest {
         return product;
     }
 
+    private ProductView view(Product product) {
+        return new ProductView(product.getId(), product.getName(), product.getCategory(), product.getBrand(),
+                product.getQuantity(), product.getUnit(), product.getPrice(), product.getCurrency(), product.getBaseUnit(),
+                product.getBaseUnitPrice());
+    }
+
     @Test
-    void getAllProducts_shouldReturnAll() {
-        List<Product> products = List.of(createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, LocalDate.now()));
-        when(productRepo.findAll()).thenReturn(products);
+    void getProducts_firstPage_shouldFetchOneExtraRowAndReturnCursor() {
+        ProductView first = view(createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, LocalDate.of(2025, 5, 1)));
+        ProductView second = view(createProduct("P002", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, LocalDate.of(2025, 5, 1)));
+        when(productRepo.findViewPage(Limit.of(2))).thenReturn(List.of(first, second));
 
-        List<Product> result = productService.getAllProducts(null);
+        CursorPage<ProductView> page = productService.getProducts(null, null, 1);
 
-        assertThat(result).hasSize(1);
+        assertThat(page.items()).containsExactly(first);
+        assertThat(PageCursor.decode(page.nextCursor())).isEqualTo(PageCursor.of(first.id()));
     }
 
     @Test
-    void getAllProducts_shouldFilterByStore() {
-        List<Product> products = List.of(createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, LocalDate.now()));
-        when(productRepo.findById_StoreName("Lidl")).thenReturn(products);
+    void getProducts_shouldFilterByStore() {
+        List<ProductView> products = List.of(view(createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, LocalDate.now())));
+        when(productRepo.findViewPageByStoreName("Lidl", Limit.of(11))).thenReturn(products);
 
-        List<Product> result = productService.getAllProducts("Lidl");
+        CursorPage<ProductView> page = productService.getProducts("Lidl", null, 10);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId().getStoreName()).isEqualTo("Lidl");
+        assertThat(page.items()).singleElement().extracting(v -> v.id().getStoreName()).isEqualTo("Lidl");
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getProducts_afterCursor_shouldContinueWithTheNextStoresWhenTheStoreRunsOut() {
+        PageCursor after = new PageCursor("Kaufland", "P009", LocalDate.of(2025, 5, 1));
+        ProductView kaufland = view(createProduct("P010", "Kaufland", "BrandA", "Dairy", BigDecimal.TEN, LocalDate.of(2025, 5, 1)));
+        ProductView lidl = view(createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, LocalDate.of(2025, 5, 1)));
+        when(productRepo.findViewPageInStoreAfter("Kaufland", "P009", LocalDate.of(2025, 5, 1), Limit.of(3)))
+                .thenReturn(List.of(kaufland));
+        when(productRepo.findViewPageAfterStore("Kaufland", Limit.of(2))).thenReturn(List.of(lidl));
+
+        CursorPage<ProductView> page = productService.getProducts(null, after, 2);
+
+        assertThat(page.items()).containsExactly(kaufland, lidl);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getProducts_afterCursorWithStoreFilter_shouldStayInTheStore() {
+        PageCursor after = new PageCursor("Lidl", "P001", LocalDate.of(2025, 5, 1));
+        when(productRepo.findViewPageInStoreAfter("Lidl", "P001", LocalDate.of(2025, 5, 1), Limit.of(3))).thenReturn(List.of());
+
+        assertThat(productService.getProducts("Lidl", after, 2).items()).isEmpty();
+        verify(productRepo, never()).findViewPageAfterStore(any(), any());
     }
 
     @Test
@@ -74,43 +134,202 @@ class ProductServiceTest {
     void getPriceHistoryByName_shouldReturnFilteredList() {
         Product p = createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, LocalDate.now());
         p.setName("Fresh Milk");
-        when(productRepo.findAll()).thenReturn(List.of(p));
+        when(nameIndex.namesContaining("milk")).thenReturn(Set.of("Fresh Milk"));
+        when(productRepo.findAll(ArgumentMatchers.<Specification<Product>>any())).thenReturn(List.of(p));
+        when(archive.historyByName(any())).thenReturn(List.of());
 
-        List<Product> result = productService.getPriceHistoryByName("milk", "Lidl", "BrandA", "Dairy");
+        List<Product> result = productService.getPriceHistoryByName(ProductFilter.byName("milk", "Lidl", "BrandA", "Dairy"));
 
         assertThat(result).hasSize(1);
+        verify(productRepo, never()).findAll();
     }
 
     @Test
-    void findSubstitutes_shouldReturnAllMatchingVariantsSortedByUnitPrice() {
-        Product reference = createProduct("P001", "Lidl", "BrandA", "Dairy", new BigDecimal("1"), LocalDate.now());
-        reference.setPrice(new BigDecimal("1.99"));
+    void getPriceHistoryByName_shouldIgnoreDiacritics() {
+        Product p = createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, LocalDate.now());
+        p.setName("Brânză telemea");
+        when(nameIndex.namesContaining("branza")).thenReturn(Set.of("Brânză telemea"));
+        when(productRepo.findAll(ArgumentMatchers.<Specification<Product>>any())).thenReturn(List.of(p));
+        when(archive.historyByName(any())).thenReturn(List.of());
+
+        assertThat(productService.getPriceHistoryByName(ProductFilter.byName("branza", null, null, null))).containsExactly(p);
+    }
+
+    @Test
+    void getPriceHistoryByName_whenNoNameMatches_shouldNotQueryTheDatabase() {
+        when(nameIndex.namesContaining("milk")).thenReturn(Set.of());
+        when(archive.historyByName(any())).thenReturn(List.of());
+
+        assertThat(productService.getPriceHistoryByName(ProductFilter.byName("milk", null, null, null))).isEmpty();
+        verifyNoInteractions(productRepo);
+    }
+
+    @Test
+    void getPriceHistoryByName_whenColumnarCatalogIsCurrent_shouldApplyTheOtherCriteriaToItsRows() {
+        PriceColumns columns = PriceColumns.builder()
+                .add("P001", "Lidl", LocalDate.of(2025, 5, 1), "lapte", "lactate", "Zuzu", BigDecimal.ONE, "l", new BigDecimal("9.80"), "RON")
+                .add("P002", "Lidl", LocalDate.of(2025, 5, 1), "lapte praf", "lactate", "Zuzu", BigDecimal.ONE, "kg", new BigDecimal("19.80"), "RON")
+                .build();
+        when(columnar.current()).thenReturn(Optional.of(columns));
+        when(nameIndex.namesContaining("LAPTE")).thenReturn(Set.of("lapte", "lapte praf"));
+        when(archive.historyByName(any())).thenReturn(List.of());
+
+        List<Product> result = productService.getPriceHistoryByName(new ProductFilter("LAPTE", null, null, null, "L",
+                null, new BigDecimal("10"), null, null));
+
+        assertThat(result).singleElement().extracting(p -> p.getId().getProductId()).isEqualTo("P001");
+        verifyNoInteractions(productRepo);
+    }
+
+    @Test
+    void findSubstitutes_shouldReturnOtherBrandsWithinTheMarginSortedByPricePerBaseUnit() {
+        Product reference = createProduct("P001", "Lidl", "BrandA", "Dairy", null, LocalDate.now());
+        reference.setPrice(new BigDecimal("10.00"));
         reference.setQuantity(new BigDecimal("1"));
+        reference.setUnit("kg");
+        Product older = createProduct("P001", "Profi", "BrandA", "Dairy", null, LocalDate.now().minusDays(7));
+        older.setPrice(new BigDecimal("20.00"));
+        older.setQuantity(new BigDecimal("1"));
+        older.setUnit("kg");
 
-        Product variant1 = createProduct("P001", "Kaufland", "BrandA", "Dairy", new BigDecimal("1"), LocalDate.now().minusDays(1));
-        variant1.setPrice(new BigDecimal("1.89"));
-        variant1.setQuantity(new BigDecimal("1"));
+        Product grams = createProduct("P002", "Lidl", "BrandB", "Dairy", null, LocalDate.now());
+        grams.setPrice(new BigDecimal("5.20"));
+        grams.setQuantity(new BigDecimal("500"));
+        grams.setUnit("g");
+        Product cheaper = createProduct("P003", "Kaufland", "BrandC", "dairy", null, LocalDate.now());
+        cheaper.setPrice(new BigDecimal("9.50"));
+        cheaper.setQuantity(new BigDecimal("1"));
+        cheaper.setUnit("kg");
+        Product tooExpensive = createProduct("P004", "Lidl", "BrandD", "Dairy", null, LocalDate.now());
+        tooExpensive.setPrice(new BigDecimal("12.00"));
+        tooExpensive.setQuantity(new BigDecimal("1"));
+        tooExpensive.setUnit("kg");
+        Product sameBrand = createProduct("P005", "Lidl", "BrandA", "Dairy", null, LocalDate.now());
+        sameBrand.setPrice(new BigDecimal("10.00"));
+        sameBrand.setQuantity(new BigDecimal("1"));
+        sameBrand.setUnit("kg");
+        Product litres = createProduct("P006", "Lidl", "BrandE", "Dairy", null, LocalDate.now());
+        litres.setPrice(new BigDecimal("10.00"));
+        litres.setQuantity(new BigDecimal("1"));
+        litres.setUnit("l");
 
-        Product variant2 = createProduct("P001", "Profi", "BrandA", "Dairy", new BigDecimal("1"), LocalDate.now().minusDays(2));
-        variant2.setPrice(new BigDecimal("2.09"));
-        variant2.setQuantity(new BigDecimal("1"));
+        when(currentPrices.latest("P001")).thenReturn(Map.of("Lidl", reference, "Profi", older));
+        when(currentPrices.all()).thenReturn(List.of(reference, older, grams, cheaper, tooExpensive, sameBrand, litres));
 
-        when(productRepo.findById_ProductIdOrderById_DateAsc("P001")).thenReturn(List.of(reference));
-        when(productRepo.findAll()).thenReturn(List.of(reference, variant1, variant2));
+        assertThat(productService.findSubstitutes("P001", 10.0)).containsExactly(cheaper, grams);
+        assertThat(productService.findSubstitutes("P001", 20.0)).containsExactly(cheaper, grams, tooExpensive);
+        verifyNoInteractions(productRepo);
+    }
 
-        List<Product> result = productService.findSubstitutes("P001", 0.0);
+    @Test
+    void getCheapest_shouldCompareGramsAsKilograms() {
+        List<ProductView> cheapest = List.of(view(createProduct("P001", "Lidl", "BrandA", "Dairy", null, LocalDate.now())));
+        when(productRepo.findCheapestViews("kg", "Dairy", Limit.of(5))).thenReturn(cheapest);
 
-        assertThat(result).hasSize(3);
-        assertThat(result).isSortedAccordingTo(Comparator.comparing(Product::getUnitPrice));
-        assertThat(result.get(0).getPrice()).isEqualByComparingTo("1.89");
+        assertThat(productService.getCheapest("G", "Dairy", 5)).isEqualTo(cheapest);
     }
 
     @Test
     void findSubstitutes_whenNoHistory_shouldReturnEmpty() {
-        when(productRepo.findById_ProductIdOrderById_DateAsc("P001")).thenReturn(List.of());
+        when(currentPrices.latest("P001")).thenReturn(Map.of());
 
         List<Product> result = productService.findSubstitutes("P001", 10.0);
 
         assertThat(result).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getPriceHistoryById_whenColumnarCatalogIsCurrent_shouldNotQueryTheRepository() {
+        PriceColumns columns = PriceColumns.builder()
+                .add("P001", "Lidl", LocalDate.of(2025, 5, 1), "lapte", "lactate", "Zuzu", BigDecimal.ONE, "l", new BigDecimal("9.80"), "RON")
+                .build();
+        when(columnar.current()).thenReturn(Optional.of(columns));
+
+        List<Product> result = productService.getPriceHistoryById("P001", "lidl");
+
+        assertThat(result).singleElement().extracting(Product::getPrice).isEqualTo(new BigDecimal("9.80"));
+        verifyNoInteractions(productRepo);
+    }
+
+    @Test
+    void getPriceHistoryById_shouldPutArchivedRowsFirstAndPreferDatabaseRows() {
+        Product archived = new Product(new ProductId("P001", "Lidl", LocalDate.of(2024, 1, 8)), "lapte", "lactate", "Zuzu",
+                BigDecimal.ONE, "l", new BigDecimal("8.90"), "RON");
+        Product stale = new Product(new ProductId("P001", "Lidl", LocalDate.of(2025, 5, 1)), "lapte", "lactate", "Zuzu",
+                BigDecimal.ONE, "l", new BigDecimal("1.00"), "RON");
+        Product recent = new Product(new ProductId("P001", "Lidl", LocalDate.of(2025, 5, 1)), "lapte", "lactate", "Zuzu",
+                BigDecimal.ONE, "l", new BigDecimal("9.80"), "RON");
+        when(productRepo.findById_ProductIdOrderById_DateAsc("P001")).thenReturn(List.of(recent));
+        when(archive.history("P001", null)).thenReturn(List.of(archived, stale));
+
+        assertThat(productService.getPriceHistoryById("P001", null)).containsExactly(archived, recent);
+    }
+
+    @Test
+    void getPriceHistoryById_paged_shouldContinueAfterTheCursorInDateStoreOrder() {
+        LocalDate may1 = LocalDate.of(2025, 5, 1), may8 = LocalDate.of(2025, 5, 8);
+        Product lidl1 = createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, may1);
+        Product kaufland8 = createProduct("P001", "Kaufland", "BrandA", "Dairy", BigDecimal.TEN, may8);
+        Product kaufland1 = createProduct("P001", "Kaufland", "BrandA", "Dairy", BigDecimal.TEN, may1);
+        Product lidl8 = createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, may8);
+        when(productRepo.findHistoryPage("P001", null, Limit.of(4))).thenReturn(List.of(kaufland1, lidl1, kaufland8, lidl8));
+        when(productRepo.findHistoryPageAfter("P001", null, may8, "Kaufland", Limit.of(4))).thenReturn(List.of(lidl8));
+
+        CursorPage<Product> first = productService.getPriceHistoryById("P001", null, null, 3);
+        CursorPage<Product> second = productService.getPriceHistoryById("P001", null, PageCursor.decode(first.nextCursor()), 3);
+
+        assertThat(first.items()).containsExactly(kaufland1, lidl1, kaufland8);
+        assertThat(second.items()).containsExactly(lidl8);
+        assertThat(second.nextCursor()).isNull();
+        verify(productRepo, never()).findById_ProductIdOrderById_DateAsc(any());
+    }
+
+    @Test
+    void getPriceHistoryById_paged_shouldMergeOnlyTheArchivedRowsOfThePage() {
+        LocalDate may1 = LocalDate.of(2025, 5, 1), may8 = LocalDate.of(2025, 5, 8), may15 = LocalDate.of(2025, 5, 15);
+        Product archived = createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, LocalDate.of(2024, 1, 8));
+        Product later = createProduct("P001", "Profi", "BrandA", "Dairy", BigDecimal.TEN, may15);
+        Product lidl1 = createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, may1);
+        Product lidl8 = createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, may8);
+        Product lidl15 = createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, may15);
+        when(productRepo.findHistoryPage("P001", null, Limit.of(3))).thenReturn(List.of(lidl1, lidl8, lidl15));
+        when(archive.history("P001", null, null, may15)).thenReturn(List.of(archived, later));
+
+        CursorPage<Product> page = productService.getPriceHistoryById("P001", null, null, 2);
+
+        assertThat(page.items()).containsExactly(archived, lidl1);
+        assertThat(PageCursor.decode(page.nextCursor())).isEqualTo(PageCursor.of(lidl1.getId()));
+    }
+
+    @Test
+    void getPriceHistoryByName_paged_shouldReadOnePageOfRowsAfterTheCursor() {
+        LocalDate may1 = LocalDate.of(2025, 5, 1), may8 = LocalDate.of(2025, 5, 8);
+        Product lidl1 = createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, may1);
+        Product kaufland8 = createProduct("P001", "Kaufland", "BrandA", "Dairy", BigDecimal.TEN, may8);
+        Product lidl8 = createProduct("P001", "Lidl", "BrandA", "Dairy", BigDecimal.TEN, may8);
+        ProductFilter filter = ProductFilter.byName("sample", null, null, null);
+        when(nameIndex.namesContaining("sample")).thenReturn(Set.of("Sample Product"));
+        doReturn(List.of(kaufland8, lidl8)).when(productRepo).findBy(ArgumentMatchers.<Specification<Product>>any(), any());
+
+        CursorPage<Product> page = productService.getPriceHistoryByName(filter, PageCursor.of(lidl1.getId()), 1);
+
+        assertThat(page.items()).containsExactly(kaufland8);
+        assertThat(PageCursor.decode(page.nextCursor())).isEqualTo(PageCursor.of(kaufland8.getId()));
+        verify(archive).historyByName(filter.within(may1, may8));
+        verify(productRepo, never()).findAll(ArgumentMatchers.<Specification<Product>>any());
+    }
+
+    @Test
+    void getPricesAsOf_shouldAnswerEveryQueryInOrder() {
+        LocalDate may1 = LocalDate.of(2025, 5, 1), may8 = LocalDate.of(2025, 5, 8);
+        PricePoint milk = new PricePoint("P001", "Lidl", may8, may1, new BigDecimal("9.80"), "RON");
+        PricePoint bread = new PricePoint("P002", "Profi", may1, may1, new BigDecimal("4.10"), "RON");
+        when(priceAsOf.priceAsOf("P002", "Profi", may1)).thenReturn(List.of(bread));
+        when(priceAsOf.priceAsOf("P001", null, may8)).thenReturn(List.of(milk));
+        when(priceAsOf.priceAsOf("P003", null, may8)).thenReturn(List.of());
+
+        assertThat(productService.getPricesAsOf(List.of(new PriceAsOfRequest.Query("P002", "Profi", may1),
+                new PriceAsOfRequest.Query("P003", null, may8), new PriceAsOfRequest.Query("P001", null, may8))))
+                .containsExactly(bread, milk);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SubstituteIndexTest {
+
+    private static final LocalDate MAY_8 = LocalDate.of(2025, 5, 8);
+
+    private CurrentPriceProjection currentPrices;
+    private SubstituteIndex index;
+
+    @BeforeEach
+    void setup() {
+        currentPrices = mock(CurrentPriceProjection.class);
+        index = new SubstituteIndex(currentPrices);
+    }
+
+    private static Product product(String id, String category, String brand, String quantity, String unit, String price) {
+        return new Product(new ProductId(id, "Lidl", MAY_8), "name " + id, category, brand, new BigDecimal(quantity),
+                unit, new BigDecimal(price), "RON");
+    }
+
+    @Test
+    void substitutes_shouldCompareMillilitresWithLitres() {
+        Product reference = product("P001", "băuturi", "Borsec", "2", "l", "6.00");
+        Product bottle = product("P002", "bauturi", "Dorna", "500", "ml", "1.55");
+        Product piece = product("P003", "băuturi", "Dorna", "1", "buc", "3.00");
+        when(currentPrices.all()).thenReturn(List.of(reference, bottle, piece));
+
+        assertThat(index.substitutes(reference, 5)).containsExactly(bottle);
+    }
+
+    @Test
+    void substitutes_shouldIncludeTheBoundsOfTheMargin() {
+        Product reference = product("P001", "lactate", "Zuzu", "1", "kg", "10.00");
+        Product low = product("P002", "lactate", "Napolact", "1", "kg", "9.00");
+        Product high = product("P003", "lactate", "Olympus", "0.5", "kg", "5.50");
+        when(currentPrices.all()).thenReturn(List.of(reference, low, high));
+
+        assertThat(index.substitutes(reference, 10)).containsExactly(low, high);
+        assertThat(index.substitutes(reference, 0)).isEmpty();
+    }
+
+    @Test
+    void substitutes_shouldRebuildOnlyAfterTheProjectionChanged() {
+        Product reference = product("P001", "lactate", "Zuzu", "1", "kg", "10.00");
+        Product other = product("P002", "lactate", "Napolact", "1", "kg", "10.00");
+        when(currentPrices.all()).thenReturn(List.of(reference)).thenReturn(List.of(reference, other));
+
+        assertThat(index.substitutes(reference, 10)).isEmpty();
+        assertThat(index.substitutes(reference, 10)).isEmpty();
+        when(currentPrices.version()).thenReturn(1L);
+
+        assertThat(index.substitutes(reference, 10)).containsExactly(other);
+        verify(currentPrices, times(2)).all();
+    }
+
+    @Test
+    void substitutes_withoutAPricePerUnit_shouldReturnEmpty() {
+        Product reference = product("P001", "lactate", "Zuzu", "0", "kg", "10.00");
+
+        assertThat(index.substitutes(reference, 10)).isEmpty();
+        verifyNoInteractions(currentPrices);
+    }
+}
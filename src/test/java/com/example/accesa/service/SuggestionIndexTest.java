@@ -0,0 +1,139 @@
+package com.example.accesa.service;
+
+import com.example.accesa.domain.Product;
+import com.example.accesa.domain.ProductId;
+import com.example.accesa.dto.Suggestion;
+import com.example.accesa.ingest.CatalogChangedEvent;
+import com.example.accesa.repository.CatalogBulkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SuggestionIndexTest {
+
+    private final CatalogBulkRepository bulkRepo = mock(CatalogBulkRepository.class);
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new SuggestionIndex(bulkRepo);
+    }
+
+    private void store(String[]... rows) throws Exception {
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(0);
+            for (String[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(row[0]);
+                when(rs.getString(2)).thenReturn(row[1]);
+                when(rs.getString(3)).thenReturn(row[2]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(bulkRepo).scanProductStores(any());
+    }
+
+    private static Product product(String name, String brand, String store) {
+        return new Product(new ProductId("P001", store, LocalDate.of(2025, 5, 8)), name, "lactate", brand,
+                BigDecimal.ONE, "l", new BigDecimal("9.80"), "RON");
+    }
+
+    @Test
+    void suggest_shouldRankByStoresCarryingTheProduct() throws Exception {
+        store(new String[]{"Lapte praf", "Napolact", "Lidl"},
+                new String[]{"Lapte Zuzu", "Zuzu", "Lidl"},
+                new String[]{"Lapte Zuzu", "Zuzu", "Kaufland"},
+                new String[]{"Lapte Zuzu", "Zuzu", "Profi"},
+                new String[]{"Lapte Zuzu", "Zuzu", "Profi"},
+                new String[]{"Lapte batut", "Zuzu", "Lidl"},
+                new String[]{"Lapte batut", "Zuzu", "Kaufland"});
+
+        assertThat(index.suggest("lap", 10)).containsExactly(
+                new Suggestion("Lapte Zuzu", "Zuzu", 3),
+                new Suggestion("Lapte batut", "Zuzu", 2),
+                new Suggestion("Lapte praf", "Napolact", 1));
+        assertThat(index.suggest("lapte p", 10)).containsExactly(new Suggestion("Lapte praf", "Napolact", 1));
+        assertThat(index.suggest("lap", 1)).hasSize(1);
+        assertThat(index.suggest("zuzu", 10)).isEmpty();
+    }
+
+    @Test
+    void suggest_shouldIgnoreCaseAndDiacriticsAndMergeThePairsThatDifferOnlyInThem() throws Exception {
+        store(new String[]{"Brânză telemea", "Hochland", "Lidl"},
+                new String[]{"Branza Telemea", "HOCHLAND", "Kaufland"});
+
+        assertThat(index.suggest("  BRANZ", 10)).containsExactly(new Suggestion("Brânză telemea", "Hochland", 2));
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void suggest_shouldKeepTheBestPairsOfEveryPrefix() throws Exception {
+        String[][] rows = new String[SuggestionIndex.MAX_SUGGESTIONS + 5][];
+        for (int i = 0; i < rows.length; i++) rows[i] = new String[]{"Item " + i, null, "Lidl"};
+        store(rows);
+        index.suggest("item", 10);
+
+        index.add("Item 14", null, "Kaufland");
+
+        assertThat(index.suggest("item", SuggestionIndex.MAX_SUGGESTIONS)).hasSize(SuggestionIndex.MAX_SUGGESTIONS)
+                .first().isEqualTo(new Suggestion("Item 14", null, 2));
+    }
+
+    @Test
+    void onCatalogChanged_shouldCountNewStoresOnceLoaded() throws Exception {
+        store(new String[]{"Lapte Zuzu", "Zuzu", "Lidl"});
+        index.onCatalogChanged(CatalogChangedEvent.written(List.of(product("Lapte Zuzu", "Zuzu", "Profi"))));
+        assertThat(index.size()).isZero();
+
+        index.suggest("lapte", 10);
+        index.onCatalogChanged(CatalogChangedEvent.written(List.of(product("Lapte Zuzu", "Zuzu", "Profi"),
+                product("Iaurt grecesc", "Olympus", "Profi"))));
+
+        assertThat(index.suggest("lapte", 10)).containsExactly(new Suggestion("Lapte Zuzu", "Zuzu", 2));
+        assertThat(index.suggest("iaurt", 10)).containsExactly(new Suggestion("Iaurt grecesc", "Olympus", 1));
+        verify(bulkRepo, times(1)).scanProductStores(any());
+    }
+
+    @Test
+    void suggest_duringTheLoad_shouldWaitForTheWholeRanking() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            scanning.countDown();
+            release.await();
+            RowCallbackHandler handler = inv.getArgument(0);
+            for (String store : List.of("Lidl", "Kaufland")) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn("Lapte Zuzu");
+                when(rs.getString(2)).thenReturn("Zuzu");
+                when(rs.getString(3)).thenReturn(store);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(bulkRepo).scanProductStores(any());
+        List<Suggestion> seen = new CopyOnWriteArrayList<>();
+
+        Thread loading = Thread.ofPlatform().start(() -> index.suggest("lapte", 10));
+        scanning.await();
+        index.onCatalogChanged(CatalogChangedEvent.written(List.of(product("Lapte Zuzu", "Zuzu", "Profi"))));
+        Thread lookup = Thread.ofPlatform().start(() -> seen.addAll(index.suggest("lapte", 10)));
+        lookup.join(200);
+        assertThat(lookup.isAlive()).isTrue();
+
+        release.countDown();
+        loading.join();
+        lookup.join();
+        assertThat(seen).containsExactly(new Suggestion("Lapte Zuzu", "Zuzu", 3));
+    }
+}